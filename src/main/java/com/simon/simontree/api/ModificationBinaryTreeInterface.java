@@ -3,16 +3,28 @@ package com.simon.simontree.api;
 import com.simon.simontree.model.Modification;
 import com.simon.simontree.model.ModificationBinaryTree;
 import com.simon.simontree.model.ModificationGroup;
+import com.simon.simontree.model.RangeAggregate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Defines a thread-safe binary tree that stores {@link ModificationGroup} objects
  * with customizable sorting logic. Implementations must support multiple tree traversal methods,
  * level-based operations, and maintain thread safety during structural modifications.
- * Full documentation can be found in the implementation {@link ModificationBinaryTree}.
+ * Full documentation can be found in the implementation {@link ModificationBinaryTree}, a persistent implementation with O(1) snapshots is
+ * {@link com.simon.simontree.model.PersistentModificationBinaryTree}, a lock-free skip list engine is {@link com.simon.simontree.model.SkipListModificationTree}.
  */
 public interface ModificationBinaryTreeInterface {
 
@@ -35,7 +47,85 @@ public interface ModificationBinaryTreeInterface {
     void insert(ModificationGroup modificationGroup);
 
     /**
-     * Finds the node containing the specified modification group using BFS(Breadth-first Search).
+     * Inserts every modification group of the collection. The default implementation inserts them one by one, so a failing element leaves
+     * the elements before it inserted. {@link ModificationBinaryTree} and {@link com.simon.simontree.model.PersistentModificationBinaryTree}
+     * override it with an all or nothing bulk load.
+     *
+     * @param modificationGroups The groups to insert (cannot be null or contain null)
+     * @throws NullPointerException  if modificationGroups is null or contains null
+     * @throws IllegalStateException if a group is already in the tree
+     */
+    default void insertAll(Collection<ModificationGroup> modificationGroups) {
+        Objects.requireNonNull(modificationGroups, "Collection of ModificationGroups cannot be null");
+        for (ModificationGroup modificationGroup : modificationGroups) {
+            insert(modificationGroup);
+        }
+    }
+
+    /**
+     * Removes a modification group from the tree while maintaining the sorting order.
+     *
+     * @param modificationGroup The group to remove (cannot be null)
+     * @return true if the group was removed, false if it was not in the tree
+     * @throws NullPointerException if modificationGroup is null
+     */
+    boolean removeModificationGroup(ModificationGroup modificationGroup);
+
+    /**
+     * Removes every modification group of the collection, which is in the tree. The default implementation removes them one by one.
+     * {@link ModificationBinaryTree} and {@link com.simon.simontree.model.PersistentModificationBinaryTree} override it with a single pass,
+     * which fixes the aggregates and levels once, at the end.
+     *
+     * @param modificationGroups The groups to remove (cannot be null or contain null)
+     * @return List of the removed groups
+     * @throws NullPointerException if modificationGroups is null or contains null
+     */
+    default List<ModificationGroup> removeAll(Collection<ModificationGroup> modificationGroups) {
+        Objects.requireNonNull(modificationGroups, "Collection of ModificationGroups cannot be null");
+        List<ModificationGroup> removed = new ArrayList<>();
+        for (ModificationGroup modificationGroup : modificationGroups) {
+            if (removeModificationGroup(modificationGroup)) {
+                removed.add(modificationGroup);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every modification group matching the predicate. The default implementation filters {@link #getAllModificationGroups()} and calls removeAll.
+     *
+     * @param filter The predicate selecting the groups to remove (cannot be null)
+     * @return List of the removed groups
+     * @throws NullPointerException if filter is null
+     */
+    default List<ModificationGroup> removeIf(Predicate<ModificationGroup> filter) {
+        Objects.requireNonNull(filter, "Predicate cannot be null");
+        List<ModificationGroup> matching = new ArrayList<>();
+        for (ModificationGroup modificationGroup : getAllModificationGroups()) {
+            if (filter.test(modificationGroup)) {
+                matching.add(modificationGroup);
+            }
+        }
+        return removeAll(matching);
+    }
+
+    /**
+     * Removes every modification group with a sorting key between the given keys. A null key leaves that side unbounded.
+     * The default implementation calls removeAll with the result of {@link #getModificationGroupsInRange}.
+     *
+     * @param fromKey       The lower bound, or null, a String or a Number as for {@link #floor(Object)}
+     * @param fromInclusive Whether groups with a key equal to fromKey are removed
+     * @param toKey         The upper bound, or null
+     * @param toInclusive   Whether groups with a key equal to toKey are removed
+     * @return List of the removed groups
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the sorting logic
+     */
+    default List<ModificationGroup> removeRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        return removeAll(getModificationGroupsInRange(fromKey, fromInclusive, toKey, toInclusive));
+    }
+
+    /**
+     * Finds the node containing the specified modification group by its modificationGroupId.
      * Public method, therefore nullPointerException can still occur here, despite the Objects.requireNonNull further up the chain.
      *
      * @param modificationGroup The modification group to find (non-null)
@@ -43,10 +133,10 @@ public interface ModificationBinaryTreeInterface {
      * @throws NullPointerException   if modificationGroup is null
      * @throws NoSuchElementException if modificationGroup is not found or tree is empty
      */
-    ModificationBinaryTree.Node searchNodesForModificationGroup(ModificationGroup modificationGroup);
+    Node searchNodesForModificationGroup(ModificationGroup modificationGroup);
 
     /**
-     * Finds the node containing the specified modification using BFS (Breadth-first Search).
+     * Finds the node of the ModificationGroup containing the specified modification by its modificationId.
      * Public method, therefore nullPointerException can still occur here, despite the Objects.requireNonNull further up the chain.
      *
      * @param modification The modification to find
@@ -54,10 +144,10 @@ public interface ModificationBinaryTreeInterface {
      * @throws NullPointerException   if modification is null
      * @throws NoSuchElementException if tree is empty or modification not found
      */
-    ModificationBinaryTree.Node searchNodesForModifications(Modification modification);
+    Node searchNodesForModifications(Modification modification);
 
     /**
-     * Finds the tree level of the specified ModificationGroup. If not successful uses BFS.
+     * Finds the tree level of the specified ModificationGroup by its modificationGroupId.
      *
      * @param modificationGroup The group to locate (non-null)
      * @return The level (root = 0), or -1 if not found
@@ -82,6 +172,34 @@ public interface ModificationBinaryTreeInterface {
      */
     Set<Modification> getModificationsOfGivenModificationGroupAndItsChildren(ModificationGroup modificationGroup);
 
+    /**
+     * Counts the modifications of a group and of every group below it in the tree, a modification of more groups is counted in each of them.
+     * Only engines, which link their groups ({@link #linksModificationGroups()}), have groups below a group, so the default throws.
+     *
+     * @param modificationGroup The starting group (cannot be null)
+     * @return The number of modifications in the subtree
+     * @throws NullPointerException          if modificationGroup is null
+     * @throws NoSuchElementException        if the group is not found
+     * @throws UnsupportedOperationException if the engine does not link the groups
+     */
+    default long countModificationsOfGivenModificationGroupAndItsChildren(ModificationGroup modificationGroup) {
+        throw new UnsupportedOperationException("Subtree aggregation needs an engine, which links the ModificationGroups, like BINARY_TREE");
+    }
+
+    /**
+     * Recalculates the cost of a group and of every group below it in the tree from their current costs,
+     * the value {@link ModificationGroup#getSubtreeCost()} is maintained incrementally. The default throws, see countModificationsOfGivenModificationGroupAndItsChildren().
+     *
+     * @param modificationGroup The starting group (cannot be null)
+     * @return The recalculated subtree cost
+     * @throws NullPointerException          if modificationGroup is null
+     * @throws NoSuchElementException        if the group is not found
+     * @throws UnsupportedOperationException if the engine does not link the groups
+     */
+    default long calculateSubtreeCost(ModificationGroup modificationGroup) {
+        throw new UnsupportedOperationException("Subtree aggregation needs an engine, which links the ModificationGroups, like BINARY_TREE");
+    }
+
     /**
      * Finds a modification by ID at a specific tree level.
      *
@@ -116,6 +234,207 @@ public interface ModificationBinaryTreeInterface {
      */
     void printTreeStructure();
 
+    /**
+     * Returns the Node at level 0, or null if the tree is empty.
+     */
+    Node getRoot();
+
+    /**
+     * Returns every modification group stored in the tree.
+     */
+    Collection<ModificationGroup> getAllModificationGroups();
+
+    /**
+     * Returns the number of levels of the tree, -1 if the tree is empty. Every engine follows {@link ModificationBinaryTree}:
+     * a tree with every group on level 0 (e.g. a single root) has 0 levels, otherwise the number of levels is the deepest level + 1.
+     */
+    int getTotalNumberOfLevels();
+
+    /**
+     * Registers a listener, which is notified after ModificationGroups were inserted into or removed from the tree by any write method.
+     * Registering the same listener again changes nothing.
+     *
+     * @param listener The listener to register (cannot be null)
+     * @throws NullPointerException if listener is null
+     */
+    void addModificationTreeListener(ModificationTreeListener listener);
+
+    /**
+     * Unregisters a listener, registered via addModificationTreeListener.
+     *
+     * @param listener The listener to unregister
+     * @return true if the listener was registered
+     */
+    boolean removeModificationTreeListener(ModificationTreeListener listener);
+
+    /**
+     * Returns whether the engine links the ModificationGroups as parent and child ({@link ModificationGroup#addChildModificationGroup}), so the
+     * subtree totals of a ModificationGroup ({@link ModificationGroup#getSubtreeCost()}) cover the groups below it in the tree.
+     * The default is false, only {@link ModificationBinaryTree} links its groups.
+     */
+    default boolean linksModificationGroups() {
+        return false;
+    }
+
+    /**
+     * Returns the rank of a modification group in the sorting order of the tree, the number of groups sorted before it.
+     *
+     * @param modificationGroup The group to rank (non-null)
+     * @return The 0-based rank (smallest key = 0)
+     * @throws NullPointerException   if modificationGroup is null
+     * @throws NoSuchElementException if the group is not found
+     */
+    int rank(ModificationGroup modificationGroup);
+
+    /**
+     * Returns the modification group with the given rank in the sorting order of the tree.
+     *
+     * @param rank The 0-based rank (smallest key = 0)
+     * @return The modification group with the given rank
+     * @throws IllegalArgumentException if rank is negative or not smaller than the number of groups
+     */
+    ModificationGroup select(int rank);
+
+    /**
+     * Returns the modification group at the given percentile of the sorting order of the tree, using the nearest-rank method:
+     * the smallest group which is at least as big as percent percent of the groups.
+     *
+     * @param percent The percentile, between 0 and 100
+     * @return The modification group at the percentile
+     * @throws IllegalArgumentException if percent is not between 0 and 100
+     * @throws NoSuchElementException   if the tree is empty
+     */
+    ModificationGroup percentile(double percent);
+
+    /**
+     * Returns the modification group with the biggest sorting key smaller than or equal to the given key.
+     * Keys are a String for {@link com.simon.simontree.enums.TreeLogic#NAME} and a Number for PRIORITY and TOTAL_COST.
+     *
+     * @param key The key to search for (non-null)
+     * @return The modification group, or null if there is none
+     * @throws NullPointerException     if key is null
+     * @throws IllegalArgumentException if the type of the key does not match the sorting logic
+     */
+    ModificationGroup floor(Object key);
+
+    /**
+     * Returns the modification group with the smallest sorting key bigger than or equal to the given key.
+     *
+     * @param key The key to search for (non-null), a String or a Number as for {@link #floor(Object)}
+     * @return The modification group, or null if there is none
+     * @throws NullPointerException     if key is null
+     * @throws IllegalArgumentException if the type of the key does not match the sorting logic
+     */
+    ModificationGroup ceiling(Object key);
+
+    /**
+     * Returns the modification groups with a sorting key between the given keys, in sorting order. A null key leaves that side unbounded.
+     *
+     * @param fromKey       The lower bound, or null
+     * @param fromInclusive Whether groups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null
+     * @param toInclusive   Whether groups with a key equal to toKey are included
+     * @return List of the modification groups in the range, ascending
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the sorting logic
+     */
+    List<ModificationGroup> getModificationGroupsInRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive);
+
+    /**
+     * Returns the modification groups with a sorting key smaller than (or equal to, if inclusive) the given key, in sorting order.
+     *
+     * @param toKey     The upper bound (non-null)
+     * @param inclusive Whether groups with a key equal to toKey are included
+     * @return List of the modification groups, ascending
+     */
+    default List<ModificationGroup> getModificationGroupsBefore(Object toKey, boolean inclusive) {
+        return getModificationGroupsInRange(null, false, Objects.requireNonNull(toKey, "Key cannot be null"), inclusive);
+    }
+
+    /**
+     * Returns the modification groups with a sorting key bigger than (or equal to, if inclusive) the given key, in sorting order.
+     *
+     * @param fromKey   The lower bound (non-null)
+     * @param inclusive Whether groups with a key equal to fromKey are included
+     * @return List of the modification groups, ascending
+     */
+    default List<ModificationGroup> getModificationGroupsAfter(Object fromKey, boolean inclusive) {
+        return getModificationGroupsInRange(Objects.requireNonNull(fromKey, "Key cannot be null"), inclusive, null, false);
+    }
+
+    /**
+     * Returns an iterator over the modification groups with a sorting key between the given keys, in sorting order.
+     * The groups are found one by one, so stopping early costs nothing for the rest of the range. A null key leaves that side unbounded.
+     *
+     * @param fromKey       The lower bound, or null
+     * @param fromInclusive Whether groups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null
+     * @param toInclusive   Whether groups with a key equal to toKey are included
+     * @return Iterator over the modification groups in the range, ascending
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the sorting logic
+     */
+    Iterator<ModificationGroup> rangeIterator(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive);
+
+    /**
+     * Returns a Spliterator over the modification groups in sorting order. The default implementation wraps {@link #rangeIterator} without bounds,
+     * so it does not know its size and splits by copying batches. The engines override it: {@link ModificationBinaryTree} walks its nodes lazily
+     * and splits on the subtrees by rank, sized while the tree is not written, {@link com.simon.simontree.model.PersistentModificationBinaryTree}
+     * does the same on its immutable version, always sized, and {@link com.simon.simontree.model.SkipListModificationTree} splits its bottom lane.
+     *
+     * @return Spliterator over all modification groups, ascending
+     */
+    default Spliterator<ModificationGroup> spliterator() {
+        return Spliterators.spliteratorUnknownSize(rangeIterator(null, false, null, false), Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    /**
+     * Returns a sequential stream of the modification groups in sorting order, backed by {@link #spliterator()}.
+     *
+     * @return Stream of all modification groups
+     */
+    default Stream<ModificationGroup> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream of the modification groups in sorting order, backed by {@link #spliterator()}.
+     * The pipeline runs in the pool it is started from, start it from a task of a dedicated ForkJoinPool to keep it off the common pool.
+     *
+     * @return Parallel stream of all modification groups
+     */
+    default Stream<ModificationGroup> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Returns a stream of the Modifications of every modification group, group after group in sorting order. The Modifications of a group
+     * are copied under its modifications lock, so a concurrent change of a group cannot break the stream.
+     * A Modification shared by several groups appears once per group.
+     *
+     * @param parallel Whether the stream is parallel, the groups are split like in {@link #parallelStream()}
+     * @return Stream of the Modifications of all modification groups
+     */
+    default Stream<Modification> modificationStream(boolean parallel) {
+        Stream<ModificationGroup> groups = parallel ? parallelStream() : stream();
+        return groups.flatMap(modificationGroup -> {
+            synchronized (modificationGroup.getModificationsLock()) {
+                return List.copyOf(modificationGroup.getModifications()).stream();
+            }
+        });
+    }
+
+    /**
+     * Returns the number of modification groups with a sorting key between the given keys, and the sum and the maximum of their cost and priority value.
+     * A null key leaves that side unbounded.
+     *
+     * @param fromKey       The lower bound, or null, a String or a Number as for {@link #floor(Object)}
+     * @param fromInclusive Whether groups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null
+     * @param toInclusive   Whether groups with a key equal to toKey are included
+     * @return The aggregates of the range
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the sorting logic
+     */
+    RangeAggregate aggregateRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive);
+
     /**
      * Nested interface representing a node in the binary tree structure.
      */
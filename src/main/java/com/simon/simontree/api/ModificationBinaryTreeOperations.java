@@ -1,13 +1,23 @@
 package com.simon.simontree.api;
 
+import com.simon.simontree.enums.TreeEngine;
+import com.simon.simontree.enums.TreeLogic;
 import com.simon.simontree.model.Modification;
 import com.simon.simontree.model.ModificationBinaryTree;
 import com.simon.simontree.model.ModificationGroup;
+import com.simon.simontree.model.MultiIndexModificationTree;
+import com.simon.simontree.model.PersistentModificationBinaryTree;
+import com.simon.simontree.model.RangeAggregate;
+import com.simon.simontree.model.SkipListModificationTree;
+import com.simon.simontree.model.SortedModificationViews;
 import com.simon.simontree.util.HelperMethods;
+import com.simon.simontree.util.ParallelExecutionPolicy;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -25,18 +35,18 @@ import java.util.stream.Collectors;
  * 4., add {@link ModificationGroup}s to ModificationBinaryTree
  * 5., Instantiate {@link ModificationBinaryTreeOperations}, pass ModificationBinaryTree to constructor
  * 6., use insert() method of ModificationBinaryTreeOperations instance to add a ModificationGroups
+ * Instead of steps 3.-5. the engine can be chosen by configuration via the enum {@link TreeEngine}, e.g. new ModificationBinaryTreeOperations(TreeEngine.SKIP_LIST, TreeLogic.PRIORITY)
  *
  * <p>Null checks:
  * <ul>
  *   <li>null-checked queuOfModificationGroups</li>
- *   <li>null-checked setOfAllModifications</li>
  * </ul>
  *
  * <p>Key characteristics:
  * <ul>
  *   <li>Level-based element retrieval</li>
  *   <li>Cost and priority calculations</li>
- *   <li>Sorting operations for modifications and groups</li>
+ *   <li>Sorting operations for modifications and groups, backed by one ordered index of the groups per sorting logic and live sorted views of the modifications, updated in O(log n) per change</li>
  *   <li>Thread-safe operations</li>
  * </ul>
  *
@@ -47,37 +57,85 @@ import java.util.stream.Collectors;
  */
 public class ModificationBinaryTreeOperations implements ModificationBinaryTreeOperationsInterface, ModificationBinaryTreeInterface {
     /**
-     * The binary tree instance this operations class works with
+     * The tree engine this operations class works with, {@link ModificationBinaryTree} or any other {@link ModificationBinaryTreeInterface} implementation
      */
-    private final ModificationBinaryTree modificationBinaryTree;
+    private final ModificationBinaryTreeInterface modificationBinaryTree;
     /**
      * Thread-safe queue of modification groups
      */
     private final Queue<ModificationGroup> queueOfModificationGroups = new ConcurrentLinkedQueue<>();
+    /**
+     * Thread-safe set of the same modification groups as queueOfModificationGroups, for the O(1) duplicate check on insert
+     */
+    private final Set<ModificationGroup> modificationGroupsInQueue = ConcurrentHashMap.newKeySet();
     /**
      * AtomicInteger for calculating total number of levels in the tree, but increment in ModificationBinaryTree
      */
     private final AtomicInteger totalNumberOfLevels = new AtomicInteger(0);
     /**
-     * Instance of the HelperMethod class, which implements singleton.
+     * Decides whether the stream pipelines of this instance run sequentially or in parallel, and in which pool, see {@link HelperMethods}.
+     * Every instance has its own, volatile, so a new policy is seen by every thread.
+     */
+    private volatile ParallelExecutionPolicy parallelExecutionPolicy = ParallelExecutionPolicy.defaultPolicy();
+    /**
+     * Live sorted views of the Modifications of the tree, filled by multiIndexModificationTree, see {@link SortedModificationViews}
      */
-    private final HelperMethods helperMethods = HelperMethods.getInstance();
+    private final SortedModificationViews sortedModificationViews = new SortedModificationViews();
     /**
-     * Set containing all Modifications in the tree, calcualted freshly, upon sue, in the relevant method, from values from ModificationBinaryTree
+     * The ModificationGroups of the tree in one ordered index per sorting logic, updated by a {@link ModificationTreeListener} of the tree
+     * on every insert and removal, also the ones done on the tree directly. The only ordering of the ModificationGroups, the sorted lists,
+     * views and top-k queries of ModificationGroups are read from it, see {@link MultiIndexModificationTree}
      */
-    private Set<Modification> setOfAllModifications = new HashSet<>();
+    private final MultiIndexModificationTree multiIndexModificationTree = new MultiIndexModificationTree(sortedModificationViews);
+    /**
+     * The ModificationGroups in multiIndexModificationTree by modificationGroupId, only changed by syncSortedViews()
+     */
+    private final Map<Integer, ModificationGroup> modificationGroupsInSortedViews = new ConcurrentHashMap<>();
 
     /**
      * Constructs a new ModificationBinaryTreeOperations object with a set of modifications and a name.
      * Auto-increments totalNumberOfLevels.
      *
-     * @param modificationBinaryTree ModificationBinaryTree instance, that you need for background calculations
+     * @param modificationBinaryTree tree engine instance, that you need for background calculations
      * @throws NullPointerException if modificationBinaryTree is null
      */
-    public ModificationBinaryTreeOperations(ModificationBinaryTree modificationBinaryTree) {
+    public ModificationBinaryTreeOperations(ModificationBinaryTreeInterface modificationBinaryTree) {
         Objects.requireNonNull(modificationBinaryTree, "ModificationBinaryTree cannot be null");
         this.modificationBinaryTree = modificationBinaryTree;
         this.totalNumberOfLevels.set(modificationBinaryTree.getTotalNumberOfLevels());
+        modificationBinaryTree.addModificationTreeListener(new SortedViewUpdater());
+        modificationBinaryTree.getAllModificationGroups().forEach(this::syncSortedViews); // registered first, so no insert is missed
+    }
+
+    /**
+     * Constructs a new ModificationBinaryTreeOperations object with a new, empty tree engine, so the engine can be chosen by configuration.
+     * The sorted order, the searches, the range queries, the removals, the sorted views and the level count give the same results with every engine.
+     * The derived levels and paths follow the structure of the engine, the subtree totals need the links of BINARY_TREE and throw
+     * UnsupportedOperationException otherwise, and PERSISTENT keeps the sorting keys of insertion, while the other engines re-key changed groups.
+     *
+     * @param treeEngine enum, which defines the tree engine (binary tree, persistent, skip list)
+     * @param treeLogic  enum, which defines the sorting logic of the tree (name, priority, total cost)
+     * @throws NullPointerException if treeEngine or treeLogic is null
+     */
+    public ModificationBinaryTreeOperations(TreeEngine treeEngine, TreeLogic treeLogic) {
+        this(createTreeEngine(treeEngine, treeLogic));
+    }
+
+    /**
+     * Helper method, creates an empty tree engine with the given sorting logic.
+     */
+    private static ModificationBinaryTreeInterface createTreeEngine(TreeEngine treeEngine, TreeLogic treeLogic) {
+        Objects.requireNonNull(treeEngine, "TreeEngine cannot be null");
+        switch (treeEngine) {
+            case BINARY_TREE:
+                return new ModificationBinaryTree(treeLogic);
+            case PERSISTENT:
+                return new PersistentModificationBinaryTree(treeLogic);
+            case SKIP_LIST:
+                return new SkipListModificationTree(treeLogic);
+            default:
+                throw new IllegalStateException("Unknown tree engine: " + treeEngine);
+        }
     }
 
     /**
@@ -86,16 +144,43 @@ public class ModificationBinaryTreeOperations implements ModificationBinaryTreeO
     public void insert(ModificationGroup modificationGroup) {
         Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
 
+        if (!modificationGroupsInQueue.add(modificationGroup)) {
+            System.err.println("Warning: ModificationGroup already in queue: " + modificationGroup.getName());
+            return;
+        }
         try {
-            if (queueOfModificationGroups.contains(modificationGroup)) {
-                System.err.println("Warning: ModificationGroup already in queue: " + modificationGroup.getName());
-                return;
-            }
-
             modificationBinaryTree.insert(modificationGroup);
             queueOfModificationGroups.add(modificationGroup);
 
         } catch (IllegalStateException e) {
+            modificationGroupsInQueue.remove(modificationGroup);
+            System.err.println("Insert failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Calls the insertAll method of the tree engine, which bulk loads the ModificationGroups under one lock, you can find the documentation
+     * in the {@link ModificationBinaryTree} class. ModificationGroups which are already in the queue are skipped with a warning, like in insert.
+     */
+    @Override
+    public void insertAll(Collection<ModificationGroup> modificationGroups) {
+        Objects.requireNonNull(modificationGroups, "Collection of ModificationGroups cannot be null");
+
+        List<ModificationGroup> newModificationGroups = new ArrayList<>(modificationGroups.size());
+        for (ModificationGroup modificationGroup : modificationGroups) {
+            Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+            if (modificationGroupsInQueue.add(modificationGroup)) {
+                newModificationGroups.add(modificationGroup);
+            } else {
+                System.err.println("Warning: ModificationGroup already in queue: " + modificationGroup.getName());
+            }
+        }
+        try {
+            modificationBinaryTree.insertAll(newModificationGroups);
+            queueOfModificationGroups.addAll(newModificationGroups);
+
+        } catch (IllegalStateException e) {
+            modificationGroupsInQueue.removeAll(newModificationGroups);
             System.err.println("Insert failed: " + e.getMessage());
         }
     }
@@ -104,7 +189,7 @@ public class ModificationBinaryTreeOperations implements ModificationBinaryTreeO
      * {@inheritDoc}
      */
     @Override
-    public ModificationBinaryTree.Node searchNodesForModificationGroup(ModificationGroup modificationGroup) {
+    public Node searchNodesForModificationGroup(ModificationGroup modificationGroup) {
         return modificationBinaryTree.searchNodesForModificationGroup(modificationGroup);
     }
 
@@ -112,7 +197,7 @@ public class ModificationBinaryTreeOperations implements ModificationBinaryTreeO
      * {@inheritDoc}
      */
     @Override
-    public ModificationBinaryTree.Node searchNodesForModifications(Modification modification) {
+    public Node searchNodesForModifications(Modification modification) {
         return modificationBinaryTree.searchNodesForModifications(modification);
     }
 
@@ -135,10 +220,51 @@ public class ModificationBinaryTreeOperations implements ModificationBinaryTreeO
     /**
      * Calls the remove method of ModificationBinaryTree, you can find the documentation in the {@link ModificationBinaryTree} class
      */
+    @Override
     public boolean removeModificationGroup(ModificationGroup modificationGroup) {
         boolean removed = modificationBinaryTree.removeModificationGroup(modificationGroup);
         if (removed) {
             queueOfModificationGroups.remove(modificationGroup);
+            modificationGroupsInQueue.remove(modificationGroup);
+        }
+        return removed;
+    }
+
+    /**
+     * Calls the removeAll method of the tree engine and drops the removed ModificationGroups from the queue in one pass,
+     * you can find the documentation in the {@link ModificationBinaryTree} class
+     */
+    @Override
+    public List<ModificationGroup> removeAll(Collection<ModificationGroup> modificationGroups) {
+        return forgetRemoved(modificationBinaryTree.removeAll(modificationGroups));
+    }
+
+    /**
+     * Calls the removeIf method of the tree engine and drops the removed ModificationGroups from the queue in one pass,
+     * you can find the documentation in the {@link ModificationBinaryTree} class
+     */
+    @Override
+    public List<ModificationGroup> removeIf(Predicate<ModificationGroup> filter) {
+        return forgetRemoved(modificationBinaryTree.removeIf(filter));
+    }
+
+    /**
+     * Calls the removeRange method of the tree engine and drops the removed ModificationGroups from the queue in one pass,
+     * you can find the documentation in the {@link ModificationBinaryTree} class
+     */
+    @Override
+    public List<ModificationGroup> removeRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        return forgetRemoved(modificationBinaryTree.removeRange(fromKey, fromInclusive, toKey, toInclusive));
+    }
+
+    /**
+     * Helper method, removes the ModificationGroups removed from the tree from the queue and from the duplicate check set.
+     */
+    private List<ModificationGroup> forgetRemoved(List<ModificationGroup> removed) {
+        if (!removed.isEmpty()) {
+            Set<ModificationGroup> removedGroups = new HashSet<>(removed);
+            queueOfModificationGroups.removeIf(removedGroups::contains);
+            modificationGroupsInQueue.removeAll(removedGroups);
         }
         return removed;
     }
@@ -191,11 +317,7 @@ public class ModificationBinaryTreeOperations implements ModificationBinaryTreeO
         }
         Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
         Set<ModificationGroup> listOfModificationGroupsOnGivenLevel = modificationBinaryTree.getListOfModificationGroupsOnGivenLevel(modificationGroup, level);
-        if (helperMethods.shouldUseParallel(listOfModificationGroupsOnGivenLevel)) {
-            return listOfModificationGroupsOnGivenLevel.parallelStream().mapToLong(mg -> mg.getCost()).sum();
-        } else {
-            return listOfModificationGroupsOnGivenLevel.parallelStream().mapToLong(mg -> mg.getCost()).sum();
-        }
+        return parallelExecutionPolicy.execute(listOfModificationGroupsOnGivenLevel, stream -> stream.mapToLong(mg -> mg.getCost()).sum());
     }
 
     /**
@@ -212,11 +334,29 @@ public class ModificationBinaryTreeOperations implements ModificationBinaryTreeO
     }
 
     /**
-     * Returns the sum of the total cost of all Modification of the given ModificationGroup and its children. It uses BFS.
-     * This only calls the method in the ModificationBinaryTree class.
+     * {@inheritDoc}
+     */
+    @Override
+    public long countModificationsOfGivenModificationGroupAndItsChildren(ModificationGroup modificationGroup) {
+        return modificationBinaryTree.countModificationsOfGivenModificationGroupAndItsChildren(modificationGroup);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long calculateSubtreeCost(ModificationGroup modificationGroup) {
+        return modificationBinaryTree.calculateSubtreeCost(modificationGroup);
+    }
+
+    /**
+     * Returns the sum of the total cost of all Modification of the given ModificationGroup and its children, see getModificationsOfGivenModificationGroupAndItsChildren().
+     * The Modifications are collected into a Set first, so a Modification shared by more ModificationGroups is counted once,
+     * and group level cost calculation (e.g. {@link com.simon.simontree.model.DiscountedModificationGroup}) is not applied.
+     * For the O(1) rollup of the group costs use getSubtreeCostOfGivenModificationGroup().
      *
      * @param modificationGroup The ModificationGroup, which will be investigated
-     * @return Set<Modification> of all Modification of this ModificationGroup and its' children
+     * @return The sum of the total cost of the distinct Modifications
      * @throws NullPointerException   if modificationGroup is null
      * @throws NoSuchElementException if the group is not found in the tree
      */
@@ -230,6 +370,53 @@ public class ModificationBinaryTreeOperations implements ModificationBinaryTreeO
         }
     }
 
+    /**
+     * Returns the sum of the cost of the given ModificationGroup and every child ModificationGroup below it.
+     * The subtree cost is maintained incrementally by {@link ModificationGroup}, so this is an O(1) read after the membership check.
+     * Unlike getTotalCostOfModificationsOfGivenModificationGroupAndItsChildren(), it sums the cost of the groups: group level cost calculation
+     * (e.g. {@link com.simon.simontree.model.DiscountedModificationGroup}) is applied, and a Modification which belongs to more ModificationGroups
+     * is counted in each of them.
+     *
+     * @param modificationGroup The ModificationGroup, which will be investigated
+     * @return The subtree cost of the ModificationGroup
+     * @throws NullPointerException          if modificationGroup is null
+     * @throws NoSuchElementException        if the group is not found in the tree
+     * @throws UnsupportedOperationException if the engine does not link the ModificationGroups, see {@link ModificationBinaryTreeInterface#linksModificationGroups()}
+     */
+    public long getSubtreeCostOfGivenModificationGroup(ModificationGroup modificationGroup) throws NoSuchElementException {
+        checkContains(modificationGroup);
+        return modificationGroup.getSubtreeCost();
+    }
+
+    /**
+     * Returns the sum of the priority value of the given ModificationGroup and every child ModificationGroup below it,
+     * an O(1) read after the membership check, see getSubtreeCostOfGivenModificationGroup().
+     *
+     * @param modificationGroup The ModificationGroup, which will be investigated
+     * @return The subtree priority value of the ModificationGroup
+     * @throws NullPointerException          if modificationGroup is null
+     * @throws NoSuchElementException        if the group is not found in the tree
+     * @throws UnsupportedOperationException if the engine does not link the ModificationGroups, see {@link ModificationBinaryTreeInterface#linksModificationGroups()}
+     */
+    public long getSubtreePriorityValueOfGivenModificationGroup(ModificationGroup modificationGroup) throws NoSuchElementException {
+        checkContains(modificationGroup);
+        return modificationGroup.getSubtreePriorityValue();
+    }
+
+    /**
+     * Helper method, throws NoSuchElementException if the ModificationGroup is not in the tree, and UnsupportedOperationException
+     * if the engine does not link the ModificationGroups, so the subtree totals would only contain the values of the group itself.
+     */
+    private void checkContains(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        if (!modificationBinaryTree.linksModificationGroups()) {
+            throw new UnsupportedOperationException("Subtree totals need an engine, which links the ModificationGroups, like BINARY_TREE");
+        }
+        if (modificationBinaryTree.getLevelNumberOfModificationGroup(modificationGroup) < 0) {
+            throw new NoSuchElementException("ModificationGroup not found in tree");
+        }
+    }
+
     public String getTreePath(ModificationGroup modificationGroup) {
         return modificationBinaryTree.getTreePath(modificationGroup);
     }
@@ -308,10 +495,123 @@ public class ModificationBinaryTreeOperations implements ModificationBinaryTreeO
     /**
      * {@inheritDoc}
      */
+    @Override
     public int getTotalNumberOfLevels() {
         return modificationBinaryTree.getTotalNumberOfLevels(); // Always fresh
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Node getRoot() {
+        return modificationBinaryTree.getRoot();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int rank(ModificationGroup modificationGroup) {
+        return modificationBinaryTree.rank(modificationGroup);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModificationGroup select(int rank) {
+        return modificationBinaryTree.select(rank);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModificationGroup percentile(double percent) {
+        return modificationBinaryTree.percentile(percent);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModificationGroup floor(Object key) {
+        return modificationBinaryTree.floor(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ModificationGroup ceiling(Object key) {
+        return modificationBinaryTree.ceiling(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ModificationGroup> getModificationGroupsInRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        return modificationBinaryTree.getModificationGroupsInRange(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<ModificationGroup> rangeIterator(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        return modificationBinaryTree.rangeIterator(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator<ModificationGroup> spliterator() {
+        return modificationBinaryTree.spliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean linksModificationGroups() {
+        return modificationBinaryTree.linksModificationGroups();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addModificationTreeListener(ModificationTreeListener listener) {
+        modificationBinaryTree.addModificationTreeListener(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean removeModificationTreeListener(ModificationTreeListener listener) {
+        return modificationBinaryTree.removeModificationTreeListener(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RangeAggregate aggregateRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        return modificationBinaryTree.aggregateRange(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<ModificationGroup> getAllModificationGroups() {
+        return modificationBinaryTree.getAllModificationGroups();
+    }
+
     private void validateLevelDRYComponent(int level) throws IllegalArgumentException {
         if (level < 0 || getTotalNumberOfLevels() <= level) {
             throw new IllegalArgumentException(
@@ -320,7 +620,7 @@ public class ModificationBinaryTreeOperations implements ModificationBinaryTreeO
         }
     }
 
-    public ModificationBinaryTree getCustomModificationBinaryTree() {
+    public ModificationBinaryTreeInterface getCustomModificationBinaryTree() {
         return modificationBinaryTree;
     }
 
@@ -328,41 +628,51 @@ public class ModificationBinaryTreeOperations implements ModificationBinaryTreeO
         return queueOfModificationGroups;
     }
 
+    public ParallelExecutionPolicy getParallelExecutionPolicy() {
+        return parallelExecutionPolicy;
+    }
+
+    /**
+     * Replaces the policy of the stream pipelines of this instance, e.g. with a calibrated one: ParallelExecutionPolicy.calibrate(new ForkJoinPool(4), nanosPerElement).
+     * Other instances keep their own policy, the subtree queries of a {@link ModificationBinaryTree} use the policy of the tree.
+     *
+     * @param parallelExecutionPolicy The new policy (cannot be null)
+     * @throws NullPointerException if parallelExecutionPolicy is null
+     */
+    public void setParallelExecutionPolicy(ParallelExecutionPolicy parallelExecutionPolicy) {
+        this.parallelExecutionPolicy = Objects.requireNonNull(parallelExecutionPolicy, "ParallelExecutionPolicy cannot be null");
+    }
+
     public Set<Modification> getSetOfAllModifications() {
         return modificationBinaryTree.getAllModificationGroups().stream().flatMap(mg -> mg.getModifications().stream()).collect(Collectors.toSet());
     }
 
     /**
-     * Helper method, from the HelperMethods calls, sorts Modifications by name in ascending order.
+     * Returns the Modifications sorted by name in ascending order, copied from the live sorted view in O(n), without sorting.
      */
     public List<Modification> sortModificationsByNameAscending() {
-        setOfAllModifications = getSetOfAllModifications();
-        Objects.requireNonNull(setOfAllModifications, "Set<Modification> cannot be null");
-        return helperMethods.sortByNameAscending(setOfAllModifications);
+        return List.copyOf(sortedModificationViews.getModificationsByName(false));
     }
 
     /**
-     * Helper method, from the HelperMethods calls, sorts Modifications by name in descending order.
+     * Returns the Modifications sorted by name in descending order, copied from the live sorted view in O(n), without sorting.
      */
     public List<Modification> sortModificationByNameDescending() {
-        Objects.requireNonNull(setOfAllModifications, "Set<Modification> cannot be null");
-        return helperMethods.sortByNameDescending(setOfAllModifications);
+        return List.copyOf(sortedModificationViews.getModificationsByName(true));
     }
 
     /**
-     * Helper method, from the HelperMethods calls, sorts ModificationGroups by name in ascending order.
+     * Returns the ModificationGroups sorted by name in ascending order, copied from the name index in O(n), without sorting.
      */
     public List<ModificationGroup> sortModificationGroupByNameAscending() {
-        Objects.requireNonNull(setOfAllModifications, "Queue<ModificationGroup> cannot be null");
-        return helperMethods.sortByNameAscending(queueOfModificationGroups);
+        return List.copyOf(multiIndexModificationTree.getModificationGroupsInOrder(TreeLogic.NAME));
     }
 
     /**
-     * Helper method, from the HelperMethods calls, sorts ModificationGroups by name in descending order.
+     * Returns the ModificationGroups sorted by name in descending order, copied from the name index in O(n), without sorting.
      */
     public List<ModificationGroup> sortModificationGroupByNameDescending() {
-        Objects.requireNonNull(queueOfModificationGroups, "Queue<ModificationGroup> cannot be null");
-        return helperMethods.sortByNameDescending(queueOfModificationGroups);
+        return List.copyOf(multiIndexModificationTree.getModificationGroupsInReverseOrder(TreeLogic.NAME));
     }
 
     /**
@@ -374,34 +684,173 @@ public class ModificationBinaryTreeOperations implements ModificationBinaryTreeO
     }
 
     /**
-     * Helper method, from the HelperMethods calls, sorts Modifications by priority value in ascending order.
+     * Returns the Modifications sorted by priority value in ascending order, copied from the live sorted view in O(n), without sorting.
      */
     public List<Modification> sortModificationByPriorityValueAscending() {
-        Objects.requireNonNull(setOfAllModifications, "Set<Modification> cannot be null");
-        return helperMethods.sortByPriorityValueAscending(setOfAllModifications);
+        return List.copyOf(sortedModificationViews.getModificationsByPriorityValue(false));
     }
 
     /**
-     * Helper method, from the HelperMethods calls, sorts Modifications by priority value in descending order.
+     * Returns the Modifications sorted by priority value in descending order, copied from the live sorted view in O(n), without sorting.
      */
     public List<Modification> sortModificationByPriorityValueDescending() {
-        Objects.requireNonNull(setOfAllModifications, "Set<Modification> cannot be null");
-        return helperMethods.sortByPriorityValueDescending(setOfAllModifications);
+        return List.copyOf(sortedModificationViews.getModificationsByPriorityValue(true));
     }
 
     /**
-     * Helper method, from the HelperMethods calls, sorts ModificationGroups by priority value in ascending order.
+     * Returns the ModificationGroups sorted by priority value in ascending order, copied from the priority index in O(n), without sorting.
      */
     public List<ModificationGroup> sortModificationGroupByPriorityValueAscending() {
-        Objects.requireNonNull(queueOfModificationGroups, "Queue<ModificationGroup> cannot be null");
-        return helperMethods.sortByPriorityValueAscending(queueOfModificationGroups);
+        return List.copyOf(multiIndexModificationTree.getModificationGroupsInOrder(TreeLogic.PRIORITY));
     }
 
     /**
-     * Helper method, from the HelperMethods calls, sorts ModificationGroups by priority value in descending order.
+     * Returns the ModificationGroups sorted by priority value in descending order, copied from the priority index in O(n), without sorting.
      */
     public List<ModificationGroup> sortModificationGroupByPriorityValueDescending() {
-        Objects.requireNonNull(queueOfModificationGroups, "Queue<ModificationGroup> cannot be null");
-        return helperMethods.sortByPriorityValueDescending(queueOfModificationGroups);
+        return List.copyOf(multiIndexModificationTree.getModificationGroupsInReverseOrder(TreeLogic.PRIORITY));
+    }
+
+    /**
+     * Returns a live, read-only view of the Modifications of the tree sorted by name, in O(1). It follows later inserts, removals and
+     * added or resolved Modifications, its iterator is weakly consistent.
+     *
+     * @param descending true for descending order, false for ascending
+     */
+    public Collection<Modification> getModificationsSortedByName(boolean descending) {
+        return sortedModificationViews.getModificationsByName(descending);
+    }
+
+    /**
+     * Returns a live, read-only view of the Modifications of the tree sorted by priority value, in O(1), like getModificationsSortedByName.
+     *
+     * @param descending true for descending order, false for ascending
+     */
+    public Collection<Modification> getModificationsSortedByPriorityValue(boolean descending) {
+        return sortedModificationViews.getModificationsByPriorityValue(descending);
+    }
+
+    /**
+     * Returns a live, read-only view of the ModificationGroups of the tree sorted by name, in O(1), read from the name index.
+     * It follows later inserts and removals, every iteration copies the index under its read lock.
+     *
+     * @param descending true for descending order, false for ascending
+     */
+    public Collection<ModificationGroup> getModificationGroupsSortedByName(boolean descending) {
+        return multiIndexModificationTree.getModificationGroups(TreeLogic.NAME, descending);
+    }
+
+    /**
+     * Returns a live, read-only view of the ModificationGroups of the tree sorted by their current priority value, in O(1), like getModificationGroupsSortedByName.
+     *
+     * @param descending true for descending order, false for ascending
+     */
+    public Collection<ModificationGroup> getModificationGroupsSortedByPriorityValue(boolean descending) {
+        return multiIndexModificationTree.getModificationGroups(TreeLogic.PRIORITY, descending);
+    }
+
+    /**
+     * Returns the k biggest Modifications by the key of the given sorting logic (name, priority value, total modification cost), biggest first.
+     * Read from the head of the live sorted view in O(k), without sorting every Modification of the tree.
+     *
+     * @param treeLogic The sorting logic to rank by (cannot be null)
+     * @param k         The maximal number of Modifications to return (cannot be negative)
+     * @return List<Modification> of at most k Modifications, descending
+     * @throws NullPointerException     if treeLogic is null
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<Modification> getTopModifications(TreeLogic treeLogic, int k) {
+        return firstElements(sortedModificationViews.getModifications(treeLogic, true), k);
+    }
+
+    /**
+     * Returns the k smallest Modifications by the key of the given sorting logic, smallest first, in O(k), like getTopModifications.
+     *
+     * @param treeLogic The sorting logic to rank by (cannot be null)
+     * @param k         The maximal number of Modifications to return (cannot be negative)
+     * @return List<Modification> of at most k Modifications, ascending
+     * @throws NullPointerException     if treeLogic is null
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<Modification> getBottomModifications(TreeLogic treeLogic, int k) {
+        return firstElements(sortedModificationViews.getModifications(treeLogic, false), k);
+    }
+
+    /**
+     * Returns the k biggest ModificationGroups by the key of the given sorting logic (name, priority value, cost), biggest first, in O(log n + k),
+     * read from the end of the index of the sorting logic. The priority value and cost are the current ones, changes of the Modifications are followed.
+     *
+     * @param treeLogic The sorting logic to rank by (cannot be null)
+     * @param k         The maximal number of ModificationGroups to return (cannot be negative)
+     * @return List<ModificationGroup> of at most k ModificationGroups, descending
+     * @throws NullPointerException     if treeLogic is null
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<ModificationGroup> getTopModificationGroups(TreeLogic treeLogic, int k) {
+        return Collections.unmodifiableList(multiIndexModificationTree.getLastModificationGroups(treeLogic, k));
+    }
+
+    /**
+     * Returns the k smallest ModificationGroups by the key of the given sorting logic, smallest first, in O(log n + k), like getTopModificationGroups.
+     *
+     * @param treeLogic The sorting logic to rank by (cannot be null)
+     * @param k         The maximal number of ModificationGroups to return (cannot be negative)
+     * @return List<ModificationGroup> of at most k ModificationGroups, ascending
+     * @throws NullPointerException     if treeLogic is null
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<ModificationGroup> getBottomModificationGroups(TreeLogic treeLogic, int k) {
+        return Collections.unmodifiableList(multiIndexModificationTree.getFirstModificationGroups(treeLogic, k));
+    }
+
+    /**
+     * Helper method, adds the ModificationGroup to the indexes, and its Modifications to the sorted views, if it is in the tree, and removes them otherwise.
+     * The tree is read again under the lock of the map entry of the ModificationGroup, so the notifications of racing writers can arrive
+     * in any order: the last one is sent after the last change, and sees it.
+     */
+    private void syncSortedViews(ModificationGroup modificationGroup) {
+        modificationGroupsInSortedViews.compute(modificationGroup.getModificationGroupId(), (id, tracked) -> {
+            boolean inTree = 0 <= modificationBinaryTree.getLevelNumberOfModificationGroup(modificationGroup);
+            if (inTree && tracked == null) {
+                multiIndexModificationTree.insert(modificationGroup);
+                return modificationGroup;
+            }
+            if (!inTree && tracked != null) {
+                multiIndexModificationTree.removeModificationGroup(modificationGroup);
+                return null;
+            }
+            return tracked;
+        });
+    }
+
+    /**
+     * Keeps the sorted views and the indexes in line with the tree, see syncSortedViews().
+     */
+    private final class SortedViewUpdater implements ModificationTreeListener {
+
+        @Override
+        public void modificationGroupsInserted(ModificationBinaryTreeInterface tree, Collection<ModificationGroup> modificationGroups) {
+            modificationGroups.forEach(ModificationBinaryTreeOperations.this::syncSortedViews);
+        }
+
+        @Override
+        public void modificationGroupsRemoved(ModificationBinaryTreeInterface tree, Collection<ModificationGroup> modificationGroups) {
+            modificationGroups.forEach(ModificationBinaryTreeOperations.this::syncSortedViews);
+        }
+    }
+
+    /**
+     * Helper method, copies at most k elements from the start of a sorted view into an unmodifiable list.
+     */
+    private static <T> List<T> firstElements(Collection<T> sortedView, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("K cannot be negative");
+        }
+        List<T> result = new ArrayList<>(Math.min(k, sortedView.size()));
+        Iterator<T> iterator = sortedView.iterator();
+        while (result.size() < k && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return Collections.unmodifiableList(result);
     }
 }
@@ -0,0 +1,40 @@
+package com.simon.simontree.api;
+
+import com.simon.simontree.model.Modification;
+import com.simon.simontree.model.ModificationGroup;
+
+import java.util.Collection;
+
+/**
+ * Receives notifications about changes of a {@link ModificationGroup}, used by the tree implementations to keep their indexes up to date
+ * without scanning the tree. Register it via {@link ModificationGroup#addModificationGroupListener(ModificationGroupListener)}.
+ * The notifications are sent after the ModificationGroup released its own locks, so implementations may lock the ModificationGroup again.
+ */
+public interface ModificationGroupListener {
+
+    /**
+     * Called after Modifications were added to the ModificationGroup.
+     *
+     * @param modificationGroup The ModificationGroup, which changed
+     * @param modifications     The Modifications, which were actually added (read-only)
+     */
+    void modificationsAdded(ModificationGroup modificationGroup, Collection<Modification> modifications);
+
+    /**
+     * Called after a Modification was removed from the ModificationGroup, including {@link Modification#resolved()}.
+     *
+     * @param modificationGroup The ModificationGroup, which changed
+     * @param modification      The Modification, which was removed
+     */
+    void modificationRemoved(ModificationGroup modificationGroup, Modification modification);
+
+    /**
+     * Called after the priority value or the cost of the ModificationGroup changed, because Modifications were added or removed.
+     * Trees sorted by {@link com.simon.simontree.enums.TreeLogic#PRIORITY} or {@link com.simon.simontree.enums.TreeLogic#TOTAL_COST} use it to re-key the ModificationGroup.
+     *
+     * @param modificationGroup The ModificationGroup, which changed
+     * @param oldPriorityValue  The priority value before the change
+     * @param oldCost           The cost before the change
+     */
+    void calculatedValuesChanged(ModificationGroup modificationGroup, int oldPriorityValue, long oldCost);
+}
@@ -0,0 +1,32 @@
+package com.simon.simontree.api;
+
+import com.simon.simontree.model.ModificationGroup;
+
+import java.util.Collection;
+
+/**
+ * Receives notifications about ModificationGroups inserted into and removed from a tree engine, used by
+ * {@link ModificationBinaryTreeOperations} to keep its sorted views up to date, even when the engine is changed directly.
+ * Register it via {@link ModificationBinaryTreeInterface#addModificationTreeListener(ModificationTreeListener)}.
+ * The notifications are sent after the engine released its own locks, so racing writers can deliver them out of order: implementations
+ * should read the current state of the tree (e.g. {@link ModificationBinaryTreeInterface#getLevelNumberOfModificationGroup}) instead of
+ * trusting the order of the notifications.
+ */
+public interface ModificationTreeListener {
+
+    /**
+     * Called after ModificationGroups were inserted into the tree.
+     *
+     * @param tree               The tree engine, which changed
+     * @param modificationGroups The inserted ModificationGroups (read-only, not empty)
+     */
+    void modificationGroupsInserted(ModificationBinaryTreeInterface tree, Collection<ModificationGroup> modificationGroups);
+
+    /**
+     * Called after ModificationGroups were removed from the tree.
+     *
+     * @param tree               The tree engine, which changed
+     * @param modificationGroups The removed ModificationGroups (read-only, not empty)
+     */
+    void modificationGroupsRemoved(ModificationBinaryTreeInterface tree, Collection<ModificationGroup> modificationGroups);
+}
@@ -0,0 +1,6 @@
+package com.simon.simontree.enums;
+
+public enum ReadConcurrency {
+    LOCKING,
+    OPTIMISTIC;
+}
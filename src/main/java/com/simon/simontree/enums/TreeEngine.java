@@ -0,0 +1,7 @@
+package com.simon.simontree.enums;
+
+public enum TreeEngine {
+    BINARY_TREE,
+    PERSISTENT,
+    SKIP_LIST;
+}
@@ -5,7 +5,7 @@ import java.util.Set;
 public class DiscountedModificationGroup extends ModificationGroup{
     /**
      * Constructs a new ModificationGroup with a set of modifications and a name. This inherits from the {@link ModificationGroup} and overrides
-     * the method calculateTotalCostOfEveryModificationUnderThisGroup.
+     * the method adjustTotalCost.
      *
      * @param modifications the set of modifications to be included in this group
      * @param name          the name of the ModificationGroup
@@ -16,11 +16,12 @@ public class DiscountedModificationGroup extends ModificationGroup{
     }
 
     /**
-     * Calculates total cost of every Modification, which belong to the parent ModificationGroup.
-     * @return total cost of every Modification under this group.
+     * Applies a 10% discount on the total cost of every Modification, which belong to this ModificationGroup.
+     * Used both by the running total and by calculateTotalCostOfEveryModificationUnderThisGroup.
+     * @return discounted total cost of every Modification under this group.
      */
     @Override
-    public long calculateTotalCostOfEveryModificationUnderThisGroup() {
-        return (long) (super.calculateTotalCostOfEveryModificationUnderThisGroup()*0.9);
+    protected long adjustTotalCost(long totalCostOfModifications) {
+        return (long) (totalCostOfModifications*0.9);
     }
 }
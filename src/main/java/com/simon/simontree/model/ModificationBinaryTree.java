@@ -1,19 +1,34 @@
 package com.simon.simontree.model;
 
 import com.simon.simontree.api.ModificationBinaryTreeInterface;
+import com.simon.simontree.api.ModificationGroupListener;
+import com.simon.simontree.api.ModificationTreeListener;
+import com.simon.simontree.enums.DuplicateKeys;
+import com.simon.simontree.enums.ReadConcurrency;
+import com.simon.simontree.enums.TreeBalancing;
 import com.simon.simontree.enums.TreeLogic;
 import com.simon.simontree.enums.TypeOfModification;
+import com.simon.simontree.util.ParallelExecutionPolicy;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 /**
  * A thread-safe custom binary tree that stores {@link ModificationGroup} objects
  * with customizable sorting logic. The tree supports multiple tree logic (name, priority, total cost), various traversal methods
- * and level-based operations. Uses Breadth-first search for many operations.
+ * and level-based operations. Lookups by ModificationGroup, Modification and level use indexes instead of breadth-first search.
  * Capable of adding and removing {@link ModificationGroup}.
- * Auto-increments nodeCounter, totalNumberOfElements, totalNumberOfLevels.
+ * Auto-increments nodeCounter, totalNumberOfElements, keeps the height of every Node up to date for totalNumberOfLevels.
  * Implements the interface {@link ModificationBinaryTreeInterface}.
  * This is the most important part of the library, and does most of the main calculations.
  *
@@ -23,6 +38,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  *   <li>auto-incremented nodeCounter, totalNumberOfElements, totalNumberOfLevels</li>
  *   <li>base cost and {@link TypeOfModification} based totalModificationCost</li>
  *   <li>reference to parent ModificationGroup</li>
+ *   <li>optional duplicate sorting keys ({@link DuplicateKeys}), ties are broken on modificationGroupId</li>
+ *   <li>optional optimistic, non-blocking reads ({@link ReadConcurrency}) validated against a {@link StampedLock}</li>
+ *   <li>writers are exclusive: every insert and removal updates the sizes, heights and aggregates up to the root, for concurrent writers use
+ *   {@link SkipListModificationTree}</li>
+ *   <li>optional AVL self-balancing ({@link TreeBalancing}), rotations keep the ModificationGroup parent/child links and levels in sync</li>
  *   <li>most methods in this class are called in the {@link com.simon.simontree.api.ModificationBinaryTreeOperations} public-facing control class</li>
  * </ul>
  *
@@ -40,43 +60,165 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
      */
     private final AtomicInteger nodeCounter = new AtomicInteger();
     /**
-     * Simple lock Object for tree related operations.
+     * Lock for tree related operations. Writers take the exclusive write lock, readers either share the read lock
+     * or, with {@link ReadConcurrency#OPTIMISTIC}, read without blocking and validate the stamp afterwards.
      */
-    private final Object treeLock = new Object();
+    private final StampedLock treeLock = new StampedLock();
     /**
      * Enum, which sets the sorting logic of the binary tree (name, priority, total cost).
      */
     private final TreeLogic treeLogic;
     /**
-     * Thread-safe {@link Node} object, required for Node creation.
+     * Enum, which sets the balancing strategy of the binary tree (none, AVL).
      */
-    private volatile Node root;
+    private final TreeBalancing treeBalancing;
+    /**
+     * Enum, which sets whether different ModificationGroups with an equal sorting key can be stored (reject, allow).
+     */
+    private final DuplicateKeys duplicateKeys;
     /**
-     * Number of levels, calculated by calculateTotalNumberOfLevels(), automatically set during initialization.
+     * Enum, which sets how the read-only queries synchronize with writers (locking, optimistic).
      */
-    private int totalNumberOfLevels = 0;
+    private final ReadConcurrency readConcurrency;
+    /**
+     * Thread-safe {@link Node} object, required for Node creation.
+     */
+    private volatile Node root;
     /**
      * Total number of ModificationGroups, calculated in insert().
      */
     private Queue<ModificationGroup> allModificationGroups = new ConcurrentLinkedQueue<>();
+    /**
+     * Thread-safe index from modificationGroupId to the Node which holds the ModificationGroup, maintained by insert() and removeModificationGroup().
+     * Every ModificationGroup keeps its own Node for its whole lifetime in the tree, removeNode() relinks Nodes instead of moving ModificationGroups.
+     */
+    private final Map<Integer, Node> nodeIndex = new ConcurrentHashMap<>();
+    /**
+     * Thread-safe reverse index from modificationId to the ModificationGroups of this tree which contain the Modification,
+     * kept up to date via the {@link ModificationGroupListener} registered on every inserted ModificationGroup.
+     */
+    private final Map<Integer, Set<ModificationGroup>> modificationIndex = new ConcurrentHashMap<>();
+    /**
+     * Thread-safe index from level number to the ModificationGroups on that level, updated whenever a Node gets a new level
+     * on insert, removal and rebalancing.
+     */
+    private final Map<Integer, Set<ModificationGroup>> levelIndex = new ConcurrentHashMap<>();
+    /**
+     * Listener registered on every ModificationGroup of this tree, keeps modificationIndex up to date.
+     */
+    private final ModificationGroupListener modificationGroupListener = new ModificationIndexUpdater();
+    /**
+     * Listeners notified after ModificationGroups were inserted or removed, e.g. the sorted views of {@link com.simon.simontree.api.ModificationBinaryTreeOperations}.
+     */
+    private final CopyOnWriteArrayList<ModificationTreeListener> modificationTreeListeners = new CopyOnWriteArrayList<>();
+    /**
+     * Decides whether the subtree queries walk the subtree sequentially or split it in the pool of the policy, volatile, so a new policy is seen by every thread.
+     */
+    private volatile ParallelExecutionPolicy parallelExecutionPolicy = ParallelExecutionPolicy.defaultPolicy();
 
 
     /**
      * Constructs a new ModificationBinaryTree instance with a root Node, resets number of elements counter and with treelogic enum
-     * Automatically calculates totalNumberOfLevels.
+     * Automatically calculates totalNumberOfLevels. The tree is not balanced, elements keep the position they were inserted at.
      *
      * @param treeLogic enum, which defines the sorting logic of the binary tree, 3 options to sort {@link ModificationGroup} objects (name, priority, total cost))
      */
     public ModificationBinaryTree(TreeLogic treeLogic) {
+        this(treeLogic, TreeBalancing.NONE);
+    }
+
+    /**
+     * Constructs a new ModificationBinaryTree instance with the given sorting logic and balancing strategy.
+     * With {@link TreeBalancing#AVL} the height of the tree stays O(log n) on insert and removal, even if the
+     * {@link ModificationGroup}s arrive already sorted.
+     *
+     * @param treeLogic     enum, which defines the sorting logic of the binary tree (name, priority, total cost)
+     * @param treeBalancing enum, which defines the balancing strategy of the binary tree (none, AVL)
+     * @throws NullPointerException if treeLogic or treeBalancing is null
+     */
+    public ModificationBinaryTree(TreeLogic treeLogic, TreeBalancing treeBalancing) {
+        this(treeLogic, treeBalancing, DuplicateKeys.REJECT);
+    }
+
+    /**
+     * Constructs a new ModificationBinaryTree instance with the given sorting logic, balancing strategy and duplicate key handling.
+     * With {@link DuplicateKeys#ALLOW} ModificationGroups with an equal name, priority value or cost are ordered by their modificationGroupId,
+     * so inserts never fail on key collisions and groups with an equal key are next to each other in the sorted order.
+     * The same ModificationGroup can still be inserted only once. With {@link DuplicateKeys#REJECT} only inserts are rejected: a group already
+     * in the tree, whose priority value or cost changes to the key of another group, stays in the tree, ordered after the other one by their
+     * modificationGroupId, until one of the keys changes again.
+     *
+     * @param treeLogic     enum, which defines the sorting logic of the binary tree (name, priority, total cost)
+     * @param treeBalancing enum, which defines the balancing strategy of the binary tree (none, AVL)
+     * @param duplicateKeys enum, which defines whether equal sorting keys are rejected or allowed
+     * @throws NullPointerException if treeLogic, treeBalancing or duplicateKeys is null
+     */
+    public ModificationBinaryTree(TreeLogic treeLogic, TreeBalancing treeBalancing, DuplicateKeys duplicateKeys) {
+        this(treeLogic, treeBalancing, duplicateKeys, ReadConcurrency.LOCKING);
+    }
+
+    /**
+     * Constructs a new ModificationBinaryTree instance with the given sorting logic, balancing strategy, duplicate key handling and read concurrency.
+     * With {@link ReadConcurrency#OPTIMISTIC} path, search and level queries run without blocking under an optimistic stamp of the tree lock
+     * and are only repeated under the shared read lock if a writer changed the tree meanwhile. Every query sees a consistent tree in both modes.
+     *
+     * @param treeLogic       enum, which defines the sorting logic of the binary tree (name, priority, total cost)
+     * @param treeBalancing   enum, which defines the balancing strategy of the binary tree (none, AVL)
+     * @param duplicateKeys   enum, which defines whether equal sorting keys are rejected or allowed
+     * @param readConcurrency enum, which defines how queries synchronize with writers (locking, optimistic)
+     * @throws NullPointerException if any of the parameters is null
+     */
+    public ModificationBinaryTree(TreeLogic treeLogic, TreeBalancing treeBalancing, DuplicateKeys duplicateKeys, ReadConcurrency readConcurrency) {
         this.root = null;
         this.totalNumberOfElements.set(0);
-        this.treeLogic = treeLogic;
+        this.treeLogic = Objects.requireNonNull(treeLogic, "TreeLogic cannot be null");
+        this.treeBalancing = Objects.requireNonNull(treeBalancing, "TreeBalancing cannot be null");
+        this.duplicateKeys = Objects.requireNonNull(duplicateKeys, "DuplicateKeys cannot be null");
+        this.readConcurrency = Objects.requireNonNull(readConcurrency, "ReadConcurrency cannot be null");
     }
 
+    @Override
     public Queue<ModificationGroup> getAllModificationGroups() {
         return allModificationGroups;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addModificationTreeListener(ModificationTreeListener listener) {
+        Objects.requireNonNull(listener, "ModificationTreeListener cannot be null");
+        modificationTreeListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean removeModificationTreeListener(ModificationTreeListener listener) {
+        return modificationTreeListeners.remove(listener);
+    }
+
+    /**
+     * Helper method, notifies the tree listeners about inserted ModificationGroups. Must be called without holding the tree lock.
+     */
+    private void notifyInserted(List<ModificationGroup> modificationGroups) {
+        if (!modificationGroups.isEmpty()) {
+            List<ModificationGroup> inserted = Collections.unmodifiableList(modificationGroups);
+            modificationTreeListeners.forEach(listener -> listener.modificationGroupsInserted(this, inserted));
+        }
+    }
+
+    /**
+     * Helper method, notifies the tree listeners about removed ModificationGroups. Must be called without holding the tree lock.
+     */
+    private void notifyRemoved(List<ModificationGroup> modificationGroups) {
+        if (!modificationGroups.isEmpty()) {
+            List<ModificationGroup> removed = Collections.unmodifiableList(modificationGroups);
+            modificationTreeListeners.forEach(listener -> listener.modificationGroupsRemoved(this, removed));
+        }
+    }
+
     /**
      * Returns the hierarchical path of a ModificationGroup in the tree structure.
      * The path is constructed using group names separated by " / " (e.g., "Root / Europe / Hungary").
@@ -90,7 +232,7 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
         Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
 
         List<String> path = new ArrayList<>();
-        boolean found = buildPath(root, modificationGroup, path);
+        boolean found = buildPath(modificationGroup, path);
 
         if (!found) {
             return "";
@@ -102,31 +244,37 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
 
 
     /**
-     * Helper method: Recursively builds the path from root to target group.
+     * Helper method: Builds the path from the target group up to the root. The Node is found via the node index,
+     * then the parent references are followed, O(height) without recursion. An optimistic read can meet a rotation half-way,
+     * so the walk is bounded by the number of elements.
      *
-     * @return true if the group was found in the subtree
+     * @return true if the group was found in the tree
      */
-    private boolean buildPath(Node node, ModificationGroup modificationGroup, List<String> path) {
-        if (node == null) {
-            return false;
-        }
-
-        if (modificationGroup.equals(node.modificationGroup)) {
-            path.add(node.modificationGroup.getName());
-            return true;
-        }
+    private boolean buildPath(ModificationGroup modificationGroup, List<String> path) {
+        return read(() -> {
+            path.clear();
+            Node node = nodeIndex.get(modificationGroup.getModificationGroupId());
+            if (node == null) {
+                return false;
+            }
 
-        if (buildPath(node.left, modificationGroup, path) || buildPath(node.right, modificationGroup, path)) {
-            path.add(node.modificationGroup.getName());
+            int remainingSteps = totalNumberOfElements.get();
+            for (Node current = node; current != null; current = current.parent) {
+                if (remainingSteps-- < 0) {
+                    throw new IllegalStateException("Tree changed during read");
+                }
+                path.add(current.modificationGroup.getName());
+            }
             return true;
-        }
-
-        return false;
+        });
     }
 
     /**
      * Inserts a new element into the tree while maintaining thread safety. Current level must always be 0 for auto-incrementation to work.
      * Auto-increments totalNumberOfElements. Establishes parent-child relationship.
+     * Writers are exclusive: the search, the link and the update of the sizes, heights and aggregates up to the root run under the write lock
+     * of the tree, so inserts of different threads run one after the other, even into disjoint key ranges. For concurrent writers use
+     * {@link SkipListModificationTree}, selected by {@link com.simon.simontree.enums.TreeEngine#SKIP_LIST}, whose inserts and removals take no lock.
      *
      * @param modificationGroup The ModificationGroup to insert (cannot be null)
      * @throws NullPointerException if modificationGroup is null
@@ -135,60 +283,217 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
     public void insert(ModificationGroup modificationGroup) {
         Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
 
-        synchronized (treeLock) {
-            if (root == null) {
-                root = modificationGroup.createNode(nodeCounter.incrementAndGet(), 0);
-                modificationGroup.setLevel(0);
-                totalNumberOfElements.incrementAndGet();
-                allModificationGroups.add(modificationGroup);
-                return;
+        long stamp = treeLock.writeLock();
+        try {
+            if (isAlreadyInTree(modificationGroup)) {
+                throw new IllegalStateException("ModificationGroup already exists in tree");
             }
+            linkNewNode(modificationGroup, findParentForInsertion(root, modificationGroup));
+        } finally {
+            treeLock.unlockWrite(stamp);
+        }
+        notifyInserted(List.of(modificationGroup));
+    }
 
-            if (containsNode(root, modificationGroup)) {
-                throw new IllegalStateException("ModificationGroup already exists in tree");
+    /**
+     * Inserts every ModificationGroup of the collection under a single write lock, all or nothing: every element is checked before the first one is linked.
+     * Into an empty tree the elements are sorted and a perfectly balanced tree is built bottom-up in O(n) after the O(n log n) sort, without searches
+     * or rotations, the subtree totals of the ModificationGroups are propagated only one step at a time. Into a non-empty tree a few elements are
+     * inserted one by one in the order of the collection, O(m * height), like calling insert for each. When that would cost more than touching every
+     * Node, the in-order Nodes of the tree are merged with the sorted elements and linked again into a perfectly balanced tree instead, O(n + m),
+     * so a big batch never builds a degenerate tree, even with {@link TreeBalancing#NONE}.
+     *
+     * @param modificationGroups The ModificationGroups to insert (cannot be null or contain null)
+     * @throws NullPointerException  if modificationGroups is null or contains null
+     * @throws IllegalStateException if a ModificationGroup, or with {@link DuplicateKeys#REJECT} its sorting key, is already in the tree or twice in the collection
+     */
+    @Override
+    public void insertAll(Collection<ModificationGroup> modificationGroups) {
+        Objects.requireNonNull(modificationGroups, "Collection of ModificationGroups cannot be null");
+        List<ModificationGroup> inGivenOrder = new ArrayList<>(modificationGroups.size());
+        for (ModificationGroup modificationGroup : modificationGroups) {
+            inGivenOrder.add(Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null"));
+        }
+        List<ModificationGroup> sorted = new ArrayList<>(inGivenOrder);
+        sorted.sort(this::compareGroupsDRYComponent);
+
+        long stamp = treeLock.writeLock();
+        try {
+            Set<Integer> ids = new HashSet<>();
+            for (int i = 0; i < sorted.size(); i++) {
+                ModificationGroup modificationGroup = sorted.get(i);
+                if (!ids.add(modificationGroup.getModificationGroupId()) || isAlreadyInTree(modificationGroup)
+                        || (duplicateKeys == DuplicateKeys.REJECT && 0 < i && compareSortingKeys(sorted.get(i - 1), modificationGroup) == 0)) {
+                    throw new IllegalStateException("ModificationGroup already exists in tree: " + modificationGroup.getName());
+                }
             }
 
-            Node parentNode = findParentForInsertion(root, modificationGroup);
-            Node newNode = modificationGroup.createNode(
-                    nodeCounter.incrementAndGet(),
-                    parentNode.getLevel() + 1
-            );
-
-            int comparison = compareGroupsDRYComponent(parentNode.modificationGroup, modificationGroup);
-            if (comparison < 0) {
-                parentNode.right = newNode;
+            int size = size(root);
+            if (root == null) {
+                root = buildBalancedSubtree(sorted, 0, sorted.size() - 1, 0);
+            } else if ((long) sorted.size() * (32 - Integer.numberOfLeadingZeros(size + sorted.size())) < size) {
+                for (ModificationGroup modificationGroup : inGivenOrder) {
+                    linkNewNode(modificationGroup, findParentForInsertion(root, modificationGroup));
+                }
             } else {
-                parentNode.left = newNode;
+                mergeAndRebuild(sorted, size);
             }
+        } finally {
+            treeLock.unlockWrite(stamp);
+        }
+        notifyInserted(sorted);
+    }
 
+    /**
+     * Helper method, merges the in-order Nodes of the non-empty tree with new Nodes of the sorted ModificationGroups, and links all of them again
+     * into a perfectly balanced tree, in O(n + m), like removeNodes. The caller must hold the write lock and must have checked for duplicates.
+     * A new ModificationGroup is placed before the ModificationGroups with an equal key, like insert does.
+     */
+    private void mergeAndRebuild(List<ModificationGroup> sorted, int size) {
+        List<Node> merged = new ArrayList<>(size + sorted.size());
+        Set<Node> newNodes = new HashSet<>();
+        Node current = findMinNode(root);
+        for (ModificationGroup modificationGroup : sorted) {
+            while (current != null && compareGroupsDRYComponent(current.modificationGroup, modificationGroup) < 0) {
+                merged.add(current);
+                current = inOrderSuccessor(current, null);
+            }
+            Node newNode = modificationGroup.createNode(nodeCounter.incrementAndGet(), 0);
+            merged.add(newNode);
+            newNodes.add(newNode);
+        }
+        for (; current != null; current = inOrderSuccessor(current, null)) {
+            merged.add(current);
+        }
 
-            try {
-                parentNode.getModificationGroup().addChildModificationGroup(modificationGroup);
-            } catch (IllegalArgumentException e) {
-                throw new IllegalStateException("Failed to establish parent-child relationship: " + e.getMessage());
+        detachAllNodes();
+        levelIndex.clear();
+        root = linkBalanced(merged, 0, merged.size() - 1, 0);
+        for (Node node : merged) {
+            if (newNodes.contains(node)) {
+                indexNewNode(node);
+            } else {
+                addToLevelIndex(node);
             }
+        }
+    }
+
+    /**
+     * Helper method, links a new Node of the ModificationGroup under the given parent, or as root if the tree is empty, and adds it to the indexes.
+     * The caller must hold the write lock and must have checked for duplicates.
+     */
+    private void linkNewNode(ModificationGroup modificationGroup, Node parentNode) {
+        if (root == null) {
+            root = modificationGroup.createNode(nodeCounter.incrementAndGet(), 0);
+            modificationGroup.setLevel(0);
+            indexNewNode(root);
+            return;
+        }
+
+        Node newNode = modificationGroup.createNode(
+                nodeCounter.incrementAndGet(),
+                parentNode.getLevel() + 1
+        );
+
+        int comparison = compareGroupsDRYComponent(parentNode.modificationGroup, modificationGroup);
+        try {
+            setChild(parentNode, newNode, comparison >= 0);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Failed to establish parent-child relationship: " + e.getMessage());
+        }
+
+        retrace(parentNode);
+        indexNewNode(newNode);
+    }
+
+    /**
+     * Helper method, builds a perfectly balanced subtree of the sorted ModificationGroups from index low to high, children first,
+     * so setChild() never has ancestors to propagate subtree totals to. The recursion depth is bounded by log2(n).
+     *
+     * @return The root of the subtree, or null if the range is empty
+     */
+    private Node buildBalancedSubtree(List<ModificationGroup> sorted, int low, int high, int level) {
+        if (high < low) {
+            return null;
+        }
+        int middle = (low + high) >>> 1;
+        Node left = buildBalancedSubtree(sorted, low, middle - 1, level + 1);
+        ModificationGroup modificationGroup = sorted.get(middle);
+        Node node = modificationGroup.createNode(nodeCounter.incrementAndGet(), level);
+        Node right = buildBalancedSubtree(sorted, middle + 1, high, level + 1);
+
+        linkBalancedNode(node, left, right, level);
+        indexNewNode(node);
+        return node;
+    }
 
-            allModificationGroups.add(modificationGroup);
-            totalNumberOfElements.incrementAndGet();
-            totalNumberOfLevels = calculateTotalNumberOfLevels();
+    /**
+     * Helper method, links the sorted, detached Nodes from index low to high into a perfectly balanced subtree, children first.
+     * The level index is not touched. The recursion depth is bounded by log2(n).
+     *
+     * @return The root of the subtree, or null if the range is empty
+     */
+    private Node linkBalanced(List<Node> sorted, int low, int high, int level) {
+        if (high < low) {
+            return null;
         }
+        int middle = (low + high) >>> 1;
+        Node left = linkBalanced(sorted, low, middle - 1, level + 1);
+        Node right = linkBalanced(sorted, middle + 1, high, level + 1);
+        Node node = sorted.get(middle);
+        linkBalancedNode(node, left, right, level);
+        return node;
+    }
+
+    /**
+     * Helper method, links the roots of two finished subtrees under a detached Node and sets its level and aggregates.
+     */
+    private void linkBalancedNode(Node node, Node left, Node right, int level) {
+        node.level = level;
+        node.modificationGroup.setLevel(level); // before linking, addChildModificationGroup derives the child levels from it
+        setChild(node, left, true);
+        setChild(node, right, false);
+        updateAggregates(node);
+    }
+
+    /**
+     * Helper method, adds a newly linked Node to the node, level and Modification indexes and to the counters.
+     */
+    private void indexNewNode(Node node) {
+        ModificationGroup modificationGroup = node.modificationGroup;
+        nodeIndex.put(modificationGroup.getModificationGroupId(), node);
+        addToLevelIndex(node);
+        indexModifications(modificationGroup);
+        allModificationGroups.add(modificationGroup);
+        totalNumberOfElements.incrementAndGet();
+    }
+
+    /**
+     * Helper method: Checks whether the ModificationGroup, or with {@link DuplicateKeys#REJECT} its sorting key, is already in the tree.
+     */
+    private boolean isAlreadyInTree(ModificationGroup modificationGroup) {
+        return nodeIndex.containsKey(modificationGroup.getModificationGroupId())
+                || (duplicateKeys == DuplicateKeys.REJECT && containsNode(root, modificationGroup));
     }
 
     /**
-     * Helper method: Recursively checks whether the object you are inserting already in the tree.
-     * Uses equals, which is overridden in ModificationGroup (uses the unique ID).
+     * Helper method: Iteratively checks whether the sorting key of the object you are inserting is already in the tree.
+     * It compares the keys only, the groups with an equal key are next to each other in the sorted order, so the descent reaches one of them.
+     * The descent is bounded by the number of elements, so an optimistic search on a half-changed tree can not loop.
      *
      * @return true if the group was found in the subtree
      */
     private boolean containsNode(Node current, ModificationGroup group) {
-        if (current == null) {
-            return false;
-        }
-        int comparisonResult = compareGroupsDRYComponent(current.modificationGroup, group);
-        if (comparisonResult == 0) {
-            return true;
+        int remainingSteps = totalNumberOfElements.get();
+        while (current != null) {
+            checkRemainingSteps(remainingSteps--);
+            int comparisonResult = compareSortingKeys(current.modificationGroup, group);
+            if (comparisonResult == 0) {
+                return true;
+            }
+            current = 0 < comparisonResult ? current.left : current.right;
         }
-        return 0 < comparisonResult ? containsNode(current.left, group) : containsNode(current.right, group);
+        return false;
     }
 
     /**
@@ -199,303 +504,1017 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
      * @return The ModificationGroup parent, or null if no parent exists
      */
     private Node findParentForInsertion(Node current, ModificationGroup modificationGroup) {
-        if (current == null) return null;
-
-        int comparison = compareGroupsDRYComponent(current.modificationGroup, modificationGroup);
-
-        if (comparison < 0) {
-            if (current.right == null) {
+        int remainingSteps = totalNumberOfElements.get();
+        while (current != null) {
+            checkRemainingSteps(remainingSteps--);
+            int comparison = compareGroupsDRYComponent(current.modificationGroup, modificationGroup);
+            Node next = comparison < 0 ? current.right : current.left;
+            if (next == null) {
                 return current;
             }
-            return findParentForInsertion(current.right, modificationGroup);
-        } else {
-            if (current.left == null) {
-                return current;
-            }
-            return findParentForInsertion(current.left, modificationGroup);
+            current = next;
+        }
+        return null;
+    }
+
+    /**
+     * Helper method, stops a descent which took more steps than the tree has elements, which is only possible on a half-changed tree.
+     */
+    private void checkRemainingSteps(int remainingSteps) {
+        if (remainingSteps < 0) {
+            throw new IllegalStateException("Tree changed during search");
         }
     }
 
     /**
-     * Removes a ModificationGroup from the tree while maintaining the sorting order.
+     * Removes a ModificationGroup from the tree while maintaining the sorting order. The Node is found via the node index in O(1).
+     * Removals are exclusive like insert, for concurrent writers use {@link SkipListModificationTree}.
      *
      * @param modificationGroup The group to remove (cannot be null)
+     * @return true if the group was removed, false if it was not in the tree
      * @throws NullPointerException if modificationGroup is null
      */
+    @Override
     public boolean removeModificationGroup(ModificationGroup modificationGroup) {
         Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
 
-        synchronized (treeLock) {
-            Node nodeToRemove = searchNodesForModificationGroup(modificationGroup);
+        long stamp = treeLock.writeLock();
+        try {
+            Node nodeToRemove = nodeIndex.get(modificationGroup.getModificationGroupId());
             if (nodeToRemove == null) {
                 return false; // Group not found in tree
             }
 
             allModificationGroups.remove(modificationGroup);
-
-            Node parent = findParentDRYComponent(root, modificationGroup);
-            if (parent != null) {
-                parent.getModificationGroup().removeChildModificationGroup(modificationGroup);
-            }
-
-            root = removeNode(root, modificationGroup);
-            totalNumberOfElements.decrementAndGet();
-            totalNumberOfLevels = calculateTotalNumberOfLevels();
-            modificationGroup.setLevel(-1);
-            return true;
+            unlinkAndUnindex(nodeToRemove);
+        } finally {
+            treeLock.unlockWrite(stamp);
         }
+        notifyRemoved(List.of(modificationGroup));
+        return true;
     }
 
     /**
-     * Helper method to remove a node while maintain binary tree structure
+     * Removes every ModificationGroup of the collection, which is in the tree, under a single write lock, see removeNodes() for the cost.
+     *
+     * @param modificationGroups The groups to remove (cannot be null)
+     * @return List<ModificationGroup> of the removed groups, in sorting order
+     * @throws NullPointerException if modificationGroups is null or contains null
      */
-    private Node removeNode(Node root, ModificationGroup group) {
-        if (root == null) {
-            return null;
-        }
-
-        int comparison = compareGroupsDRYComponent(root.modificationGroup, group);
-        if (comparison < 0) {
-            root.right = removeNode(root.right, group);
-        } else if (comparison > 0) {
-            root.left = removeNode(root.left, group);
-        } else {
-            if (root.left == null) {
-                return root.right;
-            } else if (root.right == null) {
-                return root.left;
-            } else {
-                Node minNode = findMinNode(root.right);
-                root.modificationGroup = minNode.modificationGroup;
-                root.right = removeNode(root.right, minNode.modificationGroup);
+    @Override
+    public List<ModificationGroup> removeAll(Collection<ModificationGroup> modificationGroups) {
+        Objects.requireNonNull(modificationGroups, "Collection of ModificationGroups cannot be null");
+
+        List<ModificationGroup> removed;
+        long stamp = treeLock.writeLock();
+        try {
+            Set<Node> nodesToRemove = new HashSet<>();
+            for (ModificationGroup modificationGroup : modificationGroups) {
+                Node node = nodeIndex.get(Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null").getModificationGroupId());
+                if (node != null) {
+                    nodesToRemove.add(node);
+                }
             }
+            removed = removeNodes(nodesToRemove);
+        } finally {
+            treeLock.unlockWrite(stamp);
         }
-        return root;
+        notifyRemoved(removed);
+        return removed;
     }
 
     /**
-     * Helper method, finds the minimum node in a subtree
+     * Removes every ModificationGroup matching the predicate under a single write lock, the predicate is tested in one in-order pass, O(n),
+     * see removeNodes() for the cost of the removal.
+     * The predicate runs while the write lock is held, so it must not call this tree.
+     *
+     * @param filter The predicate selecting the groups to remove (cannot be null)
+     * @return List<ModificationGroup> of the removed groups, in sorting order
+     * @throws NullPointerException if filter is null
      */
-    private Node findMinNode(Node node) {
-        while (node.left != null) {
-            node = node.left;
+    @Override
+    public List<ModificationGroup> removeIf(Predicate<ModificationGroup> filter) {
+        Objects.requireNonNull(filter, "Predicate cannot be null");
+
+        List<ModificationGroup> removed;
+        long stamp = treeLock.writeLock();
+        try {
+            Set<Node> nodesToRemove = new HashSet<>();
+            for (Node current = root == null ? null : findMinNode(root); current != null; current = inOrderSuccessor(current, null)) {
+                if (filter.test(current.modificationGroup)) {
+                    nodesToRemove.add(current);
+                }
+            }
+            removed = removeNodes(nodesToRemove);
+        } finally {
+            treeLock.unlockWrite(stamp);
         }
-        return node;
+        notifyRemoved(removed);
+        return removed;
     }
 
     /**
-     * Helper method, compares two ModificationGroups based on current tree logic.
+     * Removes every ModificationGroup with a sorting key between the given keys under a single write lock. The range is found in O(height + k),
+     * see removeNodes() for the cost of the removal.
+     *
+     * @param fromKey       The lower bound, or null for no lower bound
+     * @param fromInclusive Whether ModificationGroups with a key equal to fromKey are removed
+     * @param toKey         The upper bound, or null for no upper bound
+     * @param toInclusive   Whether ModificationGroups with a key equal to toKey are removed
+     * @return List<ModificationGroup> of the removed groups, in sorting order
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the tree logic
      */
-    private int compareGroupsDRYComponent(ModificationGroup a, ModificationGroup b) {
-        switch (treeLogic) {
-            case NAME:
-                return a.getName().compareTo(b.getName());
-            case PRIORITY:
-                return Integer.compare(a.getPriorityValue(), b.getPriorityValue());
-            case TOTAL_COST:
-                return Long.compare(a.getCost(), b.getCost());
-            default:
-                throw new IllegalStateException("Unknown tree logic: " + treeLogic);
+    @Override
+    public List<ModificationGroup> removeRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        Object fromTreeKey = fromKey == null ? null : normalizeKey(treeLogic, fromKey);
+        Object toTreeKey = toKey == null ? null : normalizeKey(treeLogic, toKey);
+        checkRange(fromTreeKey, toTreeKey);
+
+        List<ModificationGroup> removed;
+        long stamp = treeLock.writeLock();
+        try {
+            Set<Node> nodesToRemove = new HashSet<>();
+            Node current = fromTreeKey == null ? (root == null ? null : findMinNode(root)) : lowestNodeFrom(fromTreeKey, fromInclusive);
+            while (current != null && isBelowUpperBound(current.modificationGroup, toTreeKey, toInclusive)) {
+                nodesToRemove.add(current);
+                current = inOrderSuccessor(current, null);
+            }
+            removed = removeNodes(nodesToRemove);
+        } finally {
+            treeLock.unlockWrite(stamp);
         }
+        notifyRemoved(removed);
+        return removed;
     }
 
     /**
-     * Finds the parent of the given ModificationGroup in the tree. Uses compareGroupsDRYComponent helper method.
-     * A component in-line with the DRY Don1t Repeat Yourself principle, it can not substitute findParent in the current setup.
+     * Helper method, removes the given Nodes of the tree, the caller must hold the write lock. A few Nodes are sorted and unlinked one by one,
+     * O(k * log k + k * height) without walking the rest of the tree, and every group is removed from the queue of all ModificationGroups
+     * on its own, like removeModificationGroup does.
+     * When that would cost more than touching every Node, the tree is walked once in order, and the remaining Nodes are linked again into
+     * a perfectly balanced tree instead, O(n): the ModificationGroup links are cut top-down, so no subtree totals have to be propagated through
+     * ancestors, and the levels and aggregates are set once while linking. The queue is filtered once in that case.
      *
-     * @param modificationGroup The ModificationGroup, of which the parent we are searching for
-     * @return The parents Node, or null if no parent exists
+     * @return List<ModificationGroup> of the removed groups, in sorting order
      */
-    public Node findParentDRYComponent(Node current, ModificationGroup modificationGroup) {
-        if (current == null || current.modificationGroup.equals(modificationGroup)) {
-            return null;
+    private List<ModificationGroup> removeNodes(Set<Node> nodesToRemove) {
+        if (nodesToRemove.isEmpty()) {
+            return new ArrayList<>();
         }
-
-        int cmp = compareGroupsDRYComponent(current.modificationGroup, modificationGroup);
-        if (0 < cmp) {
-            if (current.left != null && current.left.modificationGroup.equals(modificationGroup)) {
-                return current;
+        int size = size(root);
+        List<ModificationGroup> removed = new ArrayList<>(nodesToRemove.size());
+        if ((long) nodesToRemove.size() * (32 - Integer.numberOfLeadingZeros(size)) < size) {
+            List<Node> sortedNodes = new ArrayList<>(nodesToRemove);
+            sortedNodes.sort((a, b) -> compareGroupsDRYComponent(a.modificationGroup, b.modificationGroup));
+            for (Node node : sortedNodes) {
+                removed.add(node.modificationGroup);
+                allModificationGroups.remove(node.modificationGroup);
+                unlinkAndUnindex(node);
             }
-            return findParentDRYComponent(current.left, modificationGroup);
-        } else {
-            if (current.right != null && current.right.modificationGroup.equals(modificationGroup)) {
-                return current;
+            return removed;
+        }
+
+        List<Node> survivors = new ArrayList<>(size);
+        for (Node current = findMinNode(root); current != null; current = inOrderSuccessor(current, null)) {
+            if (nodesToRemove.contains(current)) {
+                removed.add(current.modificationGroup);
+            } else {
+                survivors.add(current);
             }
-            return findParentDRYComponent(current.right, modificationGroup);
         }
+        Set<ModificationGroup> removedGroups = new HashSet<>(removed);
+        allModificationGroups.removeIf(removedGroups::contains);
+
+        detachAllNodes();
+        for (Node node : nodesToRemove) {
+            nodeIndex.remove(node.modificationGroup.getModificationGroupId());
+            unindexModifications(node.modificationGroup);
+            node.modificationGroup.setLevel(-1);
+            totalNumberOfElements.decrementAndGet();
+        }
+        levelIndex.clear();
+        root = linkBalanced(survivors, 0, survivors.size() - 1, 0);
+        for (Node survivor : survivors) {
+            addToLevelIndex(survivor);
+        }
+        return removed;
     }
 
-
     /**
-     * Finds the node containing the specified modification group using BFS(Breadth-first Search).
-     * Public method, therefore nullPointerException can still occur here, despite the Objects.requireNonNull further up the chain.
-     *
-     * @param modificationGroup The modification group to find (non-null)
-     * @return The Node in which the modificationGroup is found
-     * @throws NullPointerException   if modificationGroup is null
-     * @throws NoSuchElementException if modificationGroup is not found or tree is empty
+     * Helper method, cuts every Node and ModificationGroup link of the tree, top-down, and empties the tree. The caller must hold the write lock.
      */
-    @Override
-    public Node searchNodesForModificationGroup(ModificationGroup modificationGroup) {
-        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
-
-        Queue<Node> nodeQueue = new LinkedList<>();
-        final Node currentRoot = this.root;
-        if (currentRoot == null) {
-            throw new NoSuchElementException("Tree is empty");
+    private void detachAllNodes() {
+        Deque<Node> queue = new ArrayDeque<>();
+        if (root != null) {
+            queue.add(root);
         }
-        nodeQueue.add(currentRoot);
-        while (!nodeQueue.isEmpty()) {
-            Node selected = nodeQueue.poll();
-            if (selected.modificationGroup.equals(modificationGroup)) {
-                return selected;
-            }
-            if (selected.left != null) {
-                nodeQueue.add(selected.left);
-            }
-            if (selected.right != null) {
-                nodeQueue.add(selected.right);
+        while (!queue.isEmpty()) {
+            Node current = queue.poll();
+            for (Node child : new Node[]{current.left, current.right}) {
+                if (child != null) {
+                    unlinkModificationGroups(current, child);
+                    queue.add(child);
+                }
             }
+            current.left = null;
+            current.right = null;
+            current.parent = null;
+            current.height = 1;
+            current.size = 1;
         }
-        throw new NoSuchElementException("ModificationGroup not found in tree");
+        root = null;
     }
 
     /**
-     * Finds the node containing the specified modification using BFS (Breadth-first Search).
-     * Public method, therefore nullPointerException can still occur here, despite the Objects.requireNonNull further up the chain.
-     *
-     * @param modification The modification to find
-     * @return The parent ModificationGroup of the modification the method searches for
-     * @throws NullPointerException   if modification is null
-     * @throws NoSuchElementException if tree is empty or modification not found
+     * Helper method, removes a Node from the tree and from every index but the queue of all ModificationGroups. The caller must hold the write lock.
      */
-    @Override
-    public Node searchNodesForModifications(Modification modification) {
-        Objects.requireNonNull(modification, "Modification cannot be null");
-
-        Queue<Node> nodeQueue = new LinkedList<>();
-        final Node currentRoot = this.root;
-        if (currentRoot == null) {
-            throw new NoSuchElementException("Tree is empty");
-        }
-        nodeQueue.add(currentRoot);
-        while (!nodeQueue.isEmpty()) {
-            Node selected = nodeQueue.poll();
-            Set<Modification> modifications = selected.getModificationGroup().getModifications();
-
-            if (modifications.contains(modification)) {
-                return selected;
-            }
-            if (selected.left != null) {
-                nodeQueue.add(selected.left);
-            }
-            if (selected.right != null) {
-                nodeQueue.add(selected.right);
-            }
-        }
-        throw new NoSuchElementException("Modification not found in tree");
+    private void unlinkAndUnindex(Node node) {
+        ModificationGroup modificationGroup = node.modificationGroup;
+        nodeIndex.remove(modificationGroup.getModificationGroupId());
+        unindexModifications(modificationGroup);
+        removeFromLevelIndex(node);
+
+        retrace(removeNode(node));
+        totalNumberOfElements.decrementAndGet();
+        modificationGroup.setLevel(-1);
     }
 
     /**
-     * Finds the tree level of the specified ModificationGroup. If not successful uses BFS.
+     * Helper method to remove a node while maintaining the binary tree structure. The node is unlinked instead of copying
+     * its in-order successor's ModificationGroup into it, so every ModificationGroup keeps its own Node, and the
+     * ModificationGroup parent/child links and levels of the moved subtrees are updated via setChild() and relevel().
      *
-     * @param modificationGroup The group to locate (can be null)
-     * @return The level (root = 0), or -1 if not found
+     * @param node The node to unlink from the tree
+     * @return The deepest node whose subtree changed, the retracing has to start from here, or null if the tree became empty
      */
-    @Override
-    public int getLevelNumberOfModificationGroup(ModificationGroup modificationGroup) {
-        if (modificationGroup == null) {
-            return -1;
+    private Node removeNode(Node node) {
+        Node parent = node.parent;
+        boolean isLeftChild = parent != null && parent.left == node;
+
+        if (node.left == null || node.right == null) {
+            Node child = node.left != null ? node.left : node.right;
+            replaceInParent(parent, child, isLeftChild);
+            if (child != null) {
+                relevel(child, node.level);
+            }
+            return parent;
         }
 
-        if (modificationGroup.getLevel() >= 0 && searchNodesForModificationGroup(modificationGroup) != null) {
-            return modificationGroup.getLevel();
+        Node successor = findMinNode(node.right);
+        Node retraceFrom = successor;
+        if (successor.parent != node) {
+            retraceFrom = successor.parent;
+            Node successorRight = successor.right;
+            setChild(successor.parent, successorRight, true);
+            setChild(successor, node.right, false);
+            if (successorRight != null) {
+                relevel(successorRight, retraceFrom.level + 1);
+            }
         }
-        return getLevelNumberOfModificationGroupBFS(modificationGroup);
+        setChild(successor, node.left, true);
+        replaceInParent(parent, successor, isLeftChild);
+        relevel(successor, node.level);
+        return retraceFrom;
     }
 
     /**
-     * Finds the tree level of the specified ModificationGroup suing breadth-first search.
+     * Moves the Node of a ModificationGroup whose sorting key (priority value or cost) changed after insertion, so the sorting order stays valid.
+     * The change was already applied to the group, so it is never rejected: with {@link DuplicateKeys#REJECT} a new key equal to the key of
+     * another group is ordered by the modificationGroupId, like with {@link DuplicateKeys#ALLOW}, see compareGroupsDRYComponent().
+     * If the Node is still between its in-order predecessor and successor nothing is moved. Otherwise the same Node is unlinked and linked
+     * in again at its new position, O(height), the node index, the Modification index and the listener registration are kept as they are.
+     * The cost and priority value aggregates are updated in both cases.
      *
-     * @param modificationGroup The group to locate (non-null)
-     * @return The level (root = 0), or -1 if not found
+     * @param modificationGroup The ModificationGroup whose key changed
      */
-    private int getLevelNumberOfModificationGroupBFS(ModificationGroup modificationGroup) {
-        final Node currentRoot = this.root;
-        if (currentRoot == null) {
-            return -1;
-        }
-
-        Queue<Node> queueOfElementsCurrentLevel = new LinkedList<>();
-        Queue<Node> queueOfElementsOnNextLevel = new LinkedList<>();
-        queueOfElementsCurrentLevel.add(currentRoot);
-        int levelNumber = 0;
-
-        while (!queueOfElementsCurrentLevel.isEmpty()) {
-            Node currentNode = queueOfElementsCurrentLevel.poll();
-
-            if (modificationGroup.equals(currentNode.modificationGroup)) {
-                return levelNumber;
-            }
-            if (currentNode.left != null) {
-                queueOfElementsOnNextLevel.add(currentNode.left);
+    private void rekey(ModificationGroup modificationGroup) {
+        long stamp = treeLock.writeLock();
+        try {
+            Node node = nodeIndex.get(modificationGroup.getModificationGroupId());
+            if (node == null) {
+                return;
             }
-            if (currentNode.right != null) {
-                queueOfElementsOnNextLevel.add(currentNode.right);
+            if (isInOrder(node)) {
+                updateAggregatesUpToRoot(node);
+                return;
             }
-            if (queueOfElementsCurrentLevel.isEmpty()) {
-                queueOfElementsCurrentLevel = queueOfElementsOnNextLevel;
-                queueOfElementsOnNextLevel = new LinkedList<>();
-                levelNumber++;
+
+            retrace(removeNode(node));
+            updateAggregates(node);
+
+            if (root == null) {
+                root = node;
+                setNodeLevel(node, 0);
+                modificationGroup.setLevel(0);
+                return;
             }
+            Node parentNode = findParentForInsertion(root, modificationGroup);
+            setChild(parentNode, node, compareGroupsDRYComponent(parentNode.modificationGroup, modificationGroup) >= 0);
+            relevel(node, parentNode.level + 1);
+            retrace(parentNode);
+        } finally {
+            treeLock.unlockWrite(stamp);
         }
-        return -1;
     }
 
     /**
-     * Returns a Set<ModificationGroup> of all ModificationGroup on this level and below it, using BFS.
+     * Updates the cost and priority value aggregates on the path from the Node of the ModificationGroup to the root, in O(height),
+     * after the calculated values of a ModificationGroup changed without changing its sorting key.
      *
-     * @param upUntilThisLevel the level up until to count the ModificationGroups
-     * @return Set<ModificationGroup> the set of ModificationGroups up until the give level
+     * @param modificationGroup The ModificationGroup whose values changed
      */
-    @Override
-    public Set<ModificationGroup> getSetOfModificationGroupsUpUntilGivenLevel(ModificationGroup modificationGroup, int upUntilThisLevel) {
-        Set<ModificationGroup> modificationsUntilThisLevel = new HashSet<>();
+    private void refreshAggregates(ModificationGroup modificationGroup) {
+        long stamp = treeLock.writeLock();
+        try {
+            Node node = nodeIndex.get(modificationGroup.getModificationGroupId());
+            if (node != null) {
+                updateAggregatesUpToRoot(node);
+            }
+        } finally {
+            treeLock.unlockWrite(stamp);
+        }
+    }
 
-        if (root == null) {
-            return modificationsUntilThisLevel;
+    /**
+     * Helper method, checks whether a Node is still between its in-order predecessor and successor.
+     */
+    private boolean isInOrder(Node node) {
+        Node predecessor = inOrderPredecessor(node, null);
+        Node successor = inOrderSuccessor(node, null);
+        return (predecessor == null || compareGroupsDRYComponent(predecessor.modificationGroup, node.modificationGroup) < 0)
+                && (successor == null || compareGroupsDRYComponent(node.modificationGroup, successor.modificationGroup) < 0);
+    }
+
+    /**
+     * Helper method, returns the next Node in in-order (sorted) order within the subtree of subtreeRoot, using the parent references,
+     * or null if node is the last one. A null subtreeRoot means the whole tree.
+     */
+    private Node inOrderSuccessor(Node node, Node subtreeRoot) {
+        if (node.right != null) {
+            return findMinNode(node.right);
         }
+        Node current = node;
+        while (current != subtreeRoot && current.parent != null && current.parent.right == current) {
+            current = current.parent;
+        }
+        return current == subtreeRoot ? null : current.parent;
+    }
 
-        Queue<Node> queueOfElements = new LinkedList<>();
-        Queue<Node> queueOfElementsOnNextLevel = new LinkedList<>();
-        queueOfElements.add(root);
-        int levelNumber = 0;
+    /**
+     * Helper method, returns the previous Node in in-order (sorted) order within the subtree of subtreeRoot, using the parent references,
+     * or null if node is the first one. A null subtreeRoot means the whole tree.
+     */
+    private Node inOrderPredecessor(Node node, Node subtreeRoot) {
+        if (node.left != null) {
+            return findMaxNode(node.left);
+        }
+        Node current = node;
+        while (current != subtreeRoot && current.parent != null && current.parent.left == current) {
+            current = current.parent;
+        }
+        return current == subtreeRoot ? null : current.parent;
+    }
 
-        while (!queueOfElements.isEmpty()) {
-            Node currentNode = queueOfElements.poll();
+    /**
+     * Helper method, runs a read-only query consistently with the writers. With {@link ReadConcurrency#OPTIMISTIC} the query first runs
+     * without blocking, and its result is only used if no writer took the lock meanwhile, exceptions thrown on a half-changed tree are dropped too.
+     * Otherwise, and with {@link ReadConcurrency#LOCKING}, the query runs under the shared read lock. The query must not have side effects
+     * besides its result, because it may run twice.
+     *
+     * @param query The read-only query
+     * @return The result of the query, computed on a consistent tree
+     */
+    private <T> T read(Supplier<T> query) {
+        if (readConcurrency == ReadConcurrency.OPTIMISTIC) {
+            long stamp = treeLock.tryOptimisticRead();
+            if (stamp != 0L) {
+                try {
+                    T result = query.get();
+                    if (treeLock.validate(stamp)) {
+                        return result;
+                    }
+                } catch (RuntimeException e) {
+                    if (treeLock.validate(stamp)) {
+                        throw e;
+                    }
+                }
+            }
+        }
 
-            modificationsUntilThisLevel.add(currentNode.modificationGroup);
+        long stamp = treeLock.readLock();
+        try {
+            return query.get();
+        } finally {
+            treeLock.unlockRead(stamp);
+        }
+    }
 
-            if (levelNumber == upUntilThisLevel) {
-                return modificationsUntilThisLevel;
+    /**
+     * Helper method, registers the index listener on a newly inserted ModificationGroup and adds its Modifications to modificationIndex.
+     * The listener is registered first, so no change can be missed, the Modifications are read under the lock of the ModificationGroup.
+     */
+    private void indexModifications(ModificationGroup modificationGroup) {
+        modificationGroup.addModificationGroupListener(modificationGroupListener);
+        synchronized (modificationGroup.modificationsLock) {
+            for (Modification modification : modificationGroup.getModifications()) {
+                addModificationOwner(modification, modificationGroup);
             }
-            if (currentNode.left != null) {
-                queueOfElementsOnNextLevel.add(currentNode.left);
+        }
+    }
+
+    /**
+     * Helper method, unregisters the index listener from a removed ModificationGroup and removes its Modifications from modificationIndex.
+     */
+    private void unindexModifications(ModificationGroup modificationGroup) {
+        modificationGroup.removeModificationGroupListener(modificationGroupListener);
+        synchronized (modificationGroup.modificationsLock) {
+            for (Modification modification : modificationGroup.getModifications()) {
+                removeModificationOwner(modification, modificationGroup);
             }
-            if (currentNode.right != null) {
-                queueOfElementsOnNextLevel.add(currentNode.right);
+        }
+    }
+
+    private void addModificationOwner(Modification modification, ModificationGroup owner) {
+        modificationIndex.computeIfAbsent(modification.getModificationId(), id -> ConcurrentHashMap.newKeySet()).add(owner);
+    }
+
+    private void removeModificationOwner(Modification modification, ModificationGroup owner) {
+        modificationIndex.computeIfPresent(modification.getModificationId(), (id, owners) -> {
+            owners.remove(owner);
+            return owners.isEmpty() ? null : owners;
+        });
+    }
+
+    /**
+     * Helper method, attaches child to the given side of parent, detaches it from its previous parent and keeps the
+     * ModificationGroup parent/child links (addChildModificationGroup/removeChildModificationGroup) consistent with the Nodes.
+     * Node levels are not changed here, that is the job of relevel().
+     *
+     * @param parent The new parent Node (non-null)
+     * @param child  The Node to attach, can be null to clear the given side
+     * @param left   true for the left side, false for the right side
+     */
+    private void setChild(Node parent, Node child, boolean left) {
+        Node previous = left ? parent.left : parent.right;
+        if (previous != null && previous != child && previous.parent == parent) {
+            previous.parent = null;
+            unlinkModificationGroups(parent, previous);
+        }
+        if (left) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+        if (child == null) {
+            return;
+        }
+        detachFromParent(child, parent);
+        child.parent = parent;
+        if (child.modificationGroup.getParentModificationGroup() != parent.modificationGroup) {
+            parent.modificationGroup.addChildModificationGroup(child.modificationGroup);
+        }
+    }
+
+    /**
+     * Helper method, puts replacement into the place of a node under parent, or makes it the root if parent is null.
+     */
+    private void replaceInParent(Node parent, Node replacement, boolean isLeftChild) {
+        if (parent == null) {
+            root = replacement;
+            if (replacement != null) {
+                detachFromParent(replacement, null);
+                replacement.parent = null;
+            }
+            return;
+        }
+        setChild(parent, replacement, isLeftChild);
+    }
+
+    /**
+     * Helper method, removes the link between node and its current parent, unless the current parent is the given one.
+     */
+    private void detachFromParent(Node node, Node keepParent) {
+        Node oldParent = node.parent;
+        if (oldParent == null || oldParent == keepParent) {
+            return;
+        }
+        if (oldParent.left == node) {
+            oldParent.left = null;
+        } else if (oldParent.right == node) {
+            oldParent.right = null;
+        }
+        node.parent = null;
+        unlinkModificationGroups(oldParent, node);
+    }
+
+    /**
+     * Helper method, removes the ModificationGroup parent/child link between two Nodes, if it exists.
+     */
+    private void unlinkModificationGroups(Node parent, Node child) {
+        if (child.modificationGroup.getParentModificationGroup() == parent.modificationGroup) {
+            parent.modificationGroup.removeChildModificationGroup(child.modificationGroup);
+        }
+    }
+
+    /**
+     * Helper method, sets the level of a moved subtree, both on the Nodes and on the ModificationGroups, and keeps the level index in sync.
+     * Subtrees whose root and its child groups already have the correct level were not moved, so they are skipped.
+     *
+     * @param subtreeRoot The root of the moved subtree
+     * @param level       The new level of subtreeRoot
+     */
+    private void relevel(Node subtreeRoot, int level) {
+        Deque<Node> stack = new ArrayDeque<>();
+        setNodeLevel(subtreeRoot, level);
+        stack.push(subtreeRoot);
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            if (current != subtreeRoot) {
+                int expectedLevel = current.parent.level + 1;
+                if (current.level == expectedLevel && current.modificationGroup.getLevel() == expectedLevel
+                        && hasChildGroupsOnLevel(current, expectedLevel + 1)) {
+                    continue;
+                }
+                setNodeLevel(current, expectedLevel);
             }
-            if (queueOfElements.isEmpty()) {
-                queueOfElements = queueOfElementsOnNextLevel;
-                queueOfElementsOnNextLevel = new LinkedList<>();
-                levelNumber++;
+            current.modificationGroup.setLevel(current.level);
+            if (current.left != null) {
+                stack.push(current.left);
+            }
+            if (current.right != null) {
+                stack.push(current.right);
             }
         }
-        return modificationsUntilThisLevel;
     }
 
     /**
-     * Returns a Set<Modification> of all Modification of the given ModificationGroup and its children. It uses BFS.
+     * Helper method, checks the levels of the ModificationGroups of the child Nodes. {@link ModificationGroup#setLevel(int)} also writes the
+     * level of the direct child groups, so a Node with the correct level can still have children with stale group levels.
+     */
+    private boolean hasChildGroupsOnLevel(Node node, int level) {
+        return (node.left == null || node.left.modificationGroup.getLevel() == level)
+                && (node.right == null || node.right.modificationGroup.getLevel() == level);
+    }
+
+    /**
+     * Helper method, moves a Node to a new level in the level index.
+     */
+    private void setNodeLevel(Node node, int level) {
+        if (node.level == level) {
+            return;
+        }
+        removeFromLevelIndex(node);
+        node.level = level;
+        addToLevelIndex(node);
+    }
+
+    private void addToLevelIndex(Node node) {
+        levelIndex.computeIfAbsent(node.level, level -> ConcurrentHashMap.newKeySet()).add(node.modificationGroup);
+    }
+
+    private void removeFromLevelIndex(Node node) {
+        levelIndex.computeIfPresent(node.level, (level, groups) -> {
+            groups.remove(node.modificationGroup);
+            return groups.isEmpty() ? null : groups;
+        });
+    }
+
+    /**
+     * Helper method, walks from the given node up to the root along the insertion or removal path and updates the heights and subtree sizes.
+     * With {@link TreeBalancing#AVL} it also performs the rotations where needed. Costs O(height) instead of a BFS over the whole tree.
+     *
+     * @param node The deepest node whose subtree changed, can be null
+     */
+    private void retrace(Node node) {
+        while (node != null) {
+            updateAggregates(node);
+            if (treeBalancing == TreeBalancing.AVL) {
+                node = rebalance(node);
+            }
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Helper method, restores the AVL property of a single node with one or two rotations.
+     *
+     * @return The Node which is now at the position of the given node
+     */
+    private Node rebalance(Node node) {
+        int balance = height(node.left) - height(node.right);
+        if (1 < balance) {
+            if (height(node.left.left) < height(node.left.right)) {
+                rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Helper method, rotates the subtree of node to the left, its right child becomes the new subtree root.
+     */
+    private Node rotateLeft(Node node) {
+        Node parent = node.parent;
+        boolean isLeftChild = parent != null && parent.left == node;
+        Node pivot = node.right;
+
+        setChild(node, pivot.left, false);
+        setChild(pivot, node, true);
+        replaceInParent(parent, pivot, isLeftChild);
+
+        updateAggregates(node);
+        updateAggregates(pivot);
+        relevel(pivot, parent == null ? 0 : parent.level + 1);
+        return pivot;
+    }
+
+    /**
+     * Helper method, rotates the subtree of node to the right, its left child becomes the new subtree root.
+     */
+    private Node rotateRight(Node node) {
+        Node parent = node.parent;
+        boolean isLeftChild = parent != null && parent.left == node;
+        Node pivot = node.left;
+
+        setChild(node, pivot.right, true);
+        setChild(pivot, node, false);
+        replaceInParent(parent, pivot, isLeftChild);
+
+        updateAggregates(node);
+        updateAggregates(pivot);
+        relevel(pivot, parent == null ? 0 : parent.level + 1);
+        return pivot;
+    }
+
+    /**
+     * Helper method, recalculates the height, the subtree size and the subtree cost and priority value aggregates of a node from its children.
+     */
+    private void updateAggregates(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.size = 1 + size(node.left) + size(node.right);
+        long cost = node.modificationGroup.getCost();
+        int priorityValue = node.modificationGroup.getPriorityValue();
+        node.costSum = cost;
+        node.priorityValueSum = priorityValue;
+        node.maxCost = cost;
+        node.maxPriorityValue = priorityValue;
+        addChildAggregates(node, node.left);
+        addChildAggregates(node, node.right);
+    }
+
+    private void addChildAggregates(Node node, Node child) {
+        if (child != null) {
+            node.costSum += child.costSum;
+            node.priorityValueSum += child.priorityValueSum;
+            node.maxCost = Math.max(node.maxCost, child.maxCost);
+            node.maxPriorityValue = Math.max(node.maxPriorityValue, child.maxPriorityValue);
+        }
+    }
+
+    /**
+     * Helper method, recalculates the aggregates from the given node up to the root, after the cost or priority value of its ModificationGroup changed.
+     */
+    private void updateAggregatesUpToRoot(Node node) {
+        while (node != null) {
+            updateAggregates(node);
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Helper method, returns the height of a node, 0 for null.
+     */
+    private int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Helper method, returns the number of Nodes in the subtree of a node, 0 for null.
+     */
+    private int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Helper method, descends from the given node to the Node with the given rank within its subtree, using the subtree sizes.
+     */
+    private Node selectNode(Node node, int rank) {
+        int remainingSteps = totalNumberOfElements.get();
+        while (node != null) {
+            checkRemainingSteps(remainingSteps--);
+            int leftSize = size(node.left);
+            if (rank == leftSize) {
+                return node;
+            }
+            if (rank < leftSize) {
+                node = node.left;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        throw new IllegalStateException("Tree changed during search");
+    }
+
+    /**
+     * Helper method, finds the minimum node in a subtree
+     */
+    private Node findMinNode(Node node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    /**
+     * Helper method, finds the Node with the biggest key in a subtree.
+     */
+    private Node findMaxNode(Node node) {
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    /**
+     * Helper method, finds the Node with the smallest key bigger than (or equal to, if inclusive) the given key, or null.
+     */
+    private Node lowestNodeFrom(Object treeKey, boolean inclusive) {
+        Node best = null;
+        Node current = this.root;
+        int remainingSteps = totalNumberOfElements.get();
+        while (current != null) {
+            checkRemainingSteps(remainingSteps--);
+            if (isAboveLowerBound(current.modificationGroup, treeKey, inclusive)) {
+                best = current;
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Helper method, finds the Node sorted right after the given ModificationGroup, which does not have to be in the tree anymore, or null.
+     */
+    private Node lowestNodeAfter(ModificationGroup modificationGroup) {
+        Node best = null;
+        Node current = this.root;
+        int remainingSteps = totalNumberOfElements.get();
+        while (current != null) {
+            checkRemainingSteps(remainingSteps--);
+            if (0 < compareGroupsDRYComponent(current.modificationGroup, modificationGroup)) {
+                best = current;
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Helper method, checks whether the key of a ModificationGroup is above (or equal to, if inclusive) the lower bound, a null bound means no bound.
+     */
+    private boolean isAboveLowerBound(ModificationGroup modificationGroup, Object fromTreeKey, boolean fromInclusive) {
+        if (fromTreeKey == null) {
+            return true;
+        }
+        int comparison = compareToKey(modificationGroup, fromTreeKey);
+        return 0 < comparison || (fromInclusive && comparison == 0);
+    }
+
+    private void addNodeToAggregate(RangeAggregate result, Node node) {
+        long cost = node.modificationGroup.getCost();
+        int priorityValue = node.modificationGroup.getPriorityValue();
+        result.add(1, cost, priorityValue, cost, priorityValue);
+    }
+
+    private void addSubtreeToAggregate(RangeAggregate result, Node node) {
+        if (node != null) {
+            result.add(node.size, node.costSum, node.priorityValueSum, node.maxCost, node.maxPriorityValue);
+        }
+    }
+
+    /**
+     * Helper method, checks whether the key of a ModificationGroup is below (or equal to, if inclusive) the upper bound, a null bound means no bound.
+     */
+    private boolean isBelowUpperBound(ModificationGroup modificationGroup, Object toTreeKey, boolean toInclusive) {
+        if (toTreeKey == null) {
+            return true;
+        }
+        int comparison = compareToKey(modificationGroup, toTreeKey);
+        return comparison < 0 || (toInclusive && comparison == 0);
+    }
+
+    /**
+     * Helper method, compares the sorting key of a ModificationGroup with a key normalized by normalizeKey().
+     */
+    private int compareToKey(ModificationGroup modificationGroup, Object treeKey) {
+        switch (treeLogic) {
+            case NAME:
+                return modificationGroup.getName().compareTo((String) treeKey);
+            case PRIORITY:
+                return Long.compare(modificationGroup.getPriorityValue(), (Long) treeKey);
+            case TOTAL_COST:
+                return Long.compare(modificationGroup.getCost(), (Long) treeKey);
+            default:
+                throw new IllegalStateException("Unknown tree logic: " + treeLogic);
+        }
+    }
+
+    /**
+     * Helper method, checks that the lower bound of a range is not bigger than its upper bound.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static void checkRange(Object fromTreeKey, Object toTreeKey) {
+        if (fromTreeKey != null && toTreeKey != null && 0 < ((Comparable) fromTreeKey).compareTo(toTreeKey)) {
+            throw new IllegalArgumentException("fromKey cannot be bigger than toKey");
+        }
+    }
+
+    /**
+     * Helper method, converts a range key given by the caller to the key type of the tree logic: a String for NAME, a Long for PRIORITY and TOTAL_COST.
+     * Shared by the tree engines of this package.
+     *
+     * @throws IllegalArgumentException if the type of the key does not match the tree logic
+     */
+    static Object normalizeKey(TreeLogic treeLogic, Object key) {
+        if (treeLogic == TreeLogic.NAME) {
+            if (key instanceof String) {
+                return key;
+            }
+            throw new IllegalArgumentException("Key of a tree sorted by NAME must be a String");
+        }
+        if (key instanceof Integer || key instanceof Long || key instanceof Short || key instanceof Byte) {
+            return ((Number) key).longValue();
+        }
+        throw new IllegalArgumentException("Key of a tree sorted by " + treeLogic + " must be an integral Number");
+    }
+
+    /**
+     * Helper method, compares two ModificationGroups based on current tree logic, equal keys are ordered by the modificationGroupId.
+     * With {@link DuplicateKeys#REJECT} an equal key of two different groups is only possible after a re-key, the tiebreak keeps the order
+     * of the tree total in that case too. The duplicate checks of the inserts use compareSortingKeys().
+     */
+    private int compareGroupsDRYComponent(ModificationGroup a, ModificationGroup b) {
+        int comparison = compareSortingKeys(a, b);
+        if (comparison == 0) {
+            return Integer.compare(a.getModificationGroupId(), b.getModificationGroupId());
+        }
+        return comparison;
+    }
+
+    /**
+     * Helper method, compares the sorting keys of two ModificationGroups based on current tree logic, without a tiebreak.
+     */
+    private int compareSortingKeys(ModificationGroup a, ModificationGroup b) {
+        int comparison;
+        switch (treeLogic) {
+            case NAME:
+                comparison = a.getName().compareTo(b.getName());
+                break;
+            case PRIORITY:
+                comparison = Integer.compare(a.getPriorityValue(), b.getPriorityValue());
+                break;
+            case TOTAL_COST:
+                comparison = Long.compare(a.getCost(), b.getCost());
+                break;
+            default:
+                throw new IllegalStateException("Unknown tree logic: " + treeLogic);
+        }
+        return comparison;
+    }
+
+    /**
+     * Finds the parent of the given ModificationGroup in the tree. Uses compareGroupsDRYComponent helper method.
+     * A component in-line with the DRY Don1t Repeat Yourself principle, it can not substitute findParent in the current setup.
+     *
+     * @param modificationGroup The ModificationGroup, of which the parent we are searching for
+     * @return The parents Node, or null if no parent exists
+     */
+    public Node findParentDRYComponent(Node current, ModificationGroup modificationGroup) {
+        while (current != null && !current.modificationGroup.equals(modificationGroup)) {
+            int cmp = compareGroupsDRYComponent(current.modificationGroup, modificationGroup);
+            Node next = 0 < cmp ? current.left : current.right;
+            if (next != null && next.modificationGroup.equals(modificationGroup)) {
+                return current;
+            }
+            current = next;
+        }
+        return null;
+    }
+
+
+    /**
+     * Finds the node containing the specified modification group, using the node index, in O(1).
+     * Public method, therefore nullPointerException can still occur here, despite the Objects.requireNonNull further up the chain.
+     *
+     * @param modificationGroup The modification group to find (non-null)
+     * @return The Node in which the modificationGroup is found
+     * @throws NullPointerException   if modificationGroup is null
+     * @throws NoSuchElementException if modificationGroup is not found or tree is empty
+     */
+    @Override
+    public Node searchNodesForModificationGroup(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        return findNodeByModificationGroup(modificationGroup);
+    }
+
+    /**
+     * Checks whether the given ModificationGroup is stored in this tree, using the node index, in O(1).
+     *
+     * @param modificationGroup The modification group to look for (non-null)
+     * @return true if the tree contains the modificationGroup
+     * @throws NullPointerException if modificationGroup is null
+     */
+    public boolean containsModificationGroup(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        return nodeIndex.containsKey(modificationGroup.getModificationGroupId());
+    }
+
+    /**
+     * Finds the node containing the specified modification, using the modificationId to ModificationGroup to Node indexes, in O(1).
+     * If more ModificationGroups contain the same Modification, the one closest to the root is returned.
+     * Public method, therefore nullPointerException can still occur here, despite the Objects.requireNonNull further up the chain.
+     *
+     * @param modification The modification to find
+     * @return The Node of the parent ModificationGroup of the modification the method searches for
+     * @throws NullPointerException   if modification is null
+     * @throws NoSuchElementException if tree is empty or modification not found
+     */
+    @Override
+    public Node searchNodesForModifications(Modification modification) {
+        Objects.requireNonNull(modification, "Modification cannot be null");
+
+        if (this.root == null) {
+            throw new NoSuchElementException("Tree is empty");
+        }
+        Set<ModificationGroup> owners = modificationIndex.getOrDefault(modification.getModificationId(), Collections.emptySet());
+        Node found = read(() -> {
+            Node closestToRoot = null;
+            for (ModificationGroup owner : owners) {
+                Node node = nodeIndex.get(owner.getModificationGroupId());
+                if (node != null && (closestToRoot == null || node.level < closestToRoot.level)) {
+                    closestToRoot = node;
+                }
+            }
+            return closestToRoot;
+        });
+        if (found == null) {
+            throw new NoSuchElementException("Modification not found in tree");
+        }
+        return found;
+    }
+
+    /**
+     * Finds the tree level of the specified ModificationGroup, using the node index, in O(1).
+     *
+     * @param modificationGroup The group to locate (can be null)
+     * @return The level (root = 0), or -1 if not found
+     */
+    @Override
+    public int getLevelNumberOfModificationGroup(ModificationGroup modificationGroup) {
+        if (modificationGroup == null) {
+            return -1;
+        }
+
+        Node node = nodeIndex.get(modificationGroup.getModificationGroupId());
+        return node == null ? -1 : node.level;
+    }
+
+    /**
+     * Returns a Set<ModificationGroup> of all ModificationGroup on this level and the levels above it (closer to the root), using the level index.
+     *
+     * @param upUntilThisLevel the level up until to count the ModificationGroups
+     * @return Set<ModificationGroup> the set of ModificationGroups up until the give level
+     */
+    @Override
+    public Set<ModificationGroup> getSetOfModificationGroupsUpUntilGivenLevel(ModificationGroup modificationGroup, int upUntilThisLevel) {
+        return read(() -> {
+            Set<ModificationGroup> modificationsUntilThisLevel = new HashSet<>();
+
+            for (int level = 0; level <= upUntilThisLevel; level++) {
+                Set<ModificationGroup> groupsOnLevel = levelIndex.get(level);
+                if (groupsOnLevel == null) {
+                    break;
+                }
+                modificationsUntilThisLevel.addAll(groupsOnLevel);
+            }
+            return modificationsUntilThisLevel;
+        });
+    }
+
+    /**
+     * Returns a Set<Modification> of all Modification of the given ModificationGroup and its children, see aggregateSubtree() for the traversal.
      *
      * @param modificationGroup The ModificationGroup, which will be investigated
      * @return Set<Modification> of all Modification of this ModificationGroup and its' children
@@ -506,58 +1525,112 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
     public Set<Modification> getModificationsOfGivenModificationGroupAndItsChildren(ModificationGroup modificationGroup) throws NoSuchElementException {
         Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
 
-        Set<Modification> allModifications = new HashSet<>();
-        collectModificationsRecursively(modificationGroup, allModifications);
+        Set<Modification> allModifications = ConcurrentHashMap.newKeySet();
+        aggregateSubtree(modificationGroup, group -> {
+            synchronized (group.modificationsLock) {
+                allModifications.addAll(group.getModifications());
+            }
+            return 0;
+        });
         return allModifications;
     }
 
     /**
-     * Helper method to find the Node containing a specific ModificationGroup (BFS).
+     * Returns the number of Modifications of the given ModificationGroup and of every ModificationGroup below it, see aggregateSubtree() for the traversal.
+     * A Modification which belongs to more ModificationGroups is counted in each of them.
+     *
+     * @param modificationGroup The ModificationGroup, which will be investigated
+     * @return The number of Modifications in the subtree
+     * @throws NullPointerException   if modificationGroup is null
+     * @throws NoSuchElementException if the group is not found in the tree
+     */
+    @Override
+    public long countModificationsOfGivenModificationGroupAndItsChildren(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        return aggregateSubtree(modificationGroup, group -> {
+            synchronized (group.modificationsLock) {
+                return group.getModifications().size();
+            }
+        });
+    }
+
+    /**
+     * Calculates the sum of the cost of the given ModificationGroup and of every ModificationGroup below it from their current costs,
+     * see aggregateSubtree() for the traversal. The result equals {@link ModificationGroup#getSubtreeCost()}, which is maintained incrementally,
+     * so this is meant for verifying it and for rollups of large trees.
+     *
+     * @param modificationGroup The ModificationGroup, which will be investigated
+     * @return The recalculated subtree cost
+     * @throws NullPointerException   if modificationGroup is null
+     * @throws NoSuchElementException if the group is not found in the tree
+     */
+    @Override
+    public long calculateSubtreeCost(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        return aggregateSubtree(modificationGroup, ModificationGroup::getCost);
+    }
+
+    /**
+     * Helper method, sums a value over the Node of the ModificationGroup and every Node below it, under the read lock, so the subtree cannot change meanwhile.
+     * Subtrees up to the threshold of the {@link ParallelExecutionPolicy} of this tree are walked sequentially by the caller, bigger ones are split
+     * at the child boundaries by a {@link SubtreeAggregationTask} in the pool of the policy. The Node sizes are exact, so the cutoff needs no estimate.
+     * Called from a worker of that pool, the task is run by the worker directly instead of being submitted and joined.
      */
-    private Node findNodeByModificationGroup(ModificationGroup group) throws NoSuchElementException {
-        if (root == null) {
-            throw new NoSuchElementException("Tree is empty");
+    private long aggregateSubtree(ModificationGroup modificationGroup, ToLongFunction<ModificationGroup> value) {
+        ParallelExecutionPolicy parallelExecutionPolicy = this.parallelExecutionPolicy;
+        long stamp = treeLock.readLock();
+        try {
+            Node subtreeRoot = findNodeByModificationGroup(modificationGroup);
+            if (!parallelExecutionPolicy.shouldUseParallel(subtreeRoot.size)) {
+                return aggregateSubtreeSequentially(subtreeRoot, value);
+            }
+            SubtreeAggregationTask task = new SubtreeAggregationTask(subtreeRoot, value, parallelExecutionPolicy.getParallelThreshold());
+            if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == parallelExecutionPolicy.getForkJoinPool()) {
+                return task.invoke();
+            }
+            return parallelExecutionPolicy.getForkJoinPool().invoke(task);
+        } finally {
+            treeLock.unlockRead(stamp);
         }
+    }
 
-        Queue<Node> queue = new LinkedList<>();
-        queue.add(root);
-
-        while (!queue.isEmpty()) {
-            Node current = queue.poll();
-            if (group.equals(current.modificationGroup)) {
-                return current;
-            }
+    /**
+     * Helper method, sums a value over a subtree with an explicit stack instead of recursion, so deep subtrees do not overflow the call stack.
+     */
+    private static long aggregateSubtreeSequentially(Node subtreeRoot, ToLongFunction<ModificationGroup> value) {
+        long result = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(subtreeRoot);
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            result += value.applyAsLong(current.modificationGroup);
             if (current.left != null) {
-                queue.add(current.left);
+                stack.push(current.left);
             }
             if (current.right != null) {
-                queue.add(current.right);
+                stack.push(current.right);
             }
         }
-
-        throw new NoSuchElementException("ModificationGroup not found in tree");
+        return result;
     }
 
     /**
-     * Collects all modifications from a given node and its children into a set.
-     *
-     * @param group       ModificationGroup
-     * @param accumulator The set in which you collect modifications, needed to be recursive
+     * Helper method to find the Node containing a specific ModificationGroup, using the node index.
      */
-    private void collectModificationsRecursively(ModificationGroup group, Set<Modification> accumulator) {
-        synchronized (group.modificationsLock) {
-            accumulator.addAll(group.getModifications());
+    private Node findNodeByModificationGroup(ModificationGroup group) throws NoSuchElementException {
+        if (root == null) {
+            throw new NoSuchElementException("Tree is empty");
         }
 
-        synchronized (group.childModificationsLock) {
-            for (ModificationGroup child : group.getChildModificationGroups()) {
-                collectModificationsRecursively(child, accumulator);
-            }
+        Node node = nodeIndex.get(group.getModificationGroupId());
+        if (node == null) {
+            throw new NoSuchElementException("ModificationGroup not found in tree");
         }
+        return node;
     }
 
     /**
-     * Finds a modification with the specified ID at the given tree level.
+     * Finds a modification with the specified ID at the given tree level. Only the ModificationGroups of that level are searched, via the level index.
      *
      * @param id    The ID of the modification to find (must be positive)
      * @param level The tree level to search in (0-based)
@@ -578,16 +1651,22 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
             throw new NullPointerException("Tree is empty");
         }
 
-        return getListOfModificationGroupsOnGivenLevel(root.getModificationGroup(), level).stream()
-                .flatMap(group -> group.getModifications().stream())
-                .filter(mod -> mod.getModificationId() == id)
-                .findFirst()
-                .orElseThrow(() -> new NoSuchElementException("No modification found with ID = " + id + " and level = " + level)
-                );
+        // the read only validates the tree structure, so the Modifications of each group are read under its own lock after it
+        List<ModificationGroup> groupsOnLevel = read(() -> new ArrayList<>(levelIndex.getOrDefault(level, Collections.emptySet())));
+        for (ModificationGroup group : groupsOnLevel) {
+            synchronized (group.modificationsLock) {
+                for (Modification modification : group.getModifications()) {
+                    if (modification.getModificationId() == id) {
+                        return modification;
+                    }
+                }
+            }
+        }
+        throw new NoSuchElementException("No modification found with ID = " + id + " and level = " + level);
     }
 
     /**
-     * Retrieves all ModificationGroups at a given level of the binary tree.
+     * Retrieves all ModificationGroups at a given level of the binary tree, using the level index, in O(number of groups on that level).
      * The method is public, therefore it check for NullPointerException and has ModificationGroup as an input value.
      *
      * @param modificationGroup The ModificationGroup which you want to check
@@ -599,82 +1678,348 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
             ModificationGroup modificationGroup, int targetLevel) {
 
         Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
-        Set<ModificationGroup> result = new HashSet<>();
 
-        if (root == null) {
-            return result;
-        }
+        return read(() -> {
+            Set<ModificationGroup> result = new HashSet<>();
+            final Node currentRoot = this.root;
 
-        if (!modificationGroup.equals(root.modificationGroup)) {
-            throw new IllegalArgumentException("ModificationGroup must match tree root");
-        }
+            if (currentRoot == null) {
+                return result;
+            }
 
-        if (targetLevel == 0) {
-            result.add(root.modificationGroup);
+            if (!modificationGroup.equals(currentRoot.modificationGroup)) {
+                throw new IllegalArgumentException("ModificationGroup must match tree root");
+            }
+
+            result.addAll(levelIndex.getOrDefault(targetLevel, Collections.emptySet()));
             return result;
-        }
+        });
+    }
 
-        Queue<Node> currentLevel = new LinkedList<>();
-        Queue<Node> nextLevel = new LinkedList<>();
-        currentLevel.add(root);
-        int currentDepth = 0;
+    /**
+     * Calculates the total number of levels in the tree. In the special case that only root node exists it return 0 correctly.
+     * Returns -1 in case of empty tree. The height of every Node is maintained along the insertion and removal path,
+     * therefore this is an O(1) read of the height of the root.
+     *
+     * @return The number of levels (0 for a single root node), returns -1 if the tree is empty
+     */
+    public int calculateTotalNumberOfLevels() {
+        return read(() -> {
+            final Node currentRoot = this.root;
+            if (currentRoot == null) {
+                return -1;
+            }
+            return currentRoot.height == 1 ? 0 : currentRoot.height;
+        });
+    }
 
-        while (!currentLevel.isEmpty() && currentDepth <= targetLevel) {
-            Node node = currentLevel.poll();
+    /**
+     * Returns the rank of a ModificationGroup in the sorting order, from the subtree sizes along the path to the root, in O(height).
+     *
+     * @param modificationGroup The group to rank (non-null)
+     * @return The 0-based rank (smallest key = 0)
+     * @throws NullPointerException   if modificationGroup is null
+     * @throws NoSuchElementException if the group is not found in the tree
+     */
+    @Override
+    public int rank(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
 
-            if (node.left != null) nextLevel.add(node.left);
-            if (node.right != null) nextLevel.add(node.right);
+        return read(() -> {
+            Node node = nodeIndex.get(modificationGroup.getModificationGroupId());
+            if (node == null) {
+                throw new NoSuchElementException("ModificationGroup not found in tree");
+            }
+            return rankOf(node);
+        });
+    }
 
-            if (currentLevel.isEmpty()) {
-                if (++currentDepth == targetLevel) {
-                    nextLevel.forEach(n -> result.add(n.modificationGroup));
-                    break;
-                }
-                currentLevel = nextLevel;
-                nextLevel = new LinkedList<>();
+    /**
+     * Helper method, returns the 0-based position of the Node in the sorting order, climbing the parent pointers and adding the left subtree sizes.
+     */
+    private int rankOf(Node node) {
+        int rank = size(node.left);
+        int remainingSteps = totalNumberOfElements.get();
+        while (node.parent != null) {
+            checkRemainingSteps(remainingSteps--);
+            if (node.parent.right == node) {
+                rank += size(node.parent.left) + 1;
             }
+            node = node.parent;
         }
+        return rank;
+    }
 
-        return result;
+    /**
+     * Returns the ModificationGroup with the given rank in the sorting order, descending by the subtree sizes, in O(height).
+     *
+     * @param rank The 0-based rank (smallest key = 0)
+     * @return The ModificationGroup with the given rank
+     * @throws IllegalArgumentException if rank is negative or not smaller than the number of elements
+     */
+    @Override
+    public ModificationGroup select(int rank) {
+        return read(() -> {
+            final Node currentRoot = this.root;
+            if (rank < 0 || size(currentRoot) <= rank) {
+                throw new IllegalArgumentException("Rank must be between 0 and " + (size(currentRoot) - 1));
+            }
+            return selectNode(currentRoot, rank).modificationGroup;
+        });
     }
 
     /**
-     * Calculates the total number of levels in the tree. In the special case that only root node exists it return 0 correctly.
-     * Returns -1 in case of empty tree.
-     * @return The number of levels (0 for empty tree), returns -1 if the tree is empty
+     * Returns the ModificationGroup at the given percentile of the sorting order with the nearest-rank method, in O(height).
+     *
+     * @param percent The percentile, between 0 and 100
+     * @return The ModificationGroup at the percentile
+     * @throws IllegalArgumentException if percent is not between 0 and 100
+     * @throws NoSuchElementException   if the tree is empty
      */
-    public int calculateTotalNumberOfLevels() {
-        if (root == null) {
-            return -1;
-        }
-        if (root.left == null && root.right == null) {
-            return 0;
+    @Override
+    public ModificationGroup percentile(double percent) {
+        if (!(0 <= percent && percent <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
         }
-        totalNumberOfLevels = 0;
-        Queue<Node> queueOfElements = new LinkedList<>();
-        Queue<Node> queueOfElementsOnNextLevel = new LinkedList<>();
-        queueOfElements.add(root);
+        return read(() -> {
+            final Node currentRoot = this.root;
+            if (currentRoot == null) {
+                throw new NoSuchElementException("Tree is empty");
+            }
+            int rank = Math.max(0, (int) Math.ceil(percent * currentRoot.size / 100) - 1);
+            return selectNode(currentRoot, rank).modificationGroup;
+        });
+    }
 
+    /**
+     * Returns the ModificationGroup with the biggest sorting key smaller than or equal to the given key, in O(height).
+     *
+     * @param key The key, a String for {@link TreeLogic#NAME}, a Number for PRIORITY and TOTAL_COST (non-null)
+     * @return The ModificationGroup, or null if there is none
+     * @throws NullPointerException     if key is null
+     * @throws IllegalArgumentException if the type of the key does not match the tree logic
+     */
+    @Override
+    public ModificationGroup floor(Object key) {
+        Object treeKey = normalizeKey(treeLogic, Objects.requireNonNull(key, "Key cannot be null"));
+        return read(() -> {
+            Node best = null;
+            Node current = this.root;
+            int remainingSteps = totalNumberOfElements.get();
+            while (current != null) {
+                checkRemainingSteps(remainingSteps--);
+                if (compareToKey(current.modificationGroup, treeKey) <= 0) {
+                    best = current;
+                    current = current.right;
+                } else {
+                    current = current.left;
+                }
+            }
+            return best == null ? null : best.modificationGroup;
+        });
+    }
 
-        while (!queueOfElements.isEmpty()) {
-            Node currentNode = queueOfElements.poll();
+    /**
+     * Returns the ModificationGroup with the smallest sorting key bigger than or equal to the given key, in O(height).
+     *
+     * @param key The key, a String for {@link TreeLogic#NAME}, a Number for PRIORITY and TOTAL_COST (non-null)
+     * @return The ModificationGroup, or null if there is none
+     * @throws NullPointerException     if key is null
+     * @throws IllegalArgumentException if the type of the key does not match the tree logic
+     */
+    @Override
+    public ModificationGroup ceiling(Object key) {
+        Object treeKey = normalizeKey(treeLogic, Objects.requireNonNull(key, "Key cannot be null"));
+        return read(() -> {
+            Node found = lowestNodeFrom(treeKey, true);
+            return found == null ? null : found.modificationGroup;
+        });
+    }
 
-            if (currentNode.left != null) {
-                queueOfElementsOnNextLevel.add(currentNode.left);
+    /**
+     * Returns the ModificationGroups with a sorting key between the given keys. The descent to the first ModificationGroup skips every subtree
+     * below the range and the in-order walk stops at the upper bound, so it costs O(height + k) for k ModificationGroups in the range.
+     *
+     * @param fromKey       The lower bound, or null for no lower bound
+     * @param fromInclusive Whether ModificationGroups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null for no upper bound
+     * @param toInclusive   Whether ModificationGroups with a key equal to toKey are included
+     * @return List<ModificationGroup> of the range, ascending
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the tree logic
+     */
+    @Override
+    public List<ModificationGroup> getModificationGroupsInRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        Object fromTreeKey = fromKey == null ? null : normalizeKey(treeLogic, fromKey);
+        Object toTreeKey = toKey == null ? null : normalizeKey(treeLogic, toKey);
+        checkRange(fromTreeKey, toTreeKey);
+
+        return read(() -> {
+            List<ModificationGroup> result = new ArrayList<>();
+            Node current = fromTreeKey == null ? (root == null ? null : findMinNode(root)) : lowestNodeFrom(fromTreeKey, fromInclusive);
+            int remainingSteps = totalNumberOfElements.get();
+            while (current != null && isBelowUpperBound(current.modificationGroup, toTreeKey, toInclusive)) {
+                checkRemainingSteps(remainingSteps--);
+                result.add(current.modificationGroup);
+                current = inOrderSuccessor(current, null);
             }
-            if (currentNode.right != null) {
-                queueOfElementsOnNextLevel.add(currentNode.right);
+            return result;
+        });
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the ModificationGroups with a sorting key between the given keys. The iterator keeps the Node
+     * it returned last and a stamp of the tree lock, and steps to its in-order successor through the child and parent links, in amortized O(1).
+     * Only when a write invalidated the stamp does a step descend from the root to the ModificationGroup after the last returned one, in O(height).
+     * Every step is a short read, so the iterator holds no lock between the steps, never fails on concurrent writes, and reflects the writes
+     * done behind its position.
+     *
+     * @param fromKey       The lower bound, or null for no lower bound
+     * @param fromInclusive Whether ModificationGroups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null for no upper bound
+     * @param toInclusive   Whether ModificationGroups with a key equal to toKey are included
+     * @return Iterator<ModificationGroup> over the range, ascending
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the tree logic
+     */
+    @Override
+    public Iterator<ModificationGroup> rangeIterator(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        Object fromTreeKey = fromKey == null ? null : normalizeKey(treeLogic, fromKey);
+        Object toTreeKey = toKey == null ? null : normalizeKey(treeLogic, toKey);
+        checkRange(fromTreeKey, toTreeKey);
+
+        return new Iterator<>() {
+            private ModificationGroup lastReturned;
+            /**
+             * The Node of the last returned ModificationGroup, and the stamp taken before it was found, the successor links of the Node
+             * can be followed as long as the stamp is valid, so no write changed the tree since.
+             */
+            private Node lastNode;
+            private long lastStamp;
+            private Node nextNode;
+            private long nextStamp;
+            private boolean nextSearched;
+
+            @Override
+            public boolean hasNext() {
+                if (!nextSearched) {
+                    Node previousNode = lastNode;
+                    long previousStamp = lastStamp;
+                    long stamp = treeLock.tryOptimisticRead();
+                    nextNode = read(() -> {
+                        Node found;
+                        if (previousNode != null && previousStamp != 0L && treeLock.validate(previousStamp)) {
+                            found = inOrderSuccessor(previousNode, null);
+                        } else if (lastReturned != null) {
+                            found = lowestNodeAfter(lastReturned);
+                        } else if (fromTreeKey != null) {
+                            found = lowestNodeFrom(fromTreeKey, fromInclusive);
+                        } else {
+                            found = root == null ? null : findMinNode(root);
+                        }
+                        return found == null || !isBelowUpperBound(found.modificationGroup, toTreeKey, toInclusive) ? null : found;
+                    });
+                    nextStamp = stamp;
+                    nextSearched = true;
+                }
+                return nextNode != null;
             }
-            if (queueOfElements.isEmpty()) {
-                queueOfElements = queueOfElementsOnNextLevel;
-                queueOfElementsOnNextLevel = new LinkedList<>();
-                totalNumberOfLevels++;
+
+            @Override
+            public ModificationGroup next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No more ModificationGroups in range");
+                }
+                lastNode = nextNode;
+                lastStamp = nextStamp;
+                lastReturned = nextNode.modificationGroup;
+                nextSearched = false;
+                return lastReturned;
             }
-        }
+        };
+    }
 
-        return totalNumberOfLevels;
+    /**
+     * Returns a Spliterator over the ModificationGroups in sorting order, the source of {@link #stream()} and {@link #parallelStream()}.
+     * It walks the Nodes lazily, one in-order successor per step, and splits its remaining range in half by rank, using the subtree sizes,
+     * so a parallel stream gets balanced halves in O(height) per split, without collecting the groups first.
+     *
+     * <p>Key characteristics:
+     * <ul>
+     *   <li>reports ORDERED, SORTED, DISTINCT and NONNULL, the comparator follows the tree logic, like the tree itself</li>
+     *   <li>reports SIZED and SUBSIZED as long as the tree was not written since the size was counted (at creation or at the split),
+     *   after a write the sizes are estimates</li>
+     *   <li>weakly consistent like {@link #rangeIterator}: every step is a short read, which follows the successor links while its stamp is valid,
+     *   so it never throws ConcurrentModificationException, and after a write it continues after the group returned last</li>
+     *   <li>no lock is held while the action runs, so the action may also write to the tree</li>
+     * </ul>
+     *
+     * @return Spliterator over all ModificationGroups, ascending
+     */
+    @Override
+    public Spliterator<ModificationGroup> spliterator() {
+        long stamp = treeLock.tryOptimisticRead();
+        return read(() -> new ModificationGroupSpliterator(root == null ? null : findMinNode(root).modificationGroup, null, size(root), stamp));
     }
 
+    /**
+     * Returns the count, the sums and the maximums of the cost and priority value of the ModificationGroups with a sorting key between the given keys.
+     * Every Node keeps these aggregates for its subtree, so only the two boundary paths below the first Node in the range are visited,
+     * and the subtrees hanging inside the range are added whole, in O(height).
+     *
+     * @param fromKey       The lower bound, or null for no lower bound
+     * @param fromInclusive Whether ModificationGroups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null for no upper bound
+     * @param toInclusive   Whether ModificationGroups with a key equal to toKey are included
+     * @return The aggregates of the range
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the tree logic
+     */
+    @Override
+    public RangeAggregate aggregateRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        Object fromTreeKey = fromKey == null ? null : normalizeKey(treeLogic, fromKey);
+        Object toTreeKey = toKey == null ? null : normalizeKey(treeLogic, toKey);
+        checkRange(fromTreeKey, toTreeKey);
+
+        return read(() -> {
+            RangeAggregate result = new RangeAggregate();
+            int remainingSteps = totalNumberOfElements.get();
+            Node split = this.root;
+            while (split != null) {
+                checkRemainingSteps(remainingSteps--);
+                if (!isAboveLowerBound(split.modificationGroup, fromTreeKey, fromInclusive)) {
+                    split = split.right;
+                } else if (!isBelowUpperBound(split.modificationGroup, toTreeKey, toInclusive)) {
+                    split = split.left;
+                } else {
+                    break;
+                }
+            }
+            if (split == null) {
+                return result;
+            }
+
+            addNodeToAggregate(result, split);
+            for (Node current = split.left; current != null; ) {
+                checkRemainingSteps(remainingSteps--);
+                if (isAboveLowerBound(current.modificationGroup, fromTreeKey, fromInclusive)) {
+                    addNodeToAggregate(result, current);
+                    addSubtreeToAggregate(result, current.right);
+                    current = current.left;
+                } else {
+                    current = current.right;
+                }
+            }
+            for (Node current = split.right; current != null; ) {
+                checkRemainingSteps(remainingSteps--);
+                if (isBelowUpperBound(current.modificationGroup, toTreeKey, toInclusive)) {
+                    addNodeToAggregate(result, current);
+                    addSubtreeToAggregate(result, current.left);
+                    current = current.right;
+                } else {
+                    current = current.left;
+                }
+            }
+            return result;
+        });
+    }
 
     /**
      * Prints the tree structure to standard output.
@@ -710,20 +2055,35 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
     }
 
     /**
-     * Helper method for recursively printing the tree structure. Uses the dryModificationDisplayElement(root.modificationGroup, prefix) helper method.
+     * Helper method for printing the tree structure in pre-order (root -> left -> right). Uses the dryModificationDisplayElement(root.modificationGroup, prefix) helper method.
+     * Walks the parent references instead of recursing, so degenerate trees do not overflow the call stack.
      *
-     * @param root   The current node being processed
-     * @param prefix The indentation prefix for proper tree visualization, needed because it is recursive
+     * @param root   The root of the subtree being printed
+     * @param prefix The indentation prefix of root, every level below adds four spaces
      */
     private void printTreeStructureLogic(Node root, String prefix) {
-        if (root == null) {
-            return;
-        }
-
-        dryModificationDisplayElement(root.getModificationGroup(), prefix);
+        long stamp = treeLock.readLock();
+        try {
+            Node current = root;
+            int depth = 0;
+            while (current != null) {
+                dryModificationDisplayElement(current.getModificationGroup(), prefix + "    ".repeat(depth));
+
+                if (current.left != null || current.right != null) {
+                    current = current.left != null ? current.left : current.right;
+                    depth++;
+                    continue;
+                }
 
-        printTreeStructureLogic(root.left, prefix + "    ");
-        printTreeStructureLogic(root.right, prefix + "    ");
+                while (current != root && (current.parent.right == current || current.parent.right == null)) {
+                    current = current.parent;
+                    depth--;
+                }
+                current = current == root ? null : current.parent.right;
+            }
+        } finally {
+            treeLock.unlockRead(stamp);
+        }
     }
 
     /**
@@ -735,17 +2095,25 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
         inOrderTraversal(root);
     }
 
+    /**
+     * Displays the subtree of root in in-order. Walks from the smallest Node to its successors via the parent references,
+     * no recursion and no allocation per Node.
+     *
+     * @param root The root of the subtree to display
+     */
     public void inOrderTraversal(Node root) {
-
         if (root == null) {
             return;
         }
 
-        final Node currentRoot = root;
-
-        inOrderTraversal(root.left);
-        dryModificationDisplayElement(currentRoot.modificationGroup, " ");
-        inOrderTraversal(root.right);
+        long stamp = treeLock.readLock();
+        try {
+            for (Node current = findMinNode(root); current != null; current = inOrderSuccessor(current, root)) {
+                dryModificationDisplayElement(current.modificationGroup, " ");
+            }
+        } finally {
+            treeLock.unlockRead(stamp);
+        }
     }
 
     /**
@@ -758,16 +2126,25 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
     }
 
 
+    /**
+     * Displays the subtree of root in reverse-order. Walks from the biggest Node to its predecessors via the parent references,
+     * no recursion and no allocation per Node.
+     *
+     * @param root The root of the subtree to display
+     */
     public void reverseOrderTraversal(Node root) {
         if (root == null) {
             return;
         }
 
-        final Node currentRoot = root;
-
-        reverseOrderTraversal(root.right);
-        dryModificationDisplayElement(currentRoot.modificationGroup, " ");
-        reverseOrderTraversal(root.left);
+        long stamp = treeLock.readLock();
+        try {
+            for (Node current = findMaxNode(root); current != null; current = inOrderPredecessor(current, root)) {
+                dryModificationDisplayElement(current.modificationGroup, " ");
+            }
+        } finally {
+            treeLock.unlockRead(stamp);
+        }
     }
 
     /**
@@ -794,16 +2171,313 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
         }
     }
 
+    @Override
     public Node getRoot() {
         return root;
     }
 
+    public TreeLogic getTreeLogic() {
+        return treeLogic;
+    }
+
+    public TreeBalancing getTreeBalancing() {
+        return treeBalancing;
+    }
+
+    public DuplicateKeys getDuplicateKeys() {
+        return duplicateKeys;
+    }
+
+    public ReadConcurrency getReadConcurrency() {
+        return readConcurrency;
+    }
+
+    public ParallelExecutionPolicy getParallelExecutionPolicy() {
+        return parallelExecutionPolicy;
+    }
+
+    /**
+     * Replaces the policy of the subtree queries of this tree, other trees keep their own.
+     *
+     * @param parallelExecutionPolicy The new policy (cannot be null)
+     * @throws NullPointerException if parallelExecutionPolicy is null
+     */
+    public void setParallelExecutionPolicy(ParallelExecutionPolicy parallelExecutionPolicy) {
+        this.parallelExecutionPolicy = Objects.requireNonNull(parallelExecutionPolicy, "ParallelExecutionPolicy cannot be null");
+    }
+
     public AtomicInteger getTotalNumberOfElements() {
         return totalNumberOfElements;
     }
 
+    @Override
     public int getTotalNumberOfLevels() {
-        return totalNumberOfLevels;
+        return calculateTotalNumberOfLevels();
+    }
+
+    /**
+     * Returns true, the Nodes keep the ModificationGroup parent/child links in sync, see setChild().
+     */
+    @Override
+    public boolean linksModificationGroups() {
+        return true;
+    }
+
+    /**
+     * Keeps modificationIndex up to date when Modifications are added to or removed from a ModificationGroup of this tree,
+     * including {@link Modification#resolved()}. Notifications can arrive out of order from different threads,
+     * therefore the current content of the ModificationGroup is re-checked under its lock before the index is changed.
+     * Re-keys the ModificationGroup when the value the tree is sorted by changed.
+     */
+    private final class ModificationIndexUpdater implements ModificationGroupListener {
+
+        @Override
+        public void modificationsAdded(ModificationGroup modificationGroup, Collection<Modification> modifications) {
+            synchronized (modificationGroup.modificationsLock) {
+                if (!nodeIndex.containsKey(modificationGroup.getModificationGroupId())) {
+                    return;
+                }
+                for (Modification modification : modifications) {
+                    if (modificationGroup.getModifications().contains(modification)) {
+                        addModificationOwner(modification, modificationGroup);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void modificationRemoved(ModificationGroup modificationGroup, Modification modification) {
+            synchronized (modificationGroup.modificationsLock) {
+                if (!modificationGroup.getModifications().contains(modification)) {
+                    removeModificationOwner(modification, modificationGroup);
+                }
+            }
+        }
+
+        @Override
+        public void calculatedValuesChanged(ModificationGroup modificationGroup, int oldPriorityValue, long oldCost) {
+            boolean keyChanged = switch (treeLogic) {
+                case NAME -> false;
+                case PRIORITY -> oldPriorityValue != modificationGroup.getPriorityValue();
+                case TOTAL_COST -> oldCost != modificationGroup.getCost();
+            };
+            if (keyChanged) {
+                rekey(modificationGroup);
+            } else {
+                refreshAggregates(modificationGroup);
+            }
+        }
+    }
+
+    /**
+     * The Spliterator of {@link #spliterator()}. It covers the ModificationGroups from nextGroup (inclusive) up to fence (exclusive, null means
+     * up to the end). Like {@link #rangeIterator}, it keeps the Node it returned last with a stamp of the tree lock, and steps to its in-order
+     * successor through the child and parent links while the stamp is valid. After a write it continues after the group it returned last,
+     * found again by its key, so a rotation or a removal by a writer cannot leave it on a stale Node.
+     */
+    private final class ModificationGroupSpliterator implements Spliterator<ModificationGroup> {
+        private ModificationGroup nextGroup;
+        private final ModificationGroup fence;
+        private long estimatedSize;
+        /**
+         * The stamp taken before estimatedSize was counted, 0 if the tree was being written. The size is exact while the stamp is valid.
+         */
+        private final long sizeStamp;
+        private ModificationGroup lastGroup;
+        private Node lastNode;
+        private long lastStamp;
+        private boolean exhausted;
+
+        private ModificationGroupSpliterator(ModificationGroup nextGroup, ModificationGroup fence, long estimatedSize, long sizeStamp) {
+            this.nextGroup = nextGroup;
+            this.fence = fence;
+            this.estimatedSize = estimatedSize;
+            this.sizeStamp = sizeStamp;
+            this.exhausted = nextGroup == null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ModificationGroup> action) {
+            Objects.requireNonNull(action, "Action cannot be null");
+            if (exhausted) {
+                return false;
+            }
+            long stamp = treeLock.tryOptimisticRead();
+            Node current = read(this::findNext);
+            if (current == null) {
+                exhausted = true;
+                estimatedSize = 0;
+                return false;
+            }
+            lastNode = current;
+            lastStamp = stamp;
+            lastGroup = current.modificationGroup;
+            estimatedSize = Math.max(0, estimatedSize - 1);
+            action.accept(lastGroup);
+            return true;
+        }
+
+        @Override
+        public Spliterator<ModificationGroup> trySplit() {
+            if (exhausted || estimatedSize < 2) {
+                return null;
+            }
+            long stamp = treeLock.tryOptimisticRead();
+            SplitPoint splitPoint = read(() -> {
+                Node start = findNext();
+                if (start == null) {
+                    return null;
+                }
+                int startRank = rankOf(start);
+                int endRank = fenceRank();
+                if (endRank - startRank < 2) {
+                    return null;
+                }
+                int middleRank = (startRank + endRank) >>> 1;
+                return new SplitPoint(start.modificationGroup, selectNode(root, middleRank).modificationGroup, middleRank - startRank, endRank - middleRank);
+            });
+            if (splitPoint == null) {
+                return null;
+            }
+            nextGroup = splitPoint.middle;
+            lastGroup = null;
+            lastNode = null;
+            estimatedSize = splitPoint.suffixSize;
+            return new ModificationGroupSpliterator(splitPoint.start, splitPoint.middle, splitPoint.prefixSize, stamp);
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimatedSize;
+        }
+
+        /**
+         * Reports SIZED and SUBSIZED while the tree was not written since the size was counted, by {@link #spliterator()} or by the split
+         * which created this Spliterator, an estimate only after a write.
+         */
+        @Override
+        public int characteristics() {
+            boolean sized = sizeStamp != 0L && treeLock.validate(sizeStamp);
+            return ORDERED | SORTED | DISTINCT | NONNULL | (sized ? SIZED | SUBSIZED : 0);
+        }
+
+        @Override
+        public Comparator<? super ModificationGroup> getComparator() {
+            return ModificationBinaryTree.this::compareGroupsDRYComponent;
+        }
+
+        /**
+         * Helper method, returns the next Node before the fence, or null: the successor of the Node returned last while its stamp is valid,
+         * otherwise the Node after the group returned last, or the Node of nextGroup (or the one after its key) before the first step.
+         * Must be called in a read, it has no side effects.
+         */
+        private Node findNext() {
+            Node node;
+            if (lastNode != null && lastStamp != 0L && treeLock.validate(lastStamp)) {
+                node = inOrderSuccessor(lastNode, null);
+            } else if (lastGroup != null) {
+                node = lowestNodeAfter(lastGroup);
+            } else {
+                node = nodeIndex.get(nextGroup.getModificationGroupId());
+                if (node == null) {
+                    node = lowestNodeAfter(nextGroup);
+                }
+            }
+            if (node == null || !isBeforeFence(node)) {
+                return null;
+            }
+            return node;
+        }
+
+        /**
+         * Helper method, returns whether the Node is sorted before the fence. Must be called in a read.
+         */
+        private boolean isBeforeFence(Node node) {
+            return fence == null || compareGroupsDRYComponent(node.modificationGroup, fence) < 0;
+        }
+
+        /**
+         * Helper method, returns the rank of the fence, the number of Nodes if there is no fence. Must be called in a read.
+         */
+        private int fenceRank() {
+            if (fence == null) {
+                return size(root);
+            }
+            Node node = nodeIndex.get(fence.getModificationGroupId());
+            if (node == null) {
+                node = lowestNodeAfter(fence);
+            }
+            return node == null ? size(root) : rankOf(node);
+        }
+    }
+
+    /**
+     * The result of a split of {@link ModificationGroupSpliterator}: the first group of the prefix, the first group of the suffix and the two sizes.
+     */
+    private static final class SplitPoint {
+        private final ModificationGroup start;
+        private final ModificationGroup middle;
+        private final int prefixSize;
+        private final int suffixSize;
+
+        private SplitPoint(ModificationGroup start, ModificationGroup middle, int prefixSize, int suffixSize) {
+            this.start = start;
+            this.middle = middle;
+            this.prefixSize = prefixSize;
+            this.suffixSize = suffixSize;
+        }
+    }
+
+    /**
+     * Sums a value over a subtree of Nodes with fork/join. While the subtree is bigger than the sequential cutoff, the smaller child subtree is forked
+     * and the task continues with the bigger one in a loop, so the forks are nested at most O(log n) deep even on a degenerate tree.
+     * The subtrees up to the cutoff are walked sequentially. The caller holds the read lock of the tree for the whole run.
+     */
+    private static final class SubtreeAggregationTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Node subtreeRoot;
+        private final ToLongFunction<ModificationGroup> value;
+        private final int sequentialCutoff;
+
+        private SubtreeAggregationTask(Node subtreeRoot, ToLongFunction<ModificationGroup> value, int sequentialCutoff) {
+            this.subtreeRoot = subtreeRoot;
+            this.value = value;
+            this.sequentialCutoff = sequentialCutoff;
+        }
+
+        @Override
+        protected Long compute() {
+            List<SubtreeAggregationTask> forkedTasks = new ArrayList<>();
+            long result = 0;
+            Node current = subtreeRoot;
+            while (current != null && current.size > sequentialCutoff) {
+                result += value.applyAsLong(current.modificationGroup);
+                Node smaller = current.left;
+                Node bigger = current.right;
+                if (size(smaller) > size(bigger)) {
+                    smaller = current.right;
+                    bigger = current.left;
+                }
+                if (smaller != null) {
+                    SubtreeAggregationTask forkedTask = new SubtreeAggregationTask(smaller, value, sequentialCutoff);
+                    forkedTask.fork();
+                    forkedTasks.add(forkedTask);
+                }
+                current = bigger;
+            }
+            if (current != null) {
+                result += aggregateSubtreeSequentially(current, value);
+            }
+            for (SubtreeAggregationTask forkedTask : forkedTasks) {
+                result += forkedTask.join();
+            }
+            return result;
+        }
+
+        private static int size(Node node) {
+            return node == null ? 0 : node.size;
+        }
     }
 
     /**
@@ -814,12 +2488,18 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
         private final int nodeNumber;
         private ModificationGroup modificationGroup;
         private int level;
-        private Node right, left;
+        private int height = 1;
+        private int size = 1;
+        private long costSum, priorityValueSum, maxCost;
+        private int maxPriorityValue;
+        private Node right, left, parent;
 
         Node(ModificationGroup modificationGroup, int nodeNumber, int level) {
             this.modificationGroup = Objects.requireNonNull(modificationGroup);
             this.nodeNumber = nodeNumber;
             this.level = level;
+            this.costSum = this.maxCost = modificationGroup.getCost();
+            this.priorityValueSum = this.maxPriorityValue = modificationGroup.getPriorityValue();
         }
 
         @Override
@@ -836,5 +2516,28 @@ public class ModificationBinaryTree implements ModificationBinaryTreeInterface {
         public ModificationGroup getModificationGroup() {
             return modificationGroup;
         }
+
+        /**
+         * Returns the number of Nodes in the subtree of this Node, itself included.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        public Node getLeft() {
+            return left;
+        }
+
+        public Node getRight() {
+            return right;
+        }
+
+        public Node getParent() {
+            return parent;
+        }
+
+        public int getHeight() {
+            return height;
+        }
     }
 }
@@ -1,9 +1,11 @@
 package com.simon.simontree.model;
 
+import com.simon.simontree.api.ModificationGroupListener;
 import com.simon.simontree.api.TreeElement;
 import com.simon.simontree.enums.TypeOfModification;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a modification group in the tree structure with a list of Modifications {@param childModificationGroups}, unlike a {@link Modification} it does not have a TypeOfModification value.
@@ -15,9 +17,10 @@ import java.util.*;
  *
  * <p><b>Key extension points:</b>
  *  <ul>
- *     <li>Override {@link #calculateTotalCostOfEveryModificationUnderThisGroup} to implement custom cost calculation logic</li>
- *     <li>Override {@link #calculateTotalPriorityValueOfEveryModificationUnderThisGroup} to implement custom priority  value calculation logic</li>
- *     <li>Override {@link #updateCalculatedValues} to implement custom cost calculation logic</li>
+ *     <li>Override {@link #adjustTotalCost} to implement custom cost calculation logic on top of the running total of the Modification costs</li>
+ *     <li>Override {@link #adjustTotalPriorityValue} to implement custom priority value calculation logic on top of the running total of the Modification priority values</li>
+ *     <li>Override {@link #calculateTotalCostOfEveryModificationUnderThisGroup} and {@link #calculateTotalPriorityValueOfEveryModificationUnderThisGroup}
+ *     for logic which needs every Modification, then also override {@link #updateCalculatedValues(long, int)} to call the full re-calculation {@link #updateCalculatedValues()}</li>
  *   </ul>
  *
  *   <p><b>Example subclass:</b>
@@ -28,8 +31,8 @@ import java.util.*;
  *   }
  *
  *    @Override
- *    protected long calculateTotalCostOfEveryModificationUnderThisGroup(Set<Modification> modifications) {
- *    return (long) (super.calculateTotalCostOfEveryModificationUnderThisGroup(modifications)*0.9);
+ *    protected long adjustTotalCost(long totalCostOfModifications) {
+ *    return (long) (totalCostOfModifications * 0.9);
  *    }
  *    }
  *   }</pre>
@@ -56,6 +59,7 @@ import java.util.*;
  *   <li>base cost and {@link TypeOfModification} based {@param totalModificationCost}</li>
  *   <li>constructor auto-calculates {@param totalPriorityValueOfAllModifications}, which is the sum of the priority value of all Modifications, which belong to this ModificationGroup</li>
  *   <li>constructor accepts any type of Collection<Modification> for compatibility</li>
+ *   <li>subtree cost and subtree priority value of the whole child hierarchy, updated along the ancestor chain</li>
  * </ul>
  *
  * @see TreeElement
@@ -80,14 +84,44 @@ public class ModificationGroup extends TreeElement {
      * simple lock Object for Set<Modification> related methods
      */
     protected final Object modificationsLock = new Object();
+    /**
+     * simple lock Object of this ModificationGroup, guards its subtree totals together with its parent, so a propagated difference
+     * and a re-link of this group happen one after the other. Only one such lock is held at a time, the differences climb the chain hop by hop.
+     */
+    private final Object subtreeTotalsLock = new Object();
+    /**
+     * simple lock Object shared by every ModificationGroup, only taken while a parent-child link is added or removed,
+     * so two concurrent links cannot close a cycle. Adding and removing Modifications never takes it.
+     */
+    private static final Object hierarchyLock = new Object();
     /**
      * parent of this ModificationGroup, used in establishing parent-child hierarchy
      */
-    protected ModificationGroup parentModificationGroup;
+    protected volatile ModificationGroup parentModificationGroup;
     /**
      * parent of this ModificationGroup, used in establishing parent-child hierarchy
      */
     protected Set<Modification> modifications;
+    /**
+     * Running total of the total cost of every Modification in this group, before {@link #adjustTotalCost} is applied
+     */
+    protected long totalCostOfModifications;
+    /**
+     * Running total of the priority value of every Modification in this group, before {@link #adjustTotalPriorityValue} is applied
+     */
+    protected int totalPriorityValueOfModifications;
+    /**
+     * Sum of the cost of this ModificationGroup and of every child ModificationGroup below it, updated along the ancestor chain
+     */
+    protected volatile long subtreeCost;
+    /**
+     * Sum of the priority value of this ModificationGroup and of every child ModificationGroup below it, updated along the ancestor chain
+     */
+    protected volatile long subtreePriorityValue;
+    /**
+     * Listeners notified about added and removed Modifications, e.g. the {@link ModificationBinaryTree}s which contain this ModificationGroup
+     */
+    protected final CopyOnWriteArrayList<ModificationGroupListener> modificationGroupListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructs a new ModificationGroup with a set of modifications and a name.
@@ -101,19 +135,19 @@ public class ModificationGroup extends TreeElement {
         Objects.requireNonNull(modifications, "Modifications cannot be null");
         this.modifications = new HashSet<>();
         this.modificationGroupId = id.incrementAndGet();
-        this.priorityValue = calculateTotalPriorityValueOfEveryModificationUnderThisGroup();
         this.name = name;
-        this.cost = calculateTotalCostOfEveryModificationUnderThisGroup();
+        // seeds the cost, the priority value and the subtree totals of the empty group through the same adjust hooks as addModifications
+        updateCalculatedValues(0, 0);
         this.addModifications(modifications);
     }
 
     /**
      * Adds a child ModificationGroup to this group. Checks circular reference.
+     * The subtree cost and subtree priority value of the child are added to this group and its ancestors.
      *
      * @param child to add to parent ModificationGroup
-     * @return true if the childModificationGroup was added successfully, false otherwise
-     * @throws NullPointerException  if childModificationGroup is null
-     * @throws IllegalStateException if the childModificationGroup already belongs to another group
+     * @throws NullPointerException     if childModificationGroup is null
+     * @throws IllegalArgumentException if the child is this group or one of its ancestors
      */
     public void addChildModificationGroup(ModificationGroup child) {
         Objects.requireNonNull(child, "Child ModificationGroup cannot be null");
@@ -124,8 +158,22 @@ public class ModificationGroup extends TreeElement {
             }
 
             if (!childModificationGroups.contains(child)) {
-                childModificationGroups.add(child);
-                child.setParentModificationGroup(this);
+                long childSubtreeCost;
+                long childSubtreePriorityValue;
+                synchronized (hierarchyLock) {
+                    for (ModificationGroup ancestor = parentModificationGroup; ancestor != null; ancestor = ancestor.parentModificationGroup) {
+                        if (ancestor == child) {
+                            throw new IllegalArgumentException("Cannot add an ancestor as child");
+                        }
+                    }
+                    childModificationGroups.add(child);
+                    synchronized (child.subtreeTotalsLock) {
+                        child.setParentModificationGroup(this);
+                        childSubtreeCost = child.subtreeCost;
+                        childSubtreePriorityValue = child.subtreePriorityValue;
+                    }
+                }
+                addToSubtreeTotals(childSubtreeCost, childSubtreePriorityValue);
                 child.setLevel(this.getLevel() + 1);
             }
         }
@@ -133,6 +181,7 @@ public class ModificationGroup extends TreeElement {
 
     /**
      * Removes a child ModificationGroup from this group.
+     * The subtree cost and subtree priority value of the child are subtracted from this group and its ancestors.
      *
      * @param childModificationGroup the child ModificationGroup to remove
      * @return true if the child was removed successfully, false otherwise
@@ -146,8 +195,19 @@ public class ModificationGroup extends TreeElement {
             if (childModificationGroup.getParentModificationGroup() == null) {
                 throw new IllegalStateException("Child was already removed");
             } else {
-                remove = this.childModificationGroups.remove(childModificationGroup);
-                childModificationGroup.setParentModificationGroup(null);
+                long childSubtreeCost;
+                long childSubtreePriorityValue;
+                synchronized (hierarchyLock) {
+                    remove = this.childModificationGroups.remove(childModificationGroup);
+                    synchronized (childModificationGroup.subtreeTotalsLock) {
+                        childModificationGroup.setParentModificationGroup(null);
+                        childSubtreeCost = childModificationGroup.subtreeCost;
+                        childSubtreePriorityValue = childModificationGroup.subtreePriorityValue;
+                    }
+                }
+                if (remove) {
+                    addToSubtreeTotals(-childSubtreeCost, -childSubtreePriorityValue);
+                }
             }
         }
         return remove;
@@ -162,15 +222,33 @@ public class ModificationGroup extends TreeElement {
      */
     public boolean addModifications(Collection<Modification> modifications) {
         Objects.requireNonNull(modifications, "Modifications cannot be null");
-        boolean added;
+        List<Modification> addedModifications = new ArrayList<>();
+        int oldPriorityValue;
+        long oldCost;
         synchronized (modificationsLock) {
-            added = this.modifications.addAll(modifications);
-            if (added) {
+            oldPriorityValue = this.priorityValue;
+            oldCost = this.cost;
+            long costDelta = 0;
+            int priorityValueDelta = 0;
+            for (Modification modification : modifications) {
+                if (this.modifications.add(modification)) {
+                    addedModifications.add(modification);
+                    costDelta += modification.getTotalModificationCost();
+                    priorityValueDelta += modification.getPriorityValue();
+                }
+            }
+            if (!addedModifications.isEmpty()) {
                 modifications.forEach(mod -> mod.setParent(this));
-                updateCalculatedValues();
+                updateCalculatedValues(costDelta, priorityValueDelta);
             }
         }
-        return added;
+        if (addedModifications.isEmpty()) {
+            return false;
+        }
+        Collection<Modification> readOnlyAddedModifications = Collections.unmodifiableList(addedModifications);
+        modificationGroupListeners.forEach(listener -> listener.modificationsAdded(this, readOnlyAddedModifications));
+        notifyIfCalculatedValuesChanged(oldPriorityValue, oldCost);
+        return true;
     }
 
     /**
@@ -183,32 +261,112 @@ public class ModificationGroup extends TreeElement {
     public boolean removeModification(Modification modification) {
         Objects.requireNonNull(modification, "Child modification group cannot be null");
         boolean remove;
+        int oldPriorityValue;
+        long oldCost;
         synchronized (modificationsLock) {
+            oldPriorityValue = this.priorityValue;
+            oldCost = this.cost;
             remove = modifications.remove(modification);
             if (remove) {
                 modification.setParent(null);
-                updateCalculatedValues();
+                updateCalculatedValues(-modification.getTotalModificationCost(), -modification.getPriorityValue());
             }
         }
+        if (remove) {
+            modificationGroupListeners.forEach(listener -> listener.modificationRemoved(this, modification));
+            notifyIfCalculatedValuesChanged(oldPriorityValue, oldCost);
+        }
         return remove;
     }
 
     /**
-     * Helper method that updates all calculated values for this ModificationGroup but does not propagate the changes
-     * to parent ModificationGroup because it is not need.
-     * Priority value and total cost are re-calculated.
+     * Helper method, notifies the listeners if the priority value or the cost differs from the given old values. Must be called without holding the locks of this group.
+     */
+    private void notifyIfCalculatedValuesChanged(int oldPriorityValue, long oldCost) {
+        if (oldPriorityValue != this.priorityValue || oldCost != this.cost) {
+            modificationGroupListeners.forEach(listener -> listener.calculatedValuesChanged(this, oldPriorityValue, oldCost));
+        }
+    }
+
+    /**
+     * Registers a listener, which is notified after Modifications are added to or removed from this group, and after the priority value or cost changed.
+     *
+     * @param listener the listener to register
+     * @throws NullPointerException if listener is null
+     */
+    public void addModificationGroupListener(ModificationGroupListener listener) {
+        Objects.requireNonNull(listener, "ModificationGroupListener cannot be null");
+        modificationGroupListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * Unregisters a listener, registered via addModificationGroupListener.
+     *
+     * @param listener the listener to unregister
+     * @return true if the listener was registered
+     */
+    public boolean removeModificationGroupListener(ModificationGroupListener listener) {
+        return modificationGroupListeners.remove(listener);
+    }
+
+    /**
+     * Helper method that re-calculates all calculated values for this ModificationGroup from every Modification, O(number of Modifications).
+     * The running totals are re-synchronized, the difference is added to the subtree totals of this group and its ancestors.
      */
     protected void updateCalculatedValues() {
-        int priorityValue;
-        long costOfModifications;
+        synchronized (modificationsLock) {
+            totalCostOfModifications = modifications.stream().mapToLong(mod -> mod.getTotalModificationCost()).sum();
+            totalPriorityValueOfModifications = modifications.stream().mapToInt(mod -> mod.getPriorityValue()).sum();
+            applyCalculatedValues(calculateTotalPriorityValueOfEveryModificationUnderThisGroup(), calculateTotalCostOfEveryModificationUnderThisGroup());
+        }
+    }
 
+    /**
+     * Helper method that updates all calculated values for this ModificationGroup in O(1), by applying the change of the added or removed
+     * Modifications to the running totals, then {@link #adjustTotalCost} and {@link #adjustTotalPriorityValue}.
+     * Used by addModifications and removeModification (and so by {@link Modification#resolved()}).
+     *
+     * @param costOfModificationsDelta          the change of the total cost of the Modifications
+     * @param priorityValueOfModificationsDelta the change of the priority value of the Modifications
+     */
+    protected void updateCalculatedValues(long costOfModificationsDelta, int priorityValueOfModificationsDelta) {
         synchronized (modificationsLock) {
-            priorityValue = calculateTotalPriorityValueOfEveryModificationUnderThisGroup();
-            costOfModifications = calculateTotalCostOfEveryModificationUnderThisGroup();
+            totalCostOfModifications += costOfModificationsDelta;
+            totalPriorityValueOfModifications += priorityValueOfModificationsDelta;
+            applyCalculatedValues(adjustTotalPriorityValue(totalPriorityValueOfModifications), adjustTotalCost(totalCostOfModifications));
         }
+    }
 
+    /**
+     * Helper method, sets the new priority value and cost, and adds their difference to the subtree totals of this group and its ancestors.
+     * Must be called holding modificationsLock, which makes reading the old values and setting the new ones atomic.
+     */
+    private void applyCalculatedValues(int priorityValue, long costOfModifications) {
+        long costDelta = costOfModifications - this.cost;
+        long priorityValueDelta = (long) priorityValue - this.priorityValue;
         setPriorityValue(priorityValue);
         setCost(costOfModifications);
+        addToSubtreeTotals(costDelta, priorityValueDelta);
+    }
+
+    /**
+     * Helper method, adds the given differences to the subtree totals of this group and of every ancestor, O(depth).
+     * Every hop adds the difference and reads the parent under the subtreeTotalsLock of that one group, so writers of different groups only meet
+     * on their common ancestors, one hop at a time. A re-link of a group takes the same lock, so a difference either reaches the new parent,
+     * or is already part of the subtree totals the re-link moves.
+     */
+    private void addToSubtreeTotals(long costDelta, long priorityValueDelta) {
+        if (costDelta == 0 && priorityValueDelta == 0) {
+            return;
+        }
+        ModificationGroup group = this;
+        while (group != null) {
+            synchronized (group.subtreeTotalsLock) {
+                group.subtreeCost += costDelta;
+                group.subtreePriorityValue += priorityValueDelta;
+                group = group.parentModificationGroup;
+            }
+        }
     }
 
     /**
@@ -219,7 +377,7 @@ public class ModificationGroup extends TreeElement {
      */
     public long calculateTotalCostOfEveryModificationUnderThisGroup() {
         Objects.requireNonNull(modifications, "Modifications should not be null");
-        return modifications.stream().mapToLong(m -> m.getTotalModificationCost()).sum();
+        return adjustTotalCost(modifications.stream().mapToLong(m -> m.getTotalModificationCost()).sum());
     }
 
     /**
@@ -229,7 +387,28 @@ public class ModificationGroup extends TreeElement {
      * @throws NullPointerException if Set<Modification> is null
      */
     protected int calculateTotalPriorityValueOfEveryModificationUnderThisGroup() {
-        return modifications.stream().mapToInt(mod -> mod.getPriorityValue()).sum();
+        return adjustTotalPriorityValue(modifications.stream().mapToInt(mod -> mod.getPriorityValue()).sum());
+    }
+
+    /**
+     * Turns the sum of the total cost of every Modification into the cost of this group. Returns the sum unchanged, override it for custom cost calculation logic.
+     *
+     * @param totalCostOfModifications the sum of the total cost of every Modification in this group
+     * @return the cost of this group
+     */
+    protected long adjustTotalCost(long totalCostOfModifications) {
+        return totalCostOfModifications;
+    }
+
+    /**
+     * Turns the sum of the priority value of every Modification into the priority value of this group. Returns the sum unchanged,
+     * override it for custom priority value calculation logic.
+     *
+     * @param totalPriorityValueOfModifications the sum of the priority value of every Modification in this group
+     * @return the priority value of this group
+     */
+    protected int adjustTotalPriorityValue(int totalPriorityValueOfModifications) {
+        return totalPriorityValueOfModifications;
     }
 
     /**
@@ -240,7 +419,7 @@ public class ModificationGroup extends TreeElement {
      * @return Node instance
      */
     protected ModificationBinaryTree.Node createNode(int id, int level) {
-        return new ModificationBinaryTree.Node(this, id, this.level);
+        return new ModificationBinaryTree.Node(this, id, level);
     }
 
     /**
@@ -274,6 +453,20 @@ public class ModificationGroup extends TreeElement {
         return cost;
     }
 
+    /**
+     * Returns the sum of the cost of this group and every child ModificationGroup below it, an O(1) read.
+     */
+    public long getSubtreeCost() {
+        return subtreeCost;
+    }
+
+    /**
+     * Returns the sum of the priority value of this group and every child ModificationGroup below it, an O(1) read.
+     */
+    public long getSubtreePriorityValue() {
+        return subtreePriorityValue;
+    }
+
     private void setCost(Long cost) {
         this.cost = cost;
     }
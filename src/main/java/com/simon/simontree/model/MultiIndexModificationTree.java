@@ -0,0 +1,347 @@
+package com.simon.simontree.model;
+
+import com.simon.simontree.api.ModificationGroupListener;
+import com.simon.simontree.enums.TreeLogic;
+
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A container, which stores every {@link ModificationGroup} once and keeps one ordered index per {@link TreeLogic} (name, priority, total cost).
+ * Replaces keeping one {@link ModificationBinaryTree} per sorting logic and sorting the groups again in {@link com.simon.simontree.util.HelperMethods}:
+ * the groups can be scanned in the order of any sorting logic, the first k of them in O(log n + k).
+ *
+ * <p>Key characteristics:
+ * <ul>
+ *   <li>every index is a red-black tree of the same entries, insert and removal update all of them under one write lock, readers never see them disagree</li>
+ *   <li>the sorting keys are stored in the entry, equal keys are ordered by modificationGroupId, only the same ModificationGroup is rejected</li>
+ *   <li>a {@link ModificationGroupListener} re-keys the priority and total cost indexes when the calculated values of a ModificationGroup change,
+ *   it is registered and unregistered under the write lock, before the keys are read and after the entry is unlinked</li>
+ *   <li>{@link com.simon.simontree.api.ModificationBinaryTreeOperations} keeps one next to its tree engine, the sorted lists, views and top-k queries
+ *   of ModificationGroups are read from it</li>
+ *   <li>given {@link SortedModificationViews}, it fills them with the Modifications of its ModificationGroups and forwards the Modification notifications
+ *   of its listener to them, so the ModificationGroups are ordered once and carry a single listener</li>
+ * </ul>
+ *
+ * @see ModificationBinaryTree
+ */
+public class MultiIndexModificationTree {
+    /**
+     * Lock of the indexes, writers take the write lock, the scans the read lock.
+     */
+    private final StampedLock treeLock = new StampedLock();
+    /**
+     * Index from modificationGroupId to the current entry of the ModificationGroup.
+     */
+    private final Map<Integer, Entry> entriesById = new HashMap<>();
+    /**
+     * One ordered index per sorting logic, each containing every entry.
+     */
+    private final Map<TreeLogic, NavigableSet<Entry>> indexes = new EnumMap<>(TreeLogic.class);
+    /**
+     * Listener registered on every ModificationGroup of this container, re-keys it after its priority value or cost changed.
+     */
+    private final ModificationGroupListener modificationGroupListener = new IndexUpdater();
+    /**
+     * The views filled with the Modifications of the ModificationGroups of this container, or null.
+     */
+    private final SortedModificationViews modificationViews;
+
+    /**
+     * Constructs a new, empty MultiIndexModificationTree with one index per {@link TreeLogic}.
+     */
+    public MultiIndexModificationTree() {
+        this.modificationViews = null;
+        for (TreeLogic treeLogic : TreeLogic.values()) {
+            indexes.put(treeLogic, new TreeSet<>(comparatorOf(treeLogic)));
+        }
+    }
+
+    /**
+     * Constructs a new, empty MultiIndexModificationTree, which also fills the given views with the Modifications of its ModificationGroups.
+     * The views must not track ModificationGroups added to them directly.
+     *
+     * @param modificationViews The views to fill (cannot be null)
+     * @throws NullPointerException if modificationViews is null
+     */
+    public MultiIndexModificationTree(SortedModificationViews modificationViews) {
+        this.modificationViews = Objects.requireNonNull(modificationViews, "SortedModificationViews cannot be null");
+        for (TreeLogic treeLogic : TreeLogic.values()) {
+            indexes.put(treeLogic, new TreeSet<>(comparatorOf(treeLogic)));
+        }
+    }
+
+    /**
+     * Inserts the ModificationGroup into every index, in O(log n) per index.
+     *
+     * @param modificationGroup The ModificationGroup to insert (cannot be null)
+     * @throws NullPointerException  if modificationGroup is null
+     * @throws IllegalStateException if the ModificationGroup is already in the container
+     */
+    public void insert(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        long stamp = treeLock.writeLock();
+        try {
+            if (entriesById.containsKey(modificationGroup.getModificationGroupId())) {
+                throw new IllegalStateException("ModificationGroup already exists in tree");
+            }
+            // registered before the keys are read, a change in between re-keys the entry once the write lock is released
+            modificationGroup.addModificationGroupListener(modificationGroupListener);
+            link(new Entry(modificationGroup));
+            if (modificationViews != null) {
+                modificationViews.track(modificationGroup);
+            }
+        } finally {
+            treeLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the ModificationGroup from every index, in O(log n) per index.
+     *
+     * @param modificationGroup The ModificationGroup to remove (cannot be null)
+     * @return true if the ModificationGroup was removed, false if it was not in the container
+     * @throws NullPointerException if modificationGroup is null
+     */
+    public boolean removeModificationGroup(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        long stamp = treeLock.writeLock();
+        try {
+            Entry entry = entriesById.get(modificationGroup.getModificationGroupId());
+            if (entry == null) {
+                return false;
+            }
+            unlink(entry);
+            modificationGroup.removeModificationGroupListener(modificationGroupListener);
+            if (modificationViews != null) {
+                modificationViews.untrack(modificationGroup);
+            }
+        } finally {
+            treeLock.unlockWrite(stamp);
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the ModificationGroup is in the container, in O(1).
+     */
+    public boolean containsModificationGroup(ModificationGroup modificationGroup) {
+        if (modificationGroup == null) {
+            return false;
+        }
+        long stamp = treeLock.readLock();
+        try {
+            return entriesById.containsKey(modificationGroup.getModificationGroupId());
+        } finally {
+            treeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns every ModificationGroup, ordered ascending by the given sorting logic.
+     *
+     * @param treeLogic The sorting logic of the index to scan (cannot be null)
+     * @return List<ModificationGroup> ordered ascending, ties ordered by modificationGroupId
+     * @throws NullPointerException if treeLogic is null
+     */
+    public List<ModificationGroup> getModificationGroupsInOrder(TreeLogic treeLogic) {
+        return getFirstModificationGroups(treeLogic, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns every ModificationGroup, ordered descending by the given sorting logic.
+     *
+     * @param treeLogic The sorting logic of the index to scan (cannot be null)
+     * @return List<ModificationGroup> ordered descending, ties ordered by descending modificationGroupId
+     * @throws NullPointerException if treeLogic is null
+     */
+    public List<ModificationGroup> getModificationGroupsInReverseOrder(TreeLogic treeLogic) {
+        return getLastModificationGroups(treeLogic, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the first (smallest) ModificationGroups by the given sorting logic, in O(log n + count).
+     *
+     * @param treeLogic The sorting logic of the index to scan (cannot be null)
+     * @param count     The maximal number of ModificationGroups to return (cannot be negative)
+     * @return List<ModificationGroup> of at most count ModificationGroups, ordered ascending
+     * @throws NullPointerException     if treeLogic is null
+     * @throws IllegalArgumentException if count is negative
+     */
+    public List<ModificationGroup> getFirstModificationGroups(TreeLogic treeLogic, int count) {
+        Objects.requireNonNull(treeLogic, "TreeLogic cannot be null");
+        return scan(treeLogic, count, false);
+    }
+
+    /**
+     * Returns the last (biggest) ModificationGroups by the given sorting logic, in O(log n + count).
+     *
+     * @param treeLogic The sorting logic of the index to scan (cannot be null)
+     * @param count     The maximal number of ModificationGroups to return (cannot be negative)
+     * @return List<ModificationGroup> of at most count ModificationGroups, ordered descending
+     * @throws NullPointerException     if treeLogic is null
+     * @throws IllegalArgumentException if count is negative
+     */
+    public List<ModificationGroup> getLastModificationGroups(TreeLogic treeLogic, int count) {
+        Objects.requireNonNull(treeLogic, "TreeLogic cannot be null");
+        return scan(treeLogic, count, true);
+    }
+
+    /**
+     * Returns a live, read-only view of the ModificationGroups ordered by the given sorting logic, in O(1). Its iterator walks a copy
+     * of the index taken under the read lock when it is created, in O(n), and its size is the current number of ModificationGroups.
+     *
+     * @param treeLogic  The sorting logic of the index to view (cannot be null)
+     * @param descending true for descending order, false for ascending
+     * @throws NullPointerException if treeLogic is null
+     */
+    public Collection<ModificationGroup> getModificationGroups(TreeLogic treeLogic, boolean descending) {
+        Objects.requireNonNull(treeLogic, "TreeLogic cannot be null");
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<ModificationGroup> iterator() {
+                return Collections.unmodifiableList(scan(treeLogic, Integer.MAX_VALUE, descending)).iterator();
+            }
+
+            @Override
+            public int size() {
+                return getTotalNumberOfElements();
+            }
+        };
+    }
+
+    /**
+     * Returns the number of ModificationGroups in the container.
+     */
+    public int getTotalNumberOfElements() {
+        long stamp = treeLock.readLock();
+        try {
+            return entriesById.size();
+        } finally {
+            treeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Helper method, copies at most count ModificationGroups from the start or the end of an index under the read lock.
+     */
+    private List<ModificationGroup> scan(TreeLogic treeLogic, int count, boolean descending) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+        long stamp = treeLock.readLock();
+        try {
+            NavigableSet<Entry> index = indexes.get(treeLogic);
+            List<ModificationGroup> result = new ArrayList<>(Math.min(count, index.size()));
+            Iterator<Entry> iterator = descending ? index.descendingIterator() : index.iterator();
+            while (result.size() < count && iterator.hasNext()) {
+                result.add(iterator.next().modificationGroup);
+            }
+            return result;
+        } finally {
+            treeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Helper method, adds the entry to every index. The caller must hold the write lock.
+     */
+    private void link(Entry entry) {
+        entriesById.put(entry.modificationGroup.getModificationGroupId(), entry);
+        for (NavigableSet<Entry> index : indexes.values()) {
+            index.add(entry);
+        }
+    }
+
+    /**
+     * Helper method, removes the entry from every index, using its stored keys. The caller must hold the write lock.
+     */
+    private void unlink(Entry entry) {
+        entriesById.remove(entry.modificationGroup.getModificationGroupId());
+        for (NavigableSet<Entry> index : indexes.values()) {
+            index.remove(entry);
+        }
+    }
+
+    /**
+     * Helper method, replaces the entry of the ModificationGroup with one carrying its current keys, if it is still in the container and its keys changed.
+     */
+    private void rekey(ModificationGroup modificationGroup) {
+        long stamp = treeLock.writeLock();
+        try {
+            Entry entry = entriesById.get(modificationGroup.getModificationGroupId());
+            if (entry != null && (entry.priorityValue != modificationGroup.getPriorityValue() || entry.cost != modificationGroup.getCost())) {
+                unlink(entry);
+                link(new Entry(modificationGroup));
+            }
+        } finally {
+            treeLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Helper method, orders entries by the stored key of the given sorting logic, then by modificationGroupId.
+     */
+    private static Comparator<Entry> comparatorOf(TreeLogic treeLogic) {
+        Comparator<Entry> byKey;
+        switch (treeLogic) {
+            case NAME:
+                byKey = Comparator.comparing(entry -> entry.name);
+                break;
+            case PRIORITY:
+                byKey = Comparator.comparingInt(entry -> entry.priorityValue);
+                break;
+            case TOTAL_COST:
+                byKey = Comparator.comparingLong(entry -> entry.cost);
+                break;
+            default:
+                throw new IllegalStateException("Unknown tree logic: " + treeLogic);
+        }
+        return byKey.thenComparingInt(entry -> entry.modificationGroup.getModificationGroupId());
+    }
+
+    /**
+     * A stored ModificationGroup with the sorting keys it had when it was indexed, the indexes are only ordered by these.
+     */
+    private static final class Entry {
+        private final ModificationGroup modificationGroup;
+        private final String name;
+        private final int priorityValue;
+        private final long cost;
+
+        private Entry(ModificationGroup modificationGroup) {
+            this.modificationGroup = modificationGroup;
+            this.name = modificationGroup.getName();
+            this.priorityValue = modificationGroup.getPriorityValue();
+            this.cost = modificationGroup.getCost();
+        }
+    }
+
+    /**
+     * Re-keys a ModificationGroup after its priority value or cost changed, the name cannot change, and passes its added and removed
+     * Modifications to the views.
+     */
+    private final class IndexUpdater implements ModificationGroupListener {
+
+        @Override
+        public void modificationsAdded(ModificationGroup modificationGroup, Collection<Modification> modifications) {
+            if (modificationViews != null) {
+                modificationViews.modificationsAdded(modificationGroup, modifications);
+            }
+        }
+
+        @Override
+        public void modificationRemoved(ModificationGroup modificationGroup, Modification modification) {
+            if (modificationViews != null) {
+                modificationViews.modificationRemoved(modificationGroup, modification);
+            }
+        }
+
+        @Override
+        public void calculatedValuesChanged(ModificationGroup modificationGroup, int oldPriorityValue, long oldCost) {
+            rekey(modificationGroup);
+        }
+    }
+}
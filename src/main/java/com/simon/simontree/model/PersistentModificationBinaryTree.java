@@ -0,0 +1,1385 @@
+package com.simon.simontree.model;
+
+import com.simon.simontree.api.ModificationBinaryTreeInterface;
+import com.simon.simontree.api.ModificationTreeListener;
+import com.simon.simontree.enums.DuplicateKeys;
+import com.simon.simontree.enums.TreeLogic;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A persistent (path-copying) binary tree that stores {@link ModificationGroup} objects with the same sorting logic as {@link ModificationBinaryTree}.
+ * Nodes are immutable, insert and removal copy only the O(log n) Nodes on the root-to-leaf path and share every other Node with the previous version.
+ * The current version is published with a single volatile write, therefore readers never block and always see one complete version.
+ * {@link #snapshot()} hands back an immutable, fully queryable tree of the current version in O(1), without copying anything.
+ * Implements the interface {@link ModificationBinaryTreeInterface}.
+ *
+ * <p>Key characteristics:
+ * <ul>
+ *   <li>always AVL balanced, the recursion depth of insert and removal is bounded by the O(log n) height</li>
+ *   <li>the sorting key (name, priority value or cost) is stored at insertion, later changes of the ModificationGroup do not move it</li>
+ *   <li>the cost and the priority value are stored at insertion too, every Node aggregates them for its subtree for the range aggregates</li>
+ *   <li>a second persistent tree ordered by modificationGroupId finds the stored key of a ModificationGroup, in O(log n)</li>
+ *   <li>levels are not stored, because subtrees are shared between versions on different depths, they are counted during the search</li>
+ *   <li>ModificationGroups are not linked to each other, a snapshot freezes the tree structure and the sorting keys, the ModificationGroups themselves are shared</li>
+ * </ul>
+ *
+ * @see ModificationBinaryTreeInterface
+ * @see ModificationBinaryTree
+ */
+public class PersistentModificationBinaryTree implements ModificationBinaryTreeInterface {
+    /**
+     * Simple lock Object for writers, readers use the volatile version without locking.
+     */
+    private final Object treeLock = new Object();
+    /**
+     * Auto-incremented node number counter, shared with the snapshots of this tree.
+     */
+    private final AtomicInteger nodeCounter;
+    /**
+     * Enum, which sets the sorting logic of the binary tree (name, priority, total cost).
+     */
+    private final TreeLogic treeLogic;
+    /**
+     * Enum, which sets whether different ModificationGroups with an equal sorting key can be stored (reject, allow).
+     */
+    private final DuplicateKeys duplicateKeys;
+    /**
+     * True for the trees returned by {@link #snapshot()}, they throw UnsupportedOperationException on insert and removal.
+     */
+    private final boolean snapshot;
+    /**
+     * Orders the entries by their stored sorting key, ties are broken on modificationGroupId with {@link DuplicateKeys#ALLOW}.
+     */
+    private final Comparator<Entry> byKey;
+    /**
+     * The current version of the tree, replaced as a whole on every insert and removal.
+     */
+    private volatile Version version = Version.EMPTY;
+    /**
+     * Listeners notified after ModificationGroups were inserted or removed, a snapshot never notifies, because it can not be changed.
+     */
+    private final CopyOnWriteArrayList<ModificationTreeListener> modificationTreeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs a new, empty PersistentModificationBinaryTree with the given sorting logic, rejecting equal sorting keys.
+     *
+     * @param treeLogic enum, which defines the sorting logic of the binary tree (name, priority, total cost)
+     * @throws NullPointerException if treeLogic is null
+     */
+    public PersistentModificationBinaryTree(TreeLogic treeLogic) {
+        this(treeLogic, DuplicateKeys.REJECT);
+    }
+
+    /**
+     * Constructs a new, empty PersistentModificationBinaryTree with the given sorting logic and duplicate key handling.
+     *
+     * @param treeLogic     enum, which defines the sorting logic of the binary tree (name, priority, total cost)
+     * @param duplicateKeys enum, which defines whether equal sorting keys are rejected or allowed
+     * @throws NullPointerException if treeLogic or duplicateKeys is null
+     */
+    public PersistentModificationBinaryTree(TreeLogic treeLogic, DuplicateKeys duplicateKeys) {
+        this.treeLogic = Objects.requireNonNull(treeLogic, "TreeLogic cannot be null");
+        this.duplicateKeys = Objects.requireNonNull(duplicateKeys, "DuplicateKeys cannot be null");
+        this.nodeCounter = new AtomicInteger();
+        this.snapshot = false;
+        this.byKey = this::compareEntriesByKey;
+    }
+
+    /**
+     * Constructs a read-only snapshot of the given version, used by {@link #snapshot()}.
+     */
+    private PersistentModificationBinaryTree(PersistentModificationBinaryTree source, Version version) {
+        this.treeLogic = source.treeLogic;
+        this.duplicateKeys = source.duplicateKeys;
+        this.nodeCounter = source.nodeCounter;
+        this.snapshot = true;
+        this.byKey = this::compareEntriesByKey;
+        this.version = version;
+    }
+
+    /**
+     * Returns an immutable view of the current version of this tree, in O(1). Later inserts and removals on this tree are not visible in it.
+     *
+     * @return The read-only tree, insert and removal throw UnsupportedOperationException
+     */
+    public PersistentModificationBinaryTree snapshot() {
+        return new PersistentModificationBinaryTree(this, version);
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Inserts a new element into the tree, by copying the path from the root to the new leaf. Readers keep using the previous version until the new one is published.
+     *
+     * @param modificationGroup The ModificationGroup to insert (cannot be null)
+     * @throws NullPointerException          if modificationGroup is null
+     * @throws IllegalStateException         if the ModificationGroup, or with {@link DuplicateKeys#REJECT} its sorting key, is already in the tree
+     * @throws UnsupportedOperationException if this tree is a snapshot
+     */
+    @Override
+    public void insert(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        checkNotSnapshot();
+
+        synchronized (treeLock) {
+            Version current = version;
+            Entry candidate = new Entry(modificationGroup, treeLogic, 0);
+            if (find(current.byId, candidate, BY_ID) != null
+                    || (duplicateKeys == DuplicateKeys.REJECT && find(current.byKey, candidate, byKey) != null)) {
+                throw new IllegalStateException("ModificationGroup already exists in tree");
+            }
+            Entry entry = new Entry(modificationGroup, treeLogic, nodeCounter.incrementAndGet());
+            version = new Version(insert(current.byKey, entry, byKey), insert(current.byId, entry, BY_ID));
+        }
+        notifyInserted(List.of(modificationGroup));
+    }
+
+    /**
+     * Inserts every ModificationGroup of the collection and publishes them as one new version, all or nothing. Into an empty tree both
+     * persistent trees are built perfectly balanced from the sorted entries in O(n) after the sort, otherwise the entries are added one by one
+     * to a private version, which readers can not see before it is complete.
+     *
+     * @param modificationGroups The ModificationGroups to insert (cannot be null or contain null)
+     * @throws NullPointerException          if modificationGroups is null or contains null
+     * @throws IllegalStateException         if a ModificationGroup, or with {@link DuplicateKeys#REJECT} its sorting key, is already in the tree or twice in the collection
+     * @throws UnsupportedOperationException if this tree is a snapshot
+     */
+    @Override
+    public void insertAll(Collection<ModificationGroup> modificationGroups) {
+        Objects.requireNonNull(modificationGroups, "Collection of ModificationGroups cannot be null");
+        checkNotSnapshot();
+        for (ModificationGroup modificationGroup : modificationGroups) {
+            Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        }
+
+        List<ModificationGroup> inserted = new ArrayList<>(modificationGroups.size());
+        synchronized (treeLock) {
+            Version current = version;
+            List<Entry> entries = new ArrayList<>(modificationGroups.size());
+            for (ModificationGroup modificationGroup : modificationGroups) {
+                entries.add(new Entry(modificationGroup, treeLogic, 0));
+            }
+            entries.sort(byKey);
+            Set<Integer> ids = new HashSet<>();
+            for (int i = 0; i < entries.size(); i++) {
+                Entry candidate = entries.get(i);
+                if (!ids.add(candidate.modificationGroup.getModificationGroupId()) || find(current.byId, candidate, BY_ID) != null
+                        || (duplicateKeys == DuplicateKeys.REJECT && find(current.byKey, candidate, byKey) != null)
+                        || (0 < i && byKey.compare(entries.get(i - 1), candidate) == 0)) {
+                    throw new IllegalStateException("ModificationGroup already exists in tree: " + candidate.modificationGroup.getName());
+                }
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                entries.set(i, new Entry(entries.get(i).modificationGroup, treeLogic, nodeCounter.incrementAndGet()));
+            }
+
+            entries.forEach(entry -> inserted.add(entry.modificationGroup));
+            if (current.byKey == null) {
+                TreeNode newByKey = buildBalanced(entries, 0, entries.size() - 1);
+                entries.sort(BY_ID);
+                version = new Version(newByKey, buildBalanced(entries, 0, entries.size() - 1));
+            } else {
+                TreeNode newByKey = current.byKey;
+                TreeNode newById = current.byId;
+                for (Entry entry : entries) {
+                    newByKey = insert(newByKey, entry, byKey);
+                    newById = insert(newById, entry, BY_ID);
+                }
+                version = new Version(newByKey, newById);
+            }
+        }
+        notifyInserted(inserted);
+    }
+
+    /**
+     * Removes a ModificationGroup from the tree, by copying the path from the root to the removed Node.
+     *
+     * @param modificationGroup The group to remove (cannot be null)
+     * @return true if the group was removed, false if it was not in the tree
+     * @throws NullPointerException          if modificationGroup is null
+     * @throws UnsupportedOperationException if this tree is a snapshot
+     */
+    @Override
+    public boolean removeModificationGroup(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        checkNotSnapshot();
+
+        synchronized (treeLock) {
+            Version current = version;
+            TreeNode stored = find(current.byId, Entry.probe(modificationGroup), BY_ID);
+            if (stored == null) {
+                return false;
+            }
+            version = new Version(remove(current.byKey, stored.entry, byKey), remove(current.byId, stored.entry, BY_ID));
+        }
+        notifyRemoved(List.of(modificationGroup));
+        return true;
+    }
+
+    /**
+     * Removes every ModificationGroup of the collection, which is in the tree, and publishes the result as one new version.
+     * The entries are found in the tree ordered by modificationGroupId, O(k * log n), see removeEntries() for the cost of the removal.
+     *
+     * @param modificationGroups The groups to remove (cannot be null or contain null)
+     * @return List<ModificationGroup> of the removed groups, in sorting order
+     * @throws NullPointerException          if modificationGroups is null or contains null
+     * @throws UnsupportedOperationException if this tree is a snapshot
+     */
+    @Override
+    public List<ModificationGroup> removeAll(Collection<ModificationGroup> modificationGroups) {
+        Objects.requireNonNull(modificationGroups, "Collection of ModificationGroups cannot be null");
+        List<Entry> probes = new ArrayList<>(modificationGroups.size());
+        for (ModificationGroup modificationGroup : modificationGroups) {
+            probes.add(Entry.probe(Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null")));
+        }
+        return removeEntries(current -> {
+            Set<Entry> matching = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Entry probe : probes) {
+                TreeNode stored = find(current.byId, probe, BY_ID);
+                if (stored != null) {
+                    matching.add(stored.entry);
+                }
+            }
+            List<Entry> inKeyOrder = new ArrayList<>(matching);
+            inKeyOrder.sort(byKey);
+            return inKeyOrder;
+        });
+    }
+
+    /**
+     * Removes every ModificationGroup matching the predicate and publishes the result as one new version. The predicate is tested on every entry,
+     * O(n), see removeEntries() for the cost of the removal.
+     *
+     * @param filter The predicate selecting the groups to remove (cannot be null)
+     * @return List<ModificationGroup> of the removed groups, in sorting order
+     * @throws NullPointerException          if filter is null
+     * @throws UnsupportedOperationException if this tree is a snapshot
+     */
+    @Override
+    public List<ModificationGroup> removeIf(Predicate<ModificationGroup> filter) {
+        Objects.requireNonNull(filter, "Predicate cannot be null");
+        return removeEntries(current -> {
+            List<Entry> matching = new ArrayList<>();
+            for (Entry entry : entriesInOrder(current.byKey)) {
+                if (filter.test(entry.modificationGroup)) {
+                    matching.add(entry);
+                }
+            }
+            return matching;
+        });
+    }
+
+    /**
+     * Removes every ModificationGroup with a stored sorting key between the given keys and publishes the result as one new version.
+     * The range is found in O(log n + k), see removeEntries() for the cost of the removal.
+     *
+     * @param fromKey       The lower bound, or null for no lower bound
+     * @param fromInclusive Whether ModificationGroups with a key equal to fromKey are removed
+     * @param toKey         The upper bound, or null for no upper bound
+     * @param toInclusive   Whether ModificationGroups with a key equal to toKey are removed
+     * @return List<ModificationGroup> of the removed groups, in sorting order
+     * @throws IllegalArgumentException      if fromKey is bigger than toKey, or the type of a key does not match the tree logic
+     * @throws UnsupportedOperationException if this tree is a snapshot
+     */
+    @Override
+    public List<ModificationGroup> removeRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        Object fromTreeKey = fromKey == null ? null : ModificationBinaryTree.normalizeKey(treeLogic, fromKey);
+        Object toTreeKey = toKey == null ? null : ModificationBinaryTree.normalizeKey(treeLogic, toKey);
+        ModificationBinaryTree.checkRange(fromTreeKey, toTreeKey);
+        return removeEntries(current -> {
+            List<Entry> matching = new ArrayList<>();
+            Deque<TreeNode> stack = pathToRangeStart(current.byKey, fromTreeKey, fromInclusive);
+            while (!stack.isEmpty() && isBelowUpperBound(stack.peek().entry, toTreeKey, toInclusive)) {
+                TreeNode node = stack.pop();
+                matching.add(node.entry);
+                for (TreeNode child = node.right; child != null; child = child.left) {
+                    stack.push(child);
+                }
+            }
+            return matching;
+        });
+    }
+
+    /**
+     * Helper method, removes the entries selected from the current version, in sorting order, and publishes the result as one new version.
+     * A few entries are removed one by one by path copying, O(k * log n), so the new version shares every other Node with the previous one
+     * and with its snapshots. When that would cost more than touching every entry, the surviving entries of both persistent trees are collected
+     * in order and both trees are built again perfectly balanced, O(n) in total. Nothing is published if no entry is selected.
+     */
+    private List<ModificationGroup> removeEntries(Function<Version, List<Entry>> selection) {
+        checkNotSnapshot();
+
+        List<ModificationGroup> removed = new ArrayList<>();
+        synchronized (treeLock) {
+            Version current = version;
+            List<Entry> toRemove = selection.apply(current);
+            if (toRemove.isEmpty()) {
+                return removed;
+            }
+            toRemove.forEach(entry -> removed.add(entry.modificationGroup));
+
+            int size = size(current.byKey);
+            if ((long) toRemove.size() * (32 - Integer.numberOfLeadingZeros(size)) < size) {
+                TreeNode newByKey = current.byKey;
+                TreeNode newById = current.byId;
+                for (Entry entry : toRemove) {
+                    newByKey = remove(newByKey, entry, byKey);
+                    newById = remove(newById, entry, BY_ID);
+                }
+                version = new Version(newByKey, newById);
+            } else {
+                Set<Entry> removedEntries = Collections.newSetFromMap(new IdentityHashMap<>());
+                removedEntries.addAll(toRemove);
+                List<Entry> byKeySurvivors = new ArrayList<>(size - toRemove.size());
+                for (Entry entry : entriesInOrder(current.byKey)) {
+                    if (!removedEntries.contains(entry)) {
+                        byKeySurvivors.add(entry);
+                    }
+                }
+                List<Entry> byIdSurvivors = new ArrayList<>(byKeySurvivors.size());
+                for (Entry entry : entriesInOrder(current.byId)) {
+                    if (!removedEntries.contains(entry)) {
+                        byIdSurvivors.add(entry);
+                    }
+                }
+                version = new Version(buildBalanced(byKeySurvivors, 0, byKeySurvivors.size() - 1),
+                        buildBalanced(byIdSurvivors, 0, byIdSurvivors.size() - 1));
+            }
+        }
+        notifyRemoved(removed);
+        return removed;
+    }
+
+    /**
+     * Returns the hierarchical path of a ModificationGroup in this version of the tree.
+     * The path is constructed using group names separated by " / " (e.g., "Root / Europe / Hungary").
+     *
+     * @param modificationGroup The group to locate (non-null)
+     * @return The full path in the tree, or an empty string if not found
+     * @throws NullPointerException if modificationGroup is null
+     */
+    @Override
+    public String getTreePath(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        Version current = version;
+        TreeNode stored = find(current.byId, Entry.probe(modificationGroup), BY_ID);
+        if (stored == null) {
+            return "";
+        }
+
+        StringJoiner path = new StringJoiner(" / ");
+        TreeNode node = current.byKey;
+        while (node.entry != stored.entry) {
+            path.add(node.entry.modificationGroup.getName());
+            node = byKey.compare(stored.entry, node.entry) < 0 ? node.left : node.right;
+        }
+        path.add(node.entry.modificationGroup.getName());
+        return path.toString();
+    }
+
+    /**
+     * Finds the node containing the specified modification group, in O(log n).
+     *
+     * @param modificationGroup The modification group to find (non-null)
+     * @return The Node in which the modificationGroup is found, with its level in this version
+     * @throws NullPointerException   if modificationGroup is null
+     * @throws NoSuchElementException if modificationGroup is not found or tree is empty
+     */
+    @Override
+    public Node searchNodesForModificationGroup(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        Version current = version;
+        if (current.byKey == null) {
+            throw new NoSuchElementException("Tree is empty");
+        }
+        Node node = locate(current, modificationGroup);
+        if (node == null) {
+            throw new NoSuchElementException("ModificationGroup not found in tree");
+        }
+        return node;
+    }
+
+    /**
+     * Finds the node of the ModificationGroup containing the specified modification. The persistent tree keeps no Modification index,
+     * the levels are searched from the root downwards, so the ModificationGroup closest to the root is returned, in O(n) in the worst case.
+     *
+     * @param modification The modification to find
+     * @return The Node of the ModificationGroup of the modification
+     * @throws NullPointerException   if modification is null
+     * @throws NoSuchElementException if tree is empty or modification not found
+     */
+    @Override
+    public Node searchNodesForModifications(Modification modification) {
+        Objects.requireNonNull(modification, "Modification cannot be null");
+
+        Version current = version;
+        if (current.byKey == null) {
+            throw new NoSuchElementException("Tree is empty");
+        }
+
+        Deque<TreeNode> level = new ArrayDeque<>();
+        level.add(current.byKey);
+        for (int levelNumber = 0; !level.isEmpty(); levelNumber++) {
+            for (int remaining = level.size(); 0 < remaining; remaining--) {
+                TreeNode node = level.poll();
+                ModificationGroup group = node.entry.modificationGroup;
+                synchronized (group.modificationsLock) {
+                    if (group.getModifications().contains(modification)) {
+                        return new Node(node.entry, levelNumber);
+                    }
+                }
+                addChildren(level, node);
+            }
+        }
+        throw new NoSuchElementException("Modification not found in tree");
+    }
+
+    /**
+     * Finds the tree level of the specified ModificationGroup in this version, in O(log n).
+     *
+     * @param modificationGroup The group to locate (can be null)
+     * @return The level (root = 0), or -1 if not found
+     */
+    @Override
+    public int getLevelNumberOfModificationGroup(ModificationGroup modificationGroup) {
+        if (modificationGroup == null) {
+            return -1;
+        }
+        Node node = locate(version, modificationGroup);
+        return node == null ? -1 : node.getLevel();
+    }
+
+    /**
+     * Returns a Set<ModificationGroup> of all ModificationGroup on this level and the levels above it (closer to the root), using BFS.
+     *
+     * @param upUntilThisLevel the level up until to count the ModificationGroups
+     * @return Set<ModificationGroup> the set of ModificationGroups up until the give level
+     */
+    @Override
+    public Set<ModificationGroup> getSetOfModificationGroupsUpUntilGivenLevel(ModificationGroup modificationGroup, int upUntilThisLevel) {
+        Set<ModificationGroup> result = new HashSet<>();
+        collectLevels(version, 0, upUntilThisLevel, result);
+        return result;
+    }
+
+    /**
+     * Returns a Set<Modification> of all Modification of the given ModificationGroup and of the ModificationGroups in its subtree of this version.
+     *
+     * @param modificationGroup The ModificationGroup, which will be investigated
+     * @return Set<Modification> of all Modification of this ModificationGroup and its subtree
+     * @throws NullPointerException   if modificationGroup is null
+     * @throws NoSuchElementException if the group is not found in the tree
+     */
+    @Override
+    public Set<Modification> getModificationsOfGivenModificationGroupAndItsChildren(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        Version current = version;
+        TreeNode stored = find(current.byId, Entry.probe(modificationGroup), BY_ID);
+        if (stored == null) {
+            throw new NoSuchElementException("ModificationGroup not found in tree");
+        }
+
+        Set<Modification> allModifications = new HashSet<>();
+        Deque<TreeNode> stack = new ArrayDeque<>();
+        stack.push(find(current.byKey, stored.entry, byKey));
+        while (!stack.isEmpty()) {
+            TreeNode node = stack.pop();
+            ModificationGroup group = node.entry.modificationGroup;
+            synchronized (group.modificationsLock) {
+                allModifications.addAll(group.getModifications());
+            }
+            addChildren(stack, node);
+        }
+        return allModifications;
+    }
+
+    /**
+     * Finds a modification with the specified ID at the given tree level of this version.
+     *
+     * @param id    The ID of the modification to find (must be positive)
+     * @param level The tree level to search in (0-based)
+     * @return The found Modification
+     * @throws NoSuchElementException   if no modification with the given ID exists at the specified level
+     * @throws IllegalArgumentException if level is invalid (negative or exceeds tree depth)
+     * @throws NullPointerException     if the tree is empty
+     */
+    @Override
+    public Modification findModificationOnGivenLevelById(int id, int level) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Modification ID must be positive");
+        }
+        Version current = version;
+        int totalNumberOfLevels = totalNumberOfLevels(current);
+        if (level < 0 || totalNumberOfLevels <= level) {
+            throw new IllegalArgumentException("Level must be between 0 and " + (totalNumberOfLevels - 1));
+        }
+        if (current.byKey == null) {
+            throw new NullPointerException("Tree is empty");
+        }
+
+        Set<ModificationGroup> groupsOnLevel = new HashSet<>();
+        collectLevels(current, level, level, groupsOnLevel);
+        for (ModificationGroup group : groupsOnLevel) {
+            synchronized (group.modificationsLock) {
+                for (Modification modification : group.getModifications()) {
+                    if (modification.getModificationId() == id) {
+                        return modification;
+                    }
+                }
+            }
+        }
+        throw new NoSuchElementException("No modification found with ID = " + id + " and level = " + level);
+    }
+
+    /**
+     * Retrieves all ModificationGroups at a given level of this version.
+     *
+     * @param modificationGroup The ModificationGroup of the root, checked like in {@link ModificationBinaryTree}
+     * @param targetLevel       The target level to search for (0-based)
+     * @return Set<ModificationGroup> found at the specified level, empty set if level doesn't exist
+     */
+    @Override
+    public Set<ModificationGroup> getListOfModificationGroupsOnGivenLevel(ModificationGroup modificationGroup, int targetLevel) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        Set<ModificationGroup> result = new HashSet<>();
+
+        Version current = version;
+        if (current.byKey == null) {
+            return result;
+        }
+        if (!modificationGroup.equals(current.byKey.entry.modificationGroup)) {
+            throw new IllegalArgumentException("ModificationGroup must match tree root");
+        }
+
+        collectLevels(current, targetLevel, targetLevel, result);
+        return result;
+    }
+
+    /**
+     * Performs an in-order traversal of this version (left -> root -> right) and displays each element with its stored sorting key.
+     */
+    @Override
+    public void inOrder() {
+        for (Entry entry : entriesInOrder(version.byKey)) {
+            System.out.println(" --- " + entry.displayKey() + " (ID: " + entry.modificationGroup.getModificationGroupId() + ")");
+        }
+    }
+
+    /**
+     * Performs a reverse-order traversal of this version (right -> root -> left) and displays each element with its stored sorting key.
+     */
+    @Override
+    public void reverseOrder() {
+        List<Entry> entries = entriesInOrder(version.byKey);
+        for (int i = entries.size() - 1; 0 <= i; i--) {
+            Entry entry = entries.get(i);
+            System.out.println(" --- " + entry.displayKey() + " (ID: " + entry.modificationGroup.getModificationGroupId() + ")");
+        }
+    }
+
+    /**
+     * Prints the structure of this version to standard output, in pre-order with four spaces of indentation per level.
+     */
+    @Override
+    public void printTreeStructure() {
+        Version current = version;
+        if (current.byKey == null) {
+            System.out.println("Empty tree.");
+            return;
+        }
+
+        Deque<TreeNode> stack = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        stack.push(current.byKey);
+        depths.push(0);
+        while (!stack.isEmpty()) {
+            TreeNode node = stack.pop();
+            int depth = depths.pop();
+            System.out.println("    ".repeat(depth) + "--- " + node.entry.displayKey() + " (ID: " + node.entry.modificationGroup.getModificationGroupId() + ")");
+            if (node.right != null) {
+                stack.push(node.right);
+                depths.push(depth + 1);
+            }
+            if (node.left != null) {
+                stack.push(node.left);
+                depths.push(depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the ModificationGroups of this version in sorted (in-order) order.
+     */
+    @Override
+    public List<ModificationGroup> getAllModificationGroups() {
+        List<ModificationGroup> result = new ArrayList<>();
+        for (Entry entry : entriesInOrder(version.byKey)) {
+            result.add(entry.modificationGroup);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addModificationTreeListener(ModificationTreeListener listener) {
+        Objects.requireNonNull(listener, "ModificationTreeListener cannot be null");
+        modificationTreeListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean removeModificationTreeListener(ModificationTreeListener listener) {
+        return modificationTreeListeners.remove(listener);
+    }
+
+    /**
+     * Helper method, notifies the tree listeners about inserted ModificationGroups. Must be called without holding the tree lock.
+     */
+    private void notifyInserted(List<ModificationGroup> modificationGroups) {
+        if (!modificationGroups.isEmpty()) {
+            List<ModificationGroup> inserted = Collections.unmodifiableList(modificationGroups);
+            modificationTreeListeners.forEach(listener -> listener.modificationGroupsInserted(this, inserted));
+        }
+    }
+
+    /**
+     * Helper method, notifies the tree listeners about removed ModificationGroups. Must be called without holding the tree lock.
+     */
+    private void notifyRemoved(List<ModificationGroup> modificationGroups) {
+        if (!modificationGroups.isEmpty()) {
+            List<ModificationGroup> removed = Collections.unmodifiableList(modificationGroups);
+            modificationTreeListeners.forEach(listener -> listener.modificationGroupsRemoved(this, removed));
+        }
+    }
+
+    /**
+     * Returns the Node of the root of this version, or null if the tree is empty.
+     */
+    @Override
+    public Node getRoot() {
+        TreeNode currentRoot = version.byKey;
+        return currentRoot == null ? null : new Node(currentRoot.entry, 0);
+    }
+
+    /**
+     * Checks whether the given ModificationGroup is stored in this version, in O(log n).
+     */
+    public boolean containsModificationGroup(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        return find(version.byId, Entry.probe(modificationGroup), BY_ID) != null;
+    }
+
+    public int getTotalNumberOfElements() {
+        return size(version.byKey);
+    }
+
+    /**
+     * Calculates the total number of levels like {@link ModificationBinaryTree#getTotalNumberOfLevels()}, 0 for a single root node, -1 for an empty tree.
+     */
+    @Override
+    public int getTotalNumberOfLevels() {
+        return totalNumberOfLevels(version);
+    }
+
+    /**
+     * Returns the rank of a ModificationGroup in the sorting order of this version, from the subtree sizes on the path from the root, in O(log n).
+     *
+     * @param modificationGroup The group to rank (non-null)
+     * @return The 0-based rank (smallest key = 0)
+     * @throws NullPointerException   if modificationGroup is null
+     * @throws NoSuchElementException if the group is not found in this version
+     */
+    @Override
+    public int rank(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        Version current = version;
+        TreeNode stored = find(current.byId, Entry.probe(modificationGroup), BY_ID);
+        if (stored == null) {
+            throw new NoSuchElementException("ModificationGroup not found in tree");
+        }
+        int rank = 0;
+        TreeNode node = current.byKey;
+        while (node.entry != stored.entry) {
+            if (byKey.compare(stored.entry, node.entry) < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank + size(node.left);
+    }
+
+    /**
+     * Returns the ModificationGroup with the given rank in the sorting order of this version, in O(log n).
+     *
+     * @param rank The 0-based rank (smallest key = 0)
+     * @return The ModificationGroup with the given rank
+     * @throws IllegalArgumentException if rank is negative or not smaller than the number of elements
+     */
+    @Override
+    public ModificationGroup select(int rank) {
+        TreeNode currentRoot = version.byKey;
+        if (rank < 0 || size(currentRoot) <= rank) {
+            throw new IllegalArgumentException("Rank must be between 0 and " + (size(currentRoot) - 1));
+        }
+        return select(currentRoot, rank).entry.modificationGroup;
+    }
+
+    /**
+     * Returns the ModificationGroup at the given percentile of the sorting order of this version with the nearest-rank method, in O(log n).
+     *
+     * @param percent The percentile, between 0 and 100
+     * @return The ModificationGroup at the percentile
+     * @throws IllegalArgumentException if percent is not between 0 and 100
+     * @throws NoSuchElementException   if the tree is empty
+     */
+    @Override
+    public ModificationGroup percentile(double percent) {
+        if (!(0 <= percent && percent <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        TreeNode currentRoot = version.byKey;
+        if (currentRoot == null) {
+            throw new NoSuchElementException("Tree is empty");
+        }
+        int rank = Math.max(0, (int) Math.ceil(percent * currentRoot.size / 100) - 1);
+        return select(currentRoot, rank).entry.modificationGroup;
+    }
+
+    /**
+     * Returns the ModificationGroup with the biggest stored sorting key smaller than or equal to the given key in this version, in O(log n).
+     *
+     * @param key The key, a String for {@link TreeLogic#NAME}, a Number for PRIORITY and TOTAL_COST (non-null)
+     * @return The ModificationGroup, or null if there is none
+     * @throws NullPointerException     if key is null
+     * @throws IllegalArgumentException if the type of the key does not match the tree logic
+     */
+    @Override
+    public ModificationGroup floor(Object key) {
+        Object treeKey = ModificationBinaryTree.normalizeKey(treeLogic, Objects.requireNonNull(key, "Key cannot be null"));
+        TreeNode best = null;
+        TreeNode node = version.byKey;
+        while (node != null) {
+            if (compareEntryToKey(node.entry, treeKey) <= 0) {
+                best = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return best == null ? null : best.entry.modificationGroup;
+    }
+
+    /**
+     * Returns the ModificationGroup with the smallest stored sorting key bigger than or equal to the given key in this version, in O(log n).
+     *
+     * @param key The key, a String for {@link TreeLogic#NAME}, a Number for PRIORITY and TOTAL_COST (non-null)
+     * @return The ModificationGroup, or null if there is none
+     * @throws NullPointerException     if key is null
+     * @throws IllegalArgumentException if the type of the key does not match the tree logic
+     */
+    @Override
+    public ModificationGroup ceiling(Object key) {
+        Object treeKey = ModificationBinaryTree.normalizeKey(treeLogic, Objects.requireNonNull(key, "Key cannot be null"));
+        Deque<TreeNode> stack = pathToRangeStart(version.byKey, treeKey, true);
+        return stack.isEmpty() ? null : stack.peek().entry.modificationGroup;
+    }
+
+    /**
+     * Returns the ModificationGroups of this version with a stored sorting key between the given keys, in O(log n + k).
+     *
+     * @param fromKey       The lower bound, or null for no lower bound
+     * @param fromInclusive Whether ModificationGroups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null for no upper bound
+     * @param toInclusive   Whether ModificationGroups with a key equal to toKey are included
+     * @return List<ModificationGroup> of the range, ascending
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the tree logic
+     */
+    @Override
+    public List<ModificationGroup> getModificationGroupsInRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        List<ModificationGroup> result = new ArrayList<>();
+        rangeIterator(fromKey, fromInclusive, toKey, toInclusive).forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Returns an iterator over the ModificationGroups of the current version with a stored sorting key between the given keys.
+     * The iterator keeps the path of its position on a stack, so every step costs O(1) amortized, and it always iterates
+     * the version which was current when it was created, later writes are not visible to it.
+     *
+     * @param fromKey       The lower bound, or null for no lower bound
+     * @param fromInclusive Whether ModificationGroups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null for no upper bound
+     * @param toInclusive   Whether ModificationGroups with a key equal to toKey are included
+     * @return Iterator<ModificationGroup> over the range, ascending
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the tree logic
+     */
+    @Override
+    public Iterator<ModificationGroup> rangeIterator(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        Object fromTreeKey = fromKey == null ? null : ModificationBinaryTree.normalizeKey(treeLogic, fromKey);
+        Object toTreeKey = toKey == null ? null : ModificationBinaryTree.normalizeKey(treeLogic, toKey);
+        ModificationBinaryTree.checkRange(fromTreeKey, toTreeKey);
+        Deque<TreeNode> stack = pathToRangeStart(version.byKey, fromTreeKey, fromInclusive);
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty() && isBelowUpperBound(stack.peek().entry, toTreeKey, toInclusive);
+            }
+
+            @Override
+            public ModificationGroup next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No more ModificationGroups in range");
+                }
+                TreeNode node = stack.pop();
+                for (TreeNode child = node.right; child != null; child = child.left) {
+                    stack.push(child);
+                }
+                return node.entry.modificationGroup;
+            }
+        };
+    }
+
+    /**
+     * Returns a Spliterator over the ModificationGroups of the current version in the order of the stored sorting keys, the source of {@link #stream()}
+     * and {@link #parallelStream()}. The version is immutable, so the Spliterator splits its range of ranks in half in O(log n) with the subtree sizes,
+     * walks the Nodes lazily on a stack, and is unaffected by later writes, like a snapshot.
+     * It reports ORDERED, DISTINCT, NONNULL, IMMUTABLE, SIZED and SUBSIZED, but not SORTED: the order follows the keys stored at insertion,
+     * which no comparator of the live ModificationGroups can reproduce once a group has changed.
+     *
+     * @return Spliterator over all ModificationGroups of the current version, ascending
+     */
+    @Override
+    public Spliterator<ModificationGroup> spliterator() {
+        TreeNode currentRoot = version.byKey;
+        return new VersionSpliterator(currentRoot, 0, size(currentRoot));
+    }
+
+    /**
+     * Returns the count, the sums and the maximums of the cost and priority value of the ModificationGroups of this version with a stored sorting key
+     * between the given keys, in O(log n). The values are the ones stored at insertion, like the sorting key, and every immutable Node carries them
+     * aggregated for its subtree, so the subtrees hanging inside the range are added whole.
+     *
+     * @param fromKey       The lower bound, or null for no lower bound
+     * @param fromInclusive Whether ModificationGroups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null for no upper bound
+     * @param toInclusive   Whether ModificationGroups with a key equal to toKey are included
+     * @return The aggregates of the range
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the tree logic
+     */
+    @Override
+    public RangeAggregate aggregateRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        Object fromTreeKey = fromKey == null ? null : ModificationBinaryTree.normalizeKey(treeLogic, fromKey);
+        Object toTreeKey = toKey == null ? null : ModificationBinaryTree.normalizeKey(treeLogic, toKey);
+        ModificationBinaryTree.checkRange(fromTreeKey, toTreeKey);
+
+        RangeAggregate result = new RangeAggregate();
+        TreeNode split = version.byKey;
+        while (split != null) {
+            if (!isAboveLowerBound(split.entry, fromTreeKey, fromInclusive)) {
+                split = split.right;
+            } else if (!isBelowUpperBound(split.entry, toTreeKey, toInclusive)) {
+                split = split.left;
+            } else {
+                break;
+            }
+        }
+        if (split == null) {
+            return result;
+        }
+
+        addEntryToAggregate(result, split.entry);
+        for (TreeNode node = split.left; node != null; ) {
+            if (isAboveLowerBound(node.entry, fromTreeKey, fromInclusive)) {
+                addEntryToAggregate(result, node.entry);
+                addSubtreeToAggregate(result, node.right);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        for (TreeNode node = split.right; node != null; ) {
+            if (isBelowUpperBound(node.entry, toTreeKey, toInclusive)) {
+                addEntryToAggregate(result, node.entry);
+                addSubtreeToAggregate(result, node.left);
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    public TreeLogic getTreeLogic() {
+        return treeLogic;
+    }
+
+    public DuplicateKeys getDuplicateKeys() {
+        return duplicateKeys;
+    }
+
+    /**
+     * Helper method, throws UnsupportedOperationException for the write methods of a snapshot.
+     */
+    private void checkNotSnapshot() {
+        if (snapshot) {
+            throw new UnsupportedOperationException("Snapshot of PersistentModificationBinaryTree is read-only");
+        }
+    }
+
+    /**
+     * Helper method, finds the Node of a ModificationGroup in a version and counts its level on the way down, or returns null.
+     */
+    private Node locate(Version current, ModificationGroup modificationGroup) {
+        TreeNode stored = find(current.byId, Entry.probe(modificationGroup), BY_ID);
+        if (stored == null) {
+            return null;
+        }
+        int level = 0;
+        for (TreeNode node = current.byKey; node.entry != stored.entry; level++) {
+            node = byKey.compare(stored.entry, node.entry) < 0 ? node.left : node.right;
+        }
+        return new Node(stored.entry, level);
+    }
+
+    /**
+     * Helper method, collects the ModificationGroups from level fromLevel to level toLevel of a version, level by level.
+     */
+    private void collectLevels(Version current, int fromLevel, int toLevel, Set<ModificationGroup> result) {
+        if (current.byKey == null) {
+            return;
+        }
+        Deque<TreeNode> level = new ArrayDeque<>();
+        level.add(current.byKey);
+        for (int levelNumber = 0; levelNumber <= toLevel && !level.isEmpty(); levelNumber++) {
+            for (int remaining = level.size(); 0 < remaining; remaining--) {
+                TreeNode node = level.poll();
+                if (fromLevel <= levelNumber) {
+                    result.add(node.entry.modificationGroup);
+                }
+                addChildren(level, node);
+            }
+        }
+    }
+
+    /**
+     * Helper method, returns the entries of a subtree in sorted (in-order) order, with an explicit stack.
+     */
+    private static List<Entry> entriesInOrder(TreeNode node) {
+        List<Entry> result = new ArrayList<>(size(node));
+        Deque<TreeNode> stack = new ArrayDeque<>();
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            result.add(node.entry);
+            node = node.right;
+        }
+        return result;
+    }
+
+    /**
+     * Helper method, returns the in-order stack of the first Node with a key bigger than (or equal to, if inclusive) the given key,
+     * the Nodes still to visit are on the stack, the first one on top. A null key starts at the smallest Node.
+     */
+    private Deque<TreeNode> pathToRangeStart(TreeNode node, Object fromTreeKey, boolean fromInclusive) {
+        Deque<TreeNode> stack = new ArrayDeque<>();
+        while (node != null) {
+            if (isAboveLowerBound(node.entry, fromTreeKey, fromInclusive)) {
+                stack.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return stack;
+    }
+
+    private boolean isAboveLowerBound(Entry entry, Object fromTreeKey, boolean fromInclusive) {
+        if (fromTreeKey == null) {
+            return true;
+        }
+        int comparison = compareEntryToKey(entry, fromTreeKey);
+        return 0 < comparison || (fromInclusive && comparison == 0);
+    }
+
+    private boolean isBelowUpperBound(Entry entry, Object toTreeKey, boolean toInclusive) {
+        if (toTreeKey == null) {
+            return true;
+        }
+        int comparison = compareEntryToKey(entry, toTreeKey);
+        return comparison < 0 || (toInclusive && comparison == 0);
+    }
+
+    private static void addEntryToAggregate(RangeAggregate result, Entry entry) {
+        result.add(1, entry.cost, entry.priorityValue, entry.cost, entry.priorityValue);
+    }
+
+    private static void addSubtreeToAggregate(RangeAggregate result, TreeNode node) {
+        if (node != null) {
+            result.add(node.size, node.costSum, node.priorityValueSum, node.maxCost, node.maxPriorityValue);
+        }
+    }
+
+    /**
+     * Helper method, compares the stored sorting key of an entry with a key normalized by {@link ModificationBinaryTree#normalizeKey}.
+     */
+    private int compareEntryToKey(Entry entry, Object treeKey) {
+        return treeLogic == TreeLogic.NAME ? entry.name.compareTo((String) treeKey) : Long.compare(entry.numericKey, (Long) treeKey);
+    }
+
+    /**
+     * Helper method, compares two entries by their stored sorting key based on the tree logic.
+     */
+    private int compareEntriesByKey(Entry a, Entry b) {
+        int comparison = treeLogic == TreeLogic.NAME ? a.name.compareTo(b.name) : Long.compare(a.numericKey, b.numericKey);
+        if (comparison == 0 && duplicateKeys == DuplicateKeys.ALLOW) {
+            return Integer.compare(a.modificationGroup.getModificationGroupId(), b.modificationGroup.getModificationGroupId());
+        }
+        return comparison;
+    }
+
+    private static int totalNumberOfLevels(Version current) {
+        if (current.byKey == null) {
+            return -1;
+        }
+        return current.byKey.height == 1 ? 0 : current.byKey.height;
+    }
+
+    private static void addChildren(Deque<TreeNode> deque, TreeNode node) {
+        if (node.left != null) {
+            deque.add(node.left);
+        }
+        if (node.right != null) {
+            deque.add(node.right);
+        }
+    }
+
+    /**
+     * Orders the entries by modificationGroupId, for the index tree of a version.
+     */
+    private static final Comparator<Entry> BY_ID = Comparator.comparingInt(entry -> entry.modificationGroup.getModificationGroupId());
+
+    /**
+     * Helper method, finds the Node with an entry equal to probe under the comparator, or returns null.
+     */
+    private static TreeNode find(TreeNode node, Entry probe, Comparator<Entry> comparator) {
+        while (node != null) {
+            int comparison = comparator.compare(probe, node.entry);
+            if (comparison == 0) {
+                return node;
+            }
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Helper method, descends to the Node with the given rank within the subtree, using the subtree sizes.
+     */
+    private static TreeNode select(TreeNode node, int rank) {
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank == leftSize) {
+                return node;
+            }
+            if (rank < leftSize) {
+                node = node.left;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Helper method, builds a perfectly balanced subtree of the sorted entries from index low to high, the recursion depth is bounded by log2(n).
+     */
+    private static TreeNode buildBalanced(List<Entry> sorted, int low, int high) {
+        if (high < low) {
+            return null;
+        }
+        int middle = (low + high) >>> 1;
+        return new TreeNode(sorted.get(middle), buildBalanced(sorted, low, middle - 1), buildBalanced(sorted, middle + 1, high));
+    }
+
+    /**
+     * Helper method, returns a new version of the subtree with the entry added. Only the Nodes on the path are copied.
+     */
+    private static TreeNode insert(TreeNode node, Entry entry, Comparator<Entry> comparator) {
+        if (node == null) {
+            return new TreeNode(entry, null, null);
+        }
+        if (comparator.compare(entry, node.entry) < 0) {
+            return balance(node.entry, insert(node.left, entry, comparator), node.right);
+        }
+        return balance(node.entry, node.left, insert(node.right, entry, comparator));
+    }
+
+    /**
+     * Helper method, returns a new version of the subtree with the entry removed. Only the Nodes on the path are copied.
+     */
+    private static TreeNode remove(TreeNode node, Entry entry, Comparator<Entry> comparator) {
+        int comparison = comparator.compare(entry, node.entry);
+        if (comparison < 0) {
+            return balance(node.entry, remove(node.left, entry, comparator), node.right);
+        }
+        if (0 < comparison) {
+            return balance(node.entry, node.left, remove(node.right, entry, comparator));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        TreeNode successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.entry, node.left, removeMin(node.right));
+    }
+
+    private static TreeNode removeMin(TreeNode node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.entry, removeMin(node.left), node.right);
+    }
+
+    /**
+     * Helper method, creates the Node of entry over left and right, with one or two rotations if their heights differ by more than one.
+     */
+    private static TreeNode balance(Entry entry, TreeNode left, TreeNode right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (rightHeight + 1 < leftHeight) {
+            if (height(left.right) <= height(left.left)) {
+                return new TreeNode(left.entry, left.left, new TreeNode(entry, left.right, right));
+            }
+            return new TreeNode(left.right.entry, new TreeNode(left.entry, left.left, left.right.left), new TreeNode(entry, left.right.right, right));
+        }
+        if (leftHeight + 1 < rightHeight) {
+            if (height(right.left) <= height(right.right)) {
+                return new TreeNode(right.entry, new TreeNode(entry, left, right.left), right.right);
+            }
+            return new TreeNode(right.left.entry, new TreeNode(entry, left, right.left.left), new TreeNode(right.entry, right.left.right, right.right));
+        }
+        return new TreeNode(entry, left, right);
+    }
+
+    private static int height(TreeNode node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(TreeNode node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * One version of the tree, the root ordered by sorting key and the root ordered by modificationGroupId, over the same entries.
+     */
+    private static final class Version {
+        private static final Version EMPTY = new Version(null, null);
+
+        private final TreeNode byKey;
+        private final TreeNode byId;
+
+        private Version(TreeNode byKey, TreeNode byId) {
+            this.byKey = byKey;
+            this.byId = byId;
+        }
+    }
+
+    /**
+     * The Spliterator of {@link #spliterator()}, covering the ranks from fromRank (inclusive) to toRank (exclusive) of an immutable version.
+     * The stack holds the path to the Node of fromRank, it is built on the first step, so splitting before the traversal costs no walk.
+     */
+    private static final class VersionSpliterator implements Spliterator<ModificationGroup> {
+        private final TreeNode root;
+        private int fromRank;
+        private final int toRank;
+        private Deque<TreeNode> stack;
+
+        private VersionSpliterator(TreeNode root, int fromRank, int toRank) {
+            this.root = root;
+            this.fromRank = fromRank;
+            this.toRank = toRank;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ModificationGroup> action) {
+            Objects.requireNonNull(action, "Action cannot be null");
+            if (fromRank >= toRank) {
+                return false;
+            }
+            if (stack == null) {
+                stack = pathToRank(root, fromRank);
+            }
+            TreeNode node = stack.pop();
+            for (TreeNode child = node.right; child != null; child = child.left) {
+                stack.push(child);
+            }
+            fromRank++;
+            action.accept(node.entry.modificationGroup);
+            return true;
+        }
+
+        @Override
+        public Spliterator<ModificationGroup> trySplit() {
+            if (toRank - fromRank < 2) {
+                return null;
+            }
+            int middleRank = (fromRank + toRank) >>> 1;
+            VersionSpliterator prefix = new VersionSpliterator(root, fromRank, middleRank);
+            prefix.stack = stack;
+            stack = null;
+            fromRank = middleRank;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return toRank - fromRank;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | NONNULL | IMMUTABLE | SIZED | SUBSIZED;
+        }
+
+        /**
+         * Helper method, returns the stack of the Nodes from the root, at which the path to the given rank turns left, with the Node of the rank on top.
+         */
+        private static Deque<TreeNode> pathToRank(TreeNode node, int rank) {
+            Deque<TreeNode> path = new ArrayDeque<>();
+            while (node != null) {
+                int leftSize = size(node.left);
+                if (rank <= leftSize) {
+                    path.push(node);
+                    if (rank == leftSize) {
+                        break;
+                    }
+                    node = node.left;
+                } else {
+                    rank -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+            return path;
+        }
+    }
+
+    /**
+     * A stored ModificationGroup with the sorting key it had at insertion.
+     */
+    private static final class Entry {
+        private final ModificationGroup modificationGroup;
+        private final String name;
+        private final long numericKey;
+        private final long cost;
+        private final int priorityValue;
+        private final TreeLogic treeLogic;
+        private final int nodeNumber;
+
+        private Entry(ModificationGroup modificationGroup, TreeLogic treeLogic, int nodeNumber) {
+            this.modificationGroup = modificationGroup;
+            this.treeLogic = treeLogic;
+            this.name = modificationGroup.getName();
+            this.cost = modificationGroup.getCost();
+            this.priorityValue = modificationGroup.getPriorityValue();
+            this.numericKey = treeLogic == TreeLogic.PRIORITY ? priorityValue
+                    : treeLogic == TreeLogic.TOTAL_COST ? cost : 0;
+            this.nodeNumber = nodeNumber;
+        }
+
+        /**
+         * Creates an entry, which is only used to search the index tree by modificationGroupId.
+         */
+        private static Entry probe(ModificationGroup modificationGroup) {
+            return new Entry(modificationGroup, TreeLogic.NAME, 0);
+        }
+
+        private String displayKey() {
+            return treeLogic == TreeLogic.NAME ? name : String.valueOf(numericKey);
+        }
+    }
+
+    /**
+     * Immutable Node of a version, shared by every version which contains the same subtree.
+     */
+    private static final class TreeNode {
+        private final Entry entry;
+        private final TreeNode left;
+        private final TreeNode right;
+        private final int height;
+        private final int size;
+        private final long costSum;
+        private final long priorityValueSum;
+        private final long maxCost;
+        private final int maxPriorityValue;
+
+        private TreeNode(Entry entry, TreeNode left, TreeNode right) {
+            this.entry = entry;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+            this.costSum = entry.cost + (left == null ? 0 : left.costSum) + (right == null ? 0 : right.costSum);
+            this.priorityValueSum = entry.priorityValue + (left == null ? 0 : left.priorityValueSum) + (right == null ? 0 : right.priorityValueSum);
+            this.maxCost = Math.max(entry.cost, Math.max(left == null ? Long.MIN_VALUE : left.maxCost, right == null ? Long.MIN_VALUE : right.maxCost));
+            this.maxPriorityValue = Math.max(entry.priorityValue,
+                    Math.max(left == null ? Integer.MIN_VALUE : left.maxPriorityValue, right == null ? Integer.MIN_VALUE : right.maxPriorityValue));
+        }
+    }
+
+    /**
+     * The result of a search, a ModificationGroup with its level in the searched version.
+     */
+    public static final class Node implements ModificationBinaryTreeInterface.Node {
+        private final ModificationGroup modificationGroup;
+        private final int nodeNumber;
+        private final int level;
+
+        private Node(Entry entry, int level) {
+            this.modificationGroup = entry.modificationGroup;
+            this.nodeNumber = entry.nodeNumber;
+            this.level = level;
+        }
+
+        @Override
+        public int getLevel() {
+            return level;
+        }
+
+        @Override
+        public int getNodeNumber() {
+            return nodeNumber;
+        }
+
+        @Override
+        public ModificationGroup getModificationGroup() {
+            return modificationGroup;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.simon.simontree.model;
+
+/**
+ * The result of a range aggregate query of a tree, see {@link com.simon.simontree.api.ModificationBinaryTreeInterface#aggregateRange}.
+ * Contains the number of ModificationGroups in the range, the sums and the maximums of their cost and priority value.
+ * The tree engines fill it from their per-node aggregates, so the callers only read it.
+ */
+public final class RangeAggregate {
+    private int count;
+    private long totalCost;
+    private long totalPriorityValue;
+    private long maxCost = Long.MIN_VALUE;
+    private int maxPriorityValue = Integer.MIN_VALUE;
+
+    RangeAggregate() {
+    }
+
+    /**
+     * Helper method, adds the aggregates of a subtree or of a single ModificationGroup to the result.
+     */
+    void add(int count, long cost, long priorityValue, long maxCost, int maxPriorityValue) {
+        if (count == 0) {
+            return;
+        }
+        this.count += count;
+        this.totalCost += cost;
+        this.totalPriorityValue += priorityValue;
+        this.maxCost = Math.max(this.maxCost, maxCost);
+        this.maxPriorityValue = Math.max(this.maxPriorityValue, maxPriorityValue);
+    }
+
+    /**
+     * Returns the number of ModificationGroups in the range.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the cost of the ModificationGroups in the range, 0 for an empty range.
+     */
+    public long getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * Returns the sum of the priority value of the ModificationGroups in the range, 0 for an empty range.
+     */
+    public long getTotalPriorityValue() {
+        return totalPriorityValue;
+    }
+
+    /**
+     * Returns the biggest cost of the ModificationGroups in the range, null for an empty range.
+     */
+    public Long getMaxCost() {
+        return count == 0 ? null : maxCost;
+    }
+
+    /**
+     * Returns the biggest priority value of the ModificationGroups in the range, null for an empty range.
+     */
+    public Integer getMaxPriorityValue() {
+        return count == 0 ? null : maxPriorityValue;
+    }
+
+    @Override
+    public String toString() {
+        return "RangeAggregate{count=" + count + ", totalCost=" + totalCost + ", totalPriorityValue=" + totalPriorityValue
+                + ", maxCost=" + getMaxCost() + ", maxPriorityValue=" + getMaxPriorityValue() + '}';
+    }
+}
@@ -0,0 +1,987 @@
+package com.simon.simontree.model;
+
+import com.simon.simontree.api.ModificationBinaryTreeInterface;
+import com.simon.simontree.api.ModificationGroupListener;
+import com.simon.simontree.api.ModificationTreeListener;
+import com.simon.simontree.enums.DuplicateKeys;
+import com.simon.simontree.enums.TreeLogic;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+
+/**
+ * A lock-free tree engine for {@link ModificationGroup} objects, built on {@link ConcurrentSkipListSet}s ordered by the {@link TreeLogic} comparator.
+ * Every ModificationGroup gets a random tower height at insertion, like a node of a skip list, and is added to one express lane per height,
+ * lane 0 contains every ModificationGroup, lane h the ones taller than h. Writers never take a lock, so inserts of different threads proceed in parallel.
+ * Implements the interface {@link ModificationBinaryTreeInterface}, so it can replace {@link ModificationBinaryTree} in {@link com.simon.simontree.api.ModificationBinaryTreeOperations}.
+ *
+ * <p>The tree queries are derived from the lanes:
+ * <ul>
+ *   <li>level: the tallest towers are on level 0, level = tallest height - height of the tower</li>
+ *   <li>path: the towers a skip list search drops down at, the closest taller tower before the group on every lane above it</li>
+ *   <li>children: the groups covered by the tower, up to the next tower which is at least as tall</li>
+ * </ul>
+ *
+ * <p>Key characteristics:
+ * <ul>
+ *   <li>expected O(log n) insert, removal and ordered lookups, lock-free</li>
+ *   <li>the sorting key (name, priority value or cost) is stored in the entry, a listener re-keys the entry when the priority value or the cost
+ *   of the ModificationGroup changes, like {@link ModificationBinaryTree} moves its Node</li>
+ *   <li>every entry has a state (inserting, live, removed, retired), claimed with compare-and-set, so an insert and a removal of the same
+ *   ModificationGroup racing each other never leave an orphaned lane entry or a stale key claim behind</li>
+ *   <li>queries are weakly consistent while writers run, like the iterators of the concurrent collections</li>
+ *   <li>ModificationGroups are not linked to each other, so {@link #linksModificationGroups()} is false and the subtree totals are not supported</li>
+ *   <li>the lanes keep no subtree sizes or aggregates, rank, select, percentile and the range aggregates walk lane 0</li>
+ * </ul>
+ *
+ * @see ModificationBinaryTreeInterface
+ * @see ModificationBinaryTree
+ */
+public class SkipListModificationTree implements ModificationBinaryTreeInterface {
+    /**
+     * The maximal tower height, enough for 2^32 elements.
+     */
+    private static final int MAX_HEIGHT = 32;
+    /**
+     * Auto-incremented total number of elements counter.
+     */
+    private final AtomicInteger totalNumberOfElements = new AtomicInteger();
+    /**
+     * Auto-incremented node number counter.
+     */
+    private final AtomicInteger nodeCounter = new AtomicInteger();
+    /**
+     * Enum, which sets the sorting logic of the tree (name, priority, total cost).
+     */
+    private final TreeLogic treeLogic;
+    /**
+     * Enum, which sets whether different ModificationGroups with an equal sorting key can be stored (reject, allow).
+     */
+    private final DuplicateKeys duplicateKeys;
+    /**
+     * The express lanes, lanes.get(h) contains the entries with a tower taller than h, ordered by sorting key and modificationGroupId.
+     */
+    private final List<ConcurrentSkipListSet<Entry>> lanes = new ArrayList<>(MAX_HEIGHT);
+    /**
+     * Index from modificationGroupId to the entry of the ModificationGroup, claimed atomically on insert and removal.
+     */
+    private final Map<Integer, Entry> entriesById = new ConcurrentHashMap<>();
+    /**
+     * Index from sorting key to the entry, claimed atomically on insert with {@link DuplicateKeys#REJECT}.
+     */
+    private final Map<Object, Entry> entriesByKey = new ConcurrentHashMap<>();
+    /**
+     * The listener registered on every stored ModificationGroup, it re-keys the entry when the sorting key changed.
+     */
+    private final ModificationGroupListener rekeyListener = new RekeyListener();
+    /**
+     * Number of live entries per tower height, so the shortest tower, and with it the deepest derived level, is found without walking the lanes.
+     */
+    private final AtomicIntegerArray towersByHeight = new AtomicIntegerArray(MAX_HEIGHT + 1);
+    /**
+     * Listeners notified after ModificationGroups were inserted or removed. An insert notifies even if a racing removal claimed its entry,
+     * so the last notification about a ModificationGroup is always sent after its last change.
+     */
+    private final CopyOnWriteArrayList<ModificationTreeListener> modificationTreeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs a new, empty SkipListModificationTree with the given sorting logic, rejecting equal sorting keys.
+     *
+     * @param treeLogic enum, which defines the sorting logic of the tree (name, priority, total cost)
+     * @throws NullPointerException if treeLogic is null
+     */
+    public SkipListModificationTree(TreeLogic treeLogic) {
+        this(treeLogic, DuplicateKeys.REJECT);
+    }
+
+    /**
+     * Constructs a new, empty SkipListModificationTree with the given sorting logic and duplicate key handling.
+     *
+     * @param treeLogic     enum, which defines the sorting logic of the tree (name, priority, total cost)
+     * @param duplicateKeys enum, which defines whether equal sorting keys are rejected or allowed
+     * @throws NullPointerException if treeLogic or duplicateKeys is null
+     */
+    public SkipListModificationTree(TreeLogic treeLogic, DuplicateKeys duplicateKeys) {
+        this.treeLogic = Objects.requireNonNull(treeLogic, "TreeLogic cannot be null");
+        this.duplicateKeys = Objects.requireNonNull(duplicateKeys, "DuplicateKeys cannot be null");
+        for (int height = 0; height < MAX_HEIGHT; height++) {
+            lanes.add(new ConcurrentSkipListSet<>(SkipListModificationTree::compareEntries));
+        }
+    }
+
+    /**
+     * Inserts a new element without locking. The ModificationGroup is claimed in the id index (and with {@link DuplicateKeys#REJECT} in the key index)
+     * by an entry in the inserting state, then the entry is added to the lanes from the bottom up, so an entry visible on a lane is visible on every lane
+     * below it, and only then it becomes live. If a removal claimed the entry meanwhile, this insert unlinks it again, see removeModificationGroup().
+     *
+     * @param modificationGroup The ModificationGroup to insert (cannot be null)
+     * @throws NullPointerException  if modificationGroup is null
+     * @throws IllegalStateException if the ModificationGroup, or with {@link DuplicateKeys#REJECT} its sorting key, is already in the tree
+     */
+    @Override
+    public void insert(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        Entry entry = new Entry(modificationGroup, keyOf(modificationGroup), randomHeight(), nodeCounter.incrementAndGet());
+        if (entriesById.putIfAbsent(entry.id, entry) != null) {
+            throw new IllegalStateException("ModificationGroup already exists in tree");
+        }
+        if (duplicateKeys == DuplicateKeys.REJECT && entriesByKey.putIfAbsent(entry.key, entry) != null) {
+            entriesById.remove(entry.id, entry);
+            throw new IllegalStateException("ModificationGroup already exists in tree");
+        }
+
+        modificationGroup.addModificationGroupListener(rekeyListener);
+        if (publish(entry, false)) {
+            rekey(modificationGroup); // a change before the listener was registered
+        }
+        notifyTreeListeners(modificationGroup, true);
+    }
+
+    /**
+     * Removes a ModificationGroup without locking. The entry is claimed by switching it from live or inserting to removed, so of two racing removals
+     * only one succeeds. A live entry is unlinked from the top lane down by the removal, an inserting entry by its own insert (or re-key),
+     * which sees the claim when it tries to go live. The id index is released last, so the ModificationGroup cannot be inserted again
+     * while its old entry is still linked.
+     *
+     * @param modificationGroup The group to remove (cannot be null)
+     * @return true if the group was removed, false if it was not in the tree
+     * @throws NullPointerException if modificationGroup is null
+     */
+    @Override
+    public boolean removeModificationGroup(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        while (true) {
+            Entry entry = entriesById.get(modificationGroup.getModificationGroupId());
+            if (entry == null) {
+                return false;
+            }
+            int state = entry.state.get();
+            if (state == Entry.REMOVED) {
+                return false;
+            }
+            if (state == Entry.RETIRED) {
+                Thread.onSpinWait(); // a re-key is replacing the entry
+                continue;
+            }
+            if (!entry.state.compareAndSet(state, Entry.REMOVED)) {
+                continue;
+            }
+            if (state == Entry.LIVE) {
+                discard(entry, true);
+            }
+            notifyTreeListeners(modificationGroup, false);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the derived path of a ModificationGroup, the taller towers a skip list search drops down at before reaching it.
+     * The path is constructed using group names separated by " / " (e.g., "Root / Europe / Hungary").
+     *
+     * @param modificationGroup The group to locate (non-null)
+     * @return The full path, or an empty string if not found
+     * @throws NullPointerException if modificationGroup is null
+     */
+    @Override
+    public String getTreePath(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        Entry entry = entriesById.get(modificationGroup.getModificationGroupId());
+        if (entry == null) {
+            return "";
+        }
+
+        StringJoiner path = new StringJoiner(" / ");
+        Entry previousAncestor = null;
+        for (int height = topHeight() - 1; entry.height <= height; height--) {
+            Entry ancestor = lanes.get(height).lower(entry);
+            if (ancestor != null && ancestor != previousAncestor) {
+                path.add(ancestor.modificationGroup.getName());
+                previousAncestor = ancestor;
+            }
+        }
+        path.add(entry.modificationGroup.getName());
+        return path.toString();
+    }
+
+    /**
+     * Finds the node containing the specified modification group, using the modificationGroupId index, in O(1).
+     *
+     * @param modificationGroup The modification group to find (non-null)
+     * @return The Node of the modificationGroup with its derived level
+     * @throws NullPointerException   if modificationGroup is null
+     * @throws NoSuchElementException if modificationGroup is not found or tree is empty
+     */
+    @Override
+    public Node searchNodesForModificationGroup(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        if (totalNumberOfElements.get() == 0) {
+            throw new NoSuchElementException("Tree is empty");
+        }
+        Entry entry = entriesById.get(modificationGroup.getModificationGroupId());
+        if (entry == null) {
+            throw new NoSuchElementException("ModificationGroup not found in tree");
+        }
+        return new Node(entry, topHeight() - entry.height);
+    }
+
+    /**
+     * Finds the node of the ModificationGroup containing the specified modification. The lanes are searched from the top down,
+     * so the ModificationGroup closest to level 0 is returned, in O(n) in the worst case.
+     *
+     * @param modification The modification to find
+     * @return The Node of the ModificationGroup of the modification
+     * @throws NullPointerException   if modification is null
+     * @throws NoSuchElementException if tree is empty or modification not found
+     */
+    @Override
+    public Node searchNodesForModifications(Modification modification) {
+        Objects.requireNonNull(modification, "Modification cannot be null");
+
+        int topHeight = topHeight();
+        if (topHeight == 0) {
+            throw new NoSuchElementException("Tree is empty");
+        }
+        for (int height = topHeight; 0 < height; height--) {
+            for (Entry entry : lanes.get(height - 1)) {
+                if (entry.height == height && containsModification(entry.modificationGroup, modification)) {
+                    return new Node(entry, topHeight - height);
+                }
+            }
+        }
+        throw new NoSuchElementException("Modification not found in tree");
+    }
+
+    /**
+     * Finds the derived level of the specified ModificationGroup, in O(1).
+     *
+     * @param modificationGroup The group to locate (can be null)
+     * @return The level (tallest towers = 0), or -1 if not found
+     */
+    @Override
+    public int getLevelNumberOfModificationGroup(ModificationGroup modificationGroup) {
+        if (modificationGroup == null) {
+            return -1;
+        }
+        Entry entry = entriesById.get(modificationGroup.getModificationGroupId());
+        return entry == null ? -1 : Math.max(0, topHeight() - entry.height);
+    }
+
+    /**
+     * Returns a Set<ModificationGroup> of all ModificationGroup on this level and the levels above it, which is one express lane.
+     *
+     * @param upUntilThisLevel the level up until to count the ModificationGroups
+     * @return Set<ModificationGroup> the set of ModificationGroups up until the give level
+     */
+    @Override
+    public Set<ModificationGroup> getSetOfModificationGroupsUpUntilGivenLevel(ModificationGroup modificationGroup, int upUntilThisLevel) {
+        Set<ModificationGroup> result = new HashSet<>();
+        int height = Math.max(1, topHeight() - upUntilThisLevel);
+        if (upUntilThisLevel < 0 || MAX_HEIGHT < height) {
+            return result;
+        }
+        for (Entry entry : lanes.get(height - 1)) {
+            result.add(entry.modificationGroup);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a Set<Modification> of all Modification of the given ModificationGroup and of the ModificationGroups covered by its tower.
+     *
+     * @param modificationGroup The ModificationGroup, which will be investigated
+     * @return Set<Modification> of all Modification of this ModificationGroup and its derived children
+     * @throws NullPointerException   if modificationGroup is null
+     * @throws NoSuchElementException if the group is not found in the tree
+     */
+    @Override
+    public Set<Modification> getModificationsOfGivenModificationGroupAndItsChildren(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        Entry entry = entriesById.get(modificationGroup.getModificationGroupId());
+        if (entry == null) {
+            throw new NoSuchElementException("ModificationGroup not found in tree");
+        }
+
+        Entry nextTower = lanes.get(entry.height - 1).higher(entry);
+        NavigableSet<Entry> covered = nextTower == null
+                ? lanes.get(0).tailSet(entry, true)
+                : lanes.get(0).subSet(entry, true, nextTower, false);
+        Set<Modification> allModifications = new HashSet<>();
+        for (Entry coveredEntry : covered) {
+            synchronized (coveredEntry.modificationGroup.modificationsLock) {
+                allModifications.addAll(coveredEntry.modificationGroup.getModifications());
+            }
+        }
+        return allModifications;
+    }
+
+    /**
+     * Finds a modification with the specified ID at the given derived level.
+     *
+     * @param id    The ID of the modification to find (must be positive)
+     * @param level The level to search in (0-based)
+     * @return The found Modification
+     * @throws NoSuchElementException   if no modification with the given ID exists at the specified level
+     * @throws IllegalArgumentException if level is invalid (negative or exceeds tree depth)
+     * @throws NullPointerException     if the tree is empty
+     */
+    @Override
+    public Modification findModificationOnGivenLevelById(int id, int level) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Modification ID must be positive");
+        }
+        int topHeight = topHeight();
+        if (level < 0 || topHeight <= level) {
+            throw new IllegalArgumentException("Level must be between 0 and " + (topHeight - 1));
+        }
+
+        for (ModificationGroup group : groupsOnLevel(level)) {
+            synchronized (group.modificationsLock) {
+                for (Modification modification : group.getModifications()) {
+                    if (modification.getModificationId() == id) {
+                        return modification;
+                    }
+                }
+            }
+        }
+        throw new NoSuchElementException("No modification found with ID = " + id + " and level = " + level);
+    }
+
+    /**
+     * Retrieves all ModificationGroups at a given derived level, the towers of exactly that height.
+     *
+     * @param modificationGroup Unused parameter (maintained for backward compatibility)
+     * @param targetLevel       The target level to search for (0-based)
+     * @return Set<ModificationGroup> found at the specified level, empty set if level doesn't exist
+     */
+    @Override
+    public Set<ModificationGroup> getListOfModificationGroupsOnGivenLevel(ModificationGroup modificationGroup, int targetLevel) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        return groupsOnLevel(targetLevel);
+    }
+
+    /**
+     * Performs an in-order traversal (smallest to biggest key) and displays each element with its stored sorting key.
+     */
+    @Override
+    public void inOrder() {
+        for (Entry entry : lanes.get(0)) {
+            System.out.println(" --- " + entry.displayKey() + " (ID: " + entry.modificationGroup.getModificationGroupId() + ")");
+        }
+    }
+
+    /**
+     * Performs a reverse-order traversal (biggest to smallest key) and displays each element with its stored sorting key.
+     */
+    @Override
+    public void reverseOrder() {
+        for (Entry entry : lanes.get(0).descendingSet()) {
+            System.out.println(" --- " + entry.displayKey() + " (ID: " + entry.modificationGroup.getModificationGroupId() + ")");
+        }
+    }
+
+    /**
+     * Prints the derived structure to standard output. Every group comes after its derived parent in sorted order,
+     * so the sorted order indented by the level is the pre-order of the structure.
+     */
+    @Override
+    public void printTreeStructure() {
+        int topHeight = topHeight();
+        if (topHeight == 0) {
+            System.out.println("Empty tree.");
+            return;
+        }
+        for (Entry entry : lanes.get(0)) {
+            System.out.println("    ".repeat(Math.max(0, topHeight - entry.height)) + "--- " + entry.displayKey()
+                    + " (ID: " + entry.modificationGroup.getModificationGroupId() + ")");
+        }
+    }
+
+    /**
+     * Returns the Node of the first of the tallest towers, or null if the tree is empty.
+     */
+    @Override
+    public Node getRoot() {
+        int topHeight = topHeight();
+        if (topHeight == 0) {
+            return null;
+        }
+        Entry first = lanes.get(topHeight - 1).isEmpty() ? null : lanes.get(topHeight - 1).first();
+        return first == null ? null : new Node(first, 0);
+    }
+
+    /**
+     * Returns the ModificationGroups in sorted order.
+     */
+    @Override
+    public List<ModificationGroup> getAllModificationGroups() {
+        List<ModificationGroup> result = new ArrayList<>();
+        for (Entry entry : lanes.get(0)) {
+            result.add(entry.modificationGroup);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addModificationTreeListener(ModificationTreeListener listener) {
+        Objects.requireNonNull(listener, "ModificationTreeListener cannot be null");
+        modificationTreeListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean removeModificationTreeListener(ModificationTreeListener listener) {
+        return modificationTreeListeners.remove(listener);
+    }
+
+    /**
+     * Helper method, notifies the tree listeners about an inserted or a removed ModificationGroup.
+     */
+    private void notifyTreeListeners(ModificationGroup modificationGroup, boolean inserted) {
+        List<ModificationGroup> modificationGroups = List.of(modificationGroup);
+        for (ModificationTreeListener listener : modificationTreeListeners) {
+            if (inserted) {
+                listener.modificationGroupsInserted(this, modificationGroups);
+            } else {
+                listener.modificationGroupsRemoved(this, modificationGroups);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of derived levels with the convention of {@link ModificationBinaryTree#getTotalNumberOfLevels()}: -1 if the tree is empty,
+     * 0 if every tower is equally tall, so every group is on level 0, otherwise the deepest level + 1. The deepest level is the difference
+     * of the tallest and the shortest tower.
+     */
+    @Override
+    public int getTotalNumberOfLevels() {
+        int topHeight = topHeight();
+        if (topHeight == 0) {
+            return -1;
+        }
+        int shortestHeight = 1;
+        while (shortestHeight < topHeight && towersByHeight.get(shortestHeight) == 0) {
+            shortestHeight++;
+        }
+        int deepestLevel = topHeight - shortestHeight;
+        return deepestLevel == 0 ? 0 : deepestLevel + 1;
+    }
+
+    /**
+     * Returns the rank of a ModificationGroup in the sorting order. The lanes keep no subtree sizes, so the groups before it are counted, in O(rank).
+     *
+     * @param modificationGroup The group to rank (non-null)
+     * @return The 0-based rank (smallest key = 0)
+     * @throws NullPointerException   if modificationGroup is null
+     * @throws NoSuchElementException if the group is not found in the tree
+     */
+    @Override
+    public int rank(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+
+        Entry entry = entriesById.get(modificationGroup.getModificationGroupId());
+        if (entry == null) {
+            throw new NoSuchElementException("ModificationGroup not found in tree");
+        }
+        return lanes.get(0).headSet(entry, false).size();
+    }
+
+    /**
+     * Returns the ModificationGroup with the given rank in the sorting order, by walking lane 0, in O(rank).
+     *
+     * @param rank The 0-based rank (smallest key = 0)
+     * @return The ModificationGroup with the given rank
+     * @throws IllegalArgumentException if rank is negative or not smaller than the number of elements
+     */
+    @Override
+    public ModificationGroup select(int rank) {
+        if (0 <= rank) {
+            Iterator<Entry> iterator = lanes.get(0).iterator();
+            for (int skipped = 0; iterator.hasNext(); skipped++) {
+                Entry entry = iterator.next();
+                if (skipped == rank) {
+                    return entry.modificationGroup;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Rank must be between 0 and " + (totalNumberOfElements.get() - 1));
+    }
+
+    /**
+     * Returns the ModificationGroup at the given percentile of the sorting order with the nearest-rank method, in O(n).
+     *
+     * @param percent The percentile, between 0 and 100
+     * @return The ModificationGroup at the percentile
+     * @throws IllegalArgumentException if percent is not between 0 and 100
+     * @throws NoSuchElementException   if the tree is empty
+     */
+    @Override
+    public ModificationGroup percentile(double percent) {
+        if (!(0 <= percent && percent <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        List<ModificationGroup> groups = getAllModificationGroups();
+        if (groups.isEmpty()) {
+            throw new NoSuchElementException("Tree is empty");
+        }
+        return groups.get(Math.max(0, (int) Math.ceil(percent * groups.size() / 100) - 1));
+    }
+
+    /**
+     * Returns the ModificationGroup with the biggest stored sorting key smaller than or equal to the given key, in expected O(log n).
+     *
+     * @param key The key, a String for {@link TreeLogic#NAME}, a Number for PRIORITY and TOTAL_COST (non-null)
+     * @return The ModificationGroup, or null if there is none
+     * @throws NullPointerException     if key is null
+     * @throws IllegalArgumentException if the type of the key does not match the tree logic
+     */
+    @Override
+    public ModificationGroup floor(Object key) {
+        Object treeKey = ModificationBinaryTree.normalizeKey(treeLogic, Objects.requireNonNull(key, "Key cannot be null"));
+        Entry entry = lanes.get(0).floor(new Entry(treeKey, Integer.MAX_VALUE));
+        return entry == null ? null : entry.modificationGroup;
+    }
+
+    /**
+     * Returns the ModificationGroup with the smallest stored sorting key bigger than or equal to the given key, in expected O(log n).
+     *
+     * @param key The key, a String for {@link TreeLogic#NAME}, a Number for PRIORITY and TOTAL_COST (non-null)
+     * @return The ModificationGroup, or null if there is none
+     * @throws NullPointerException     if key is null
+     * @throws IllegalArgumentException if the type of the key does not match the tree logic
+     */
+    @Override
+    public ModificationGroup ceiling(Object key) {
+        Object treeKey = ModificationBinaryTree.normalizeKey(treeLogic, Objects.requireNonNull(key, "Key cannot be null"));
+        Entry entry = lanes.get(0).ceiling(new Entry(treeKey, Integer.MIN_VALUE));
+        return entry == null ? null : entry.modificationGroup;
+    }
+
+    /**
+     * Returns the ModificationGroups with a stored sorting key between the given keys, in expected O(log n + k).
+     *
+     * @param fromKey       The lower bound, or null for no lower bound
+     * @param fromInclusive Whether ModificationGroups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null for no upper bound
+     * @param toInclusive   Whether ModificationGroups with a key equal to toKey are included
+     * @return List<ModificationGroup> of the range, ascending
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the tree logic
+     */
+    @Override
+    public List<ModificationGroup> getModificationGroupsInRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        List<ModificationGroup> result = new ArrayList<>();
+        rangeIterator(fromKey, fromInclusive, toKey, toInclusive).forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the ModificationGroups with a stored sorting key between the given keys,
+     * backed by a range view of lane 0, so it never fails on concurrent writes.
+     *
+     * @param fromKey       The lower bound, or null for no lower bound
+     * @param fromInclusive Whether ModificationGroups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null for no upper bound
+     * @param toInclusive   Whether ModificationGroups with a key equal to toKey are included
+     * @return Iterator<ModificationGroup> over the range, ascending
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the tree logic
+     */
+    @Override
+    public Iterator<ModificationGroup> rangeIterator(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        Object fromTreeKey = fromKey == null ? null : ModificationBinaryTree.normalizeKey(treeLogic, fromKey);
+        Object toTreeKey = toKey == null ? null : ModificationBinaryTree.normalizeKey(treeLogic, toKey);
+        ModificationBinaryTree.checkRange(fromTreeKey, toTreeKey);
+
+        NavigableSet<Entry> range = lanes.get(0);
+        if (fromTreeKey != null) {
+            range = range.tailSet(new Entry(fromTreeKey, fromInclusive ? Integer.MIN_VALUE : Integer.MAX_VALUE), false);
+        }
+        if (toTreeKey != null) {
+            range = range.headSet(new Entry(toTreeKey, toInclusive ? Integer.MAX_VALUE : Integer.MIN_VALUE), false);
+        }
+        Iterator<Entry> entries = range.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public ModificationGroup next() {
+                return entries.next().modificationGroup;
+            }
+        };
+    }
+
+    /**
+     * Returns a Spliterator over the ModificationGroups in sorting order, the source of {@link #stream()} and {@link #parallelStream()}.
+     * It maps the Spliterator of lane 0, which splits on the index levels of the skip list, so a parallel stream gets its halves without
+     * walking or copying the lane first. Like rangeIterator, it is weakly consistent and never fails on concurrent writes.
+     * It reports ORDERED, DISTINCT, NONNULL and CONCURRENT, but not SORTED, because no comparator of the ModificationGroups reproduces
+     * the order of the entries while a re-key is moving one of them.
+     *
+     * @return Spliterator over all ModificationGroups, ascending
+     */
+    @Override
+    public Spliterator<ModificationGroup> spliterator() {
+        return new LaneSpliterator(lanes.get(0).spliterator());
+    }
+
+    /**
+     * Returns the count, the sums and the maximums of the cost and priority value of the ModificationGroups with a stored sorting key between the given keys.
+     * The lanes keep no aggregates, so the range of lane 0 is walked, in expected O(log n + k), with the current values of the ModificationGroups.
+     *
+     * @param fromKey       The lower bound, or null for no lower bound
+     * @param fromInclusive Whether ModificationGroups with a key equal to fromKey are included
+     * @param toKey         The upper bound, or null for no upper bound
+     * @param toInclusive   Whether ModificationGroups with a key equal to toKey are included
+     * @return The aggregates of the range
+     * @throws IllegalArgumentException if fromKey is bigger than toKey, or the type of a key does not match the tree logic
+     */
+    @Override
+    public RangeAggregate aggregateRange(Object fromKey, boolean fromInclusive, Object toKey, boolean toInclusive) {
+        RangeAggregate result = new RangeAggregate();
+        Iterator<ModificationGroup> range = rangeIterator(fromKey, fromInclusive, toKey, toInclusive);
+        while (range.hasNext()) {
+            ModificationGroup group = range.next();
+            long cost = group.getCost();
+            int priorityValue = group.getPriorityValue();
+            result.add(1, cost, priorityValue, cost, priorityValue);
+        }
+        return result;
+    }
+
+    public AtomicInteger getTotalNumberOfElements() {
+        return totalNumberOfElements;
+    }
+
+    public TreeLogic getTreeLogic() {
+        return treeLogic;
+    }
+
+    public DuplicateKeys getDuplicateKeys() {
+        return duplicateKeys;
+    }
+
+    /**
+     * Helper method, adds an inserting entry to the lanes from the bottom up and makes it live. If a removal claimed it meanwhile,
+     * the entry is discarded again. A counted entry replaces an entry of a re-key, which was already counted.
+     *
+     * @return true if the entry went live
+     */
+    private boolean publish(Entry entry, boolean counted) {
+        for (int height = 0; height < entry.height; height++) {
+            lanes.get(height).add(entry);
+        }
+        if (entry.state.compareAndSet(Entry.INSERTING, Entry.LIVE)) {
+            if (!counted) {
+                towersByHeight.incrementAndGet(entry.height);
+                totalNumberOfElements.incrementAndGet();
+            }
+            return true;
+        }
+        discard(entry, counted);
+        return false;
+    }
+
+    /**
+     * Helper method, unlinks a removed entry from the lanes from the top down, releases its key claim and its listener registration,
+     * and releases the id index last.
+     */
+    private void discard(Entry entry, boolean counted) {
+        unlink(entry);
+        entry.modificationGroup.removeModificationGroupListener(rekeyListener);
+        if (counted) {
+            towersByHeight.decrementAndGet(entry.height);
+            totalNumberOfElements.decrementAndGet();
+        }
+        entriesById.remove(entry.id, entry);
+    }
+
+    /**
+     * Helper method, unlinks an entry from the lanes from the top down and releases its key claim, if it has one.
+     */
+    private void unlink(Entry entry) {
+        for (int height = entry.height - 1; 0 <= height; height--) {
+            lanes.get(height).remove(entry);
+        }
+        entriesByKey.remove(entry.key, entry);
+    }
+
+    /**
+     * Moves the entry of a ModificationGroup whose sorting key changed. The live entry is retired with compare-and-set, so only one re-key
+     * replaces it, then a new entry with the current key, the same tower height and node number takes its place in the id index and in the lanes.
+     * The old entry is unlinked before the new one is added, so a concurrent reader may miss the ModificationGroup for a moment, but never sees it twice.
+     * With {@link DuplicateKeys#REJECT} a key already claimed by another ModificationGroup is not claimed again, the entry is still moved,
+     * like {@link ModificationBinaryTree} keeps a re-keyed Node. Inserting and removed entries are skipped, the insert re-checks the key when it goes live.
+     *
+     * @param modificationGroup The ModificationGroup whose key may have changed
+     */
+    private void rekey(ModificationGroup modificationGroup) {
+        while (true) {
+            Entry entry = entriesById.get(modificationGroup.getModificationGroupId());
+            if (entry == null || entry.state.get() != Entry.LIVE) {
+                return;
+            }
+            Object key = keyOf(modificationGroup);
+            if (key.equals(entry.key)) {
+                return;
+            }
+            if (!entry.state.compareAndSet(Entry.LIVE, Entry.RETIRED)) {
+                continue;
+            }
+
+            Entry moved = new Entry(modificationGroup, key, entry.height, entry.nodeNumber);
+            if (duplicateKeys == DuplicateKeys.REJECT) {
+                entriesByKey.putIfAbsent(key, moved);
+            }
+            entriesById.replace(entry.id, entry, moved);
+            unlink(entry);
+            if (!publish(moved, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper method, returns the current sorting key of a ModificationGroup, a String for {@link TreeLogic#NAME}, a Long otherwise.
+     */
+    private Object keyOf(ModificationGroup modificationGroup) {
+        switch (treeLogic) {
+            case NAME:
+                return modificationGroup.getName();
+            case PRIORITY:
+                return (long) modificationGroup.getPriorityValue();
+            case TOTAL_COST:
+                return modificationGroup.getCost();
+            default:
+                throw new IllegalStateException("Unknown tree logic: " + treeLogic);
+        }
+    }
+
+    /**
+     * Helper method, returns the height of the tallest tower, 0 if the tree is empty.
+     */
+    private int topHeight() {
+        for (int height = MAX_HEIGHT; 0 < height; height--) {
+            if (!lanes.get(height - 1).isEmpty()) {
+                return height;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Helper method, collects the groups whose tower is exactly as tall as the given level needs.
+     */
+    private Set<ModificationGroup> groupsOnLevel(int level) {
+        Set<ModificationGroup> result = new HashSet<>();
+        int height = topHeight() - level;
+        if (level < 0 || height < 1) {
+            return result;
+        }
+        for (Entry entry : lanes.get(height - 1)) {
+            if (entry.height == height) {
+                result.add(entry.modificationGroup);
+            }
+        }
+        return result;
+    }
+
+    private static boolean containsModification(ModificationGroup group, Modification modification) {
+        synchronized (group.modificationsLock) {
+            return group.getModifications().contains(modification);
+        }
+    }
+
+    /**
+     * Helper method, draws a tower height, height h with probability 1/2^h.
+     */
+    private static int randomHeight() {
+        return Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << (MAX_HEIGHT - 1))) + 1;
+    }
+
+    /**
+     * Helper method, orders entries by their stored sorting key, then by modificationGroupId, so every entry is unique in the lanes.
+     */
+    private static int compareEntries(Entry a, Entry b) {
+        int comparison = a.key instanceof String
+                ? ((String) a.key).compareTo((String) b.key)
+                : Long.compare((Long) a.key, (Long) b.key);
+        if (comparison != 0) {
+            return comparison;
+        }
+        return Integer.compare(a.id, b.id);
+    }
+
+    /**
+     * Re-keys the entry of a ModificationGroup after its priority value or cost changed, the Modifications themselves are not indexed.
+     */
+    private final class RekeyListener implements ModificationGroupListener {
+        @Override
+        public void modificationsAdded(ModificationGroup modificationGroup, Collection<Modification> modifications) {
+        }
+
+        @Override
+        public void modificationRemoved(ModificationGroup modificationGroup, Modification modification) {
+        }
+
+        @Override
+        public void calculatedValuesChanged(ModificationGroup modificationGroup, int oldPriorityValue, long oldCost) {
+            if (treeLogic != TreeLogic.NAME) {
+                rekey(modificationGroup);
+            }
+        }
+    }
+
+    /**
+     * The Spliterator of {@link #spliterator()}, passes the ModificationGroups of the entries of a Spliterator of a lane.
+     * The Spliterator of a ConcurrentSkipListSet starts on the head of the skip list and does not split before its first entry
+     * is taken, so the first entry is taken when it is created and held as pending, it is passed first, or by the first prefix split off.
+     */
+    private static final class LaneSpliterator implements Spliterator<ModificationGroup> {
+        private final Spliterator<Entry> entries;
+        private Entry pending;
+
+        private LaneSpliterator(Spliterator<Entry> entries) {
+            this.entries = entries;
+            entries.tryAdvance(entry -> pending = entry);
+        }
+
+        private LaneSpliterator(Entry pending, Spliterator<Entry> entries) {
+            this.entries = entries;
+            this.pending = pending;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ModificationGroup> action) {
+            Objects.requireNonNull(action, "Action cannot be null");
+            if (pending != null) {
+                Entry entry = pending;
+                pending = null;
+                action.accept(entry.modificationGroup);
+                return true;
+            }
+            return entries.tryAdvance(entry -> action.accept(entry.modificationGroup));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super ModificationGroup> action) {
+            Objects.requireNonNull(action, "Action cannot be null");
+            if (pending != null) {
+                Entry entry = pending;
+                pending = null;
+                action.accept(entry.modificationGroup);
+            }
+            entries.forEachRemaining(entry -> action.accept(entry.modificationGroup));
+        }
+
+        @Override
+        public Spliterator<ModificationGroup> trySplit() {
+            Spliterator<Entry> prefix = entries.trySplit();
+            if (prefix == null) {
+                return null;
+            }
+            Spliterator<ModificationGroup> split = new LaneSpliterator(pending, prefix);
+            pending = null;
+            return split;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = entries.estimateSize();
+            return pending == null || size == Long.MAX_VALUE ? size : size + 1;
+        }
+
+        @Override
+        public int characteristics() {
+            return entries.characteristics() & ~SORTED;
+        }
+    }
+
+    /**
+     * A stored ModificationGroup with its sorting key, its tower height and its state. The state only moves forward:
+     * inserting to live or removed, live to removed or retired (replaced by a re-key).
+     */
+    private static final class Entry {
+        private static final int INSERTING = 0;
+        private static final int LIVE = 1;
+        private static final int REMOVED = 2;
+        private static final int RETIRED = 3;
+
+        private final ModificationGroup modificationGroup;
+        private final Object key;
+        private final int id;
+        private final int height;
+        private final int nodeNumber;
+        private final AtomicInteger state = new AtomicInteger(INSERTING);
+
+        private Entry(ModificationGroup modificationGroup, Object key, int height, int nodeNumber) {
+            this.modificationGroup = modificationGroup;
+            this.id = modificationGroup.getModificationGroupId();
+            this.key = key;
+            this.height = height;
+            this.nodeNumber = nodeNumber;
+        }
+
+        /**
+         * Creates an entry without ModificationGroup, which is only used as a bound of a range search in the lanes.
+         * The id puts it before (Integer.MIN_VALUE) or after (Integer.MAX_VALUE) every ModificationGroup with the same key.
+         */
+        private Entry(Object key, int id) {
+            this.modificationGroup = null;
+            this.key = key;
+            this.id = id;
+            this.height = 0;
+            this.nodeNumber = 0;
+        }
+
+        private String displayKey() {
+            return String.valueOf(key);
+        }
+    }
+
+    /**
+     * The result of a search, a ModificationGroup with its derived level.
+     */
+    public static final class Node implements ModificationBinaryTreeInterface.Node {
+        private final ModificationGroup modificationGroup;
+        private final int nodeNumber;
+        private final int level;
+
+        private Node(Entry entry, int level) {
+            this.modificationGroup = entry.modificationGroup;
+            this.nodeNumber = entry.nodeNumber;
+            this.level = Math.max(0, level);
+        }
+
+        @Override
+        public int getLevel() {
+            return level;
+        }
+
+        @Override
+        public int getNodeNumber() {
+            return nodeNumber;
+        }
+
+        @Override
+        public ModificationGroup getModificationGroup() {
+            return modificationGroup;
+        }
+    }
+}
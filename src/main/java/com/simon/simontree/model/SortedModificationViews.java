@@ -0,0 +1,281 @@
+package com.simon.simontree.model;
+
+import com.simon.simontree.api.ModificationGroupListener;
+import com.simon.simontree.enums.TreeLogic;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live, sorted views of the Modifications of the tracked ModificationGroups, by name, by priority value and by total cost, ascending and descending.
+ * Replaces copying every Modification out of the tree and sorting them again in {@link com.simon.simontree.util.HelperMethods} on every call:
+ * every add and removal is O(log n), getting a view is O(1) and its size is O(1). The ModificationGroups themselves are ordered by
+ * {@link MultiIndexModificationTree}, which can fill these views with the Modifications of its own ModificationGroups.
+ *
+ * <p>Key characteristics:
+ * <ul>
+ *   <li>every ordering is a {@link ConcurrentSkipListSet}, the views are read-only, their iterators are weakly consistent and never throw ConcurrentModificationException</li>
+ *   <li>a {@link ModificationGroupListener} follows the Modifications added to and removed from the ModificationGroups</li>
+ *   <li>the first k elements of any ordering are read in O(k), see {@link #getModifications(TreeLogic, boolean)}</li>
+ *   <li>a Modification is listed once, even if more ModificationGroups contain it, until the last of them is removed</li>
+ *   <li>the listener is registered in add and unregistered in remove, a {@link MultiIndexModificationTree} filling the views forwards
+ *   the notifications of its own listener instead, so a ModificationGroup carries one listener for both</li>
+ *   <li>equal keys are ordered by modificationId</li>
+ * </ul>
+ *
+ * @see MultiIndexModificationTree
+ */
+public class SortedModificationViews {
+    private static final Comparator<Modification> MODIFICATION_BY_NAME =
+            Comparator.comparing(Modification::getName).thenComparingInt(Modification::getModificationId);
+    private static final Comparator<Modification> MODIFICATION_BY_PRIORITY_VALUE =
+            Comparator.comparingInt((Modification modification) -> modification.getPriorityValue()).thenComparingInt(Modification::getModificationId);
+    private static final Comparator<Modification> MODIFICATION_BY_TOTAL_COST =
+            Comparator.comparingLong((Modification modification) -> modification.getTotalModificationCost()).thenComparingInt(Modification::getModificationId);
+
+    private final ConcurrentSkipListSet<Modification> modificationsByName = new ConcurrentSkipListSet<>(MODIFICATION_BY_NAME);
+    private final ConcurrentSkipListSet<Modification> modificationsByPriorityValue = new ConcurrentSkipListSet<>(MODIFICATION_BY_PRIORITY_VALUE);
+    private final ConcurrentSkipListSet<Modification> modificationsByTotalCost = new ConcurrentSkipListSet<>(MODIFICATION_BY_TOTAL_COST);
+    /**
+     * The modificationGroupIds of the tracked ModificationGroups.
+     */
+    private final Set<Integer> trackedModificationGroupIds = ConcurrentHashMap.newKeySet();
+    /**
+     * The tracked ModificationGroups containing each listed Modification, the Modification is listed while this set is not empty.
+     */
+    private final Map<Modification, Set<ModificationGroup>> modificationOwners = new ConcurrentHashMap<>();
+    private final AtomicInteger numberOfModifications = new AtomicInteger();
+    /**
+     * Listener registered on every tracked ModificationGroup.
+     */
+    private final ModificationGroupListener modificationGroupListener = new ViewUpdater();
+
+    /**
+     * Starts tracking the ModificationGroup and its Modifications, O(log n) per element. Adding a tracked ModificationGroup again changes nothing.
+     *
+     * @param modificationGroup The ModificationGroup to track (cannot be null)
+     * @throws NullPointerException if modificationGroup is null
+     */
+    public void add(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        if (trackedModificationGroupIds.add(modificationGroup.getModificationGroupId())) {
+            modificationGroup.addModificationGroupListener(modificationGroupListener);
+            addModificationsOf(modificationGroup);
+        }
+    }
+
+    /**
+     * Stops tracking the ModificationGroup, its Modifications are removed from the views unless another tracked ModificationGroup contains them.
+     *
+     * @param modificationGroup The ModificationGroup to forget (cannot be null)
+     * @return true if the ModificationGroup was tracked
+     * @throws NullPointerException if modificationGroup is null
+     */
+    public boolean remove(ModificationGroup modificationGroup) {
+        Objects.requireNonNull(modificationGroup, "ModificationGroup cannot be null");
+        if (!trackedModificationGroupIds.remove(modificationGroup.getModificationGroupId())) {
+            return false;
+        }
+        modificationGroup.removeModificationGroupListener(modificationGroupListener);
+        removeModificationsOf(modificationGroup);
+        return true;
+    }
+
+    /**
+     * Starts tracking the ModificationGroup like add, without registering a listener: the caller has registered its own before,
+     * and forwards its notifications to modificationsAdded and modificationRemoved.
+     */
+    void track(ModificationGroup modificationGroup) {
+        if (trackedModificationGroupIds.add(modificationGroup.getModificationGroupId())) {
+            addModificationsOf(modificationGroup);
+        }
+    }
+
+    /**
+     * Stops tracking the ModificationGroup like remove, without unregistering a listener.
+     */
+    void untrack(ModificationGroup modificationGroup) {
+        if (trackedModificationGroupIds.remove(modificationGroup.getModificationGroupId())) {
+            removeModificationsOf(modificationGroup);
+        }
+    }
+
+    /**
+     * Lists the added Modifications of a tracked ModificationGroup, which it still contains. The notifications arrive after the ModificationGroup
+     * released its lock, so a Modification can be added and removed again before they do: like the index updater of {@link ModificationBinaryTree},
+     * the current Modifications are checked under the lock of the ModificationGroup.
+     */
+    void modificationsAdded(ModificationGroup modificationGroup, Collection<Modification> modifications) {
+        synchronized (modificationGroup.modificationsLock) {
+            if (!trackedModificationGroupIds.contains(modificationGroup.getModificationGroupId())) {
+                return;
+            }
+            for (Modification modification : modifications) {
+                if (modificationGroup.getModifications().contains(modification)) {
+                    addModificationOwner(modification, modificationGroup);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes an owner of the removed Modification, unless the ModificationGroup contains it again, like modificationsAdded.
+     */
+    void modificationRemoved(ModificationGroup modificationGroup, Modification modification) {
+        synchronized (modificationGroup.modificationsLock) {
+            if (!modificationGroup.getModifications().contains(modification)) {
+                removeModificationOwner(modification, modificationGroup);
+            }
+        }
+    }
+
+    /**
+     * Returns a live, read-only view of the distinct Modifications of the tracked ModificationGroups, sorted by name, in O(1).
+     *
+     * @param descending true for descending order, false for ascending
+     */
+    public Collection<Modification> getModificationsByName(boolean descending) {
+        return new View(descending ? modificationsByName.descendingSet() : modificationsByName, numberOfModifications);
+    }
+
+    /**
+     * Returns a live, read-only view of the distinct Modifications of the tracked ModificationGroups, sorted by priority value, in O(1).
+     *
+     * @param descending true for descending order, false for ascending
+     */
+    public Collection<Modification> getModificationsByPriorityValue(boolean descending) {
+        return new View(descending ? modificationsByPriorityValue.descendingSet() : modificationsByPriorityValue, numberOfModifications);
+    }
+
+    /**
+     * Returns a live, read-only view of the distinct Modifications of the tracked ModificationGroups, sorted by total modification cost, in O(1).
+     *
+     * @param descending true for descending order, false for ascending
+     */
+    public Collection<Modification> getModificationsByTotalCost(boolean descending) {
+        return new View(descending ? modificationsByTotalCost.descendingSet() : modificationsByTotalCost, numberOfModifications);
+    }
+
+    /**
+     * Returns the live, read-only view of the distinct Modifications sorted by the key of the given sorting logic, the total modification cost for
+     * {@link TreeLogic#TOTAL_COST}. Iterating the first k elements of a view costs O(k), so top-k and bottom-k queries need no sort.
+     *
+     * @param treeLogic  The sorting logic (cannot be null)
+     * @param descending true for descending order, false for ascending
+     * @throws NullPointerException if treeLogic is null
+     */
+    public Collection<Modification> getModifications(TreeLogic treeLogic, boolean descending) {
+        switch (Objects.requireNonNull(treeLogic, "TreeLogic cannot be null")) {
+            case NAME:
+                return getModificationsByName(descending);
+            case PRIORITY:
+                return getModificationsByPriorityValue(descending);
+            case TOTAL_COST:
+                return getModificationsByTotalCost(descending);
+            default:
+                throw new IllegalStateException("Unknown tree logic: " + treeLogic);
+        }
+    }
+
+    /**
+     * Helper method, lists the Modifications of a newly tracked ModificationGroup. They are read under its lock after the listener was registered,
+     * so a Modification added in between is listed by this or by the notification.
+     */
+    private void addModificationsOf(ModificationGroup modificationGroup) {
+        synchronized (modificationGroup.modificationsLock) {
+            for (Modification modification : modificationGroup.getModifications()) {
+                addModificationOwner(modification, modificationGroup);
+            }
+        }
+    }
+
+    /**
+     * Helper method, removes the ModificationGroup as owner of its Modifications after it is no longer tracked.
+     */
+    private void removeModificationsOf(ModificationGroup modificationGroup) {
+        synchronized (modificationGroup.modificationsLock) {
+            for (Modification modification : modificationGroup.getModifications()) {
+                removeModificationOwner(modification, modificationGroup);
+            }
+        }
+    }
+
+    /**
+     * Helper method, records that a tracked ModificationGroup contains the Modification, and lists the Modification for its first owner.
+     */
+    private void addModificationOwner(Modification modification, ModificationGroup modificationGroup) {
+        modificationOwners.compute(modification, (key, owners) -> {
+            if (owners == null) {
+                owners = new HashSet<>();
+                modificationsByName.add(modification);
+                modificationsByPriorityValue.add(modification);
+                modificationsByTotalCost.add(modification);
+                numberOfModifications.incrementAndGet();
+            }
+            owners.add(modificationGroup);
+            return owners;
+        });
+    }
+
+    /**
+     * Helper method, removes an owner of the Modification, and removes the Modification from the views after its last owner.
+     */
+    private void removeModificationOwner(Modification modification, ModificationGroup modificationGroup) {
+        modificationOwners.computeIfPresent(modification, (key, owners) -> {
+            owners.remove(modificationGroup);
+            if (!owners.isEmpty()) {
+                return owners;
+            }
+            modificationsByName.remove(modification);
+            modificationsByPriorityValue.remove(modification);
+            modificationsByTotalCost.remove(modification);
+            numberOfModifications.decrementAndGet();
+            return null;
+        });
+    }
+
+    /**
+     * A read-only view of one ordering, the size is read from a counter instead of counting the skip list.
+     */
+    private static final class View extends AbstractCollection<Modification> {
+        private final Collection<Modification> modifications;
+        private final AtomicInteger size;
+
+        private View(Collection<Modification> modifications, AtomicInteger size) {
+            this.modifications = modifications;
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<Modification> iterator() {
+            return Collections.unmodifiableCollection(modifications).iterator();
+        }
+
+        @Override
+        public int size() {
+            return size.get();
+        }
+    }
+
+    /**
+     * Follows the Modifications of a ModificationGroup tracked by add, the priority value and cost of a Modification cannot change.
+     */
+    private final class ViewUpdater implements ModificationGroupListener {
+
+        @Override
+        public void modificationsAdded(ModificationGroup modificationGroup, Collection<Modification> modifications) {
+            SortedModificationViews.this.modificationsAdded(modificationGroup, modifications);
+        }
+
+        @Override
+        public void modificationRemoved(ModificationGroup modificationGroup, Modification modification) {
+            SortedModificationViews.this.modificationRemoved(modificationGroup, modification);
+        }
+
+        @Override
+        public void calculatedValuesChanged(ModificationGroup modificationGroup, int oldPriorityValue, long oldCost) {
+        }
+    }
+}
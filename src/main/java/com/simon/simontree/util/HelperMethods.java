@@ -7,82 +7,76 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 public class HelperMethods {
-    private HelperMethods() {}
+    /**
+     * Decides between sequential and parallel streams, fixed per instance, so one caller can not change the policy of another.
+     */
+    private final ParallelExecutionPolicy parallelExecutionPolicy;
+
+    private HelperMethods(ParallelExecutionPolicy parallelExecutionPolicy) {
+        this.parallelExecutionPolicy = parallelExecutionPolicy;
+    }
 
     private static class SingletonHelper {
-        private static final HelperMethods HELPER_METHODS_SINGLETON_INSTANCE = new HelperMethods();
+        private static final HelperMethods HELPER_METHODS_SINGLETON_INSTANCE = new HelperMethods(ParallelExecutionPolicy.defaultPolicy());
     }
 
+    /**
+     * Returns the shared instance, which uses {@link ParallelExecutionPolicy#defaultPolicy()}.
+     */
     public static HelperMethods getInstance() {
         return SingletonHelper.HELPER_METHODS_SINGLETON_INSTANCE;
     }
 
+    /**
+     * Returns an instance, which uses the given policy, e.g. a calibrated one: ParallelExecutionPolicy.calibrate(new ForkJoinPool(4), nanosPerElement).
+     *
+     * @param parallelExecutionPolicy The policy deciding between sequential and parallel streams (cannot be null)
+     * @throws NullPointerException if parallelExecutionPolicy is null
+     */
+    public static HelperMethods withParallelExecutionPolicy(ParallelExecutionPolicy parallelExecutionPolicy) {
+        return new HelperMethods(Objects.requireNonNull(parallelExecutionPolicy, "ParallelExecutionPolicy cannot be null"));
+    }
+
     public List<Modification> sortByNameAscending(Set<Modification> setOfAllModificationsWithinTheTree) {
-        if (shouldUseParallel(setOfAllModificationsWithinTheTree)) {
-            return setOfAllModificationsWithinTheTree.parallelStream().sorted(Comparator.comparing(element -> element.getName())).collect(Collectors.toUnmodifiableList());
-        } else {
-            return setOfAllModificationsWithinTheTree.stream().sorted(Comparator.comparing(element -> element.getName())).collect(Collectors.toUnmodifiableList());
-        }
+        return parallelExecutionPolicy.execute(setOfAllModificationsWithinTheTree, stream -> stream.sorted(Comparator.comparing(element -> element.getName())).collect(Collectors.toUnmodifiableList()));
     }
 
     public List<ModificationGroup> sortByNameAscending(Queue<ModificationGroup> listOfModificationGroups) {
-        if (shouldUseParallel(listOfModificationGroups)) {
-            return listOfModificationGroups.parallelStream().sorted(Comparator.comparing(element -> element.getName())).collect(Collectors.toUnmodifiableList());
-        } else {
-            return listOfModificationGroups.stream().sorted(Comparator.comparing(element -> element.getName())).collect(Collectors.toUnmodifiableList());
-        }
+        return parallelExecutionPolicy.execute(listOfModificationGroups, stream -> stream.sorted(Comparator.comparing(element -> element.getName())).collect(Collectors.toUnmodifiableList()));
     }
 
     public List<Modification> sortByNameDescending(Set<Modification> setOfAllModificationsWithinTheTree) {
-        if (shouldUseParallel(setOfAllModificationsWithinTheTree)) {
-            return setOfAllModificationsWithinTheTree.parallelStream().sorted(Comparator.comparing((Modification mod) -> mod.getName()).reversed()).collect(Collectors.toUnmodifiableList());
-        } else {
-            return setOfAllModificationsWithinTheTree.parallelStream().sorted(Comparator.comparing((Modification mod) -> mod.getName()).reversed()).collect(Collectors.toUnmodifiableList());
-        }
+        return parallelExecutionPolicy.execute(setOfAllModificationsWithinTheTree, stream -> stream.sorted(Comparator.comparing((Modification mod) -> mod.getName()).reversed()).collect(Collectors.toUnmodifiableList()));
     }
 
     public List<ModificationGroup> sortByNameDescending(Queue<ModificationGroup> listOfModificationGroups) {
-        if (shouldUseParallel(listOfModificationGroups)) {
-            return listOfModificationGroups.parallelStream().sorted(Comparator.comparing((ModificationGroup mg) -> mg.getName()).reversed()).collect(Collectors.toUnmodifiableList());
-        } else {
-            return listOfModificationGroups.stream().sorted(Comparator.comparing((ModificationGroup mg) -> mg.getName()).reversed()).collect(Collectors.toUnmodifiableList());
-        }
+        return parallelExecutionPolicy.execute(listOfModificationGroups, stream -> stream.sorted(Comparator.comparing((ModificationGroup mg) -> mg.getName()).reversed()).collect(Collectors.toUnmodifiableList()));
     }
 
     public List<Modification> sortByPriorityValueAscending(Set<Modification> setOfAllElementsWithinTheTree) {
-        if (shouldUseParallel(setOfAllElementsWithinTheTree)) {
-            return setOfAllElementsWithinTheTree.parallelStream().sorted(Comparator.comparing(element -> element.getPriorityValue())).collect(Collectors.toUnmodifiableList());
-        } else {
-            return setOfAllElementsWithinTheTree.stream().sorted(Comparator.comparing(element -> element.getPriorityValue())).collect(Collectors.toUnmodifiableList());
-        }
+        return parallelExecutionPolicy.execute(setOfAllElementsWithinTheTree, stream -> stream.sorted(Comparator.comparing(element -> element.getPriorityValue())).collect(Collectors.toUnmodifiableList()));
     }
 
     public List<ModificationGroup> sortByPriorityValueAscending(Queue<ModificationGroup> listOfModificationGroups) {
-        if (shouldUseParallel(listOfModificationGroups)) {
-            return listOfModificationGroups.parallelStream().sorted(Comparator.comparing(element -> element.getPriorityValue())).collect(Collectors.toUnmodifiableList());
-        } else {
-            return listOfModificationGroups.stream().sorted(Comparator.comparing(element -> element.getPriorityValue())).collect(Collectors.toUnmodifiableList());
-        }
+        return parallelExecutionPolicy.execute(listOfModificationGroups, stream -> stream.sorted(Comparator.comparing(element -> element.getPriorityValue())).collect(Collectors.toUnmodifiableList()));
     }
 
     public List<Modification> sortByPriorityValueDescending(Set<Modification> setOfAllElementsWithinTheTree) {
-        if (shouldUseParallel(setOfAllElementsWithinTheTree)) {
-            return setOfAllElementsWithinTheTree.parallelStream().sorted(Comparator.comparing((Modification mod) -> mod.getPriorityValue()).reversed()).collect(Collectors.toUnmodifiableList());
-        } else {
-            return setOfAllElementsWithinTheTree.stream().sorted(Comparator.comparing((Modification mod) -> mod.getPriorityValue()).reversed()).collect(Collectors.toUnmodifiableList());
-        }
-        }
+        return parallelExecutionPolicy.execute(setOfAllElementsWithinTheTree, stream -> stream.sorted(Comparator.comparing((Modification mod) -> mod.getPriorityValue()).reversed()).collect(Collectors.toUnmodifiableList()));
+    }
 
     public List<ModificationGroup> sortByPriorityValueDescending(Queue<ModificationGroup> listOfModificationGroups) {
-        if (shouldUseParallel(listOfModificationGroups)) {
-            return listOfModificationGroups.parallelStream().sorted(Comparator.comparing((ModificationGroup mg) -> mg.getPriorityValue()).reversed()).collect(Collectors.toUnmodifiableList());
-        } else {
-            return listOfModificationGroups.stream().sorted(Comparator.comparing((ModificationGroup mg) -> mg.getPriorityValue()).reversed()).collect(Collectors.toUnmodifiableList());
-        }
+        return parallelExecutionPolicy.execute(listOfModificationGroups, stream -> stream.sorted(Comparator.comparing((ModificationGroup mg) -> mg.getPriorityValue()).reversed()).collect(Collectors.toUnmodifiableList()));
     }
 
+    /**
+     * Returns whether the collection is big enough to be processed in parallel, according to the current {@link ParallelExecutionPolicy}.
+     */
     public boolean shouldUseParallel(Collection<?> collection) {
-        final int PARALLEL_THRESHOLD = 1000;
-        return collection.size() > PARALLEL_THRESHOLD;
+        return parallelExecutionPolicy.shouldUseParallel(collection.size());
+    }
+
+    public ParallelExecutionPolicy getParallelExecutionPolicy() {
+        return parallelExecutionPolicy;
     }
 }
@@ -0,0 +1,168 @@
+package com.simon.simontree.util;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Decides whether a stream pipeline of {@link HelperMethods} and {@link com.simon.simontree.api.ModificationBinaryTreeOperations} runs sequentially or in parallel,
+ * and in which {@link ForkJoinPool} the parallel pipelines run.
+ * Replaces the fixed threshold of 1000 elements and the common pool: the cutoff can be calibrated from the measured cost per element, the measured
+ * fork/join overhead and the parallelism of the pool, and a dedicated pool keeps tree queries from starving the request threads using the common pool.
+ *
+ * <p>Key characteristics:
+ * <ul>
+ *   <li>immutable and thread-safe, every {@link com.simon.simontree.api.ModificationBinaryTreeOperations} and
+ *   {@link com.simon.simontree.model.ModificationBinaryTree} has its own, set via setParallelExecutionPolicy()</li>
+ *   <li>a collection goes parallel only if its size is above the threshold and the pool has more than one worker</li>
+ *   <li>parallel pipelines are started from a task of the pool, so their subtasks are executed by the workers of the same pool,
+ *   a pipeline started by a worker of the pool runs right away on that worker, instead of blocking it on a task queued behind its own</li>
+ * </ul>
+ *
+ * @see HelperMethods
+ */
+public final class ParallelExecutionPolicy {
+    /**
+     * The threshold of the default policy, the old fixed cutoff.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1000;
+    private static final int CALIBRATION_ROUNDS = 5;
+
+    private final ForkJoinPool forkJoinPool;
+    private final int parallelThreshold;
+
+    /**
+     * Constructs a policy with a fixed threshold.
+     *
+     * @param forkJoinPool      The pool running the parallel pipelines (cannot be null)
+     * @param parallelThreshold The biggest collection size, which is still processed sequentially (at least 1)
+     * @throws NullPointerException     if forkJoinPool is null
+     * @throws IllegalArgumentException if parallelThreshold is smaller than 1
+     */
+    public ParallelExecutionPolicy(ForkJoinPool forkJoinPool, int parallelThreshold) {
+        this.forkJoinPool = Objects.requireNonNull(forkJoinPool, "ForkJoinPool cannot be null");
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("Parallel threshold must be at least 1");
+        }
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Returns the policy used until another one is set: the common pool and a threshold of {@link #DEFAULT_PARALLEL_THRESHOLD} elements.
+     */
+    public static ParallelExecutionPolicy defaultPolicy() {
+        return new ParallelExecutionPolicy(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Constructs a policy for the pool, whose threshold is the size above which splitting the work over the workers saves more than the fork/join overhead.
+     * With p workers, a cost of c nanoseconds per element and an overhead of o nanoseconds, parallel is worth it from n * c * (1 - 1/p) > o.
+     * The overhead is measured by running an empty parallel pipeline in the pool. A pool with one worker never goes parallel.
+     *
+     * @param forkJoinPool    The pool running the parallel pipelines (cannot be null)
+     * @param nanosPerElement The measured or estimated sequential cost of processing one element, in nanoseconds (positive)
+     * @return The calibrated policy
+     * @throws NullPointerException     if forkJoinPool is null
+     * @throws IllegalArgumentException if nanosPerElement is not positive
+     */
+    public static ParallelExecutionPolicy calibrate(ForkJoinPool forkJoinPool, double nanosPerElement) {
+        Objects.requireNonNull(forkJoinPool, "ForkJoinPool cannot be null");
+        if (!(nanosPerElement > 0)) {
+            throw new IllegalArgumentException("Cost per element must be positive");
+        }
+        int parallelism = forkJoinPool.getParallelism();
+        if (parallelism <= 1) {
+            return new ParallelExecutionPolicy(forkJoinPool, Integer.MAX_VALUE);
+        }
+        double savedNanosPerElement = nanosPerElement * (1.0 - 1.0 / parallelism);
+        double threshold = Math.ceil(measureForkJoinOverheadNanos(forkJoinPool) / savedNanosPerElement);
+        return new ParallelExecutionPolicy(forkJoinPool, (int) Math.min(Integer.MAX_VALUE, Math.max(2L * parallelism, threshold)));
+    }
+
+    /**
+     * Constructs a policy for the pool like {@link #calibrate(ForkJoinPool, double)}, measuring the cost per element by running the operation
+     * sequentially over the sample. The fastest of a few rounds is used, so the first rounds warm up the code.
+     *
+     * @param forkJoinPool The pool running the parallel pipelines (cannot be null)
+     * @param sample       Representative elements (cannot be null or empty)
+     * @param operation    The work done per element by the pipelines the policy is used for (cannot be null)
+     * @return The calibrated policy
+     * @throws NullPointerException     if an argument is null
+     * @throws IllegalArgumentException if sample is empty
+     */
+    public static <T> ParallelExecutionPolicy calibrate(ForkJoinPool forkJoinPool, Collection<T> sample, Consumer<T> operation) {
+        Objects.requireNonNull(sample, "Sample cannot be null");
+        Objects.requireNonNull(operation, "Operation cannot be null");
+        if (sample.isEmpty()) {
+            throw new IllegalArgumentException("Sample cannot be empty");
+        }
+        long fastestNanos = Long.MAX_VALUE;
+        for (int round = 0; round < CALIBRATION_ROUNDS; round++) {
+            long start = System.nanoTime();
+            sample.forEach(operation);
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+        return calibrate(forkJoinPool, Math.max(1.0, (double) fastestNanos / sample.size()));
+    }
+
+    /**
+     * Returns whether a collection of the given size should be processed in parallel.
+     */
+    public boolean shouldUseParallel(int size) {
+        return forkJoinPool.getParallelism() > 1 && size > parallelThreshold;
+    }
+
+    /**
+     * Runs the pipeline on a sequential or a parallel stream of the collection, depending on its size. Parallel pipelines run in the pool of this policy,
+     * called from a worker of that pool the parallel stream is started directly, so it forks into the same pool without submitting and joining a task.
+     *
+     * @param collection The source of the stream (cannot be null)
+     * @param pipeline   The stream pipeline, including the terminal operation (cannot be null)
+     * @return The result of the pipeline
+     * @throws NullPointerException if an argument is null
+     */
+    public <T, R> R execute(Collection<T> collection, Function<Stream<T>, R> pipeline) {
+        Objects.requireNonNull(collection, "Collection cannot be null");
+        Objects.requireNonNull(pipeline, "Pipeline cannot be null");
+        if (!shouldUseParallel(collection.size())) {
+            return pipeline.apply(collection.stream());
+        }
+        if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == forkJoinPool) {
+            return pipeline.apply(collection.parallelStream());
+        }
+        return forkJoinPool.submit(() -> pipeline.apply(collection.parallelStream())).join();
+    }
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Helper method, returns the fastest of a few runs of an empty parallel pipeline with one element per worker, started in the pool.
+     */
+    private static double measureForkJoinOverheadNanos(ForkJoinPool forkJoinPool) {
+        int parallelism = forkJoinPool.getParallelism();
+        long fastestNanos = Long.MAX_VALUE;
+        for (int round = 0; round < CALIBRATION_ROUNDS; round++) {
+            long start = System.nanoTime();
+            forkJoinPool.submit(() -> IntStream.range(0, parallelism).parallel().forEach(i -> {
+            })).join();
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+        return Math.max(1, fastestNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelExecutionPolicy{parallelism=" + forkJoinPool.getParallelism() + ", parallelThreshold=" + parallelThreshold + '}';
+    }
+}
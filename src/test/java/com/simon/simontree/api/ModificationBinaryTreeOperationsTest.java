@@ -0,0 +1,160 @@
+package com.simon.simontree.api;
+
+import com.simon.simontree.enums.TreeEngine;
+import com.simon.simontree.enums.TreeLogic;
+import com.simon.simontree.enums.TypeOfModification;
+import com.simon.simontree.model.DiscountedModificationGroup;
+import com.simon.simontree.model.Modification;
+import com.simon.simontree.model.ModificationBinaryTree;
+import com.simon.simontree.model.ModificationGroup;
+import com.simon.simontree.util.ParallelExecutionPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+public class ModificationBinaryTreeOperationsTest {
+    ModificationBinaryTreeOperations operations;
+
+    private Modification mod1, mod2, mod3, shared;
+    private ModificationGroup mg1, mg2, mg3;
+
+    @BeforeEach
+    void setup() {
+        mod1 = new Modification("Test1", 10, 2324, TypeOfModification.ADD);
+        mod2 = new Modification("Something", 20, 33253, TypeOfModification.MODIFY);
+        mod3 = new Modification("Hiring", 30, 100, TypeOfModification.REMOVE);
+        shared = new Modification("Shared", 5, 1000, TypeOfModification.ADD);
+
+        mg1 = new ModificationGroup(Set.of(mod1, shared), "Europe");
+        mg2 = new ModificationGroup(Set.of(mod2, shared), "Asia");
+        mg3 = new DiscountedModificationGroup(Set.of(mod3), "Hungary");
+
+        operations = new ModificationBinaryTreeOperations(new ModificationBinaryTree(TreeLogic.NAME));
+        operations.insertAll(List.of(mg1, mg2, mg3));
+    }
+
+    @Test
+    void totalCostOfModifications_shouldCountSharedModificationsOnce_withoutGroupLevelDiscount() {
+        ModificationGroup root = operations.getRoot().getModificationGroup();
+        long expected = operations.getModificationsOfGivenModificationGroupAndItsChildren(root).stream()
+                .mapToLong(Modification::getTotalModificationCost).sum();
+
+        Assertions.assertEquals(mod1.getTotalModificationCost() + mod2.getTotalModificationCost() + mod3.getTotalModificationCost()
+                + shared.getTotalModificationCost(), expected);
+        Assertions.assertEquals(expected, operations.getTotalCostOfModificationsOfGivenModificationGroupAndItsChildren(root));
+        Assertions.assertThrows(NoSuchElementException.class, () -> operations.getTotalCostOfModificationsOfGivenModificationGroupAndItsChildren(
+                new ModificationGroup(Collections.emptySet(), "Not in tree")));
+    }
+
+    @Test
+    void subtreeRollups_shouldSumGroupValues_withDiscountAndSharedModificationsPerGroup() {
+        ModificationGroup root = operations.getRoot().getModificationGroup();
+
+        Assertions.assertEquals(mg1.getCost() + mg2.getCost() + mg3.getCost(), operations.getSubtreeCostOfGivenModificationGroup(root));
+        Assertions.assertNotEquals(operations.getTotalCostOfModificationsOfGivenModificationGroupAndItsChildren(root),
+                operations.getSubtreeCostOfGivenModificationGroup(root));
+        Assertions.assertEquals((long) mg1.getPriorityValue() + mg2.getPriorityValue() + mg3.getPriorityValue(),
+                operations.getSubtreePriorityValueOfGivenModificationGroup(root));
+
+        mod3.resolved();
+        Assertions.assertEquals(mg1.getCost() + mg2.getCost(), operations.getSubtreeCostOfGivenModificationGroup(root));
+        Assertions.assertThrows(NoSuchElementException.class, () -> operations.getSubtreeCostOfGivenModificationGroup(
+                new ModificationGroup(Collections.emptySet(), "Not in tree")));
+    }
+
+    @Test
+    void parallelExecutionPolicy_shouldBeKeptPerInstance() {
+        ModificationBinaryTreeOperations untouched = new ModificationBinaryTreeOperations(TreeEngine.BINARY_TREE, TreeLogic.NAME);
+        ForkJoinPool dedicatedPool = new ForkJoinPool(2);
+        try {
+            ParallelExecutionPolicy policy = new ParallelExecutionPolicy(dedicatedPool, 1);
+            operations.setParallelExecutionPolicy(policy);
+
+            Assertions.assertSame(policy, operations.getParallelExecutionPolicy());
+            Assertions.assertEquals(ParallelExecutionPolicy.DEFAULT_PARALLEL_THRESHOLD, untouched.getParallelExecutionPolicy().getParallelThreshold());
+            List<ModificationGroup> firstLevel = List.of(mg1, mg2, mg3).stream()
+                    .filter(mg -> operations.getModificationGroupLevel(mg) == 1).collect(Collectors.toList());
+            Assertions.assertEquals(firstLevel.stream().mapToLong(ModificationGroup::getCost).sum(),
+                    operations.calculateModificationGroupCostOnGivenLevel(operations.getRoot().getModificationGroup(), 1));
+            Assertions.assertThrows(NullPointerException.class, () -> operations.setParallelExecutionPolicy(null));
+        } finally {
+            dedicatedPool.shutdownNow();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(TreeEngine.class)
+    void sameScenario_shouldGiveSameResults_withEveryEngine(TreeEngine engine) {
+        ModificationBinaryTreeOperations engineOperations = new ModificationBinaryTreeOperations(engine, TreeLogic.PRIORITY);
+        Assertions.assertEquals(-1, engineOperations.getTotalNumberOfLevels());
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            groups.add(new ModificationGroup(Set.of(new Modification("Mod" + i, i * 10 + 5, 100 - i, TypeOfModification.ADD)), "Group" + (i * 7 % 12)));
+        }
+        engineOperations.insert(groups.get(0));
+        Assertions.assertEquals(0, engineOperations.getTotalNumberOfLevels());
+        engineOperations.insertAll(groups.subList(1, groups.size()));
+
+        List<ModificationGroup> sorted = new ArrayList<>(groups);
+        sorted.sort(Comparator.comparing(ModificationGroup::getPriorityValue));
+        Assertions.assertEquals(sorted, engineOperations.stream().collect(Collectors.toList()));
+        Assertions.assertEquals(Set.copyOf(groups), Set.copyOf(engineOperations.getAllModificationGroups()));
+        Assertions.assertEquals(3, engineOperations.rank(groups.get(3)));
+        Assertions.assertSame(groups.get(5), engineOperations.select(5));
+        Assertions.assertSame(groups.get(2), engineOperations.floor(29));
+        Assertions.assertSame(groups.get(3), engineOperations.ceiling(26));
+        Assertions.assertEquals(sorted.subList(2, 6), engineOperations.getModificationGroupsInRange(25, true, 65, false));
+        Assertions.assertEquals(4, engineOperations.aggregateRange(25, true, 65, false).getCount());
+        Assertions.assertEquals(List.of(groups.get(11), groups.get(10)), engineOperations.getTopModificationGroups(TreeLogic.PRIORITY, 2));
+        Assertions.assertEquals(sorted.stream().sorted(Comparator.comparing(ModificationGroup::getName)).collect(Collectors.toList()),
+                new ArrayList<>(engineOperations.getModificationGroupsSortedByName(false)));
+        Assertions.assertTrue(engineOperations.getTotalNumberOfLevels() >= 0);
+        Assertions.assertEquals(engineOperations.getTotalCostOfModificationsOfGivenModificationGroupAndItsChildren(groups.get(4)),
+                engineOperations.getModificationsOfGivenModificationGroupAndItsChildren(groups.get(4)).stream().mapToLong(Modification::getTotalModificationCost).sum());
+
+        Assertions.assertTrue(engineOperations.removeModificationGroup(groups.get(0)));
+        Assertions.assertEquals(sorted.subList(1, 4), engineOperations.removeRange(0, true, 40, false));
+        Assertions.assertEquals(sorted.subList(4, 12), engineOperations.stream().collect(Collectors.toList()));
+        Assertions.assertEquals(sorted.subList(4, 12), engineOperations.sortModificationGroupByPriorityValueAscending());
+        Assertions.assertThrows(NoSuchElementException.class, () -> engineOperations.rank(groups.get(0)));
+
+        if (engineOperations.linksModificationGroups()) {
+            ModificationGroup rootGroup = engineOperations.getRoot().getModificationGroup();
+            Assertions.assertEquals(sorted.subList(4, 12).stream().mapToLong(ModificationGroup::getCost).sum(),
+                    engineOperations.getSubtreeCostOfGivenModificationGroup(rootGroup));
+            Assertions.assertEquals(engineOperations.getSubtreeCostOfGivenModificationGroup(rootGroup), engineOperations.calculateSubtreeCost(rootGroup));
+            Assertions.assertEquals(8, engineOperations.countModificationsOfGivenModificationGroupAndItsChildren(rootGroup));
+        } else {
+            Assertions.assertThrows(UnsupportedOperationException.class, () -> engineOperations.getSubtreeCostOfGivenModificationGroup(groups.get(5)));
+            Assertions.assertThrows(UnsupportedOperationException.class, () -> engineOperations.getSubtreePriorityValueOfGivenModificationGroup(groups.get(5)));
+            Assertions.assertThrows(UnsupportedOperationException.class, () -> engineOperations.calculateSubtreeCost(groups.get(5)));
+            Assertions.assertThrows(UnsupportedOperationException.class, () -> engineOperations.countModificationsOfGivenModificationGroupAndItsChildren(groups.get(5)));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = TreeEngine.class, names = {"BINARY_TREE", "SKIP_LIST"})
+    void changedPriorityValue_shouldMoveTheGroup_withEveryReKeyingEngine(TreeEngine engine) {
+        ModificationBinaryTreeOperations engineOperations = new ModificationBinaryTreeOperations(engine, TreeLogic.PRIORITY);
+        ModificationGroup low = new ModificationGroup(Set.of(new Modification("Low", 10, 1, TypeOfModification.ADD)), "Low");
+        ModificationGroup middle = new ModificationGroup(Set.of(new Modification("Middle", 20, 1, TypeOfModification.ADD)), "Middle");
+        ModificationGroup high = new ModificationGroup(Set.of(new Modification("High", 30, 1, TypeOfModification.ADD)), "High");
+        engineOperations.insertAll(List.of(low, middle, high));
+
+        low.addModifications(Set.of(new Modification("Urgent", 200, 1, TypeOfModification.ADD)));
+        Assertions.assertEquals(List.of(middle, high, low), engineOperations.stream().collect(Collectors.toList()));
+        Assertions.assertSame(low, engineOperations.select(2));
+        Assertions.assertEquals(List.of(low), engineOperations.getTopModificationGroups(TreeLogic.PRIORITY, 1));
+    }
+}
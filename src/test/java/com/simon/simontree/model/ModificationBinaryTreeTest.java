@@ -1,16 +1,35 @@
 package com.simon.simontree.model;
 
+import com.simon.simontree.enums.DuplicateKeys;
+import com.simon.simontree.enums.ReadConcurrency;
+import com.simon.simontree.enums.TreeBalancing;
 import com.simon.simontree.enums.TreeLogic;
 import com.simon.simontree.enums.TypeOfModification;
+import com.simon.simontree.util.ParallelExecutionPolicy;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.Random;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @ExtendWith(MockitoExtension.class)
 public class ModificationBinaryTreeTest {
@@ -213,5 +232,834 @@ public class ModificationBinaryTreeTest {
         Assertions.assertEquals(4, modificationBinaryTree.getTotalNumberOfLevels());
     }
 
+    @Test
+    void removeModificationGroup_shouldUpdateTotalNumberOfLevels_alongRemovalPath() {
+        Assertions.assertEquals(4, modificationBinaryTree.getTotalNumberOfLevels());
+        Assertions.assertTrue(modificationBinaryTree.removeModificationGroup(mg5));
+        Assertions.assertEquals(4, modificationBinaryTree.getTotalNumberOfLevels());
+        Assertions.assertTrue(modificationBinaryTree.removeModificationGroup(mg7));
+        Assertions.assertEquals(3, modificationBinaryTree.getTotalNumberOfLevels());
+        Assertions.assertEquals(3, modificationBinaryTree.getRoot().getHeight());
+    }
+
+    @Test
+    void searchNodesForModificationGroup_findsNodeAfterSuccessorWasMovedByRemoval() {
+        Assertions.assertTrue(modificationBinaryTree.removeModificationGroup(mg1));
+
+        ModificationBinaryTree.Node node = modificationBinaryTree.searchNodesForModificationGroup(mg4);
+        Assertions.assertEquals(mg4, node.getModificationGroup());
+        Assertions.assertSame(modificationBinaryTree.getRoot(), node);
+        Assertions.assertEquals(0, modificationBinaryTree.getLevelNumberOfModificationGroup(mg4));
+        Assertions.assertEquals(-1, modificationBinaryTree.getLevelNumberOfModificationGroup(mg1));
+        Assertions.assertThrows(NoSuchElementException.class, () -> modificationBinaryTree.searchNodesForModificationGroup(mg1));
+        Assertions.assertFalse(modificationBinaryTree.removeModificationGroup(mg1));
+    }
+
+    @Test
+    void searchNodesForModifications_followsAddedAndResolvedModifications() {
+        Assertions.assertEquals(mg3, modificationBinaryTree.searchNodesForModifications(mod10).getModificationGroup());
+
+        mod10.resolved();
+        Assertions.assertThrows(NoSuchElementException.class, () -> modificationBinaryTree.searchNodesForModifications(mod10));
+
+        mg7.addModifications(Collections.singleton(mod10));
+        Assertions.assertEquals(mg7, modificationBinaryTree.searchNodesForModifications(mod10).getModificationGroup());
+
+        Assertions.assertTrue(modificationBinaryTree.removeModificationGroup(mg7));
+        Assertions.assertThrows(NoSuchElementException.class, () -> modificationBinaryTree.searchNodesForModifications(mod10));
+    }
+
+    @Test
+    void searchNodesForModifications_returnsGroupClosestToRoot_whenModificationIsShared() {
+        Assertions.assertEquals(mg2, modificationBinaryTree.searchNodesForModifications(mod5).getModificationGroup());
+        mg2.removeModification(mod5);
+        Assertions.assertEquals(mg5, modificationBinaryTree.searchNodesForModifications(mod5).getModificationGroup());
+    }
+
+    @Test
+    void getListOfModificationGroupsOnGivenLevel_followsLevelsAfterRemoval() {
+        Assertions.assertEquals(Set.of(mg2, mg4), modificationBinaryTree.getListOfModificationGroupsOnGivenLevel(mg1, 1));
+        Assertions.assertEquals(Set.of(mg5, mg7), modificationBinaryTree.getListOfModificationGroupsOnGivenLevel(mg1, 3));
+
+        Assertions.assertTrue(modificationBinaryTree.removeModificationGroup(mg2));
+
+        Assertions.assertEquals(Set.of(mg3, mg4), modificationBinaryTree.getListOfModificationGroupsOnGivenLevel(mg1, 1));
+        Assertions.assertEquals(Set.of(mg5, mg6), modificationBinaryTree.getListOfModificationGroupsOnGivenLevel(mg1, 2));
+        Assertions.assertEquals(Set.of(mg7), modificationBinaryTree.getListOfModificationGroupsOnGivenLevel(mg1, 3));
+        Assertions.assertEquals(2, modificationBinaryTree.searchNodesForModificationGroup(mg5).getLevel());
+        Assertions.assertEquals(Set.of(mg1, mg3, mg4, mg5, mg6), modificationBinaryTree.getSetOfModificationGroupsUpUntilGivenLevel(mg1, 2));
+        Assertions.assertEquals(mod9, modificationBinaryTree.findModificationOnGivenLevelById(mod9.getModificationId(), 1));
+    }
+
+    @Test
+    void insert_withAvlBalancing_keepsHeightLogarithmic_forSortedInput() {
+        ModificationBinaryTree avlTree = new ModificationBinaryTree(TreeLogic.PRIORITY, TreeBalancing.AVL);
+        for (int i = 1; i <= 1024; i++) {
+            avlTree.insert(new ModificationGroup(Collections.singleton(new Modification("Mod" + i, i, i, TypeOfModification.ADD)), "Group" + i));
+        }
+
+        Assertions.assertEquals(1024, avlTree.getTotalNumberOfElements().get());
+        Assertions.assertTrue(avlTree.getRoot().getHeight() <= 14);
+        Assertions.assertEquals(avlTree.getRoot().getHeight(), avlTree.getTotalNumberOfLevels());
+        assertNodesAndModificationGroupsConsistent(avlTree, avlTree.getRoot(), null, 0);
+        Assertions.assertEquals(avlTree.getAllModificationGroups().stream().mapToLong(ModificationGroup::getCost).sum(),
+                avlTree.getRoot().getModificationGroup().getSubtreeCost());
+    }
+
+    @Test
+    void removeModificationGroup_withAvlBalancing_keepsLinksAndLevelsConsistent() {
+        ModificationBinaryTree avlTree = new ModificationBinaryTree(TreeLogic.NAME, TreeBalancing.AVL);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 100; i < 400; i++) {
+            ModificationGroup group = new ModificationGroup(Collections.emptySet(), "Group" + i);
+            groups.add(group);
+            avlTree.insert(group);
+        }
+
+        for (int i = 0; i < groups.size(); i += 2) {
+            Assertions.assertTrue(avlTree.removeModificationGroup(groups.get(i)));
+            Assertions.assertNull(groups.get(i).getParentModificationGroup());
+        }
+
+        Assertions.assertEquals(150, avlTree.getTotalNumberOfElements().get());
+        Assertions.assertTrue(avlTree.getRoot().getHeight() <= 11);
+        assertNodesAndModificationGroupsConsistent(avlTree, avlTree.getRoot(), null, 0);
+    }
+
+    @Test
+    void addModifications_shouldRekeyModificationGroup_whenTreeIsSortedByPriority() {
+        ModificationBinaryTree priorityTree = new ModificationBinaryTree(TreeLogic.PRIORITY);
+        ModificationGroup low = new ModificationGroup(Set.of(mod1), "Low");
+        ModificationGroup middle = new ModificationGroup(Set.of(mod2), "Middle");
+        ModificationGroup high = new ModificationGroup(Set.of(mod3), "High");
+        priorityTree.insert(middle);
+        priorityTree.insert(low);
+        priorityTree.insert(high);
+
+        low.addModifications(Set.of(mod12));
+
+        Assertions.assertEquals(List.of(middle, high, low), inOrderModificationGroups(priorityTree.getRoot(), new ArrayList<>()));
+        Assertions.assertSame(low, priorityTree.searchNodesForModificationGroup(low).getModificationGroup());
+        Assertions.assertSame(low, priorityTree.searchNodesForModifications(mod12).getModificationGroup());
+        assertNodesAndModificationGroupsConsistent(priorityTree, priorityTree.getRoot(), null, 0);
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> priorityTree.insert(new ModificationGroup(Set.of(new Modification("Same", low.getPriorityValue(), 1, TypeOfModification.ADD)), "Same")));
+    }
+
+    @Test
+    void removeModification_shouldRekeyModificationGroup_withAvlBalancing() {
+        ModificationBinaryTree costTree = new ModificationBinaryTree(TreeLogic.TOTAL_COST, TreeBalancing.AVL);
+        List<ModificationGroup> groups = new ArrayList<>();
+        List<Modification> extraModifications = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Modification extra = new Modification("Extra" + i, 1, 1000 - i, TypeOfModification.ADD);
+            ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod" + i, 1, i * 10L, TypeOfModification.ADD), extra), "Group" + i);
+            extraModifications.add(extra);
+            groups.add(group);
+            costTree.insert(group);
+        }
+
+        for (int i = 0; i < groups.size(); i += 3) {
+            Assertions.assertTrue(groups.get(i).removeModification(extraModifications.get(i)));
+        }
+
+        List<ModificationGroup> inOrder = inOrderModificationGroups(costTree.getRoot(), new ArrayList<>());
+        Assertions.assertEquals(200, inOrder.size());
+        for (int i = 1; i < inOrder.size(); i++) {
+            Assertions.assertTrue(inOrder.get(i - 1).getCost() < inOrder.get(i).getCost());
+        }
+        assertNodesAndModificationGroupsConsistent(costTree, costTree.getRoot(), null, 0);
+        Assertions.assertEquals(groups.stream().mapToLong(ModificationGroup::getCost).sum(), costTree.getRoot().getModificationGroup().getSubtreeCost());
+    }
+
+    @Test
+    void addModifications_shouldOrderCollidingKeysById_whenDuplicateKeysAreRejected() {
+        ModificationBinaryTree costTree = new ModificationBinaryTree(TreeLogic.TOTAL_COST, TreeBalancing.AVL, DuplicateKeys.REJECT);
+        ModificationGroup middle = new ModificationGroup(Set.of(new Modification("Middle A", 1, 10, TypeOfModification.ADD),
+                new Modification("Middle B", 1, 10, TypeOfModification.ADD)), "Middle");
+        ModificationGroup cheap = new ModificationGroup(Set.of(new Modification("Cheap", 1, 10, TypeOfModification.ADD)), "Cheap");
+        ModificationGroup expensive = new ModificationGroup(Set.of(new Modification("Expensive", 1, 100, TypeOfModification.ADD)), "Expensive");
+        costTree.insertAll(List.of(expensive, middle));
+        costTree.insert(cheap);
+
+        cheap.addModifications(Set.of(new Modification("Cheap B", 1, 10, TypeOfModification.ADD)));
+
+        Assertions.assertEquals(middle.getCost(), cheap.getCost());
+        List<ModificationGroup> expected = List.of(middle, cheap, expensive);
+        Assertions.assertEquals(expected, inOrderModificationGroups(costTree.getRoot(), new ArrayList<>()));
+        Assertions.assertEquals(expected, costTree.stream().collect(Collectors.toList()));
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(i, costTree.rank(expected.get(i)));
+        }
+        assertNodesAndModificationGroupsConsistent(costTree, costTree.getRoot(), null, 0);
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> costTree.insert(new ModificationGroup(Set.of(new Modification("Same", 1, middle.getCost(), TypeOfModification.ADD)), "Same")));
+
+        Assertions.assertTrue(costTree.removeModificationGroup(middle));
+        Assertions.assertEquals(List.of(cheap, expensive), costTree.stream().collect(Collectors.toList()));
+        Assertions.assertSame(cheap, costTree.floor(cheap.getCost()));
+    }
+
+    @Test
+    void rankSelectAndPercentile_followInsertsRemovalsAndRekeys() {
+        ModificationBinaryTree costTree = new ModificationBinaryTree(TreeLogic.TOTAL_COST, TreeBalancing.AVL, DuplicateKeys.ALLOW);
+        List<ModificationGroup> groups = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod" + i, 1, random.nextInt(100), TypeOfModification.ADD)), "Group" + i);
+            groups.add(group);
+            costTree.insert(group);
+        }
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertTrue(costTree.removeModificationGroup(groups.remove(random.nextInt(groups.size()))));
+            groups.get(random.nextInt(groups.size())).addModifications(Set.of(new Modification("Extra" + i, 1, random.nextInt(100), TypeOfModification.ADD)));
+        }
+
+        List<ModificationGroup> inOrder = inOrderModificationGroups(costTree.getRoot(), new ArrayList<>());
+        for (int i = 0; i < inOrder.size(); i++) {
+            Assertions.assertSame(inOrder.get(i), costTree.select(i));
+            Assertions.assertEquals(i, costTree.rank(inOrder.get(i)));
+        }
+        Assertions.assertSame(inOrder.get(0), costTree.percentile(0));
+        Assertions.assertSame(inOrder.get(189), costTree.percentile(95));
+        Assertions.assertSame(inOrder.get(199), costTree.percentile(100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> costTree.select(200));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> costTree.percentile(101));
+        Assertions.assertThrows(NoSuchElementException.class, () -> costTree.rank(new ModificationGroup(Collections.emptySet(), "Missing")));
+        assertNodesAndModificationGroupsConsistent(costTree, costTree.getRoot(), null, 0);
+    }
+
+    @Test
+    void rangeQueries_shouldMatchFilteredSortedModel() {
+        ModificationBinaryTree costTree = new ModificationBinaryTree(TreeLogic.TOTAL_COST, TreeBalancing.AVL, DuplicateKeys.ALLOW);
+        List<ModificationGroup> groups = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 500; i++) {
+            ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod" + i, 1, random.nextInt(200), TypeOfModification.ADD)), "Group" + i);
+            groups.add(group);
+            costTree.insert(group);
+        }
+        List<ModificationGroup> inOrder = inOrderModificationGroups(costTree.getRoot(), new ArrayList<>());
+
+        for (int i = 0; i < 50; i++) {
+            long from = random.nextInt(220) - 10;
+            long to = from + random.nextInt(40);
+            boolean fromInclusive = random.nextBoolean();
+            boolean toInclusive = random.nextBoolean();
+            List<ModificationGroup> expected = inOrder.stream()
+                    .filter(group -> fromInclusive ? from <= group.getCost() : from < group.getCost())
+                    .filter(group -> toInclusive ? group.getCost() <= to : group.getCost() < to)
+                    .toList();
+            Assertions.assertEquals(expected, costTree.getModificationGroupsInRange(from, fromInclusive, to, toInclusive));
+            List<ModificationGroup> iterated = new ArrayList<>();
+            costTree.rangeIterator(from, fromInclusive, to, toInclusive).forEachRemaining(iterated::add);
+            Assertions.assertEquals(expected, iterated);
+
+            ModificationGroup floor = inOrder.stream().filter(group -> group.getCost() <= from).reduce((first, second) -> second).orElse(null);
+            ModificationGroup ceiling = inOrder.stream().filter(group -> from <= group.getCost()).findFirst().orElse(null);
+            Assertions.assertSame(floor, costTree.floor(from));
+            Assertions.assertSame(ceiling, costTree.ceiling(from));
+        }
+        Assertions.assertEquals(inOrder, costTree.getModificationGroupsInRange(null, false, null, false));
+        Assertions.assertEquals(inOrder.stream().filter(group -> group.getCost() < 100).toList(), costTree.getModificationGroupsBefore(100, false));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> costTree.getModificationGroupsInRange(10, true, 5, true));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> costTree.floor("Name"));
+    }
+
+    @Test
+    void aggregateRange_shouldMatchModel_afterRemovalsRotationsAndValueChanges() {
+        for (TreeLogic treeLogic : TreeLogic.values()) {
+            ModificationBinaryTree aggregateTree = new ModificationBinaryTree(treeLogic, TreeBalancing.AVL, DuplicateKeys.ALLOW);
+            List<ModificationGroup> groups = new ArrayList<>();
+            Random random = new Random(3);
+            for (int i = 0; i < 300; i++) {
+                ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod" + i, random.nextInt(60), random.nextInt(1000), TypeOfModification.ADD)), "Group" + (1000 + i));
+                groups.add(group);
+                aggregateTree.insert(group);
+            }
+            for (int i = 0; i < 80; i++) {
+                Assertions.assertTrue(aggregateTree.removeModificationGroup(groups.remove(random.nextInt(groups.size()))));
+                groups.get(random.nextInt(groups.size())).addModifications(Set.of(new Modification("Extra" + i, random.nextInt(60), random.nextInt(1000), TypeOfModification.ADD)));
+            }
+
+            List<ModificationGroup> inOrder = inOrderModificationGroups(aggregateTree.getRoot(), new ArrayList<>());
+            for (int i = 0; i < 40; i++) {
+                int from = random.nextInt(inOrder.size());
+                int to = from + random.nextInt(inOrder.size() - from);
+                ModificationGroup fromGroup = inOrder.get(from);
+                ModificationGroup toGroup = inOrder.get(to);
+                Object fromKey = treeLogic == TreeLogic.NAME ? fromGroup.getName() : treeLogic == TreeLogic.PRIORITY ? fromGroup.getPriorityValue() : fromGroup.getCost();
+                Object toKey = treeLogic == TreeLogic.NAME ? toGroup.getName() : treeLogic == TreeLogic.PRIORITY ? toGroup.getPriorityValue() : toGroup.getCost();
+
+                List<ModificationGroup> expected = aggregateTree.getModificationGroupsInRange(fromKey, true, toKey, false);
+                RangeAggregate aggregate = aggregateTree.aggregateRange(fromKey, true, toKey, false);
+                Assertions.assertEquals(expected.size(), aggregate.getCount());
+                Assertions.assertEquals(expected.stream().mapToLong(ModificationGroup::getCost).sum(), aggregate.getTotalCost());
+                Assertions.assertEquals(expected.stream().mapToLong(ModificationGroup::getPriorityValue).sum(), aggregate.getTotalPriorityValue());
+                Assertions.assertEquals(expected.stream().map(ModificationGroup::getCost).max(Long::compare).orElse(null), aggregate.getMaxCost());
+                Assertions.assertEquals(expected.stream().map(ModificationGroup::getPriorityValue).max(Integer::compare).orElse(null), aggregate.getMaxPriorityValue());
+            }
+            RangeAggregate all = aggregateTree.aggregateRange(null, false, null, false);
+            Assertions.assertEquals(groups.size(), all.getCount());
+            Assertions.assertEquals(groups.stream().mapToLong(ModificationGroup::getCost).sum(), all.getTotalCost());
+            assertNodesAndModificationGroupsConsistent(aggregateTree, aggregateTree.getRoot(), null, 0);
+        }
+    }
+
+    @Test
+    void insertAll_shouldBuildPerfectlyBalancedTree_whenTreeIsEmpty() {
+        ModificationBinaryTree bulkTree = new ModificationBinaryTree(TreeLogic.TOTAL_COST);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            groups.add(new ModificationGroup(Set.of(new Modification("Mod" + i, 1, (i * 7919L) % 1000, TypeOfModification.ADD)), "Group" + i));
+        }
+
+        bulkTree.insertAll(groups);
+
+        Assertions.assertEquals(1000, bulkTree.getTotalNumberOfElements().get());
+        Assertions.assertEquals(10, bulkTree.getRoot().getHeight());
+        List<ModificationGroup> inOrder = inOrderModificationGroups(bulkTree.getRoot(), new ArrayList<>());
+        for (int i = 0; i < inOrder.size(); i++) {
+            Assertions.assertEquals(i, inOrder.get(i).getCost());
+        }
+        Assertions.assertEquals(groups.stream().mapToLong(ModificationGroup::getCost).sum(), bulkTree.getRoot().getModificationGroup().getSubtreeCost());
+        Assertions.assertSame(groups.get(1), bulkTree.searchNodesForModifications(groups.get(1).getModifications().iterator().next()).getModificationGroup());
+        assertNodesAndModificationGroupsConsistent(bulkTree, bulkTree.getRoot(), null, 0);
+    }
+
+    @Test
+    void insertAll_shouldInsertIntoExistingTree_andRejectWholeBatchOnDuplicate() {
+        ModificationGroup budapest = new ModificationGroup(Collections.emptySet(), "Budapest II.");
+        ModificationGroup vienna = new ModificationGroup(Collections.emptySet(), "Vienna");
+
+        Assertions.assertThrows(IllegalStateException.class, () -> modificationBinaryTree.insertAll(List.of(budapest, vienna, mg3)));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> modificationBinaryTree.insertAll(List.of(budapest, new ModificationGroup(Collections.emptySet(), "Budapest II."))));
+        Assertions.assertEquals(7, modificationBinaryTree.getTotalNumberOfElements().get());
+        Assertions.assertFalse(modificationBinaryTree.containsModificationGroup(budapest));
+
+        modificationBinaryTree.insertAll(List.of(vienna, budapest));
+        Assertions.assertEquals(9, modificationBinaryTree.getTotalNumberOfElements().get());
+        Assertions.assertEquals(List.of(mg5, budapest, mg3, mg2, mg1, mg4, mg6, mg7, vienna), inOrderModificationGroups(modificationBinaryTree.getRoot(), new ArrayList<>()));
+        assertNodesAndModificationGroupsConsistent(modificationBinaryTree, modificationBinaryTree.getRoot(), null, 0);
+    }
+
+    @Test
+    void insertAll_shouldMergeBigBatchIntoBalancedTree_whenTreeIsNotEmptyAndUnbalanced() {
+        ModificationBinaryTree bulkTree = new ModificationBinaryTree(TreeLogic.TOTAL_COST);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 1023; i++) {
+            groups.add(new ModificationGroup(Set.of(new Modification("Mod" + i, 1, i, TypeOfModification.ADD)), "Group" + i));
+        }
+        for (int i = 0; i < 1023; i += 100) {
+            bulkTree.insert(groups.get(i));
+        }
+        List<ModificationGroup> batch = groups.stream().filter(group -> group.getCost() % 100 != 0).toList();
+
+        bulkTree.insertAll(batch);
+
+        Assertions.assertEquals(1023, bulkTree.getTotalNumberOfElements().get());
+        Assertions.assertEquals(10, bulkTree.getRoot().getHeight());
+        Assertions.assertEquals(groups, inOrderModificationGroups(bulkTree.getRoot(), new ArrayList<>()));
+        Assertions.assertEquals(groups.stream().mapToLong(ModificationGroup::getCost).sum(), bulkTree.getRoot().getModificationGroup().getSubtreeCost());
+        Assertions.assertSame(batch.get(7), bulkTree.searchNodesForModifications(batch.get(7).getModifications().iterator().next()).getModificationGroup());
+        assertNodesAndModificationGroupsConsistent(bulkTree, bulkTree.getRoot(), null, 0);
+
+        ModificationGroup small = new ModificationGroup(Set.of(new Modification("Small", 1, 2000, TypeOfModification.ADD)), "Small");
+        bulkTree.insertAll(List.of(small));
+        Assertions.assertEquals(1024, bulkTree.getTotalNumberOfElements().get());
+        Assertions.assertSame(small, bulkTree.select(1023));
+        assertNodesAndModificationGroupsConsistent(bulkTree, bulkTree.getRoot(), null, 0);
+    }
+
+    @Test
+    void removeIf_shouldRebuildBalancedTreeOfSurvivors_andUnindexRemovedGroups() {
+        ModificationBinaryTree bulkTree = new ModificationBinaryTree(TreeLogic.TOTAL_COST, TreeBalancing.AVL);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            groups.add(new ModificationGroup(Set.of(new Modification("Mod" + i, 1, i, TypeOfModification.ADD)), "Group" + i));
+        }
+        bulkTree.insertAll(groups);
+
+        List<ModificationGroup> removed = bulkTree.removeIf(group -> group.getCost() % 2 == 1);
+
+        Assertions.assertEquals(500, removed.size());
+        Assertions.assertEquals(500, bulkTree.getTotalNumberOfElements().get());
+        Assertions.assertEquals(500, bulkTree.getAllModificationGroups().size());
+        Assertions.assertEquals(9, bulkTree.getRoot().getHeight());
+        List<ModificationGroup> inOrder = inOrderModificationGroups(bulkTree.getRoot(), new ArrayList<>());
+        for (int i = 0; i < inOrder.size(); i++) {
+            Assertions.assertEquals(2L * i, inOrder.get(i).getCost());
+        }
+        Assertions.assertEquals(249500, bulkTree.aggregateRange(null, false, null, false).getTotalCost());
+        ModificationGroup removedGroup = groups.get(1);
+        Assertions.assertEquals(-1, removedGroup.getLevel());
+        Assertions.assertNull(removedGroup.getParentModificationGroup());
+        Assertions.assertThrows(NoSuchElementException.class, () -> bulkTree.searchNodesForModificationGroup(removedGroup));
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> bulkTree.searchNodesForModifications(removedGroup.getModifications().iterator().next()));
+        assertNodesAndModificationGroupsConsistent(bulkTree, bulkTree.getRoot(), null, 0);
+
+        bulkTree.insert(removedGroup);
+        Assertions.assertEquals(1, bulkTree.rank(removedGroup));
+        assertNodesAndModificationGroupsConsistent(bulkTree, bulkTree.getRoot(), null, 0);
+    }
+
+    @Test
+    void removeAll_shouldUnlinkFewGroupsOneByOne_andKeepSurvivorsAvlLinked() {
+        ModificationBinaryTree bulkTree = new ModificationBinaryTree(TreeLogic.TOTAL_COST, TreeBalancing.AVL);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod" + i, 1, (i * 389L) % 1000, TypeOfModification.ADD)), "Group" + i);
+            groups.add(group);
+            bulkTree.insert(group);
+        }
+        List<ModificationGroup> toRemove = List.of(groups.get(700), groups.get(3), groups.get(512), bulkTree.getRoot().getModificationGroup());
+        List<ModificationGroup> expectedRemoved = new ArrayList<>(toRemove);
+        expectedRemoved.sort(Comparator.comparing(ModificationGroup::getCost));
+
+        Assertions.assertEquals(expectedRemoved, bulkTree.removeAll(toRemove));
+
+        List<ModificationGroup> survivors = new ArrayList<>(groups);
+        survivors.removeAll(toRemove);
+        survivors.sort(Comparator.comparing(ModificationGroup::getCost));
+        Assertions.assertEquals(survivors, inOrderModificationGroups(bulkTree.getRoot(), new ArrayList<>()));
+        Assertions.assertEquals(996, bulkTree.getTotalNumberOfElements().get());
+        Assertions.assertEquals(Set.copyOf(survivors), Set.copyOf(bulkTree.getAllModificationGroups()));
+        Assertions.assertEquals(survivors.stream().mapToLong(ModificationGroup::getCost).sum(), bulkTree.getRoot().getModificationGroup().getSubtreeCost());
+        for (ModificationGroup removedGroup : toRemove) {
+            Assertions.assertEquals(-1, removedGroup.getLevel());
+            Assertions.assertNull(removedGroup.getParentModificationGroup());
+            Assertions.assertThrows(NoSuchElementException.class, () -> bulkTree.searchNodesForModificationGroup(removedGroup));
+        }
+        assertNodesAndModificationGroupsConsistent(bulkTree, bulkTree.getRoot(), null, 0);
+    }
+
+    @Test
+    void removeAllAndRemoveRange_shouldKeepSortingOrderAndLinks() {
+        ModificationGroup notInTree = new ModificationGroup(Collections.emptySet(), "Vienna");
+
+        Assertions.assertEquals(List.of(mg7), modificationBinaryTree.removeAll(List.of(mg7, notInTree)));
+        Assertions.assertEquals(List.of(mg3, mg2, mg1), modificationBinaryTree.removeRange("District", true, "Hungary", false));
+        Assertions.assertTrue(modificationBinaryTree.removeRange("X", true, null, false).isEmpty());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> modificationBinaryTree.removeRange("Z", true, "A", true));
+
+        Assertions.assertEquals(3, modificationBinaryTree.getTotalNumberOfElements().get());
+        Assertions.assertEquals(List.of(mg5, mg4, mg6), inOrderModificationGroups(modificationBinaryTree.getRoot(), new ArrayList<>()));
+        Assertions.assertFalse(modificationBinaryTree.containsModificationGroup(mg1));
+        Assertions.assertEquals(-1, mg7.getLevel());
+        assertNodesAndModificationGroupsConsistent(modificationBinaryTree, modificationBinaryTree.getRoot(), null, 0);
+    }
+
+    @Test
+    void subtreeAggregation_shouldMatchSequentialResult_whenSplitAcrossForkJoinPool() {
+        ModificationBinaryTree bigTree = new ModificationBinaryTree(TreeLogic.TOTAL_COST, TreeBalancing.AVL, DuplicateKeys.ALLOW);
+        Random random = new Random(11);
+        List<ModificationGroup> groups = new ArrayList<>();
+        Set<Modification> allModifications = new HashSet<>();
+        for (int i = 0; i < 3000; i++) {
+            Set<Modification> modifications = new HashSet<>();
+            for (int j = random.nextInt(4); 0 <= j; j--) {
+                modifications.add(new Modification("Mod" + i + "_" + j, random.nextInt(10), random.nextInt(100_000), TypeOfModification.ADD));
+            }
+            allModifications.addAll(modifications);
+            groups.add(new ModificationGroup(modifications, "Group" + i));
+        }
+        bigTree.insertAll(groups);
+        ModificationGroup rootGroup = bigTree.getRoot().getModificationGroup();
+        ModificationGroup innerGroup = bigTree.getRoot().getLeft().getRight().getModificationGroup();
+
+        ForkJoinPool dedicatedPool = new ForkJoinPool(4);
+        bigTree.setParallelExecutionPolicy(new ParallelExecutionPolicy(dedicatedPool, 16));
+        try {
+            Assertions.assertEquals(allModifications, bigTree.getModificationsOfGivenModificationGroupAndItsChildren(rootGroup));
+            Assertions.assertEquals(allModifications.size(), bigTree.countModificationsOfGivenModificationGroupAndItsChildren(rootGroup));
+            Assertions.assertEquals(rootGroup.getSubtreeCost(), bigTree.calculateSubtreeCost(rootGroup));
+            Assertions.assertEquals(innerGroup.getSubtreeCost(), bigTree.calculateSubtreeCost(innerGroup));
+            long parallelInnerCount = bigTree.countModificationsOfGivenModificationGroupAndItsChildren(innerGroup);
+            bigTree.setParallelExecutionPolicy(new ParallelExecutionPolicy(dedicatedPool, Integer.MAX_VALUE));
+            Assertions.assertEquals(bigTree.countModificationsOfGivenModificationGroupAndItsChildren(innerGroup), parallelInnerCount);
+            Assertions.assertEquals(allModifications, bigTree.getModificationsOfGivenModificationGroupAndItsChildren(rootGroup));
+            Assertions.assertThrows(NoSuchElementException.class,
+                    () -> bigTree.calculateSubtreeCost(new ModificationGroup(Collections.emptySet(), "Not in tree")));
+            bigTree.setParallelExecutionPolicy(new ParallelExecutionPolicy(dedicatedPool, 16));
+            Assertions.assertEquals(rootGroup.getSubtreeCost(), dedicatedPool.submit(() -> bigTree.calculateSubtreeCost(rootGroup)).join());
+            Assertions.assertSame(ParallelExecutionPolicy.defaultPolicy().getForkJoinPool(), modificationBinaryTree.getParallelExecutionPolicy().getForkJoinPool());
+        } finally {
+            dedicatedPool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rangeIterator_shouldContinueAfterConcurrentRemovalOfLastReturnedGroup() {
+        Iterator<ModificationGroup> iterator = modificationBinaryTree.rangeIterator("Europe", true, null, false);
+        Assertions.assertSame(mg2, iterator.next());
+        modificationBinaryTree.removeModificationGroup(mg2);
+        Assertions.assertSame(mg1, iterator.next());
+        Assertions.assertSame(mg4, iterator.next());
+    }
+
+    @Test
+    void rangeIterator_shouldSeeInsertAheadOfItsPosition_andStayAscending_underConcurrentWrites() throws InterruptedException {
+        ModificationBinaryTree costTree = new ModificationBinaryTree(TreeLogic.TOTAL_COST, TreeBalancing.AVL, DuplicateKeys.ALLOW);
+        for (int i = 0; i < 1000; i++) {
+            costTree.insert(new ModificationGroup(Set.of(new Modification("Mod" + i, 1, i * 10L, TypeOfModification.ADD)), "Group" + i));
+        }
+        Iterator<ModificationGroup> iterator = costTree.rangeIterator(null, false, null, false);
+        Assertions.assertEquals(0, iterator.next().getCost());
+        ModificationGroup inserted = new ModificationGroup(Set.of(new Modification("Inserted", 1, 5, TypeOfModification.ADD)), "Inserted");
+        costTree.insert(inserted);
+        Assertions.assertSame(inserted, iterator.next());
+        Assertions.assertEquals(10, iterator.next().getCost());
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 500; i++) {
+                ModificationGroup group = new ModificationGroup(Set.of(new Modification("Concurrent" + i, 1, i * 20L + 3, TypeOfModification.ADD)), "Concurrent" + i);
+                costTree.insert(group);
+                costTree.removeModificationGroup(group);
+            }
+        });
+        writer.start();
+        long previousCost = 10;
+        int seen = 0;
+        while (iterator.hasNext()) {
+            long cost = iterator.next().getCost();
+            Assertions.assertTrue(previousCost < cost);
+            previousCost = cost;
+            if (cost % 10 == 0) {
+                seen++;
+            }
+        }
+        writer.join();
+        Assertions.assertEquals(998, seen);
+    }
+
+    @Test
+    void stream_shouldSplitOnSubtrees_andMatchInOrderTraversal() {
+        ModificationBinaryTree bigTree = new ModificationBinaryTree(TreeLogic.PRIORITY, TreeBalancing.AVL, DuplicateKeys.ALLOW);
+        Random random = new Random(5);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            groups.add(new ModificationGroup(Set.of(new Modification("Mod" + i, random.nextInt(500), random.nextInt(1000), TypeOfModification.ADD)), "Group" + i));
+        }
+        bigTree.insertAll(groups);
+        List<ModificationGroup> inOrder = inOrderModificationGroups(bigTree.getRoot(), new ArrayList<>());
+
+        Spliterator<ModificationGroup> spliterator = bigTree.spliterator();
+        Assertions.assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED | Spliterator.ORDERED));
+        Assertions.assertEquals(2000, spliterator.getExactSizeIfKnown());
+        Spliterator<ModificationGroup> prefix = spliterator.trySplit();
+        Assertions.assertEquals(1000, prefix.getExactSizeIfKnown());
+        Assertions.assertEquals(1000, spliterator.getExactSizeIfKnown());
+        List<ModificationGroup> halves = new ArrayList<>();
+        prefix.forEachRemaining(halves::add);
+        spliterator.forEachRemaining(halves::add);
+        Assertions.assertEquals(inOrder, halves);
+
+        Assertions.assertEquals(inOrder, bigTree.stream().collect(Collectors.toList()));
+        Assertions.assertEquals(inOrder, bigTree.parallelStream().collect(Collectors.toList()));
+        Assertions.assertArrayEquals(inOrder.toArray(), bigTree.parallelStream().toArray());
+
+        Assertions.assertEquals(groups.stream().mapToLong(ModificationGroup::getCost).sum(),
+                bigTree.modificationStream(true).mapToLong(Modification::getCost).sum());
+        Assertions.assertTrue(bigTree.stream().findFirst().isPresent());
+
+        Spliterator<ModificationGroup> beforeWrite = bigTree.spliterator();
+        bigTree.removeModificationGroup(inOrder.get(0));
+        Assertions.assertFalse(beforeWrite.hasCharacteristics(Spliterator.SIZED));
+        Assertions.assertEquals(-1, beforeWrite.getExactSizeIfKnown());
+        Assertions.assertEquals(2000, beforeWrite.estimateSize());
+        List<ModificationGroup> afterWrite = new ArrayList<>();
+        beforeWrite.forEachRemaining(afterWrite::add);
+        Assertions.assertEquals(inOrder.subList(1, 2000), afterWrite);
+    }
+
+    @Test
+    void spliterator_shouldStayWeaklyConsistent_whenTheNextGroupIsRemoved() {
+        Spliterator<ModificationGroup> spliterator = modificationBinaryTree.spliterator();
+        List<ModificationGroup> seen = new ArrayList<>();
+        Assertions.assertTrue(spliterator.tryAdvance(seen::add));
+        ModificationGroup removed = modificationBinaryTree.rangeIterator(seen.get(0).getName(), false, null, false).next();
+        modificationBinaryTree.removeModificationGroup(removed);
+        spliterator.forEachRemaining(seen::add);
+
+        List<ModificationGroup> expected = inOrderModificationGroups(modificationBinaryTree.getRoot(), new ArrayList<>());
+        Assertions.assertFalse(seen.contains(removed));
+        Assertions.assertEquals(expected, seen);
+        Assertions.assertFalse(spliterator.tryAdvance(seen::add));
+        Assertions.assertEquals(0, spliterator.estimateSize());
+    }
+
+    @Test
+    void spliterator_forEachRemaining_shouldLetTheActionWriteToTheTree() {
+        Spliterator<ModificationGroup> spliterator = modificationBinaryTree.spliterator();
+        List<ModificationGroup> expected = inOrderModificationGroups(modificationBinaryTree.getRoot(), new ArrayList<>());
+        List<ModificationGroup> seen = new ArrayList<>();
+
+        spliterator.forEachRemaining(modificationGroup -> {
+            seen.add(modificationGroup);
+            modificationBinaryTree.removeModificationGroup(modificationGroup);
+        });
+
+        Assertions.assertEquals(expected, seen);
+        Assertions.assertNull(modificationBinaryTree.getRoot());
+    }
+
+    private List<ModificationGroup> inOrderModificationGroups(ModificationBinaryTree.Node node, List<ModificationGroup> result) {
+        if (node != null) {
+            inOrderModificationGroups(node.getLeft(), result);
+            result.add(node.getModificationGroup());
+            inOrderModificationGroups(node.getRight(), result);
+        }
+        return result;
+    }
+
+    @Test
+    void insert_withAllowedDuplicateKeys_storesGroupsWithEqualPriority() {
+        ModificationBinaryTree multisetTree = new ModificationBinaryTree(TreeLogic.PRIORITY, TreeBalancing.AVL, DuplicateKeys.ALLOW);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod" + i, i % 2 == 0 ? 5 : 7, i, TypeOfModification.ADD)), "Group" + i);
+            groups.add(group);
+            multisetTree.insert(group);
+        }
+
+        Assertions.assertEquals(500, multisetTree.getTotalNumberOfElements().get());
+        Assertions.assertThrows(IllegalStateException.class, () -> multisetTree.insert(groups.get(3)));
+        Assertions.assertTrue(multisetTree.removeModificationGroup(groups.get(10)));
+
+        List<ModificationGroup> inOrder = inOrderModificationGroups(multisetTree.getRoot(), new ArrayList<>());
+        Assertions.assertEquals(499, inOrder.size());
+        for (int i = 1; i < inOrder.size(); i++) {
+            ModificationGroup previous = inOrder.get(i - 1);
+            ModificationGroup current = inOrder.get(i);
+            Assertions.assertTrue(previous.getPriorityValue() < current.getPriorityValue()
+                    || (previous.getPriorityValue().equals(current.getPriorityValue()) && previous.getModificationGroupId() < current.getModificationGroupId()));
+        }
+        Assertions.assertTrue(multisetTree.getRoot().getHeight() <= 12);
+        assertNodesAndModificationGroupsConsistent(multisetTree, multisetTree.getRoot(), null, 0);
+    }
+
+    @Test
+    void insert_withRejectedDuplicateKeys_throwsException_forDifferentGroupWithEqualPriority() {
+        ModificationBinaryTree priorityTree = new ModificationBinaryTree(TreeLogic.PRIORITY);
+        priorityTree.insert(new ModificationGroup(Set.of(mod1), "First"));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> priorityTree.insert(new ModificationGroup(Set.of(mod4), "Second")));
+    }
+
+    @Test
+    void traversals_shouldNotOverflowStack_onDegenerateTree() throws InterruptedException {
+        ModificationBinaryTree degenerateTree = new ModificationBinaryTree(TreeLogic.PRIORITY);
+        int size = 5000;
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod" + i, i, i, TypeOfModification.ADD)), "G" + i);
+            groups.add(group);
+            degenerateTree.insert(group);
+        }
+        ModificationGroup rootGroup = degenerateTree.getRoot().getModificationGroup();
+        ModificationGroup deepestGroup = groups.get(size - 1);
+
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        List<Throwable> failures = new ArrayList<>();
+        Thread smallStackThread = new Thread(null, () -> {
+            try {
+                Assertions.assertTrue(degenerateTree.getTreePath(deepestGroup).endsWith("G4999 / G5000"));
+                Assertions.assertEquals(size, degenerateTree.getModificationsOfGivenModificationGroupAndItsChildren(rootGroup).size());
+                Assertions.assertSame(groups.get(size - 2), degenerateTree.findParentDRYComponent(degenerateTree.getRoot(), deepestGroup).getModificationGroup());
+                Assertions.assertThrows(IllegalStateException.class,
+                        () -> degenerateTree.insert(new ModificationGroup(Set.of(new Modification("Same", size, 1, TypeOfModification.ADD)), "Same")));
+                System.setOut(new PrintStream(output));
+                degenerateTree.inOrder();
+                degenerateTree.reverseOrder();
+            } catch (Throwable t) {
+                failures.add(t);
+            } finally {
+                System.setOut(originalOut);
+            }
+        }, "small-stack", 64 * 1024);
+        smallStackThread.start();
+        smallStackThread.join();
+
+        Assertions.assertEquals(List.of(), failures);
+        String[] lines = output.toString().split(System.lineSeparator());
+        Assertions.assertEquals(2 * size, lines.length);
+        Assertions.assertTrue(lines[0].contains("--- 1 "));
+        Assertions.assertTrue(lines[size].contains("--- " + size + " "));
+    }
+
+    @Test
+    void printTreeStructure_printsPreOrderWithIndentation() {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+        try {
+            modificationBinaryTree.printTreeStructure();
+        } finally {
+            System.setOut(originalOut);
+        }
+        String[] lines = output.toString().split(System.lineSeparator());
+
+        Assertions.assertEquals(modificationBinaryTree.getTotalNumberOfElements().get(), lines.length);
+        Assertions.assertTrue(lines[0].startsWith("--- " + mg1.getName()));
+        Assertions.assertTrue(lines[1].startsWith("    --- " + modificationBinaryTree.getRoot().getLeft().getModificationGroup().getName()));
+    }
+
+    @Test
+    void optimisticReads_shouldSeeConsistentTree_whileWritersRebalance() throws InterruptedException {
+        ModificationBinaryTree optimisticTree = new ModificationBinaryTree(TreeLogic.NAME, TreeBalancing.AVL, DuplicateKeys.REJECT, ReadConcurrency.OPTIMISTIC);
+        List<ModificationGroup> stableGroups = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            ModificationGroup group = new ModificationGroup(Collections.emptySet(), "Stable" + (1000 + i * 7));
+            stableGroups.add(group);
+            optimisticTree.insert(group);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        Thread writer = new Thread(() -> {
+            int round = 0;
+            while (running.get()) {
+                List<ModificationGroup> churn = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    ModificationGroup group = new ModificationGroup(Collections.emptySet(), "Churn" + round + "-" + i);
+                    churn.add(group);
+                    optimisticTree.insert(group);
+                }
+                churn.forEach(optimisticTree::removeModificationGroup);
+                round++;
+            }
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 2000; i++) {
+                        ModificationGroup stable = stableGroups.get(i % stableGroups.size());
+                        Assertions.assertTrue(optimisticTree.getTreePath(stable).endsWith(stable.getName()));
+                        Assertions.assertTrue(optimisticTree.getSetOfModificationGroupsUpUntilGivenLevel(stable, 64).containsAll(stableGroups));
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+
+        writer.start();
+        readers.forEach(Thread::start);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        running.set(false);
+        writer.join();
+
+        Assertions.assertEquals(List.of(), failures);
+        Assertions.assertEquals(64, optimisticTree.getTotalNumberOfElements().get());
+        assertNodesAndModificationGroupsConsistent(optimisticTree, optimisticTree.getRoot(), null, 0);
+    }
+
+    @Test
+    void findModificationOnGivenLevelById_shouldNotFail_whileModificationsAreAddedToTheGroup() throws InterruptedException {
+        ModificationBinaryTree optimisticTree = new ModificationBinaryTree(TreeLogic.NAME, TreeBalancing.AVL, DuplicateKeys.REJECT,
+                ReadConcurrency.OPTIMISTIC);
+        Modification searched = new Modification("Searched", 1, 1, TypeOfModification.ADD);
+        ModificationGroup rootGroup = new ModificationGroup(Set.of(searched), "Root");
+        optimisticTree.insert(rootGroup);
+        optimisticTree.insert(new ModificationGroup(Collections.emptySet(), "Second"));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 50_000; i++) {
+                rootGroup.addModifications(Set.of(new Modification("Added" + i, 1, 1, TypeOfModification.ADD)));
+            }
+            running.set(false);
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    Assertions.assertSame(searched, optimisticTree.findModificationOnGivenLevelById(searched.getModificationId(), 0));
+                    Assertions.assertThrows(NoSuchElementException.class, () -> optimisticTree.findModificationOnGivenLevelById(Integer.MAX_VALUE, 0));
+                }
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+        });
+
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        Assertions.assertEquals(List.of(), failures);
+    }
+
+    @Test
+    void insert_fromConcurrentWriters_keepsTreeConsistent() throws InterruptedException {
+        ModificationBinaryTree concurrentTree = new ModificationBinaryTree(TreeLogic.PRIORITY, TreeBalancing.AVL, DuplicateKeys.REJECT,
+                ReadConcurrency.OPTIMISTIC);
+        ModificationGroup contested = new ModificationGroup(Set.of(new Modification("Contested", -1, 1, TypeOfModification.ADD)), "Contested");
+        AtomicInteger contestedInserts = new AtomicInteger();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 8; w++) {
+            int rangeStart = w * 1000;
+            writers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 500; i++) {
+                        concurrentTree.insert(new ModificationGroup(Set.of(new Modification("Mod", rangeStart + i, 1, TypeOfModification.ADD)), "Group"));
+                    }
+                    concurrentTree.insert(contested);
+                    contestedInserts.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    Assertions.assertEquals("ModificationGroup already exists in tree", e.getMessage());
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        Assertions.assertEquals(List.of(), failures);
+        Assertions.assertEquals(1, contestedInserts.get());
+        Assertions.assertEquals(4001, concurrentTree.getTotalNumberOfElements().get());
+        List<ModificationGroup> inOrder = inOrderModificationGroups(concurrentTree.getRoot(), new ArrayList<>());
+        for (int i = 1; i < inOrder.size(); i++) {
+            Assertions.assertTrue(inOrder.get(i - 1).getPriorityValue() < inOrder.get(i).getPriorityValue());
+        }
+        assertNodesAndModificationGroupsConsistent(concurrentTree, concurrentTree.getRoot(), null, 0);
+    }
+
+    private void assertNodesAndModificationGroupsConsistent(ModificationBinaryTree tree, ModificationBinaryTree.Node node, ModificationBinaryTree.Node parent, int level) {
+        if (node == null) {
+            return;
+        }
+        ModificationGroup group = node.getModificationGroup();
+        Assertions.assertSame(parent, node.getParent());
+        Assertions.assertEquals(level, node.getLevel());
+        Assertions.assertEquals(level, group.getLevel());
+        Assertions.assertTrue(tree.getListOfModificationGroupsOnGivenLevel(tree.getRoot().getModificationGroup(), level).contains(group));
+        if (parent != null) {
+            Assertions.assertSame(parent.getModificationGroup(), group.getParentModificationGroup());
+            Assertions.assertTrue(parent.getModificationGroup().getChildModificationGroups().contains(group));
+        }
+        if (tree.getTreeBalancing() == TreeBalancing.AVL) {
+            int leftHeight = node.getLeft() == null ? 0 : node.getLeft().getHeight();
+            int rightHeight = node.getRight() == null ? 0 : node.getRight().getHeight();
+            Assertions.assertTrue(Math.abs(leftHeight - rightHeight) <= 1);
+        }
+        int leftSize = node.getLeft() == null ? 0 : node.getLeft().getSize();
+        int rightSize = node.getRight() == null ? 0 : node.getRight().getSize();
+        Assertions.assertEquals(leftSize + rightSize + 1, node.getSize());
+        assertNodesAndModificationGroupsConsistent(tree, node.getLeft(), node, level + 1);
+        assertNodesAndModificationGroupsConsistent(tree, node.getRight(), node, level + 1);
+    }
+
 }
 
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -169,4 +170,109 @@ public class ModificationGroupTest {
         assertEquals(6, mg4.getLevel());
     }
 
+    @Test
+    void subtreeTotals_followAddedAndRemovedChildrenAndModifications() {
+        mg1.addChildModificationGroup(mg2);
+        mg2.addChildModificationGroup(mg3);
+
+        assertEquals(mg1.getCost() + mg2.getCost() + mg3.getCost(), mg1.getSubtreeCost());
+        assertEquals((long) mg1.getPriorityValue() + mg2.getPriorityValue() + mg3.getPriorityValue(), mg1.getSubtreePriorityValue());
+
+        mod9.resolved();
+        assertEquals(mg1.getCost() + mg2.getCost() + mg3.getCost(), mg1.getSubtreeCost());
+        assertEquals(mg2.getCost() + mg3.getCost(), mg2.getSubtreeCost());
+
+        mg1.removeChildModificationGroup(mg2);
+        assertEquals((long) mg1.getCost(), mg1.getSubtreeCost());
+        assertEquals((long) mg1.getPriorityValue(), mg1.getSubtreePriorityValue());
+        assertEquals(mg2.getCost() + mg3.getCost(), mg2.getSubtreeCost());
+    }
+
+    @Test
+    void subtreeTotals_stayExact_whenModificationsChangeWhileChildrenAreRelinked() throws InterruptedException {
+        ModificationGroup top = new ModificationGroup(Collections.emptySet(), "Top");
+        ModificationGroup middle = new ModificationGroup(Collections.emptySet(), "Middle");
+        ModificationGroup leaf = new ModificationGroup(Collections.emptySet(), "Leaf");
+        top.addChildModificationGroup(middle);
+        middle.addChildModificationGroup(leaf);
+
+        List<Thread> writers = new ArrayList<>();
+        for (ModificationGroup group : List.of(middle, leaf)) {
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    Modification modification = new Modification(group.getName() + i, 1, 3, TypeOfModification.ADD);
+                    group.addModifications(Set.of(modification));
+                    if (i % 2 == 0) {
+                        group.removeModification(modification);
+                    }
+                }
+            }));
+        }
+        writers.add(new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                middle.removeChildModificationGroup(leaf);
+                middle.addChildModificationGroup(leaf);
+            }
+        }));
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(1000, leaf.getModifications().size());
+        assertEquals(middle.getCost() + leaf.getCost(), middle.getSubtreeCost());
+        assertEquals(top.getCost() + middle.getCost() + leaf.getCost(), top.getSubtreeCost());
+        assertEquals((long) top.getPriorityValue() + middle.getPriorityValue() + leaf.getPriorityValue(), top.getSubtreePriorityValue());
+    }
+
+    @Test
+    void addChildModificationGroup_throwsIllegalArgumentException_whenChildIsAnAncestor() {
+        mg1.addChildModificationGroup(mg2);
+        mg2.addChildModificationGroup(mg3);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> mg3.addChildModificationGroup(mg1));
+    }
+
+    @Test
+    void updateCalculatedValues_runningTotalsMatchFullRecalculation_forDiscountedModificationGroup() {
+        DiscountedModificationGroup discountedGroup = new DiscountedModificationGroup(listOfModifications3, "Discounted");
+        Assertions.assertEquals(discountedGroup.calculateTotalCostOfEveryModificationUnderThisGroup(), discountedGroup.getCost());
+
+        discountedGroup.addModifications(Set.of(mod1, mod2));
+        discountedGroup.removeModification(mod9);
+
+        long undiscountedCost = mod10.getTotalModificationCost() + mod11.getTotalModificationCost() + mod12.getTotalModificationCost()
+                + mod1.getTotalModificationCost() + mod2.getTotalModificationCost();
+        Assertions.assertEquals((long) (undiscountedCost * 0.9), discountedGroup.getCost());
+        Assertions.assertEquals(discountedGroup.calculateTotalCostOfEveryModificationUnderThisGroup(), discountedGroup.getCost());
+        Assertions.assertEquals(mod10.getPriorityValue() + mod11.getPriorityValue() + mod12.getPriorityValue()
+                + mod1.getPriorityValue() + mod2.getPriorityValue(), discountedGroup.getPriorityValue());
+    }
+
+    @Test
+    void constructor_seedsSubtreeTotalsThroughTheAdjustHooks() {
+        DiscountedModificationGroup discountedGroup = new DiscountedModificationGroup(listOfModifications3, "Discounted");
+        long undiscountedCost = listOfModifications3.stream().mapToLong(Modification::getTotalModificationCost).sum();
+        Assertions.assertEquals((long) (undiscountedCost * 0.9), discountedGroup.getSubtreeCost());
+        Assertions.assertEquals(discountedGroup.getCost(), discountedGroup.getSubtreeCost());
+        Assertions.assertEquals((long) discountedGroup.getPriorityValue(), discountedGroup.getSubtreePriorityValue());
+
+        ModificationGroup feeGroup = new ModificationGroup(listOfModifications3, "Fee") {
+            @Override
+            protected long adjustTotalCost(long totalCostOfModifications) {
+                return totalCostOfModifications + 100;
+            }
+        };
+        Assertions.assertEquals(undiscountedCost + 100, feeGroup.getSubtreeCost());
+        feeGroup.removeModification(mod9);
+        Assertions.assertEquals(feeGroup.getCost(), feeGroup.getSubtreeCost());
+        Assertions.assertEquals(100, new ModificationGroup(Set.of(), "Empty") {
+            @Override
+            protected long adjustTotalCost(long totalCostOfModifications) {
+                return totalCostOfModifications + 100;
+            }
+        }.getSubtreeCost());
+    }
 }
@@ -0,0 +1,156 @@
+package com.simon.simontree.model;
+
+import com.simon.simontree.enums.TreeLogic;
+import com.simon.simontree.enums.TypeOfModification;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class MultiIndexModificationTreeTest {
+    MultiIndexModificationTree multiIndexTree;
+
+    private Modification mod1, mod2, mod3;
+    private ModificationGroup mg1, mg2, mg3, mg4;
+
+    @BeforeEach
+    void setup() {
+        mod1 = new Modification("Test1", 10, 2324, TypeOfModification.ADD);
+        mod2 = new Modification("Something", 20, 33253, TypeOfModification.MODIFY);
+        mod3 = new Modification("Hiring", 30, 1, TypeOfModification.REMOVE);
+
+        mg1 = new ModificationGroup(Set.of(mod1), "Global modifications");
+        mg2 = new ModificationGroup(Set.of(mod2), "Europe");
+        mg3 = new ModificationGroup(Set.of(mod3), "Hungary");
+        mg4 = new ModificationGroup(Collections.emptySet(), "Office");
+
+        multiIndexTree = new MultiIndexModificationTree();
+        multiIndexTree.insert(mg1);
+        multiIndexTree.insert(mg2);
+        multiIndexTree.insert(mg3);
+        multiIndexTree.insert(mg4);
+    }
+
+    @Test
+    void insert_shouldOrderEveryIndex() {
+        Assertions.assertEquals(List.of(mg2, mg1, mg3, mg4), multiIndexTree.getModificationGroupsInOrder(TreeLogic.NAME));
+        Assertions.assertEquals(sortedBy(Comparator.comparing(ModificationGroup::getPriorityValue)), multiIndexTree.getModificationGroupsInOrder(TreeLogic.PRIORITY));
+        Assertions.assertEquals(sortedBy(Comparator.comparing(ModificationGroup::getCost)), multiIndexTree.getModificationGroupsInOrder(TreeLogic.TOTAL_COST));
+        Assertions.assertEquals(List.of(mg4, mg3), multiIndexTree.getLastModificationGroups(TreeLogic.NAME, 2));
+        Assertions.assertEquals(List.of(mg2), multiIndexTree.getFirstModificationGroups(TreeLogic.NAME, 1));
+        Assertions.assertEquals(4, multiIndexTree.getTotalNumberOfElements());
+        Assertions.assertThrows(IllegalStateException.class, () -> multiIndexTree.insert(mg3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> multiIndexTree.getFirstModificationGroups(TreeLogic.NAME, -1));
+    }
+
+    @Test
+    void removeModificationGroup_shouldRemoveFromEveryIndex() {
+        Assertions.assertTrue(multiIndexTree.removeModificationGroup(mg1));
+        Assertions.assertFalse(multiIndexTree.removeModificationGroup(mg1));
+        Assertions.assertFalse(multiIndexTree.containsModificationGroup(mg1));
+        for (TreeLogic treeLogic : TreeLogic.values()) {
+            Assertions.assertFalse(multiIndexTree.getModificationGroupsInOrder(treeLogic).contains(mg1));
+            Assertions.assertEquals(3, multiIndexTree.getModificationGroupsInReverseOrder(treeLogic).size());
+        }
+    }
+
+    @Test
+    void calculatedValuesChanged_shouldRekeyNumericIndexes() {
+        mg4.addModifications(Set.of(new Modification("Expensive", 1000, 1_000_000, TypeOfModification.ADD)));
+
+        Assertions.assertEquals(List.of(mg4), multiIndexTree.getLastModificationGroups(TreeLogic.PRIORITY, 1));
+        Assertions.assertEquals(List.of(mg4), multiIndexTree.getLastModificationGroups(TreeLogic.TOTAL_COST, 1));
+        Assertions.assertEquals(List.of(mg2, mg1, mg3, mg4), multiIndexTree.getModificationGroupsInOrder(TreeLogic.NAME));
+
+        multiIndexTree.removeModificationGroup(mg4);
+        mg4.addModifications(Set.of(new Modification("Ignored", 1, 1, TypeOfModification.ADD)));
+        Assertions.assertFalse(multiIndexTree.containsModificationGroup(mg4));
+    }
+
+    @Test
+    void modificationViews_shouldBeFilledThroughTheOneListenerOfEachGroup_andGroupViewsShouldBeLive() {
+        SortedModificationViews modificationViews = new SortedModificationViews();
+        MultiIndexModificationTree viewedTree = new MultiIndexModificationTree(modificationViews);
+        viewedTree.insert(mg1);
+        viewedTree.insert(mg3);
+        Collection<ModificationGroup> byPriorityDescending = viewedTree.getModificationGroups(TreeLogic.PRIORITY, true);
+
+        Assertions.assertEquals(List.of(mod3, mod1), new ArrayList<>(modificationViews.getModificationsByName(false)));
+        Assertions.assertEquals(List.of(mg3, mg1), new ArrayList<>(byPriorityDescending));
+        Assertions.assertEquals(2, mg1.modificationGroupListeners.size());
+
+        Modification urgent = new Modification("Audit", 100, 5, TypeOfModification.ADD);
+        mg1.addModifications(Set.of(urgent));
+        Assertions.assertEquals(List.of(urgent, mod3, mod1), new ArrayList<>(modificationViews.getModificationsByName(false)));
+        Assertions.assertEquals(List.of(mg1, mg3), new ArrayList<>(byPriorityDescending));
+
+        Assertions.assertTrue(viewedTree.removeModificationGroup(mg3));
+        Assertions.assertEquals(List.of(urgent, mod1), new ArrayList<>(modificationViews.getModificationsByName(false)));
+        Assertions.assertEquals(List.of(mg1), new ArrayList<>(byPriorityDescending));
+        Assertions.assertEquals(1, byPriorityDescending.size());
+        Assertions.assertEquals(1, mg3.modificationGroupListeners.size());
+    }
+
+    @Test
+    void insert_whileCalculatedValuesChange_leavesNoStaleKey() throws InterruptedException {
+        MultiIndexModificationTree racingTree = new MultiIndexModificationTree();
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            groups.add(new ModificationGroup(Set.of(new Modification("Mod" + i, 10, 10, TypeOfModification.ADD)), "Group" + i));
+        }
+        Thread inserter = new Thread(() -> groups.forEach(racingTree::insert));
+        Thread changer = new Thread(() -> {
+            for (int i = groups.size() - 1; i >= 0; i--) {
+                groups.get(i).addModifications(Set.of(new Modification("Change" + i, i, i, TypeOfModification.MODIFY)));
+            }
+        });
+        inserter.start();
+        changer.start();
+        inserter.join();
+        changer.join();
+
+        Comparator<ModificationGroup> byId = Comparator.comparing(ModificationGroup::getModificationGroupId);
+        List<ModificationGroup> expected = new ArrayList<>(groups);
+        expected.sort(Comparator.comparing(ModificationGroup::getPriorityValue).thenComparing(byId));
+        Assertions.assertEquals(expected, racingTree.getModificationGroupsInOrder(TreeLogic.PRIORITY));
+        expected.sort(Comparator.comparing(ModificationGroup::getCost).thenComparing(byId));
+        Assertions.assertEquals(expected, racingTree.getModificationGroupsInOrder(TreeLogic.TOTAL_COST));
+    }
+
+    @Test
+    void insertAndRemove_matchSortedModel_withEqualKeys() {
+        MultiIndexModificationTree randomTree = new MultiIndexModificationTree();
+        List<ModificationGroup> model = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            if (model.isEmpty() || random.nextInt(3) != 0) {
+                ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod" + i, random.nextInt(50), random.nextInt(50), TypeOfModification.ADD)), "Group" + random.nextInt(100));
+                randomTree.insert(group);
+                model.add(group);
+            } else {
+                Assertions.assertTrue(randomTree.removeModificationGroup(model.remove(random.nextInt(model.size()))));
+            }
+        }
+
+        Comparator<ModificationGroup> byId = Comparator.comparing(ModificationGroup::getModificationGroupId);
+        model.sort(Comparator.comparing(ModificationGroup::getName).thenComparing(byId));
+        Assertions.assertEquals(model, randomTree.getModificationGroupsInOrder(TreeLogic.NAME));
+        model.sort(Comparator.comparing(ModificationGroup::getCost).thenComparing(byId));
+        Assertions.assertEquals(model, randomTree.getModificationGroupsInOrder(TreeLogic.TOTAL_COST));
+        model.sort(Comparator.comparing(ModificationGroup::getPriorityValue).thenComparing(byId));
+        Assertions.assertEquals(model, randomTree.getModificationGroupsInOrder(TreeLogic.PRIORITY));
+    }
+
+    private List<ModificationGroup> sortedBy(Comparator<ModificationGroup> comparator) {
+        List<ModificationGroup> groups = new ArrayList<>(List.of(mg1, mg2, mg3, mg4));
+        groups.sort(comparator.thenComparing(ModificationGroup::getModificationGroupId));
+        return groups;
+    }
+}
@@ -0,0 +1,275 @@
+package com.simon.simontree.model;
+
+import com.simon.simontree.enums.DuplicateKeys;
+import com.simon.simontree.enums.TreeLogic;
+import com.simon.simontree.enums.TypeOfModification;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+public class PersistentModificationBinaryTreeTest {
+    PersistentModificationBinaryTree persistentTree;
+
+    private Modification mod1, mod2, mod3;
+    private ModificationGroup mg1, mg2, mg3, mg4;
+
+    @BeforeEach
+    void setup() {
+        mod1 = new Modification("Test1", 10, 2324, TypeOfModification.ADD);
+        mod2 = new Modification("Something", 20, 33253, TypeOfModification.MODIFY);
+        mod3 = new Modification("Hiring", 30, 1, TypeOfModification.REMOVE);
+
+        mg1 = new ModificationGroup(Set.of(mod1), "Global modifications");
+        mg2 = new ModificationGroup(Set.of(mod2), "Europe");
+        mg3 = new ModificationGroup(Set.of(mod3), "Hungary");
+        mg4 = new ModificationGroup(Collections.emptySet(), "Office");
+
+        persistentTree = new PersistentModificationBinaryTree(TreeLogic.NAME);
+        persistentTree.insert(mg1);
+        persistentTree.insert(mg2);
+        persistentTree.insert(mg3);
+        persistentTree.insert(mg4);
+    }
+
+    @Test
+    void insert_shouldKeepSortedOrderAndBalance() {
+        Assertions.assertEquals(List.of(mg2, mg1, mg3, mg4), persistentTree.getAllModificationGroups());
+        Assertions.assertEquals(4, persistentTree.getTotalNumberOfElements());
+        Assertions.assertEquals(3, persistentTree.getTotalNumberOfLevels());
+        Assertions.assertEquals("Global modifications / Hungary / Office", persistentTree.getTreePath(mg4));
+        Assertions.assertEquals(2, persistentTree.getLevelNumberOfModificationGroup(mg4));
+        Assertions.assertEquals(Set.of(mg2, mg3), persistentTree.getListOfModificationGroupsOnGivenLevel(mg1, 1));
+        Assertions.assertEquals(Set.of(mg1, mg2, mg3), persistentTree.getSetOfModificationGroupsUpUntilGivenLevel(mg1, 1));
+    }
+
+    @Test
+    void insert_throwsException_whenInsertingDuplicates() {
+        Assertions.assertThrows(IllegalStateException.class, () -> persistentTree.insert(mg3));
+        Assertions.assertThrows(IllegalStateException.class, () -> persistentTree.insert(new ModificationGroup(Collections.emptySet(), "Europe")));
+    }
+
+    @Test
+    void searchMethods_shouldFindGroupsAndModifications() {
+        Assertions.assertSame(mg3, persistentTree.searchNodesForModificationGroup(mg3).getModificationGroup());
+        Assertions.assertEquals(1, persistentTree.searchNodesForModificationGroup(mg3).getLevel());
+        Assertions.assertSame(mg2, persistentTree.searchNodesForModifications(mod2).getModificationGroup());
+        Assertions.assertEquals(mod3, persistentTree.findModificationOnGivenLevelById(mod3.getModificationId(), 1));
+        Assertions.assertEquals(Set.of(mod3), persistentTree.getModificationsOfGivenModificationGroupAndItsChildren(mg3));
+        Assertions.assertEquals(Set.of(mod1, mod2, mod3), persistentTree.getModificationsOfGivenModificationGroupAndItsChildren(mg1));
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> persistentTree.searchNodesForModificationGroup(new ModificationGroup(Collections.emptySet(), "Missing")));
+    }
+
+    @Test
+    void snapshot_shouldNotSeeLaterWrites() {
+        PersistentModificationBinaryTree snapshot = persistentTree.snapshot();
+
+        ModificationGroup added = new ModificationGroup(Collections.emptySet(), "Budapest");
+        persistentTree.insert(added);
+        Assertions.assertTrue(persistentTree.removeModificationGroup(mg1));
+
+        Assertions.assertTrue(snapshot.isSnapshot());
+        Assertions.assertEquals(List.of(mg2, mg1, mg3, mg4), snapshot.getAllModificationGroups());
+        Assertions.assertEquals("Global modifications / Hungary / Office", snapshot.getTreePath(mg4));
+        Assertions.assertFalse(snapshot.containsModificationGroup(added));
+        Assertions.assertEquals(List.of(added, mg2, mg3, mg4), persistentTree.getAllModificationGroups());
+        Assertions.assertFalse(persistentTree.containsModificationGroup(mg1));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.insert(added));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.removeModificationGroup(mg2));
+    }
+
+    @Test
+    void insert_shouldStoreSortingKey_whenGroupChangesLater() {
+        PersistentModificationBinaryTree priorityTree = new PersistentModificationBinaryTree(TreeLogic.PRIORITY);
+        priorityTree.insert(mg1);
+        priorityTree.insert(mg2);
+        priorityTree.insert(mg3);
+
+        mg1.addModifications(Set.of(new Modification("Extra", 100, 1, TypeOfModification.ADD)));
+
+        Assertions.assertEquals(List.of(mg1, mg2, mg3), priorityTree.getAllModificationGroups());
+        Assertions.assertEquals(1, priorityTree.getLevelNumberOfModificationGroup(mg1));
+        Assertions.assertTrue(priorityTree.removeModificationGroup(mg1));
+        Assertions.assertEquals(List.of(mg2, mg3), priorityTree.getAllModificationGroups());
+    }
+
+    @Test
+    void rankSelectAndPercentile_shouldUseSubtreeSizes() {
+        Assertions.assertEquals(0, persistentTree.rank(mg2));
+        Assertions.assertEquals(3, persistentTree.rank(mg4));
+        Assertions.assertSame(mg3, persistentTree.select(2));
+        Assertions.assertSame(mg1, persistentTree.percentile(50));
+        Assertions.assertSame(mg4, persistentTree.percentile(95));
+
+        PersistentModificationBinaryTree snapshot = persistentTree.snapshot();
+        persistentTree.removeModificationGroup(mg2);
+        Assertions.assertEquals(0, persistentTree.rank(mg1));
+        Assertions.assertEquals(1, snapshot.rank(mg1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> persistentTree.select(3));
+    }
+
+    @Test
+    void rangeQueries_shouldIterateTheVersionOfTheirCreation() {
+        Assertions.assertSame(mg1, persistentTree.floor("Global modifications"));
+        Assertions.assertSame(mg3, persistentTree.ceiling("H"));
+        Assertions.assertNull(persistentTree.ceiling("Z"));
+        Assertions.assertEquals(List.of(mg1, mg3), persistentTree.getModificationGroupsInRange("F", true, "Office", false));
+        Assertions.assertEquals(List.of(mg3, mg4), persistentTree.getModificationGroupsAfter("Hungary", true));
+
+        Iterator<ModificationGroup> iterator = persistentTree.rangeIterator("Europe", false, null, false);
+        persistentTree.removeModificationGroup(mg3);
+        Assertions.assertSame(mg1, iterator.next());
+        Assertions.assertSame(mg3, iterator.next());
+        Assertions.assertSame(mg4, iterator.next());
+        Assertions.assertFalse(iterator.hasNext());
+        Assertions.assertEquals(List.of(mg1, mg4), persistentTree.getModificationGroupsAfter("Europe", false));
+    }
+
+    @Test
+    void aggregateRange_shouldUseValuesStoredAtInsertion() {
+        PersistentModificationBinaryTree priorityTree = new PersistentModificationBinaryTree(TreeLogic.PRIORITY);
+        priorityTree.insert(mg1);
+        priorityTree.insert(mg2);
+        priorityTree.insert(mg3);
+
+        RangeAggregate aggregate = priorityTree.aggregateRange(10, true, 20, true);
+        Assertions.assertEquals(2, aggregate.getCount());
+        Assertions.assertEquals(mg1.getCost() + mg2.getCost(), aggregate.getTotalCost());
+        Assertions.assertEquals(20, aggregate.getMaxPriorityValue());
+
+        long storedCost = mg1.getCost();
+        mg1.addModifications(Set.of(new Modification("Extra", 1, 1000, TypeOfModification.ADD)));
+        Assertions.assertEquals(storedCost + mg2.getCost(), priorityTree.aggregateRange(10, true, 20, true).getTotalCost());
+        Assertions.assertEquals(0, priorityTree.aggregateRange(21, true, 29, true).getCount());
+        Assertions.assertNull(priorityTree.aggregateRange(21, true, 29, true).getMaxCost());
+    }
+
+    @Test
+    void insertAll_shouldPublishOneBalancedVersion() {
+        PersistentModificationBinaryTree bulkTree = new PersistentModificationBinaryTree(TreeLogic.PRIORITY, DuplicateKeys.ALLOW);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 1023; i++) {
+            groups.add(new ModificationGroup(Set.of(new Modification("Mod" + i, i % 100, i, TypeOfModification.ADD)), "Group" + i));
+        }
+        bulkTree.insertAll(groups);
+        PersistentModificationBinaryTree snapshot = bulkTree.snapshot();
+
+        Assertions.assertEquals(1023, bulkTree.getTotalNumberOfElements());
+        Assertions.assertEquals(10, bulkTree.getTotalNumberOfLevels());
+        Assertions.assertThrows(IllegalStateException.class, () -> bulkTree.insertAll(List.of(mg1, groups.get(5))));
+        Assertions.assertFalse(bulkTree.containsModificationGroup(mg1));
+
+        bulkTree.insertAll(List.of(mg1, mg2));
+        Assertions.assertEquals(1025, bulkTree.getTotalNumberOfElements());
+        Assertions.assertEquals(1023, snapshot.getTotalNumberOfElements());
+        groups.addAll(List.of(mg1, mg2));
+        groups.sort(Comparator.comparing(ModificationGroup::getPriorityValue).thenComparing(ModificationGroup::getModificationGroupId));
+        Assertions.assertEquals(groups, bulkTree.getAllModificationGroups());
+    }
+
+    @Test
+    void removeIfAndRemoveRange_shouldPublishOneBalancedVersion_andKeepSnapshots() {
+        PersistentModificationBinaryTree bulkTree = new PersistentModificationBinaryTree(TreeLogic.PRIORITY, DuplicateKeys.ALLOW);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            groups.add(new ModificationGroup(Set.of(new Modification("Mod" + i, i % 100, i, TypeOfModification.ADD)), "Group" + i));
+        }
+        bulkTree.insertAll(groups);
+        PersistentModificationBinaryTree snapshot = bulkTree.snapshot();
+
+        Assertions.assertEquals(500, bulkTree.removeIf(group -> group.getCost() % 2 == 1).size());
+        Assertions.assertEquals(100, bulkTree.removeRange(0, true, 20, false).size());
+        Assertions.assertTrue(bulkTree.removeAll(List.of(mg1)).isEmpty());
+
+        Assertions.assertEquals(400, bulkTree.getTotalNumberOfElements());
+        Assertions.assertEquals(9, bulkTree.getTotalNumberOfLevels());
+        Assertions.assertEquals(1000, snapshot.getTotalNumberOfElements());
+        List<ModificationGroup> expected = groups.stream()
+                .filter(group -> group.getCost() % 2 == 0 && 20 <= group.getPriorityValue())
+                .sorted(Comparator.comparing(ModificationGroup::getPriorityValue).thenComparing(ModificationGroup::getModificationGroupId))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(expected, bulkTree.getAllModificationGroups());
+        Assertions.assertEquals(-1, bulkTree.getLevelNumberOfModificationGroup(groups.get(1)));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.removeIf(group -> true));
+    }
+
+    @Test
+    void removeAllAndRemoveRange_ofFewGroups_shouldCopyOnlyTheirPaths() {
+        PersistentModificationBinaryTree bulkTree = new PersistentModificationBinaryTree(TreeLogic.TOTAL_COST);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 1023; i++) {
+            groups.add(new ModificationGroup(Set.of(new Modification("Mod" + i, 1, i, TypeOfModification.ADD)), "Group" + i));
+        }
+        bulkTree.insertAll(groups);
+        PersistentModificationBinaryTree snapshot = bulkTree.snapshot();
+
+        Assertions.assertEquals(List.of(groups.get(3), groups.get(700)), bulkTree.removeAll(List.of(groups.get(700), groups.get(3), mg1)));
+        Assertions.assertEquals(List.of(groups.get(511)), bulkTree.removeRange(511, true, 512, false));
+
+        List<ModificationGroup> survivors = new ArrayList<>(groups);
+        survivors.removeAll(List.of(groups.get(3), groups.get(511), groups.get(700)));
+        Assertions.assertEquals(survivors, bulkTree.getAllModificationGroups());
+        Assertions.assertEquals(1023, snapshot.getTotalNumberOfElements());
+        long movedGroups = survivors.stream()
+                .filter(group -> bulkTree.getLevelNumberOfModificationGroup(group) != snapshot.getLevelNumberOfModificationGroup(group))
+                .count();
+        Assertions.assertTrue(movedGroups < 40, "Only the Nodes near the copied paths may move, moved: " + movedGroups);
+        for (int i = 0; i < survivors.size(); i++) {
+            Assertions.assertEquals(i, bulkTree.rank(survivors.get(i)));
+        }
+        Assertions.assertTrue(bulkTree.getTotalNumberOfLevels() <= 10);
+    }
+
+    @Test
+    void stream_shouldSplitTheVersionByRank_andIgnoreLaterWrites() {
+        PersistentModificationBinaryTree bulkTree = new PersistentModificationBinaryTree(TreeLogic.PRIORITY, DuplicateKeys.ALLOW);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            groups.add(new ModificationGroup(Set.of(new Modification("Mod" + i, i % 37, i, TypeOfModification.ADD)), "Group" + i));
+        }
+        bulkTree.insertAll(groups);
+        List<ModificationGroup> expected = new ArrayList<>(bulkTree.getAllModificationGroups());
+
+        Spliterator<ModificationGroup> spliterator = bulkTree.spliterator();
+        bulkTree.removeIf(group -> group.getPriorityValue() < 10);
+        Assertions.assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.ORDERED));
+        Assertions.assertFalse(spliterator.hasCharacteristics(Spliterator.SORTED));
+        Assertions.assertEquals(expected, StreamSupport.stream(spliterator, true).collect(Collectors.toList()));
+
+        Assertions.assertEquals(bulkTree.getAllModificationGroups(), bulkTree.parallelStream().collect(Collectors.toList()));
+        Assertions.assertEquals(bulkTree.getTotalNumberOfElements(), bulkTree.modificationStream(false).count());
+    }
+
+    @Test
+    void insertAndRemove_withAllowedDuplicateKeys_matchSortedModel() {
+        PersistentModificationBinaryTree multisetTree = new PersistentModificationBinaryTree(TreeLogic.PRIORITY, DuplicateKeys.ALLOW);
+        List<ModificationGroup> model = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            if (model.isEmpty() || random.nextInt(3) != 0) {
+                ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod" + i, random.nextInt(50), i, TypeOfModification.ADD)), "Group" + i);
+                multisetTree.insert(group);
+                model.add(group);
+            } else {
+                ModificationGroup group = model.remove(random.nextInt(model.size()));
+                Assertions.assertTrue(multisetTree.removeModificationGroup(group));
+            }
+        }
+
+        model.sort(Comparator.comparing(ModificationGroup::getPriorityValue).thenComparing(ModificationGroup::getModificationGroupId));
+        Assertions.assertEquals(model, multisetTree.getAllModificationGroups());
+        Assertions.assertTrue(multisetTree.getTotalNumberOfLevels() <= 1.45 * (Math.log(model.size() + 2) / Math.log(2)));
+    }
+}
@@ -0,0 +1,253 @@
+package com.simon.simontree.model;
+
+import com.simon.simontree.api.ModificationBinaryTreeOperations;
+import com.simon.simontree.enums.DuplicateKeys;
+import com.simon.simontree.enums.TreeEngine;
+import com.simon.simontree.enums.TreeLogic;
+import com.simon.simontree.enums.TypeOfModification;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SkipListModificationTreeTest {
+    SkipListModificationTree skipListTree;
+
+    private Modification mod1, mod2, mod3;
+    private ModificationGroup mg1, mg2, mg3, mg4;
+
+    @BeforeEach
+    void setup() {
+        mod1 = new Modification("Test1", 10, 2324, TypeOfModification.ADD);
+        mod2 = new Modification("Something", 20, 33253, TypeOfModification.MODIFY);
+        mod3 = new Modification("Hiring", 30, 1, TypeOfModification.REMOVE);
+
+        mg1 = new ModificationGroup(Set.of(mod1), "Global modifications");
+        mg2 = new ModificationGroup(Set.of(mod2), "Europe");
+        mg3 = new ModificationGroup(Set.of(mod3), "Hungary");
+        mg4 = new ModificationGroup(Collections.emptySet(), "Office");
+
+        skipListTree = new SkipListModificationTree(TreeLogic.NAME);
+        skipListTree.insert(mg1);
+        skipListTree.insert(mg2);
+        skipListTree.insert(mg3);
+        skipListTree.insert(mg4);
+    }
+
+    @Test
+    void insert_shouldKeepSortedOrder() {
+        Assertions.assertEquals(List.of(mg2, mg1, mg3, mg4), skipListTree.getAllModificationGroups());
+        Assertions.assertEquals(4, skipListTree.getTotalNumberOfElements().get());
+        Assertions.assertTrue(skipListTree.getTotalNumberOfLevels() >= 0);
+        Assertions.assertTrue(skipListTree.getTreePath(mg4).endsWith("Office"));
+        Assertions.assertEquals(Set.of(mg1, mg2, mg3, mg4),
+                skipListTree.getSetOfModificationGroupsUpUntilGivenLevel(mg1, Math.max(0, skipListTree.getTotalNumberOfLevels() - 1)));
+        Assertions.assertTrue(skipListTree.getModificationsOfGivenModificationGroupAndItsChildren(mg1).contains(mod1));
+        Assertions.assertTrue(skipListTree.getModificationsOfGivenModificationGroupAndItsChildren(mg3).contains(mod3));
+    }
+
+    @Test
+    void insert_throwsException_whenInsertingDuplicates() {
+        Assertions.assertThrows(IllegalStateException.class, () -> skipListTree.insert(mg3));
+        Assertions.assertThrows(IllegalStateException.class, () -> skipListTree.insert(new ModificationGroup(Collections.emptySet(), "Europe")));
+        Assertions.assertEquals(4, skipListTree.getTotalNumberOfElements().get());
+    }
+
+    @Test
+    void searchMethods_shouldFindGroupsAndModifications() {
+        Assertions.assertSame(mg3, skipListTree.searchNodesForModificationGroup(mg3).getModificationGroup());
+        Assertions.assertSame(mg2, skipListTree.searchNodesForModifications(mod2).getModificationGroup());
+        int level = skipListTree.getLevelNumberOfModificationGroup(mg3);
+        Assertions.assertEquals(level, skipListTree.searchNodesForModificationGroup(mg3).getLevel());
+        Assertions.assertTrue(skipListTree.getListOfModificationGroupsOnGivenLevel(mg1, level).contains(mg3));
+        Assertions.assertEquals(mod3, skipListTree.findModificationOnGivenLevelById(mod3.getModificationId(), level));
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> skipListTree.searchNodesForModificationGroup(new ModificationGroup(Collections.emptySet(), "Missing")));
+    }
+
+    @Test
+    void removeModificationGroup_shouldUnlinkFromAllLanes() {
+        Assertions.assertTrue(skipListTree.removeModificationGroup(mg1));
+        Assertions.assertFalse(skipListTree.removeModificationGroup(mg1));
+        Assertions.assertEquals(List.of(mg2, mg3, mg4), skipListTree.getAllModificationGroups());
+        Assertions.assertEquals(-1, skipListTree.getLevelNumberOfModificationGroup(mg1));
+        skipListTree.insert(new ModificationGroup(Collections.emptySet(), "Global modifications"));
+    }
+
+    @Test
+    void concurrentInsertAndRemove_withAllowedDuplicateKeys_matchSortedModel() throws Exception {
+        SkipListModificationTree multisetTree = new SkipListModificationTree(TreeLogic.PRIORITY, DuplicateKeys.ALLOW);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<ModificationGroup>>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread;
+            futures.add(executor.submit(() -> {
+                List<ModificationGroup> kept = new ArrayList<>();
+                for (int i = 0; i < 500; i++) {
+                    ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod" + offset + i, i % 50, i, TypeOfModification.ADD)), "Group" + offset + "-" + i);
+                    multisetTree.insert(group);
+                    if (i % 3 == 0) {
+                        Assertions.assertTrue(multisetTree.removeModificationGroup(group));
+                    } else {
+                        kept.add(group);
+                    }
+                }
+                return kept;
+            }));
+        }
+        List<ModificationGroup> model = new ArrayList<>();
+        for (Future<List<ModificationGroup>> future : futures) {
+            model.addAll(future.get());
+        }
+        executor.shutdown();
+
+        model.sort(Comparator.comparing(ModificationGroup::getPriorityValue).thenComparing(ModificationGroup::getModificationGroupId));
+        Assertions.assertEquals(model, multisetTree.getAllModificationGroups());
+        Assertions.assertEquals(model.size(), multisetTree.getTotalNumberOfElements().get());
+    }
+
+    @Test
+    void insert_fromConcurrentWritersOnDisjointKeyRanges_keepsEveryLaneSorted() throws Exception {
+        ModificationBinaryTreeOperations operations = new ModificationBinaryTreeOperations(TreeEngine.SKIP_LIST, TreeLogic.PRIORITY);
+        SkipListModificationTree concurrentTree = (SkipListModificationTree) operations.getCustomModificationBinaryTree();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<ModificationGroup>>> futures = new ArrayList<>();
+        for (int w = 0; w < 8; w++) {
+            int rangeStart = w * 1000;
+            futures.add(executor.submit(() -> {
+                List<ModificationGroup> inserted = new ArrayList<>();
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod", rangeStart + i, 1, TypeOfModification.ADD)), "Group");
+                    concurrentTree.insert(group);
+                    inserted.add(group);
+                }
+                return inserted;
+            }));
+        }
+        start.countDown();
+        List<ModificationGroup> model = new ArrayList<>();
+        for (Future<List<ModificationGroup>> future : futures) {
+            model.addAll(future.get());
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(model, concurrentTree.getAllModificationGroups());
+        Assertions.assertEquals(8000, concurrentTree.getTotalNumberOfElements().get());
+        Assertions.assertEquals(model, operations.sortModificationGroupByPriorityValueAscending());
+        for (int rank = 0; rank < model.size(); rank += 997) {
+            Assertions.assertSame(model.get(rank), concurrentTree.select(rank));
+            Assertions.assertTrue(concurrentTree.getLevelNumberOfModificationGroup(model.get(rank)) >= 0);
+        }
+    }
+
+    @Test
+    void racingInsertAndRemove_ofTheSameGroup_leaveNoOrphanedEntryOrKeyClaim() throws Exception {
+        SkipListModificationTree racedTree = new SkipListModificationTree(TreeLogic.PRIORITY);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 500; i++) {
+                ModificationGroup group = new ModificationGroup(Set.of(new Modification("Mod" + i, i, 1, TypeOfModification.ADD)), "Group" + i);
+                Future<?> insert = executor.submit(() -> racedTree.insert(group));
+                Future<Boolean> remove = executor.submit(() -> racedTree.removeModificationGroup(group));
+                insert.get();
+                remove.get();
+                racedTree.removeModificationGroup(group);
+
+                Assertions.assertEquals(List.of(), racedTree.getAllModificationGroups());
+                Assertions.assertEquals(0, racedTree.getTotalNumberOfElements().get());
+                racedTree.insert(group);
+                Assertions.assertTrue(racedTree.removeModificationGroup(group));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void changedPriorityValue_shouldReKeyTheEntry_andReleaseTheOldKey() {
+        SkipListModificationTree priorityTree = new SkipListModificationTree(TreeLogic.PRIORITY);
+        priorityTree.insert(mg1);
+        priorityTree.insert(mg2);
+        priorityTree.insert(mg3);
+
+        mg1.addModifications(Set.of(new Modification("Urgent", 100, 1, TypeOfModification.ADD)));
+        Assertions.assertEquals(List.of(mg2, mg3, mg1), priorityTree.getAllModificationGroups());
+        Assertions.assertSame(mg1, priorityTree.ceiling(31));
+        Assertions.assertEquals(3, priorityTree.getTotalNumberOfElements().get());
+
+        priorityTree.insert(new ModificationGroup(Set.of(new Modification("Reused key", 10, 1, TypeOfModification.ADD)), "Reused"));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> priorityTree.insert(new ModificationGroup(Set.of(new Modification("Taken key", 110, 1, TypeOfModification.ADD)), "Taken")));
+        Assertions.assertTrue(priorityTree.removeModificationGroup(mg1));
+        mod2.resolved();
+        Assertions.assertEquals(0, mg2.getPriorityValue());
+        Assertions.assertSame(mg2, priorityTree.getAllModificationGroups().get(0));
+    }
+
+    @Test
+    void rankSelectAndPercentile_shouldFollowSortedOrder() {
+        Assertions.assertEquals(1, skipListTree.rank(mg1));
+        Assertions.assertSame(mg3, skipListTree.select(2));
+        Assertions.assertSame(mg4, skipListTree.percentile(100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> skipListTree.select(4));
+    }
+
+    @Test
+    void rangeQueries_shouldUseLaneZeroViews() {
+        Assertions.assertSame(mg1, skipListTree.floor("Global modifications"));
+        Assertions.assertSame(mg3, skipListTree.ceiling("H"));
+        Assertions.assertNull(skipListTree.floor("A"));
+        Assertions.assertEquals(List.of(mg1, mg3), skipListTree.getModificationGroupsInRange("Europe", false, "Office", false));
+        Assertions.assertEquals(List.of(mg2, mg1), skipListTree.getModificationGroupsBefore("Global modifications", true));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> skipListTree.getModificationGroupsInRange("Z", true, "A", true));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> skipListTree.ceiling(5));
+    }
+
+    @Test
+    void spliterator_shouldSplitTheBottomLane_andMatchSortedOrder() {
+        SkipListModificationTree tree = new SkipListModificationTree(TreeLogic.TOTAL_COST);
+        for (int i = 0; i < 2000; i++) {
+            tree.insert(new ModificationGroup(Set.of(new Modification("m" + i, (i * 389) % 2000, (i * 389) % 2000, TypeOfModification.ADD)), "group" + i));
+        }
+        List<ModificationGroup> sorted = tree.getAllModificationGroups();
+
+        Spliterator<ModificationGroup> spliterator = tree.spliterator();
+        Assertions.assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.CONCURRENT));
+        Assertions.assertFalse(spliterator.hasCharacteristics(Spliterator.SORTED));
+        Spliterator<ModificationGroup> prefix = spliterator.trySplit();
+        Assertions.assertNotNull(prefix);
+        List<ModificationGroup> joined = new ArrayList<>();
+        prefix.forEachRemaining(joined::add);
+        Assertions.assertFalse(joined.isEmpty());
+        Assertions.assertTrue(spliterator.tryAdvance(joined::add));
+        spliterator.forEachRemaining(joined::add);
+        Assertions.assertEquals(sorted, joined);
+
+        Assertions.assertEquals(sorted, tree.parallelStream().toList());
+    }
+
+    @Test
+    void operations_shouldDelegateToSelectedEngine() {
+        for (TreeEngine engine : TreeEngine.values()) {
+            ModificationBinaryTreeOperations operations = new ModificationBinaryTreeOperations(engine, TreeLogic.NAME);
+            operations.insert(mg1);
+            operations.insert(mg2);
+            Assertions.assertEquals(Set.of(mg1, mg2), Set.copyOf(operations.getAllModificationGroups()));
+            Assertions.assertTrue(operations.removeModificationGroup(mg2));
+            Assertions.assertSame(mg1, operations.getRoot().getModificationGroup());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.simon.simontree.model;
+
+import com.simon.simontree.api.ModificationBinaryTreeOperations;
+import com.simon.simontree.enums.TreeEngine;
+import com.simon.simontree.enums.TreeLogic;
+import com.simon.simontree.enums.TypeOfModification;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class SortedModificationViewsTest {
+    SortedModificationViews sortedViews;
+
+    private Modification mod1, mod2, mod3;
+    private ModificationGroup mg1, mg2, mg3, mg4;
+
+    @BeforeEach
+    void setup() {
+        mod1 = new Modification("Test1", 10, 2324, TypeOfModification.ADD);
+        mod2 = new Modification("Something", 20, 33253, TypeOfModification.MODIFY);
+        mod3 = new Modification("Hiring", 30, 1, TypeOfModification.REMOVE);
+
+        mg1 = new ModificationGroup(Set.of(mod1), "Global modifications");
+        mg2 = new ModificationGroup(Set.of(mod2), "Europe");
+        mg3 = new ModificationGroup(Set.of(mod3), "Hungary");
+        mg4 = new ModificationGroup(Collections.emptySet(), "Office");
+
+        sortedViews = new SortedModificationViews();
+        for (ModificationGroup modificationGroup : List.of(mg1, mg2, mg3, mg4)) {
+            sortedViews.add(modificationGroup);
+        }
+    }
+
+    @Test
+    void views_shouldBeSorted_andFollowAddedAndResolvedModifications() {
+        Collection<Modification> byName = sortedViews.getModificationsByName(false);
+
+        Assertions.assertEquals(List.of(mod3, mod2, mod1), new ArrayList<>(byName));
+        Assertions.assertEquals(List.of(mod3, mod2, mod1), new ArrayList<>(sortedViews.getModificationsByPriorityValue(true)));
+        Assertions.assertEquals(List.of(mod3, mod1, mod2), new ArrayList<>(sortedViews.getModifications(TreeLogic.TOTAL_COST, false)));
+
+        Modification urgent = new Modification("Audit", 100, 5, TypeOfModification.ADD);
+        mg4.addModifications(Set.of(urgent));
+        mod3.resolved();
+
+        Assertions.assertEquals(List.of(urgent, mod2, mod1), new ArrayList<>(byName));
+        Assertions.assertEquals(3, byName.size());
+        Assertions.assertEquals(List.of(urgent, mod2, mod1), new ArrayList<>(sortedViews.getModificationsByPriorityValue(true)));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> byName.add(mod3));
+    }
+
+    @Test
+    void remove_shouldKeepSharedModificationsUntilTheirLastGroupIsRemoved() {
+        ModificationGroup shared = new ModificationGroup(Set.of(mod1, mod2), "Shared");
+        sortedViews.add(shared);
+        sortedViews.add(shared);
+
+        Assertions.assertEquals(3, sortedViews.getModificationsByName(false).size());
+
+        Assertions.assertTrue(sortedViews.remove(mg1));
+        Assertions.assertFalse(sortedViews.remove(mg1));
+        Assertions.assertEquals(List.of(mod3, mod2, mod1), new ArrayList<>(sortedViews.getModificationsByName(false)));
+
+        Assertions.assertTrue(sortedViews.remove(shared));
+        Assertions.assertEquals(List.of(mod3, mod2), new ArrayList<>(sortedViews.getModificationsByName(false)));
+
+        mg1.addModifications(Set.of(new Modification("Ignored", 1, 1, TypeOfModification.ADD)));
+        Assertions.assertEquals(2, sortedViews.getModificationsByName(false).size());
+    }
+
+    @Test
+    void operations_shouldServeSortedListsFromTheViews() {
+        ModificationBinaryTree tree = new ModificationBinaryTree(TreeLogic.NAME);
+        tree.insert(mg1);
+        ModificationBinaryTreeOperations operations = new ModificationBinaryTreeOperations(tree);
+        operations.insertAll(List.of(mg2, mg3, mg4));
+        Collection<ModificationGroup> byName = operations.getModificationGroupsSortedByName(false);
+
+        Assertions.assertEquals(List.of(mg2, mg1, mg3, mg4), operations.sortModificationGroupByNameAscending());
+        Assertions.assertEquals(List.of(mod1, mod2, mod3), operations.sortModificationByPriorityValueAscending());
+
+        operations.removeRange("Europe", true, "Global modifications", true);
+        Assertions.assertEquals(List.of(mg3, mg4), new ArrayList<>(byName));
+        Assertions.assertEquals(List.of(mod3), operations.sortModificationsByNameAscending());
+
+        ModificationBinaryTreeOperations skipListOperations = new ModificationBinaryTreeOperations(TreeEngine.SKIP_LIST, TreeLogic.PRIORITY);
+        skipListOperations.insert(mg1);
+        Assertions.assertEquals(List.of(mg1), skipListOperations.sortModificationGroupByPriorityValueDescending());
+    }
+
+    @ParameterizedTest
+    @EnumSource(TreeEngine.class)
+    void operations_shouldFollowWritesDoneOnTheEngineDirectly_andUnregisterFromRemovedGroups(TreeEngine engine) {
+        List.of(mg1, mg2, mg3, mg4).forEach(sortedViews::remove);
+        ModificationBinaryTreeOperations operations = new ModificationBinaryTreeOperations(engine, TreeLogic.NAME);
+        operations.insert(mg1);
+        operations.getCustomModificationBinaryTree().insertAll(List.of(mg2, mg3));
+        operations.getCustomModificationBinaryTree().insert(mg4);
+
+        Assertions.assertEquals(List.of(mg2, mg1, mg3, mg4), operations.sortModificationGroupByNameAscending());
+        Assertions.assertEquals(List.of(mod1, mod2, mod3), operations.sortModificationByPriorityValueAscending());
+
+        operations.getCustomModificationBinaryTree().removeIf(group -> group == mg2 || group == mg3);
+        Assertions.assertEquals(List.of(mg1, mg4), new ArrayList<>(operations.getModificationGroupsSortedByName(false)));
+        Assertions.assertEquals(List.of(mod1), operations.sortModificationsByNameAscending());
+        Assertions.assertTrue(mg2.modificationGroupListeners.isEmpty());
+        Assertions.assertEquals(1, mg1.modificationGroupListeners.stream()
+                .map(listener -> listener.getClass().getEnclosingClass())
+                .filter(owner -> owner == MultiIndexModificationTree.class || owner == SortedModificationViews.class)
+                .count());
+        mg2.addModifications(Set.of(new Modification("Ignored", 1, 1, TypeOfModification.ADD)));
+        Assertions.assertEquals(List.of(mod1), operations.sortModificationsByNameAscending());
+    }
+
+    @Test
+    void views_shouldMatchTheGroups_afterModificationsAreAddedAndResolvedConcurrently() throws InterruptedException {
+        List<Modification> modifications = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            modifications.add(new Modification("Racing" + i, i, i, TypeOfModification.ADD));
+        }
+        Thread adder = new Thread(() -> modifications.forEach(modification -> mg4.addModifications(Set.of(modification))));
+        Thread resolver = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                mg4.removeModification(modifications.get(i % modifications.size()));
+            }
+        });
+        adder.start();
+        resolver.start();
+        adder.join();
+        resolver.join();
+
+        Set<Modification> expected = new HashSet<>(Set.of(mod1, mod2, mod3));
+        expected.addAll(mg4.getModifications());
+        Assertions.assertEquals(expected, Set.copyOf(sortedViews.getModificationsByName(false)));
+        Assertions.assertEquals(expected.size(), sortedViews.getModificationsByName(false).size());
+    }
+
+    @Test
+    void topAndBottomK_shouldMatchFullSort_afterCostChanges() {
+        ModificationBinaryTreeOperations operations = new ModificationBinaryTreeOperations(TreeEngine.BINARY_TREE, TreeLogic.NAME);
+        Random random = new Random(7);
+        List<ModificationGroup> groups = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            groups.add(new ModificationGroup(Set.of(new Modification("Mod" + i, random.nextInt(50), random.nextInt(1000), TypeOfModification.ADD)), "Group" + i));
+        }
+        operations.insertAll(groups);
+        for (int i = 0; i < 50; i++) {
+            groups.get(random.nextInt(groups.size())).addModifications(Set.of(new Modification("Extra" + i, random.nextInt(50), random.nextInt(1000), TypeOfModification.MODIFY)));
+        }
+
+        Comparator<ModificationGroup> byCost = Comparator.comparing(ModificationGroup::getCost).thenComparing(ModificationGroup::getModificationGroupId);
+        Assertions.assertEquals(groups.stream().sorted(byCost.reversed()).limit(10).collect(Collectors.toList()),
+                operations.getTopModificationGroups(TreeLogic.TOTAL_COST, 10));
+        Assertions.assertEquals(groups.stream().sorted(byCost).limit(10).collect(Collectors.toList()),
+                operations.getBottomModificationGroups(TreeLogic.TOTAL_COST, 10));
+
+        Comparator<Modification> byPriority = Comparator.comparing(Modification::getPriorityValue).thenComparing(Modification::getModificationId);
+        List<Modification> allModifications = new ArrayList<>(operations.getSetOfAllModifications());
+        Assertions.assertEquals(allModifications.stream().sorted(byPriority.reversed()).limit(20).collect(Collectors.toList()),
+                operations.getTopModifications(TreeLogic.PRIORITY, 20));
+        Assertions.assertEquals(allModifications.size(), operations.getBottomModifications(TreeLogic.NAME, 1000).size());
+        Assertions.assertTrue(operations.getTopModificationGroups(TreeLogic.NAME, 0).isEmpty());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> operations.getTopModifications(TreeLogic.NAME, -1));
+    }
+}
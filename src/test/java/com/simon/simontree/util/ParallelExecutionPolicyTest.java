@@ -0,0 +1,96 @@
+package com.simon.simontree.util;
+
+import com.simon.simontree.enums.TypeOfModification;
+import com.simon.simontree.model.Modification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ParallelExecutionPolicyTest {
+    private ForkJoinPool dedicatedPool;
+
+    @BeforeEach
+    void setup() {
+        dedicatedPool = new ForkJoinPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dedicatedPool.shutdownNow();
+    }
+
+    @Test
+    void execute_shouldRunBigInputsInTheDedicatedPool_andSmallInputsOnTheCaller() {
+        ParallelExecutionPolicy policy = new ParallelExecutionPolicy(dedicatedPool, 100);
+        List<Integer> big = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        List<Integer> small = big.subList(0, 100);
+
+        Set<ForkJoinPool> bigPools = policy.execute(big, stream -> stream.map(i -> ForkJoinTask.getPool()).collect(Collectors.toSet()));
+        Set<ForkJoinPool> smallPools = policy.execute(small, stream -> stream.map(i -> ForkJoinTask.getPool()).collect(Collectors.toCollection(HashSet::new)));
+
+        Assertions.assertEquals(Set.of(dedicatedPool), bigPools);
+        Assertions.assertEquals(Collections.singleton(null), smallPools);
+        long sum = policy.execute(big, stream -> stream.mapToLong(Integer::longValue).sum());
+        Assertions.assertEquals(49_995_000L, sum);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelExecutionPolicy(dedicatedPool, 0));
+    }
+
+    @Test
+    void execute_fromAWorkerOfThePool_shouldRunInThatPool_withoutSubmittingAnotherTask() {
+        ParallelExecutionPolicy policy = new ParallelExecutionPolicy(dedicatedPool, 100);
+        List<Integer> big = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+
+        List<Set<ForkJoinPool>> nested = dedicatedPool.submit(() -> IntStream.range(0, 8).parallel()
+                .mapToObj(i -> policy.execute(big, stream -> stream.map(element -> ForkJoinTask.getPool()).collect(Collectors.toSet())))
+                .collect(Collectors.toList())).join();
+
+        nested.forEach(pools -> Assertions.assertEquals(Set.of(dedicatedPool), pools));
+    }
+
+    @Test
+    void calibrate_shouldScaleThresholdWithCostPerElementAndWorkers() {
+        ForkJoinPool singleWorkerPool = new ForkJoinPool(1);
+        try {
+            Assertions.assertEquals(Integer.MAX_VALUE, ParallelExecutionPolicy.calibrate(singleWorkerPool, 1000).getParallelThreshold());
+            Assertions.assertFalse(ParallelExecutionPolicy.calibrate(singleWorkerPool, 1000).shouldUseParallel(1_000_000));
+        } finally {
+            singleWorkerPool.shutdownNow();
+        }
+
+        Assertions.assertEquals(4, ParallelExecutionPolicy.calibrate(dedicatedPool, 1e12).getParallelThreshold());
+        Assertions.assertTrue(ParallelExecutionPolicy.calibrate(dedicatedPool, 0.001).getParallelThreshold() > ParallelExecutionPolicy.DEFAULT_PARALLEL_THRESHOLD);
+        Assertions.assertTrue(ParallelExecutionPolicy.calibrate(dedicatedPool, List.of(1, 2, 3), i -> {
+        }).getParallelThreshold() >= 4);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ParallelExecutionPolicy.calibrate(dedicatedPool, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ParallelExecutionPolicy.calibrate(dedicatedPool, List.of(), i -> {
+        }));
+    }
+
+    @Test
+    void helperMethods_shouldSortWithTheirOwnPolicy() {
+        HelperMethods helperMethods = HelperMethods.withParallelExecutionPolicy(new ParallelExecutionPolicy(dedicatedPool, 10));
+        Set<Modification> modifications = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            modifications.add(new Modification("Mod" + (i * 37 % 50), i, i, TypeOfModification.ADD));
+        }
+
+        List<Modification> expected = new ArrayList<>(modifications);
+        expected.sort(Comparator.comparing(Modification::getName).reversed());
+        Assertions.assertTrue(helperMethods.shouldUseParallel(modifications));
+        Assertions.assertFalse(HelperMethods.getInstance().shouldUseParallel(modifications));
+        Assertions.assertEquals(expected, helperMethods.sortByNameDescending(modifications));
+        Assertions.assertThrows(NullPointerException.class, () -> HelperMethods.withParallelExecutionPolicy(null));
+    }
+}